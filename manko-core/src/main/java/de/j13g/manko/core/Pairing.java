@@ -0,0 +1,55 @@
+package de.j13g.manko.core;
+
+import de.j13g.manko.util.UniformPair;
+
+import java.io.Serializable;
+
+/**
+ * A pairing between two entrants.
+ * Pairings should be created with a {@link PairingFactory},
+ * so that equal pairings of a round are the same instance.
+ * @param <E> The entrant type.
+ */
+public class Pairing<E> extends UniformPair<E> implements Serializable {
+
+    /**
+     * The cached order-independent hash code or 0 if not computed yet.
+     * Not serialized since the hash codes of entrants might differ between runs.
+     */
+    private transient int hash;
+
+    /**
+     * Creates a pairing between two entrants.
+     * @param first The first entrant.
+     * @param second The second entrant.
+     */
+    public Pairing(E first, E second) {
+        super(first, second);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Pairing<?>))
+            return false;
+
+        Pairing<?> other = (Pairing<?>) o;
+        if (hashCode() != other.hashCode())
+            return false;
+
+        return first.equals(other.first)
+            ? second.equals(other.second)
+            : first.equals(other.second) && second.equals(other.first);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            // a + b == b + a
+            h = first.hashCode() + second.hashCode();
+            hash = h;
+        }
+        return h;
+    }
+}
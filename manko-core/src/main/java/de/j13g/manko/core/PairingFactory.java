@@ -0,0 +1,122 @@
+package de.j13g.manko.core;
+
+import de.j13g.manko.core.diagnostics.MemoryReport;
+import de.j13g.manko.core.diagnostics.MemoryReportable;
+
+import java.io.Serializable;
+import java.util.HashMap;
+
+/**
+ * Creates pairings and interns them, so that there is only
+ * a single instance for each pair of entrants.
+ * Comparing interned pairings only requires a reference comparison.
+ * Lookups are done by entrant and do not allocate.
+ * Rounds remove pairings that are neither active nor finished anymore,
+ * so the factory does not grow with pairings that were taken back.
+ * @param <E> The entrant type.
+ */
+public class PairingFactory<E> implements MemoryReportable, Serializable {
+
+    /**
+     * Interned pairings, indexed by their first and then their second entrant.
+     */
+    private final HashMap<E, HashMap<E, Pairing<E>>> pairings = new HashMap<>();
+
+    /**
+     * Returns the pairing between two entrants.
+     * The order of the entrants only matters for newly created pairings.
+     * @param first The first entrant.
+     * @param second The second entrant.
+     * @return The interned pairing.
+     */
+    public Pairing<E> create(E first, E second) {
+        Pairing<E> pairing = find(first, second);
+        if (pairing != null)
+            return pairing;
+
+        pairing = new Pairing<>(first, second);
+        put(pairing);
+        return pairing;
+    }
+
+    /**
+     * Interns a pairing again, e.g. when a removed pairing is restored.
+     * @param pairing The pairing.
+     * @return The interned pairing, which is the given one unless an equal pairing is already interned.
+     */
+    public Pairing<E> intern(Pairing<E> pairing) {
+        Pairing<E> interned = find(pairing.getFirst(), pairing.getSecond());
+        if (interned != null)
+            return interned;
+
+        put(pairing);
+        return pairing;
+    }
+
+    /**
+     * Removes the interned pairing between the entrants of a pairing.
+     * @param pairing The pairing.
+     * @return If such a pairing was interned.
+     */
+    public boolean remove(Pairing<E> pairing) {
+        return removeOrdered(pairing.getFirst(), pairing.getSecond())
+                || removeOrdered(pairing.getSecond(), pairing.getFirst());
+    }
+
+    /**
+     * Returns the interned instance of an equal pairing,
+     * or the pairing itself if it was not created by this factory.
+     * @param pairing The pairing.
+     * @return An equal pairing.
+     */
+    public Pairing<E> canonical(Pairing<E> pairing) {
+        Pairing<E> interned = find(pairing.getFirst(), pairing.getSecond());
+        return interned != null ? interned : pairing;
+    }
+
+    /**
+     * Finds the pairing between two entrants in either order.
+     * @param first The first entrant.
+     * @param second The second entrant.
+     * @return The interned pairing or null.
+     */
+    public Pairing<E> find(E first, E second) {
+        Pairing<E> pairing = findOrdered(first, second);
+        return pairing != null ? pairing : findOrdered(second, first);
+    }
+
+    /**
+     * @return The number of interned pairings.
+     */
+    public int size() {
+        int size = 0;
+        for (HashMap<E, Pairing<E>> pairingsOfEntrant : pairings.values())
+            size += pairingsOfEntrant.size();
+        return size;
+    }
+
+    @Override
+    public void reportMemory(MemoryReport report) {
+        report.add("index", pairings.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("pairings", size(), MemoryReport.PAIRING_BYTES + MemoryReport.HASH_ENTRY_BYTES);
+    }
+
+    private void put(Pairing<E> pairing) {
+        pairings.computeIfAbsent(pairing.getFirst(), e -> new HashMap<>(2)).put(pairing.getSecond(), pairing);
+    }
+
+    private boolean removeOrdered(E first, E second) {
+        HashMap<E, Pairing<E>> pairingsOfFirst = pairings.get(first);
+        if (pairingsOfFirst == null || pairingsOfFirst.remove(second) == null)
+            return false;
+
+        if (pairingsOfFirst.isEmpty())
+            pairings.remove(first);
+        return true;
+    }
+
+    private Pairing<E> findOrdered(E first, E second) {
+        HashMap<E, Pairing<E>> pairingsOfFirst = pairings.get(first);
+        return pairingsOfFirst != null ? pairingsOfFirst.get(second) : null;
+    }
+}
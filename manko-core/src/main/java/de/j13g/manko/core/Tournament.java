@@ -0,0 +1,729 @@
+package de.j13g.manko.core;
+
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.base.RoundManager;
+import de.j13g.manko.core.base.TournamentFormat;
+import de.j13g.manko.core.base.TournamentListener;
+import de.j13g.manko.core.base.UndoableRound;
+import de.j13g.manko.core.diagnostics.MemoryReport;
+import de.j13g.manko.core.diagnostics.MemoryReportable;
+import de.j13g.manko.core.exceptions.*;
+import de.j13g.manko.core.managers.SeriesManager;
+import de.j13g.manko.core.rounds.DynamicElimination;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class Tournament<E> implements RoundManager<E>, MemoryReportable, Serializable {
+
+    /** The number of changes that can be undone. */
+    private static final int HISTORY_SIZE = 64;
+
+    private final TournamentFormat<E> format;
+
+    /** Rounds before the current round, in the order they were played. */
+    private final ArrayList<Round<E>> previousRounds = new ArrayList<>();
+    private Round<E> currentRound;
+
+    /** The number of games of each pairing, e.g. 3 for best of three. */
+    private int bestOf = 1;
+
+    /** The games of series in the current round. */
+    private SeriesManager<E> series = new SeriesManager<>();
+    /** The games of series in previous rounds, in the order of the rounds. */
+    private final ArrayList<SeriesManager<E>> previousSeries = new ArrayList<>();
+
+    /** If the next round is started as soon as the current round is finished. */
+    private boolean isAutoAdvancing = false;
+
+    /**
+     * The next round, created as soon as the current round is finished,
+     * so that continuing only swaps rounds. Discarded with any change of the current round.
+     */
+    private transient Round<E> precomputedRound;
+
+    /** The entrant that most recently advanced without a pairing, kept across an automatic advance. */
+    private transient E lastByeEntrant;
+
+    private transient ArrayList<TournamentListener<E>> listeners;
+
+    /** Changes that can be undone, the most recent last. Not serialized with the tournament. */
+    private transient ArrayDeque<Change> undoHistory;
+    private transient ArrayDeque<Change> redoHistory;
+    private transient boolean isReverting = false;
+    private transient boolean isHistoryDisabled = false;
+
+    public Tournament(TournamentFormat<E> format) {
+        currentRound = format.createInitialRound();
+        this.format = format;
+    }
+
+    @Override
+    public Round<E> getCurrentRound() {
+        return currentRound;
+    }
+
+    public TournamentFormat<E> getFormat() {
+        return format;
+    }
+
+    /**
+     * @return All rounds of this tournament in the order they were played, including the current round.
+     */
+    public List<Round<E>> getRounds() {
+        List<Round<E>> rounds = new ArrayList<>(previousRounds);
+        rounds.add(currentRound);
+        return Collections.unmodifiableList(rounds);
+    }
+
+    /**
+     * @return The number of the current round, starting at 1.
+     */
+    public int getRoundNumber() {
+        return previousRounds.size() + 1;
+    }
+
+    @Override
+    public void nextRound() throws RoundNotFinishedException, FinalRoundException {
+
+        // We don't want to modify the history too early
+        // because createNextRound might throw an exception.
+
+        Round<E> nextRound = precomputedRound != null ? precomputedRound : format.createNextRound(currentRound);
+        previousRounds.add(currentRound);
+        currentRound = nextRound;
+        previousSeries.add(series);
+        series = new SeriesManager<>();
+        precomputeNextRound();
+
+        for (TournamentListener<E> listener : getListeners())
+            listener.onRoundChanged(currentRound, getRoundNumber());
+
+        // Redo keeps the round instead of creating it again, so random decisions are not repeated differently.
+        record(this::dropCurrentRound, () -> pushRound(nextRound));
+    }
+
+    @Override
+    public void previousRound() throws AlreadyStartedException, InitialRoundException {
+        if (previousRounds.isEmpty())
+            throw new InitialRoundException();
+        if (currentRound.getActivePairings().size() > 0 || currentRound.getFinishedPairings().size() > 0)
+            throw new AlreadyStartedException();
+
+        Round<E> droppedRound = currentRound;
+        currentRound = previousRounds.remove(previousRounds.size() - 1);
+        series = previousSeries.remove(previousSeries.size() - 1);
+        precomputeNextRound();
+
+        for (TournamentListener<E> listener : getListeners())
+            listener.onRoundChanged(currentRound, getRoundNumber());
+
+        record(() -> pushRound(droppedRound), this::dropCurrentRound);
+    }
+
+    public int getBestOf() {
+        return bestOf;
+    }
+
+    /**
+     * Changes the number of games of each pairing. Applies to series that are already running.
+     * The number must be odd, since an even split of the games would never decide a pairing.
+     * @param bestOf The number of games, e.g. 3 for best of three, or 1 for single games.
+     */
+    public void setBestOf(int bestOf) {
+        if (bestOf < 1 || bestOf / 2 + 1 > SeriesManager.MAX_WINS)
+            throw new IllegalArgumentException("Invalid number of games");
+        if (bestOf % 2 == 0)
+            throw new IllegalArgumentException("The number of games must be odd");
+        this.bestOf = bestOf;
+    }
+
+    /**
+     * @return The number of games an entrant has to win to win their pairing.
+     */
+    public int getGamesToWin() {
+        return bestOf / 2 + 1;
+    }
+
+    /**
+     * @param pairing A pairing of the current round.
+     * @param entrant An entrant of the pairing.
+     * @return The number of games the entrant has won in the series of the pairing.
+     */
+    public int getGameWins(Pairing<E> pairing, E entrant) {
+        return series.getWins(pairing, entrant);
+    }
+
+    public boolean isAutoAdvancing() {
+        return isAutoAdvancing;
+    }
+
+    /**
+     * @param isAutoAdvancing If the next round is started as soon as the current round is finished,
+     * e.g. with the last result. Reverting a change never starts the next round.
+     */
+    public void setAutoAdvancing(boolean isAutoAdvancing) {
+        this.isAutoAdvancing = isAutoAdvancing;
+    }
+
+    /**
+     * Creates the next round again. Must be called after a change of the format
+     * that affects how the next round is created.
+     */
+    public void invalidateNextRound() {
+        precomputeNextRound();
+    }
+
+    /**
+     * @return If there is a change that can be undone.
+     */
+    public boolean canUndo() {
+        return !getUndoHistory().isEmpty();
+    }
+
+    /**
+     * @return If there is an undone change that can be applied again.
+     */
+    public boolean canRedo() {
+        return !getRedoHistory().isEmpty();
+    }
+
+    /**
+     * Reverts the most recent change of this tournament by its inverse operation.
+     * Listeners are notified about the inverse operation.
+     * Only a reset is reverted by restoring the discarded state of the entrant,
+     * which listeners are notified about as a restored round.
+     * @throws NothingToUndoException There is no change that can be undone.
+     */
+    public void undo() throws NothingToUndoException {
+        Change change = getUndoHistory().pollLast();
+        if (change == null)
+            throw new NothingToUndoException();
+
+        revert(change.undo);
+        getRedoHistory().addLast(change);
+    }
+
+    /**
+     * Applies the most recently undone change again.
+     * Any other change of the tournament discards all undone changes.
+     * @throws NothingToRedoException There is no undone change.
+     */
+    public void redo() throws NothingToRedoException {
+        Change change = getRedoHistory().pollLast();
+        if (change == null)
+            throw new NothingToRedoException();
+
+        revert(change.redo);
+        getUndoHistory().addLast(change);
+    }
+
+    /**
+     * Changes are recorded by default. Disabling the history avoids keeping the state discarded by resets,
+     * e.g. when changes are made in bulk and never need to be undone.
+     * @param isEnabled If changes are recorded.
+     */
+    public void setHistoryEnabled(boolean isEnabled) {
+        isHistoryDisabled = !isEnabled;
+        if (isHistoryDisabled)
+            clearHistory();
+    }
+
+    public void clearHistory() {
+        getUndoHistory().clear();
+        getRedoHistory().clear();
+    }
+
+    /**
+     * Adds a listener that is notified about changes of this tournament.
+     * Listeners are not serialized with the tournament.
+     * @param listener The listener.
+     */
+    public void addListener(TournamentListener<E> listener) {
+        getListeners().add(listener);
+    }
+
+    public void removeListener(TournamentListener<E> listener) {
+        getListeners().remove(listener);
+    }
+
+    @Override
+    public void reportMemory(MemoryReport report) {
+        report.report("currentRound", currentRound);
+        report.report("series", series);
+        if (precomputedRound != null)
+            report.report("precomputedRound", precomputedRound);
+        for (int i = 0; i < previousRounds.size(); ++i)
+            report.report("previousRounds[" + i + "]", previousRounds.get(i));
+    }
+
+    @Override
+    public boolean addEntrant(E entrant) {
+        boolean isAdded = currentRound.addEntrant(entrant);
+
+        if (isAdded) {
+            for (TournamentListener<E> listener : getListeners())
+                listener.onEntrantAdded(currentRound, entrant);
+
+            record(() -> removeEntrant(entrant), () -> addEntrant(entrant));
+            precomputeNextRound();
+        }
+
+        return isAdded;
+    }
+
+    @Override
+    public boolean removeEntrant(E entrant) {
+        // Removing a paired entrant takes back its pairing, which adding it again does not revert.
+        Pairing<E> activePairing = currentRound.getPairedEntrants().contains(entrant)
+                ? currentRound.getLastPairing(entrant) : null;
+
+        boolean isRemoved = currentRound.removeEntrant(entrant);
+
+        if (isRemoved) {
+            for (TournamentListener<E> listener : getListeners())
+                listener.onEntrantRemoved(currentRound, entrant);
+
+            if (activePairing == null)
+                record(() -> addEntrant(entrant), () -> removeEntrant(entrant));
+            else
+                record(then(() -> addEntrant(entrant), then(() -> pair(activePairing), keepSeries(activePairing))),
+                        () -> removeEntrant(entrant));
+
+            // Removing the last pending entrant can finish the round.
+            advanceIfFinished();
+        }
+
+        return isRemoved;
+    }
+
+    @Override
+    public boolean resetEntrant(E entrant) {
+        Runnable restoreEntrant = getUndoableRound().resetEntrantRevertibly(entrant);
+        boolean isReset = restoreEntrant != null;
+
+        if (isReset) {
+            for (TournamentListener<E> listener : getListeners())
+                listener.onEntrantReset(currentRound, entrant);
+
+            record(() -> restoreEntrant(restoreEntrant), () -> resetEntrant(entrant));
+            precomputeNextRound();
+        }
+
+        return isReset;
+    }
+
+    @Override
+    public Pairing<E> nextPairing()
+            throws NoEntrantsException, NoOpponentException, UnfinishedPairingsException, NoMorePairingsException {
+
+        Pairing<E> pairing = currentRound.nextPairing();
+        if (pairing == null) {
+            // Only eliminations with a bye policy advance an entrant instead of pairing it.
+            if (!(currentRound instanceof DynamicElimination))
+                throw new NoMorePairingsException();
+
+            E entrant = ((DynamicElimination<E>) currentRound).getLastByeEntrant();
+            lastByeEntrant = entrant;
+
+            for (TournamentListener<E> listener : getListeners())
+                listener.onBye(currentRound, entrant);
+
+            record(() -> resetEntrant(entrant), () -> advanceBye(entrant));
+            advanceIfFinished();
+            return null;
+        }
+
+        // A new pairing starts its series from the beginning.
+        Action restoreSeries = keepSeries(pairing);
+        series.remove(pairing);
+
+        for (TournamentListener<E> listener : getListeners())
+            listener.onPairing(currentRound, pairing);
+
+        record(then(() -> unpair(pairing), restoreSeries), () -> pair(pairing));
+        precomputeNextRound();
+        return pairing;
+    }
+
+    /**
+     * Carries out a specific pairing instead of the next one, e.g. to restore a pairing that was chosen earlier.
+     * @param pairing The pairing.
+     * @throws NoSuchEntrantException An entrant cannot be paired.
+     * @throws NoSuchPairingException The pairing cannot be carried out.
+     * @throws UnsupportedOperationException The current round does not support specific pairings.
+     */
+    public void pair(Pairing<E> pairing) throws NoSuchEntrantException, NoSuchPairingException {
+        getUndoableRound().pair(pairing);
+
+        Action restoreSeries = keepSeries(pairing);
+        series.remove(pairing);
+
+        for (TournamentListener<E> listener : getListeners())
+            listener.onPairing(currentRound, pairing);
+
+        record(then(() -> unpair(pairing), restoreSeries), () -> pair(pairing));
+        precomputeNextRound();
+    }
+
+    /**
+     * Advances a pending entrant without a pairing, e.g. to restore a bye that was applied earlier.
+     * @param entrant The entrant.
+     * @throws NoSuchEntrantException The entrant is not pending.
+     * @throws UnsupportedOperationException The current round does not advance entrants without a pairing.
+     */
+    public void advanceBye(E entrant) throws NoSuchEntrantException {
+        if (!(currentRound instanceof DynamicElimination))
+            throw new UnsupportedOperationException("The current round does not support byes");
+
+        ((DynamicElimination<E>) currentRound).advanceBye(entrant);
+        lastByeEntrant = entrant;
+
+        for (TournamentListener<E> listener : getListeners())
+            listener.onBye(currentRound, entrant);
+
+        record(() -> resetEntrant(entrant), () -> advanceBye(entrant));
+        advanceIfFinished();
+    }
+
+    /**
+     * @return The entrant that most recently advanced without a pairing, e.g. when nextPairing returned null,
+     * or null if no entrant advanced that way since the tournament was loaded.
+     */
+    public E getLastByeEntrant() {
+        return lastByeEntrant;
+    }
+
+    /**
+     * Takes back an active pairing without a result, so its entrants can be paired again.
+     * @param pairing The active pairing.
+     * @throws NoSuchPairingException The pairing is not active.
+     * @throws UnsupportedOperationException The current round does not support taking back pairings.
+     */
+    public void unpair(Pairing<E> pairing) throws NoSuchPairingException {
+        getUndoableRound().unpair(pairing);
+
+        for (TournamentListener<E> listener : getListeners())
+            listener.onUnpairing(currentRound, pairing);
+
+        record(() -> pair(pairing), () -> unpair(pairing));
+        precomputeNextRound();
+    }
+
+    @Override
+    public boolean replayPairing(Pairing<E> pairing)
+            throws NoSuchPairingException, MissingEntrantException, OrphanedPairingException {
+
+        E winningEntrant = currentRound.getPairings().getWinner(pairing);
+        boolean isReplayed = currentRound.replayPairing(pairing);
+
+        if (isReplayed) {
+            // The replayed pairing starts its series from the beginning.
+            Action restoreSeries = keepSeries(pairing);
+            series.remove(pairing);
+
+            for (TournamentListener<E> listener : getListeners())
+                listener.onReplay(currentRound, pairing);
+
+            Action declareResult = winningEntrant != null
+                    ? () -> declareWinner(winningEntrant, pairing)
+                    : () -> declareTie(pairing);
+
+            record(then(declareResult, restoreSeries), () -> replayPairing(pairing));
+            precomputeNextRound();
+        }
+
+        return isReplayed;
+    }
+
+    @Override
+    public void declareWinner(E winningEntrant, Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException {
+
+        currentRound.declareWinner(winningEntrant, pairing);
+
+        for (TournamentListener<E> listener : getListeners())
+            listener.onWinner(currentRound, winningEntrant, pairing);
+
+        record(then(() -> replayPairing(pairing), keepSeries(pairing)), () -> declareWinner(winningEntrant, pairing));
+        advanceIfFinished();
+    }
+
+    @Override
+    public Pairing<E> declareWinner(E winningEntrant)
+            throws NoSuchEntrantException, MissingPairingException {
+
+        Pairing<E> pairing = currentRound.declareWinner(winningEntrant);
+
+        for (TournamentListener<E> listener : getListeners())
+            listener.onWinner(currentRound, winningEntrant, pairing);
+
+        record(then(() -> replayPairing(pairing), keepSeries(pairing)), () -> declareWinner(winningEntrant, pairing));
+        advanceIfFinished();
+        return pairing;
+    }
+
+    @Override
+    public void declareTie(Pairing<E> pairing)
+            throws NoSuchPairingException {
+
+        currentRound.declareTie(pairing);
+
+        for (TournamentListener<E> listener : getListeners())
+            listener.onTie(currentRound, pairing);
+
+        record(then(() -> replayPairing(pairing), keepSeries(pairing)), () -> declareTie(pairing));
+        advanceIfFinished();
+    }
+
+    /**
+     * Declares the winner of a single game in the series of an active pairing.
+     * Once an entrant has won more than half of the games, they are declared winner of the pairing.
+     * @param winningEntrant The entrant that won the game.
+     * @param pairing The active pairing.
+     * @return If the game decided the pairing.
+     * @throws NoSuchEntrantException The entrant is not part of the pairing.
+     * @throws NoSuchPairingException The pairing is not active.
+     */
+    public boolean declareGameWinner(E winningEntrant, Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException {
+
+        if (!pairing.contains(winningEntrant))
+            throw new NoSuchEntrantException();
+        if (!currentRound.getActivePairings().contains(pairing))
+            throw new NoSuchPairingException();
+
+        int wins = series.getWins(pairing, winningEntrant) + 1;
+        boolean isDecided = wins >= getGamesToWin();
+        if (isDecided)
+            currentRound.declareWinner(winningEntrant, pairing);
+
+        series.addGame(pairing, winningEntrant);
+
+        for (TournamentListener<E> listener : getListeners())
+            listener.onGame(currentRound, winningEntrant, pairing, wins);
+
+        if (isDecided)
+            for (TournamentListener<E> listener : getListeners())
+                listener.onWinner(currentRound, winningEntrant, pairing);
+
+        record(() -> replayGame(winningEntrant, pairing), () -> declareGameWinner(winningEntrant, pairing));
+
+        if (isDecided)
+            advanceIfFinished();
+
+        return isDecided;
+    }
+
+    /**
+     * Declares an entrant winner of a single game in the series of their active pairing.
+     * @see Tournament#declareGameWinner(Object, Pairing)
+     * @param winningEntrant The entrant that won the game.
+     * @return The pairing of the entrant.
+     * @throws NoSuchEntrantException The entrant is not part of the round.
+     * @throws MissingPairingException The entrant is not part of any active pairing.
+     */
+    public Pairing<E> declareGameWinner(E winningEntrant) throws NoSuchEntrantException, MissingPairingException {
+        if (!currentRound.hasEntrant(winningEntrant))
+            throw new NoSuchEntrantException();
+
+        Pairing<E> pairing = currentRound.getLastPairing(winningEntrant);
+        if (pairing == null || !currentRound.getActivePairings().contains(pairing))
+            throw new MissingPairingException();
+
+        declareGameWinner(winningEntrant, pairing);
+        return pairing;
+    }
+
+    /**
+     * Takes back a single game of a series, e.g. one that was entered by mistake.
+     * If the game decided the pairing, the pairing is active again.
+     * @param winningEntrant The entrant that won the game.
+     * @param pairing The pairing.
+     * @return If the game had decided the pairing.
+     * @throws NoSuchPairingException The entrant has not won a game in this series
+     * or the pairing was decided by another result.
+     * @throws MissingEntrantException An entrant is not part of the round anymore.
+     * @throws OrphanedPairingException The pairing is orphaned and cannot be replayed.
+     */
+    public boolean replayGame(E winningEntrant, Pairing<E> pairing)
+            throws NoSuchPairingException, MissingEntrantException, OrphanedPairingException {
+
+        int wins = series.getWins(pairing, winningEntrant);
+        if (wins == 0)
+            throw new NoSuchPairingException();
+
+        boolean wasDecided = !currentRound.getActivePairings().contains(pairing);
+        if (wasDecided) {
+            if (wins < getGamesToWin() || !currentRound.getFinishedPairings().contains(pairing))
+                throw new NoSuchPairingException();
+            currentRound.replayPairing(pairing);
+        }
+
+        series.removeGame(pairing, winningEntrant);
+
+        for (TournamentListener<E> listener : getListeners())
+            listener.onGameReplay(currentRound, winningEntrant, pairing);
+
+        record(() -> declareGameWinner(winningEntrant, pairing), () -> replayGame(winningEntrant, pairing));
+
+        if (wasDecided)
+            precomputeNextRound();
+
+        return wasDecided;
+    }
+
+    /**
+     * Starts the next round if the current round is finished and the tournament advances automatically.
+     * Otherwise the next round is only created ahead of time.
+     */
+    private void advanceIfFinished() {
+        precomputeNextRound();
+        if (!isAutoAdvancing || isReverting || precomputedRound == null)
+            return;
+
+        try {
+            nextRound();
+        }
+        catch (RoundNotFinishedException | FinalRoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Replaces the precomputed next round after a change of the current round.
+     * The next round can only be created once the current round is finished.
+     */
+    private void precomputeNextRound() {
+        precomputedRound = null;
+        if (!currentRound.isFinished())
+            return;
+
+        try {
+            precomputedRound = format.createNextRound(currentRound);
+        }
+        catch (RoundNotFinishedException | FinalRoundException e) {
+            // There is no next round.
+        }
+    }
+
+    private UndoableRound<E> getUndoableRound() {
+        if (!(currentRound instanceof UndoableRound))
+            throw new UnsupportedOperationException("The current round cannot carry out specific pairings");
+        return (UndoableRound<E>) currentRound;
+    }
+
+    private void dropCurrentRound() {
+        currentRound = previousRounds.remove(previousRounds.size() - 1);
+        series = previousSeries.remove(previousSeries.size() - 1);
+        precomputeNextRound();
+
+        for (TournamentListener<E> listener : getListeners())
+            listener.onRoundChanged(currentRound, getRoundNumber());
+    }
+
+    private void pushRound(Round<E> round) {
+        previousRounds.add(currentRound);
+        currentRound = round;
+        previousSeries.add(series);
+        series = new SeriesManager<>();
+        precomputeNextRound();
+
+        for (TournamentListener<E> listener : getListeners())
+            listener.onRoundRestored(currentRound, getRoundNumber());
+    }
+
+    /**
+     * Reverts a reset. A reset discards state that no other event can express,
+     * so listeners are notified as if the round was restored.
+     * @param restoreEntrant The action returned by the round when the entrant was reset.
+     */
+    private void restoreEntrant(Runnable restoreEntrant) {
+        restoreEntrant.run();
+        precomputeNextRound();
+
+        for (TournamentListener<E> listener : getListeners())
+            listener.onRoundRestored(currentRound, getRoundNumber());
+    }
+
+    /**
+     * @param pairing A pairing of the current round.
+     * @return An action that sets the games of the series of the pairing back to their current state.
+     */
+    private Action keepSeries(Pairing<E> pairing) {
+        E first = pairing.getFirst();
+        int firstWins = series.getWins(pairing, first);
+        int secondWins = series.getWins(pairing, pairing.getSecond());
+        return () -> series.setWins(pairing, first, firstWins, secondWins);
+    }
+
+    private static Action then(Action action, Action nextAction) {
+        return () -> {
+            action.run();
+            nextAction.run();
+        };
+    }
+
+    private void record(Action undo, Action redo) {
+        if (isReverting || isHistoryDisabled)
+            return;
+
+        ArrayDeque<Change> history = getUndoHistory();
+        if (history.size() == HISTORY_SIZE)
+            history.removeFirst();
+
+        history.addLast(new Change(undo, redo));
+        getRedoHistory().clear();
+    }
+
+    private void revert(Action action) {
+        isReverting = true;
+        try {
+            action.run();
+        }
+        catch (Exception e) {
+            // The history does not match the tournament anymore.
+            clearHistory();
+            throw new IllegalStateException("Failed to revert a change", e);
+        }
+        finally {
+            isReverting = false;
+        }
+    }
+
+    private ArrayDeque<Change> getUndoHistory() {
+        if (undoHistory == null)
+            undoHistory = new ArrayDeque<>();
+        return undoHistory;
+    }
+
+    private ArrayDeque<Change> getRedoHistory() {
+        if (redoHistory == null)
+            redoHistory = new ArrayDeque<>();
+        return redoHistory;
+    }
+
+    private List<TournamentListener<E>> getListeners() {
+        if (listeners == null)
+            listeners = new ArrayList<>();
+        return listeners;
+    }
+
+    private interface Action {
+        void run() throws Exception;
+    }
+
+    private static class Change {
+
+        final Action undo;
+        final Action redo;
+
+        Change(Action undo, Action redo) {
+            this.undo = undo;
+            this.redo = redo;
+        }
+    }
+}
@@ -36,7 +36,8 @@ public interface RoundHandle<E> {
 
     /**
      * Generates the next pairing between two participants.
-     * @return The pairing.
+     * Rounds with a bye policy can advance the only remaining entrant instead.
+     * @return The pairing or null if the only remaining entrant advanced without an opponent.
      * @throws NoEntrantsException There are no entrants in this round.
      * @throws NoOpponentException The only remaining entrant does not have an opponent.
      * @throws NoMorePairingsException The round is already finished.
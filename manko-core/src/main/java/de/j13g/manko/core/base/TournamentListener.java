@@ -0,0 +1,98 @@
+package de.j13g.manko.core.base;
+
+import de.j13g.manko.core.Pairing;
+
+/**
+ * Receives changes of a tournament after they were applied successfully.
+ * @param <E> The entrant type.
+ */
+public interface TournamentListener<E> {
+
+    /**
+     * Called when the tournament moves to another round, either forward or back.
+     * @param round The round that is now current.
+     * @param roundNumber The number of that round, starting at 1.
+     */
+    default void onRoundChanged(Round<E> round, int roundNumber) {}
+
+    /**
+     * @param round The round the entrant was added to.
+     * @param entrant The added entrant.
+     */
+    default void onEntrantAdded(Round<E> round, E entrant) {}
+
+    /**
+     * @param round The round the entrant was removed from.
+     * @param entrant The removed entrant.
+     */
+    default void onEntrantRemoved(Round<E> round, E entrant) {}
+
+    /**
+     * @param round The round in which the entrant was reset.
+     * @param entrant The reset entrant.
+     */
+    default void onEntrantReset(Round<E> round, E entrant) {}
+
+    /**
+     * @param round The round of the pairing.
+     * @param pairing The new pairing.
+     */
+    default void onPairing(Round<E> round, Pairing<E> pairing) {}
+
+    /**
+     * @param round The round of the entrant.
+     * @param entrant The entrant that advanced without a pairing.
+     */
+    default void onBye(Round<E> round, E entrant) {}
+
+    /**
+     * @param round The round of the pairing.
+     * @param pairing The pairing that was taken back without a result.
+     */
+    default void onUnpairing(Round<E> round, Pairing<E> pairing) {}
+
+    /**
+     * @param round The round of the pairing.
+     * @param pairing The pairing that is active again.
+     */
+    default void onReplay(Round<E> round, Pairing<E> pairing) {}
+
+    /**
+     * @param round The round of the pairing.
+     * @param winner The winner of the pairing.
+     * @param pairing The finished pairing.
+     */
+    default void onWinner(Round<E> round, E winner, Pairing<E> pairing) {}
+
+    /**
+     * Called for each game of a series. If the game decided the pairing, {@link #onWinner} follows.
+     * @param round The round of the pairing.
+     * @param winner The winner of the game.
+     * @param pairing The pairing.
+     * @param wins The number of games the winner has won in the series, including this game.
+     */
+    default void onGame(Round<E> round, E winner, Pairing<E> pairing, int wins) {}
+
+    /**
+     * Called when a game of a series was taken back.
+     * If the game had decided the pairing, the pairing is active again.
+     * @param round The round of the pairing.
+     * @param winner The entrant that had won the game.
+     * @param pairing The pairing.
+     */
+    default void onGameReplay(Round<E> round, E winner, Pairing<E> pairing) {}
+
+    /**
+     * @param round The round of the pairing.
+     * @param pairing The finished pairing.
+     */
+    default void onTie(Round<E> round, Pairing<E> pairing) {}
+
+    /**
+     * Called when the current round was set back to an earlier or later state,
+     * e.g. to undo a reset, which cannot be expressed by the other events.
+     * @param round The round that is now current.
+     * @param roundNumber The number of the round.
+     */
+    default void onRoundRestored(Round<E> round, int roundNumber) {}
+}
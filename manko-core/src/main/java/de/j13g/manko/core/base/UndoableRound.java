@@ -0,0 +1,34 @@
+package de.j13g.manko.core.base;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.exceptions.NoSuchEntrantException;
+import de.j13g.manko.core.exceptions.NoSuchPairingException;
+
+/**
+ * A round whose changes can be taken back exactly, e.g. to undo or redo nextPairing.
+ * @param <E> The entrant type.
+ */
+public interface UndoableRound<E> extends Round<E> {
+
+    /**
+     * Reverts a new pairing without a result, so that its entrants are waiting to be paired again.
+     * @param pairing The active pairing.
+     * @throws NoSuchPairingException The pairing is not active.
+     */
+    void unpair(Pairing<E> pairing) throws NoSuchPairingException;
+
+    /**
+     * Carries out a specific pairing instead of the next one.
+     * @param pairing The pairing.
+     * @throws NoSuchEntrantException An entrant is not waiting to be paired.
+     * @throws NoSuchPairingException The pairing cannot be carried out.
+     */
+    void pair(Pairing<E> pairing) throws NoSuchEntrantException, NoSuchPairingException;
+
+    /**
+     * Resets an entrant like resetEntrant and keeps the state that the reset discards.
+     * @param entrant The entrant.
+     * @return An action that restores the state of the entrant before the reset or null if it was not reset.
+     */
+    Runnable resetEntrantRevertibly(E entrant);
+}
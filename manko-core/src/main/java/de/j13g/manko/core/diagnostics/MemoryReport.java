@@ -0,0 +1,144 @@
+package de.j13g.manko.core.diagnostics;
+
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.util.ShuffledSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reports the number of entries and the estimated heap usage
+ * of the structures that make up the state of a tournament.
+ * Sizes are rough estimates for a 64-bit JVM with compressed references.
+ * Entrants themselves are not included, since they are shared between structures.
+ */
+public class MemoryReport {
+
+    /** An entry of a hash based set or map, including its table slot. */
+    public static final int HASH_ENTRY_BYTES = 40;
+
+    /** A reference in an array or list. */
+    public static final int REFERENCE_BYTES = 4;
+
+    /** A pairing object without its entrants. */
+    public static final int PAIRING_BYTES = 24;
+
+    /** Leak-prone structures are only flagged once they have at least this many entries. */
+    public static final int WARNING_THRESHOLD = 64;
+
+    public static class Entry {
+
+        private final String name;
+        private final int count;
+        private final long estimatedBytes;
+
+        public Entry(String name, int count, long estimatedBytes) {
+            this.name = name;
+            this.count = count;
+            this.estimatedBytes = estimatedBytes;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getEstimatedBytes() {
+            return estimatedBytes;
+        }
+    }
+
+    private final String prefix;
+    private final List<Entry> entries;
+    private final List<String> warnings;
+
+    public MemoryReport() {
+        this("", new ArrayList<>(), new ArrayList<>());
+    }
+
+    private MemoryReport(String prefix, List<Entry> entries, List<String> warnings) {
+        this.prefix = prefix;
+        this.entries = entries;
+        this.warnings = warnings;
+    }
+
+    /**
+     * Creates a memory report of a tournament and all rounds it holds.
+     * @param tournament The tournament.
+     * @return The report.
+     */
+    public static MemoryReport of(Tournament<?> tournament) {
+        MemoryReport report = new MemoryReport();
+        tournament.reportMemory(report);
+        return report;
+    }
+
+    /**
+     * Returns a report that adds entries and warnings to this report,
+     * with names prefixed by the name of a nested structure.
+     * @param name The name of the nested structure.
+     * @return The scoped report.
+     */
+    public MemoryReport scope(String name) {
+        return new MemoryReport(qualify(name) + ".", entries, warnings);
+    }
+
+    /**
+     * Reports a structure if it is reportable.
+     * @param name The name of the structure.
+     * @param structure The structure or null.
+     */
+    public void report(String name, Object structure) {
+        if (structure instanceof MemoryReportable)
+            ((MemoryReportable) structure).reportMemory(scope(name));
+    }
+
+    public void add(String name, int count, long bytesPerEntry) {
+        entries.add(new Entry(qualify(name), count, count * bytesPerEntry));
+    }
+
+    /**
+     * Reports a shuffled set and flags removed elements that are still retained.
+     * @param name The name of the set.
+     * @param set The set.
+     */
+    public void add(String name, ShuffledSet<?> set) {
+        int tombstones = set.getTombstoneCount();
+
+        add(name, set.size(), HASH_ENTRY_BYTES);
+        add(name + ".list", set.getElementListSize(), REFERENCE_BYTES);
+        add(name + ".tombstones", tombstones, HASH_ENTRY_BYTES);
+
+        if (tombstones >= WARNING_THRESHOLD && tombstones > set.size())
+            scope(name).warn(String.format("%d removed elements are retained, but only %d are left.",
+                    tombstones, set.size()));
+    }
+
+    public void warn(String message) {
+        String structure = prefix.isEmpty() ? "" : prefix.substring(0, prefix.length() - 1) + ": ";
+        warnings.add(structure + message);
+    }
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public List<String> getWarnings() {
+        return Collections.unmodifiableList(warnings);
+    }
+
+    public long getTotalEstimatedBytes() {
+        long total = 0;
+        for (Entry entry : entries)
+            total += entry.getEstimatedBytes();
+        return total;
+    }
+
+    private String qualify(String name) {
+        return prefix + name;
+    }
+}
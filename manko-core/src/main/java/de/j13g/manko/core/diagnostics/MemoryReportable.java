@@ -0,0 +1,13 @@
+package de.j13g.manko.core.diagnostics;
+
+/**
+ * A structure that can estimate how much memory it holds.
+ */
+public interface MemoryReportable {
+
+    /**
+     * Adds the entry counts and estimated sizes of this structure to a report.
+     * @param report The report, scoped to this structure.
+     */
+    void reportMemory(MemoryReport report);
+}
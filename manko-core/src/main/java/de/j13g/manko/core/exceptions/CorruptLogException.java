@@ -0,0 +1,3 @@
+package de.j13g.manko.core.exceptions;
+
+public class CorruptLogException extends Exception {}
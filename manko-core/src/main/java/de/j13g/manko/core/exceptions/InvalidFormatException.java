@@ -0,0 +1,11 @@
+package de.j13g.manko.core.exceptions;
+
+/**
+ * A format description could not be compiled.
+ */
+public class InvalidFormatException extends Exception {
+
+    public InvalidFormatException(String message) {
+        super(message);
+    }
+}
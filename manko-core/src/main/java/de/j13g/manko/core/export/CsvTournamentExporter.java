@@ -0,0 +1,67 @@
+package de.j13g.manko.core.export;
+
+import de.j13g.manko.core.Placement;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.function.Function;
+
+/**
+ * Writes tournament records as comma separated values.
+ * Columns are: event, round, first, second, winner, placement.
+ * @param <E> The entrant type.
+ */
+public class CsvTournamentExporter<E> extends TournamentExporter<E> {
+
+    public CsvTournamentExporter(Writer out, Function<E, String> names) {
+        super(out, names);
+    }
+
+    @Override
+    protected void writeHeader() throws IOException {
+        out.write("event,round,first,second,winner,placement\n");
+    }
+
+    @Override
+    protected void writeRecord(Event event, int round, E first, E second, E winner,
+                               Placement placement) throws IOException {
+        out.write(event.toString());
+        out.write(',');
+        out.write(Integer.toString(round));
+        out.write(',');
+        writeField(nameOf(first));
+        out.write(',');
+        writeField(nameOf(second));
+        out.write(',');
+        writeField(nameOf(winner));
+        out.write(',');
+        if (placement != null)
+            out.write(Integer.toString(placement.getValue()));
+        out.write('\n');
+    }
+
+    private void writeField(String value) throws IOException {
+        if (value == null)
+            return;
+
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; ++i) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (!needsQuotes) {
+            out.write(value);
+            return;
+        }
+
+        out.write('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == '"')
+                out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,61 @@
+package de.j13g.manko.core.export;
+
+import de.j13g.manko.core.Placement;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.function.Function;
+
+/**
+ * Writes tournament records as JSON objects, one per line.
+ * Absent values are omitted.
+ * @param <E> The entrant type.
+ */
+public class JsonLinesTournamentExporter<E> extends TournamentExporter<E> {
+
+    public JsonLinesTournamentExporter(Writer out, Function<E, String> names) {
+        super(out, names);
+    }
+
+    @Override
+    protected void writeRecord(Event event, int round, E first, E second, E winner,
+                               Placement placement) throws IOException {
+        out.write("{\"event\":\"");
+        out.write(event.toString());
+        out.write("\",\"round\":");
+        out.write(Integer.toString(round));
+        writeStringField("first", nameOf(first));
+        writeStringField("second", nameOf(second));
+        writeStringField("winner", nameOf(winner));
+        if (placement != null) {
+            out.write(",\"placement\":");
+            out.write(Integer.toString(placement.getValue()));
+        }
+        out.write("}\n");
+    }
+
+    private void writeStringField(String name, String value) throws IOException {
+        if (value == null)
+            return;
+
+        out.write(",\"");
+        out.write(name);
+        out.write("\":\"");
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    if (c < 0x20)
+                        out.write(String.format("\\u%04x", (int) c));
+                    else
+                        out.write(c);
+            }
+        }
+        out.write('"');
+    }
+}
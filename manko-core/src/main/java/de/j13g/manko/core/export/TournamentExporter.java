@@ -0,0 +1,232 @@
+package de.j13g.manko.core.export;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.base.RankingRound;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.base.TournamentListener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Streams the history of a tournament to a writer, one record per line.
+ * Records are written directly to the writer without building the whole export in memory.
+ * When added as a listener to a tournament, new records are appended and flushed
+ * as soon as they happen, so the output can be followed by other programs.
+ * @param <E> The entrant type.
+ */
+public abstract class TournamentExporter<E> implements TournamentListener<E>, Closeable {
+
+    public enum Event {
+
+        ROUND,
+        PAIRING,
+        UNPAIRING,
+        BYE,
+        REPLAY,
+        RESULT,
+        TIE,
+        PLACEMENT,
+        GAME,
+        GAME_REPLAY;
+
+        @Override
+        public String toString() {
+            return super.toString().toLowerCase();
+        }
+    }
+
+    protected final Writer out;
+
+    private final Function<E, String> names;
+
+    private int roundNumber = 1;
+
+    /**
+     * @param out The writer to which records are written.
+     * @param names Converts entrants to their names.
+     */
+    protected TournamentExporter(Writer out, Function<E, String> names) {
+        this.out = out;
+        this.names = names;
+    }
+
+    /**
+     * Creates an exporter that writes comma separated values with a header line.
+     * @param out The writer.
+     * @param names Converts entrants to their names.
+     * @param <E> The entrant type.
+     * @return The exporter.
+     */
+    public static <E> TournamentExporter<E> csv(Writer out, Function<E, String> names) {
+        return new CsvTournamentExporter<>(out, names);
+    }
+
+    /**
+     * Creates an exporter that writes one JSON object per line.
+     * @param out The writer.
+     * @param names Converts entrants to their names.
+     * @param <E> The entrant type.
+     * @return The exporter.
+     */
+    public static <E> TournamentExporter<E> jsonLines(Writer out, Function<E, String> names) {
+        return new JsonLinesTournamentExporter<>(out, names);
+    }
+
+    /**
+     * Writes the header, if any, and all rounds, finished pairings and placements of a tournament.
+     * Results of finished pairings are derived from the state of their entrants.
+     * @param tournament The tournament.
+     * @throws IOException The records could not be written.
+     */
+    public void exportHistory(Tournament<E> tournament) throws IOException {
+        writeHeader();
+
+        List<Round<E>> rounds = tournament.getRounds();
+        for (int i = 0; i < rounds.size(); ++i) {
+            Round<E> round = rounds.get(i);
+            roundNumber = i + 1;
+
+            writeRecord(Event.ROUND, roundNumber, null, null, null, null);
+
+            for (Pairing<E> pairing : round.getPairings().getFinished())
+                writeResult(round, pairing);
+            for (Pairing<E> pairing : round.getPairings().getActive())
+                writeRecord(Event.PAIRING, roundNumber, pairing.getFirst(), pairing.getSecond(), null, null);
+
+            writePlacements(round);
+        }
+
+        out.flush();
+    }
+
+    @Override
+    public void onRoundChanged(Round<E> round, int roundNumber) {
+        this.roundNumber = roundNumber;
+        append(Event.ROUND, null, null);
+    }
+
+    @Override
+    public void onPairing(Round<E> round, Pairing<E> pairing) {
+        append(Event.PAIRING, pairing, null);
+    }
+
+    @Override
+    public void onBye(Round<E> round, E entrant) {
+        append(Event.BYE, null, entrant);
+    }
+
+    @Override
+    public void onUnpairing(Round<E> round, Pairing<E> pairing) {
+        append(Event.UNPAIRING, pairing, null);
+    }
+
+    @Override
+    public void onRoundRestored(Round<E> round, int roundNumber) {
+        this.roundNumber = roundNumber;
+        append(Event.ROUND, null, null);
+        appendPlacements(round);
+    }
+
+    @Override
+    public void onReplay(Round<E> round, Pairing<E> pairing) {
+        append(Event.REPLAY, pairing, null);
+    }
+
+    @Override
+    public void onWinner(Round<E> round, E winner, Pairing<E> pairing) {
+        append(Event.RESULT, pairing, winner);
+        appendPlacements(round);
+    }
+
+    @Override
+    public void onTie(Round<E> round, Pairing<E> pairing) {
+        append(Event.TIE, pairing, null);
+        appendPlacements(round);
+    }
+
+    @Override
+    public void onGame(Round<E> round, E winner, Pairing<E> pairing, int wins) {
+        append(Event.GAME, pairing, winner);
+    }
+
+    @Override
+    public void onGameReplay(Round<E> round, E winner, Pairing<E> pairing) {
+        append(Event.GAME_REPLAY, pairing, winner);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Writes a line that precedes all records, e.g. column names.
+     * @throws IOException The header could not be written.
+     */
+    protected void writeHeader() throws IOException {}
+
+    /**
+     * Writes a single record as one line.
+     * @param event The type of record.
+     * @param round The number of the round.
+     * @param first The first entrant of a pairing or the placed entrant or null.
+     * @param second The second entrant of a pairing or null.
+     * @param winner The winner of a pairing or null.
+     * @param placement The placement of the first entrant or null.
+     * @throws IOException The record could not be written.
+     */
+    protected abstract void writeRecord(Event event, int round, E first, E second, E winner, Placement placement)
+            throws IOException;
+
+    protected String nameOf(E entrant) {
+        return entrant == null ? null : names.apply(entrant);
+    }
+
+    private void writeResult(Round<E> round, Pairing<E> pairing) throws IOException {
+        E winner = round.getPairings().getWinner(pairing);
+        Event event = winner != null ? Event.RESULT : Event.TIE;
+        writeRecord(event, roundNumber, pairing.getFirst(), pairing.getSecond(), winner, null);
+    }
+
+    private void writePlacements(Round<E> round) throws IOException {
+        if (!(round instanceof RankingRound) || !round.isFinished())
+            return;
+
+        RankingRound<E> rankingRound = (RankingRound<E>) round;
+        for (Placement placement : new Placement[] { Placement.FIRST, Placement.SECOND, Placement.THIRD }) {
+            E entrant = rankingRound.getEntrantByPlacement(placement);
+            if (entrant != null)
+                writeRecord(Event.PLACEMENT, roundNumber, entrant, null, null, placement);
+        }
+    }
+
+    private void append(Event event, Pairing<E> pairing, E winner) {
+        try {
+            writeRecord(event, roundNumber,
+                    pairing != null ? pairing.getFirst() : null,
+                    pairing != null ? pairing.getSecond() : null,
+                    winner, null);
+            out.flush();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void appendPlacements(Round<E> round) {
+        try {
+            writePlacements(round);
+            out.flush();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
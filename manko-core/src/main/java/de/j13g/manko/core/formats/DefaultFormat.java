@@ -1,80 +1,123 @@
 package de.j13g.manko.core.formats;
 
 import de.j13g.manko.core.Pairing;
-import de.j13g.manko.core.Placement;
-import de.j13g.manko.core.Standings;
-import de.j13g.manko.core.base.FinalRound;
 import de.j13g.manko.core.base.Round;
 import de.j13g.manko.core.base.TournamentFormat;
 import de.j13g.manko.core.exceptions.FinalRoundException;
+import de.j13g.manko.core.exceptions.InvalidFormatException;
 import de.j13g.manko.core.exceptions.RoundNotFinishedException;
-import de.j13g.manko.core.exceptions.UnfinishedPairingsException;
 import de.j13g.manko.core.rounds.DynamicElimination;
 import de.j13g.manko.core.rounds.Final;
-import de.j13g.manko.core.rounds.RoundRobinFinal;
 import de.j13g.manko.core.rounds.SemiFinal;
 
 import java.io.Serializable;
+import java.time.Clock;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Random;
 import java.util.Set;
 
+/**
+ * The format of {@link TableFormat#DEFAULT_DESCRIPTION}, or of {@link TableFormat#ROLLING_DESCRIPTION}
+ * when it starts with a rolling elimination.
+ */
 public class DefaultFormat<E> implements TournamentFormat<E>, Serializable {
 
-    @Override
-    public Round<E> createInitialRound() {
-        return new DynamicElimination<>();
-    }
+    private final boolean isRolling;
 
-    @Override
-    public Round<E> createNextRound(Round<E> currentRound)
-            throws RoundNotFinishedException, FinalRoundException {
+    /** Creates all rounds, so the default format follows the same transitions as a compiled one. */
+    private final TableFormat<E> table;
 
-        if (!currentRound.isFinished())
-            throw new RoundNotFinishedException();
+    public DefaultFormat() {
+        this(new Random().nextLong());
+    }
 
-        if (currentRound instanceof RoundRobinFinal) {
-            RoundRobinFinal<E> roundRobinFinal = (RoundRobinFinal<E>) currentRound;
-            if (roundRobinFinal.isTie()) {
-                assert roundRobinFinal.getEntrants().size() == 3;
-                Iterator<E> it = roundRobinFinal.getEntrants().iterator();
-                return new RoundRobinFinal<>(it.next(), it.next(), it.next());
-            }
+    /**
+     * @param seed The seed for all random decisions of the rounds of this format.
+     */
+    public DefaultFormat(long seed) {
+        this(seed, false);
+    }
+
+    /**
+     * @param seed The seed for all random decisions of the rounds of this format.
+     * @param isRolling If all elimination rounds are played as a single rolling elimination,
+     * in which winners are paired again without waiting for the other pairings of their round.
+     */
+    public DefaultFormat(long seed, boolean isRolling) {
+        this.isRolling = isRolling;
+        try {
+            table = TableFormat.compile(isRolling ? TableFormat.ROLLING_DESCRIPTION : TableFormat.DEFAULT_DESCRIPTION, seed);
+        }
+        catch (InvalidFormatException e) {
+            throw new IllegalStateException("The default format description is invalid", e);
         }
+    }
 
-        if (currentRound instanceof FinalRound)
-            throw new FinalRoundException();
+    public long getSeed() {
+        return table.getSeed();
+    }
 
-        if (currentRound instanceof SemiFinal)
-            return createNextRound((SemiFinal<E>) currentRound);
-        if (currentRound instanceof DynamicElimination)
-            return createNextRound((DynamicElimination<E>) currentRound);
+    public boolean isRolling() {
+        return isRolling;
+    }
 
-        throw new IllegalArgumentException("Round type not supported");
+    public DynamicElimination.ByePolicy getByePolicy() {
+        return table.getByePolicy();
     }
 
-    public Round<E> createNextRound(DynamicElimination<E> round) throws FinalRoundException {
+    /**
+     * @param byePolicy The bye policy of elimination rounds created from now on.
+     */
+    public void setByePolicy(DynamicElimination.ByePolicy byePolicy) {
+        table.setByePolicy(byePolicy);
+    }
 
-        Set<E> advancedEntrants = round.getAdvancedEntrants();
+    public DynamicElimination.PairingPolicy getPairingPolicy() {
+        return table.getPairingPolicy();
+    }
 
-        if (advancedEntrants.size() > 4)
-            return new DynamicElimination<>(advancedEntrants);
-        if (advancedEntrants.size() == 4)
-            return new SemiFinal<>(advancedEntrants);
-        if (advancedEntrants.size() == 3) {
-            Iterator<E> it = advancedEntrants.iterator();
-            return new RoundRobinFinal<>(it.next(), it.next(), it.next());
-        }
+    /**
+     * @param pairingPolicy The pairing policy of elimination rounds created from now on.
+     */
+    public void setPairingPolicy(DynamicElimination.PairingPolicy pairingPolicy) {
+        table.setPairingPolicy(pairingPolicy);
+    }
 
-        if (advancedEntrants.size() == 2) {
-            Iterator<E> it = advancedEntrants.iterator();
-            return new Final<>(new Pairing<>(it.next(), it.next()));
-        }
+    /**
+     * @param clock The clock of elimination rounds created from now on.
+     */
+    public void setClock(Clock clock) {
+        table.setClock(clock);
+    }
 
-        throw new FinalRoundException();
+    @Override
+    public Round<E> createInitialRound() {
+        return table.createInitialRound();
+    }
+
+    @Override
+    public Round<E> createNextRound(Round<E> currentRound)
+            throws RoundNotFinishedException, FinalRoundException {
+
+        return table.createNextRound(currentRound);
+    }
+
+    public Round<E> createNextRound(DynamicElimination<E> round) throws RoundNotFinishedException, FinalRoundException {
+        return table.createNextRound(round);
     }
 
     public Final<E> createNextRound(SemiFinal<E> round) throws FinalRoundException {
+        return createPlacementFinal(round);
+    }
+
+    /**
+     * Pairs the winners and the losers of a finished semi-final for first and third place.
+     * @param round The finished semi-final.
+     * @return The final.
+     * @throws FinalRoundException The semi-final already determined all placements.
+     */
+    static <E> Final<E> createPlacementFinal(SemiFinal<E> round) throws FinalRoundException {
 
         Set<E> advancedEntrants = round.getAdvancedEntrants();
         Set<E> eliminatedEntrants = round.getEliminatedEntrants();
@@ -0,0 +1,539 @@
+package de.j13g.manko.core.formats;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.base.EliminationRound;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.base.TournamentFormat;
+import de.j13g.manko.core.exceptions.FinalRoundException;
+import de.j13g.manko.core.exceptions.InvalidFormatException;
+import de.j13g.manko.core.exceptions.RoundNotFinishedException;
+import de.j13g.manko.core.rounds.DynamicElimination;
+import de.j13g.manko.core.rounds.Final;
+import de.j13g.manko.core.rounds.RollingElimination;
+import de.j13g.manko.core.rounds.RoundRobinFinal;
+import de.j13g.manko.core.rounds.SemiFinal;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.*;
+
+/**
+ * A format that is compiled from a textual description of its stages.
+ * Each line of the description is a comment starting with #, or one of:
+ * <pre>
+ * start &lt;stage&gt; [survivors]
+ * bye &lt;hold|advance|lucky-loser&gt;
+ * pairing &lt;random|longest-waiting&gt;
+ * &lt;stage&gt; &lt;count&gt; -&gt; &lt;stage&gt; [survivors]
+ * </pre>
+ * Stages are elimination, rolling, semi-final, round-robin and final.
+ * A transition starts the second stage once a round of the first stage is finished
+ * and the number of its remaining entrants matches the count:
+ * a number like 4, a range like 2-3, an open range like 5+, * for any number,
+ * or tie for a round-robin final without a winner.
+ * The first matching transition of a stage is used. Without one, the tournament is over.
+ * A rolling elimination is played until the given number of entrants survive, 4 by default.
+ * A final after a semi-final pairs the winners and the losers of the semi-final.
+ * <p>
+ * All transitions of a stage are compiled into a table indexed by the number of entrants,
+ * so creating the next round does not evaluate any rules.
+ * Numbers beyond the size of the table are looked up in sorted ranges instead.
+ */
+public class TableFormat<E> implements TournamentFormat<E>, Serializable {
+
+    public enum Stage {
+
+        ELIMINATION(2, Integer.MAX_VALUE),
+        ROLLING(2, Integer.MAX_VALUE),
+        SEMI_FINAL(4, 4),
+        ROUND_ROBIN(3, 3),
+        FINAL(2, 2);
+
+        /** The range of entrants a round of this stage can be created with. */
+        private final int minEntrants;
+        private final int maxEntrants;
+
+        Stage(int minEntrants, int maxEntrants) {
+            this.minEntrants = minEntrants;
+            this.maxEntrants = maxEntrants;
+        }
+
+        @Override
+        public String toString() {
+            return super.toString().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+
+    /** The format of {@link DefaultFormat}. */
+    public static final String DEFAULT_DESCRIPTION = String.join("\n",
+            "start elimination",
+            "elimination 5+ -> elimination",
+            "elimination 4 -> semi-final",
+            "elimination 3 -> round-robin",
+            "elimination 2 -> final",
+            "semi-final * -> final",
+            "round-robin tie -> round-robin");
+
+    /** The format of {@link DefaultFormat} with a rolling elimination. */
+    public static final String ROLLING_DESCRIPTION = String.join("\n",
+            "start rolling 4",
+            "rolling 5+ -> elimination",
+            "rolling 4 -> semi-final",
+            "rolling 3 -> round-robin",
+            "rolling 2 -> final",
+            "elimination 5+ -> elimination",
+            "elimination 4 -> semi-final",
+            "elimination 3 -> round-robin",
+            "elimination 2 -> final",
+            "semi-final * -> final",
+            "round-robin tie -> round-robin");
+
+    private static final int DEFAULT_SURVIVOR_COUNT = 4;
+
+    private static final String ARROW = "->";
+    private static final String TIE = "tie";
+
+    private static final Map<Class<?>, Stage> STAGES_BY_ROUND = new HashMap<>();
+
+    static {
+        STAGES_BY_ROUND.put(DynamicElimination.class, Stage.ELIMINATION);
+        STAGES_BY_ROUND.put(RollingElimination.class, Stage.ROLLING);
+        STAGES_BY_ROUND.put(SemiFinal.class, Stage.SEMI_FINAL);
+        STAGES_BY_ROUND.put(RoundRobinFinal.class, Stage.ROUND_ROBIN);
+        STAGES_BY_ROUND.put(Final.class, Stage.FINAL);
+    }
+
+    private final long seed;
+
+    private final Target initialTarget;
+    private final EnumMap<Stage, Transitions> transitions;
+
+    private DynamicElimination.ByePolicy byePolicy;
+    private DynamicElimination.PairingPolicy pairingPolicy;
+
+    /** Not serialized, a restored format uses the system clock. */
+    private transient Clock clock = Clock.systemUTC();
+
+    /** Shared by all rounds, so the whole tournament is reproducible from the seed. */
+    private final Random random;
+
+    private TableFormat(long seed, Target initialTarget, EnumMap<Stage, Transitions> transitions,
+                        DynamicElimination.ByePolicy byePolicy, DynamicElimination.PairingPolicy pairingPolicy) {
+        this.seed = seed;
+        this.initialTarget = initialTarget;
+        this.transitions = transitions;
+        this.byePolicy = byePolicy;
+        this.pairingPolicy = pairingPolicy;
+        random = new Random(seed);
+    }
+
+    /**
+     * @param description The description of the format.
+     * @param seed The seed for all random decisions of the rounds of this format.
+     * @return The compiled format.
+     * @throws InvalidFormatException The description contains an invalid line.
+     */
+    public static <E> TableFormat<E> compile(String description, long seed) throws InvalidFormatException {
+        try {
+            return compile(new StringReader(description), seed);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param file A file with the description of the format.
+     * @param seed The seed for all random decisions of the rounds of this format.
+     * @return The compiled format.
+     * @throws IOException The file could not be read.
+     * @throws InvalidFormatException The description contains an invalid line.
+     */
+    public static <E> TableFormat<E> load(File file, long seed) throws IOException, InvalidFormatException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return compile(reader, seed);
+        }
+    }
+
+    private static <E> TableFormat<E> compile(Reader reader, long seed) throws IOException, InvalidFormatException {
+        Target initialTarget = null;
+        DynamicElimination.ByePolicy byePolicy = DynamicElimination.ByePolicy.HOLD;
+        DynamicElimination.PairingPolicy pairingPolicy = DynamicElimination.PairingPolicy.RANDOM;
+        EnumMap<Stage, List<Rule>> rulesByStage = new EnumMap<>(Stage.class);
+
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        for (int lineNumber = 1; (line = lines.readLine()) != null; ++lineNumber) {
+            int commentStart = line.indexOf('#');
+            if (commentStart >= 0)
+                line = line.substring(0, commentStart);
+
+            line = line.trim();
+            if (line.isEmpty())
+                continue;
+
+            String[] tokens = line.split("\\s+");
+            switch (tokens[0]) {
+                case "start":
+                    if (initialTarget != null)
+                        throw invalid(lineNumber, "The format can only start once");
+                    initialTarget = parseTarget(tokens, 1, lineNumber);
+                    if (initialTarget.stage != Stage.ELIMINATION && initialTarget.stage != Stage.ROLLING)
+                        throw invalid(lineNumber, "The format has to start with an elimination");
+                    break;
+                case "bye":
+                    if (tokens.length != 2)
+                        throw invalid(lineNumber, "Expected: bye <hold|advance|lucky-loser>");
+                    byePolicy = parseByePolicy(tokens[1], lineNumber);
+                    break;
+                case "pairing":
+                    if (tokens.length != 2)
+                        throw invalid(lineNumber, "Expected: pairing <random|longest-waiting>");
+                    pairingPolicy = parsePairingPolicy(tokens[1], lineNumber);
+                    break;
+                default:
+                    Rule rule = parseRule(tokens, lineNumber);
+                    rulesByStage.computeIfAbsent(rule.source, stage -> new ArrayList<>()).add(rule);
+            }
+        }
+
+        if (initialTarget == null)
+            throw new InvalidFormatException("The format does not start with any stage");
+
+        EnumMap<Stage, Transitions> transitions = new EnumMap<>(Stage.class);
+        for (Map.Entry<Stage, List<Rule>> entry : rulesByStage.entrySet())
+            transitions.put(entry.getKey(), new Transitions(entry.getValue()));
+
+        return new TableFormat<>(seed, initialTarget, transitions, byePolicy, pairingPolicy);
+    }
+
+    private static Rule parseRule(String[] tokens, int lineNumber) throws InvalidFormatException {
+        if (tokens.length < 4 || !tokens[2].equals(ARROW))
+            throw invalid(lineNumber, "Expected: <stage> <count> -> <stage>");
+
+        Stage source = parseStage(tokens[0], lineNumber);
+        Target target = parseTarget(tokens, 3, lineNumber);
+
+        if (source == Stage.FINAL)
+            throw invalid(lineNumber, "A final ends the tournament");
+
+        if (tokens[1].equals(TIE)) {
+            if (source != Stage.ROUND_ROBIN || target.stage != Stage.ROUND_ROBIN)
+                throw invalid(lineNumber, "Only a round-robin final can be tied and played again");
+            return new Rule(source, -1, -1, target);
+        }
+
+        if (source == Stage.ROUND_ROBIN)
+            throw invalid(lineNumber, "A round-robin final can only be played again after a tie");
+
+        int minCount;
+        int maxCount;
+        String count = tokens[1];
+        try {
+            if (count.equals("*")) {
+                minCount = 0;
+                maxCount = Integer.MAX_VALUE;
+            }
+            else if (count.endsWith("+")) {
+                minCount = Integer.parseInt(count.substring(0, count.length() - 1));
+                maxCount = Integer.MAX_VALUE;
+            }
+            else if (count.indexOf('-') > 0) {
+                minCount = Integer.parseInt(count.substring(0, count.indexOf('-')));
+                maxCount = Integer.parseInt(count.substring(count.indexOf('-') + 1));
+            }
+            else {
+                minCount = maxCount = Integer.parseInt(count);
+            }
+        }
+        catch (NumberFormatException e) {
+            throw invalid(lineNumber, "Invalid number of entrants: " + count);
+        }
+
+        if (minCount < 0 || maxCount < minCount)
+            throw invalid(lineNumber, "Invalid number of entrants: " + count);
+
+        // The placement final takes the entrants of the semi-final, not only its winners.
+        boolean isPlacementFinal = source == Stage.SEMI_FINAL && target.stage == Stage.FINAL;
+        if (!isPlacementFinal && (minCount < target.stage.minEntrants || maxCount > target.stage.maxEntrants))
+            throw invalid(lineNumber, String.format("A %s cannot be played with %s entrants", target.stage, count));
+
+        return new Rule(source, minCount, maxCount, target);
+    }
+
+    private static Target parseTarget(String[] tokens, int index, int lineNumber) throws InvalidFormatException {
+        if (tokens.length <= index || tokens.length > index + 2)
+            throw invalid(lineNumber, "Expected: <stage> [survivors]");
+
+        Stage stage = parseStage(tokens[index], lineNumber);
+        if (tokens.length == index + 1)
+            return new Target(stage, stage == Stage.ROLLING ? DEFAULT_SURVIVOR_COUNT : 0);
+
+        if (stage != Stage.ROLLING)
+            throw invalid(lineNumber, "Only a rolling elimination has a number of survivors");
+
+        try {
+            int survivorCount = Integer.parseInt(tokens[index + 1]);
+            if (survivorCount >= 1)
+                return new Target(stage, survivorCount);
+        }
+        catch (NumberFormatException e) {
+            // Reported below.
+        }
+
+        throw invalid(lineNumber, "Invalid number of survivors: " + tokens[index + 1]);
+    }
+
+    private static Stage parseStage(String name, int lineNumber) throws InvalidFormatException {
+        for (Stage stage : Stage.values())
+            if (stage.toString().equals(name))
+                return stage;
+        throw invalid(lineNumber, "Unknown stage: " + name);
+    }
+
+    private static DynamicElimination.ByePolicy parseByePolicy(String name, int lineNumber)
+            throws InvalidFormatException {
+
+        for (DynamicElimination.ByePolicy policy : DynamicElimination.ByePolicy.values())
+            if (policy.name().toLowerCase(Locale.ROOT).replace('_', '-').equals(name))
+                return policy;
+        throw invalid(lineNumber, "Unknown bye policy: " + name);
+    }
+
+    private static DynamicElimination.PairingPolicy parsePairingPolicy(String name, int lineNumber)
+            throws InvalidFormatException {
+
+        for (DynamicElimination.PairingPolicy policy : DynamicElimination.PairingPolicy.values())
+            if (policy.name().toLowerCase(Locale.ROOT).replace('_', '-').equals(name))
+                return policy;
+        throw invalid(lineNumber, "Unknown pairing policy: " + name);
+    }
+
+    private static InvalidFormatException invalid(int lineNumber, String message) {
+        return new InvalidFormatException(String.format("Line %d: %s", lineNumber, message));
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public DynamicElimination.ByePolicy getByePolicy() {
+        return byePolicy;
+    }
+
+    /**
+     * @param byePolicy The bye policy of elimination rounds created from now on.
+     */
+    public void setByePolicy(DynamicElimination.ByePolicy byePolicy) {
+        this.byePolicy = byePolicy;
+    }
+
+    public DynamicElimination.PairingPolicy getPairingPolicy() {
+        return pairingPolicy;
+    }
+
+    /**
+     * @param pairingPolicy The pairing policy of elimination rounds created from now on.
+     */
+    public void setPairingPolicy(DynamicElimination.PairingPolicy pairingPolicy) {
+        this.pairingPolicy = pairingPolicy;
+    }
+
+    /**
+     * @param clock The clock of elimination rounds created from now on.
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public Round<E> createInitialRound() {
+        return createRound(initialTarget, Collections.emptySet());
+    }
+
+    @Override
+    public Round<E> createNextRound(Round<E> currentRound)
+            throws RoundNotFinishedException, FinalRoundException {
+
+        if (!currentRound.isFinished())
+            throw new RoundNotFinishedException();
+
+        Stage stage = STAGES_BY_ROUND.get(currentRound.getClass());
+        if (stage == null)
+            throw new IllegalArgumentException("Round type not supported");
+
+        Transitions stageTransitions = transitions.get(stage);
+        if (stageTransitions == null)
+            throw new FinalRoundException();
+
+        Set<E> entrants;
+        Target target;
+        switch (stage) {
+            case ROUND_ROBIN:
+                if (!((RoundRobinFinal<E>) currentRound).isTie() || stageTransitions.tieTarget == null)
+                    throw new FinalRoundException();
+                return createRound(stageTransitions.tieTarget, currentRound.getEntrants());
+            case ROLLING:
+                entrants = ((RollingElimination<E>) currentRound).getSurvivingEntrants();
+                target = stageTransitions.get(entrants.size());
+                break;
+            default:
+                entrants = ((EliminationRound<E>) currentRound).getAdvancedEntrants();
+                target = stageTransitions.get(entrants.size());
+        }
+
+        if (target == null)
+            throw new FinalRoundException();
+
+        if (stage == Stage.SEMI_FINAL && target.stage == Stage.FINAL)
+            return DefaultFormat.createPlacementFinal((SemiFinal<E>) currentRound);
+
+        return createRound(target, entrants);
+    }
+
+    private Round<E> createRound(Target target, Set<E> entrants) {
+        Iterator<E> it = entrants.iterator();
+        switch (target.stage) {
+            case ELIMINATION:
+                return createElimination(entrants);
+            case ROLLING:
+                return new RollingElimination<>(entrants, target.survivorCount, random);
+            case SEMI_FINAL:
+                return new SemiFinal<>(entrants, random);
+            case ROUND_ROBIN:
+                return new RoundRobinFinal<>(it.next(), it.next(), it.next(), random);
+            case FINAL:
+                return new Final<>(new Pairing<>(it.next(), it.next()));
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    private DynamicElimination<E> createElimination(Collection<E> entrants) {
+        DynamicElimination<E> round = new DynamicElimination<>(random);
+        round.setByePolicy(byePolicy);
+        round.setPairingPolicy(pairingPolicy);
+        round.setClock(clock);
+
+        // Entrants are added after the clock is set, so their times are taken from it.
+        entrants.forEach(round::addEntrant);
+        return round;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        clock = Clock.systemUTC();
+
+        // Formats that were saved before pairing policies existed.
+        if (pairingPolicy == null)
+            pairingPolicy = DynamicElimination.PairingPolicy.RANDOM;
+    }
+
+    private static class Target implements Serializable {
+
+        final Stage stage;
+        final int survivorCount;
+
+        Target(Stage stage, int survivorCount) {
+            this.stage = stage;
+            this.survivorCount = survivorCount;
+        }
+    }
+
+    private static class Rule {
+
+        final Stage source;
+        /** The range of entrants the rule applies to, or -1 for a tie. */
+        final int minCount;
+        final int maxCount;
+        final Target target;
+
+        Rule(Stage source, int minCount, int maxCount, Target target) {
+            this.source = source;
+            this.minCount = minCount;
+            this.maxCount = maxCount;
+            this.target = target;
+        }
+    }
+
+    /**
+     * The compiled transitions of one stage.
+     */
+    private static class Transitions implements Serializable {
+
+        /** The size of the table is limited, so a rule like elimination 2-2000000000 does not fill the memory. */
+        private static final int MAX_TABLE_SIZE = 1024;
+
+        /** The target for each number of entrants below the length of the table. */
+        private final Target[] targetsByCount;
+        /** The sorted starts of the ranges of larger numbers of entrants, the first one is the length of the table. */
+        private final int[] rangeStarts;
+        /** The target for each range, which ends before the start of the next one. */
+        private final Target[] rangeTargets;
+        private final Target tieTarget;
+
+        Transitions(List<Rule> rules) {
+            // Every bound of a rule has to be inside the table if it fits, so the table and the ranges agree.
+            int tableSize = 1;
+            for (Rule rule : rules) {
+                int bound = rule.maxCount == Integer.MAX_VALUE ? rule.minCount : rule.maxCount;
+                tableSize = Math.max(tableSize, Math.min(bound, MAX_TABLE_SIZE - 1) + 1);
+            }
+
+            targetsByCount = new Target[tableSize];
+            Target tieTarget = null;
+
+            // Earlier rules take precedence.
+            for (Rule rule : rules) {
+                if (rule.minCount < 0) {
+                    if (tieTarget == null)
+                        tieTarget = rule.target;
+                    continue;
+                }
+
+                for (int count = rule.minCount; count < tableSize && count <= rule.maxCount; ++count)
+                    if (targetsByCount[count] == null)
+                        targetsByCount[count] = rule.target;
+            }
+
+            // The target only changes at the bounds of the rules.
+            TreeSet<Integer> starts = new TreeSet<>();
+            starts.add(tableSize);
+            for (Rule rule : rules) {
+                if (rule.minCount < 0 || rule.maxCount < tableSize)
+                    continue;
+
+                starts.add(Math.max(rule.minCount, tableSize));
+                if (rule.maxCount < Integer.MAX_VALUE)
+                    starts.add(rule.maxCount + 1);
+            }
+
+            rangeStarts = new int[starts.size()];
+            rangeTargets = new Target[starts.size()];
+            int index = 0;
+            for (int start : starts) {
+                rangeStarts[index] = start;
+                rangeTargets[index++] = findTarget(rules, start);
+            }
+
+            this.tieTarget = tieTarget;
+        }
+
+        private static Target findTarget(List<Rule> rules, int count) {
+            for (Rule rule : rules)
+                if (rule.minCount >= 0 && rule.minCount <= count && count <= rule.maxCount)
+                    return rule.target;
+            return null;
+        }
+
+        Target get(int count) {
+            if (count < targetsByCount.length)
+                return targetsByCount[count];
+
+            // The first range starts at the length of the table, so there is always a range before the count.
+            int index = Arrays.binarySearch(rangeStarts, count);
+            return rangeTargets[index >= 0 ? index : -index - 2];
+        }
+    }
+}
@@ -1,27 +1,53 @@
 package de.j13g.manko.core.managers;
 
 import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.diagnostics.MemoryReport;
+import de.j13g.manko.core.diagnostics.MemoryReportable;
 import de.j13g.manko.core.exceptions.NoSuchPairingException;
 import de.j13g.manko.core.managers.base.Pairings;
 import de.j13g.manko.util.UniformPairLinkedBiSet;
 import de.j13g.manko.util.UniformPairUniqueLinkedBiSet;
 
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Set;
 
-public class PairingManager<E> implements Pairings<E>, Serializable {
+public class PairingManager<E> implements Pairings<E>, MemoryReportable, Serializable {
 
     private final UniformPairUniqueLinkedBiSet<E, Pairing<E>> activePairings = new UniformPairUniqueLinkedBiSet<>();
     private final UniformPairLinkedBiSet<E, Pairing<E>> finishedPairings = new UniformPairLinkedBiSet<>();
 
+    /** The winner of each finished pairing that was not a tie. */
+    private final HashMap<Pairing<E>, E> winners = new HashMap<>();
+
     public boolean add(Pairing<E> pairing) {
         if (isFinished(pairing))
             return false;
         return this.activePairings.add(pairing);
     }
 
-    public boolean finish(Pairing<E> pairing) throws NoSuchPairingException {
+    /**
+     * Adds a pairing that is already finished, e.g. to restore a finished pairing that was removed.
+     * @param pairing The pairing.
+     * @param winner The entrant that won the pairing or null if it was a tie.
+     * @return If the pairing was added.
+     */
+    public boolean addFinished(Pairing<E> pairing, E winner) {
+        if (isActive(pairing) || !finishedPairings.add(pairing))
+            return false;
+
+        putWinner(pairing, winner);
+        return true;
+    }
+
+    /**
+     * @param pairing The active pairing.
+     * @param winner The entrant that won the pairing or null if it was a tie.
+     * @return If the pairing was finished, false if it was already finished.
+     * @throws NoSuchPairingException The pairing is not active.
+     */
+    public boolean finish(Pairing<E> pairing, E winner) throws NoSuchPairingException {
         if (isFinished(pairing))
             return false;
         if (!isActive(pairing))
@@ -29,6 +55,7 @@ public class PairingManager<E> implements Pairings<E>, Serializable {
 
         finishedPairings.add(pairing);
         activePairings.remove(pairing);
+        putWinner(pairing, winner);
         return true;
     }
 
@@ -41,6 +68,7 @@ public class PairingManager<E> implements Pairings<E>, Serializable {
     }
 
     public boolean removeFinished(Pairing<E> finishedPairing) {
+        winners.remove(finishedPairing);
         return finishedPairings.remove(finishedPairing);
     }
 
@@ -49,7 +77,19 @@ public class PairingManager<E> implements Pairings<E>, Serializable {
     }
 
     public Set<Pairing<E>> removeFinishedByEntrant(E entrant) {
-        return finishedPairings.removeByElement(entrant);
+        Set<Pairing<E>> removedPairings = finishedPairings.removeByElement(entrant);
+        for (Pairing<E> pairing : removedPairings)
+            winners.remove(pairing);
+        return removedPairings;
+    }
+
+    @Override
+    public void reportMemory(MemoryReport report) {
+        report.add("active", activePairings.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("activeIndex", activePairings.getPairElementSet().size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("finished", finishedPairings.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("finishedIndex", finishedPairings.getPairElementSet().size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("winners", winners.size(), MemoryReport.HASH_ENTRY_BYTES);
     }
 
     @Override
@@ -74,6 +114,11 @@ public class PairingManager<E> implements Pairings<E>, Serializable {
         return finishedPairings.findByElement(entrant);
     }
 
+    @Override
+    public E getWinner(Pairing<E> pairing) {
+        return winners.get(pairing);
+    }
+
     @Override
     public Set<Pairing<E>> getActive() {
         return activePairings.elements();
@@ -136,6 +181,11 @@ public class PairingManager<E> implements Pairings<E>, Serializable {
 
     @Override
     public boolean hasFinishedEntrant(E entrant) {
-        return finishedPairings.findByElement(entrant) != null;
+        return finishedPairings.getPairElementSet().contains(entrant);
+    }
+
+    private void putWinner(Pairing<E> pairing, E winner) {
+        if (winner != null)
+            winners.put(pairing, winner);
     }
 }
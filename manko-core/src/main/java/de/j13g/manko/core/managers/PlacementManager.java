@@ -1,12 +1,14 @@
 package de.j13g.manko.core.managers;
 
 import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.diagnostics.MemoryReport;
+import de.j13g.manko.core.diagnostics.MemoryReportable;
 
 import java.io.Serializable;
 import java.util.HashMap;
 
 // TODO Extract common methods compared to ScoreManager.
-public class PlacementManager<E> implements Serializable {
+public class PlacementManager<E> implements MemoryReportable, Serializable {
 
     private static final Placement DEFAULT_PLACEMENT = Placement.TBD;
 
@@ -37,6 +39,12 @@ public class PlacementManager<E> implements Serializable {
         return winners.getOrDefault(placement, null);
     }
 
+    @Override
+    public void reportMemory(MemoryReport report) {
+        report.add("placements", placements.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("winners", winners.size(), MemoryReport.HASH_ENTRY_BYTES);
+    }
+
     private Placement getOrDefault(E entrant) {
         return placements.getOrDefault(entrant, DEFAULT_PLACEMENT);
     }
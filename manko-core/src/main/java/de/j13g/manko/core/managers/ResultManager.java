@@ -1,11 +1,14 @@
 package de.j13g.manko.core.managers;
 
+import de.j13g.manko.core.diagnostics.MemoryReport;
+import de.j13g.manko.core.diagnostics.MemoryReportable;
+
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
-public class ResultManager<E> implements Serializable {
+public class ResultManager<E> implements MemoryReportable, Serializable {
 
     private final HashSet<E> advanced = new HashSet<>();
     private final HashSet<E> eliminated = new HashSet<>();
@@ -71,4 +74,10 @@ public class ResultManager<E> implements Serializable {
     public Set<E> getEliminated() {
         return Collections.unmodifiableSet(eliminated);
     }
+
+    @Override
+    public void reportMemory(MemoryReport report) {
+        report.add("advanced", advanced.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("eliminated", eliminated.size(), MemoryReport.HASH_ENTRY_BYTES);
+    }
 }
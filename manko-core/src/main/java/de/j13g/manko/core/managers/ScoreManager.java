@@ -1,9 +1,12 @@
 package de.j13g.manko.core.managers;
 
+import de.j13g.manko.core.diagnostics.MemoryReport;
+import de.j13g.manko.core.diagnostics.MemoryReportable;
+
 import java.io.Serializable;
 import java.util.HashMap;
 
-public class ScoreManager<E> implements Serializable {
+public class ScoreManager<E> implements MemoryReportable, Serializable {
 
     private static final int MIN_SCORE = 0;
     private static final int DEFAULT_SCORE = MIN_SCORE;
@@ -72,6 +75,11 @@ public class ScoreManager<E> implements Serializable {
         scores.put(entrant, score);
     }
 
+    @Override
+    public void reportMemory(MemoryReport report) {
+        report.add("scores", scores.size(), MemoryReport.HASH_ENTRY_BYTES);
+    }
+
     private int getOrDefault(E entrant) {
         return scores.getOrDefault(entrant, DEFAULT_SCORE);
     }
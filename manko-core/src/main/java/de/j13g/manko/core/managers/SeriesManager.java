@@ -0,0 +1,130 @@
+package de.j13g.manko.core.managers;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.diagnostics.MemoryReport;
+import de.j13g.manko.core.diagnostics.MemoryReportable;
+import de.j13g.manko.util.ObjectIntMap;
+
+import java.io.Serializable;
+
+/**
+ * Counts the games that each entrant of a pairing has won in a series, e.g. best of three.
+ * The wins of both entrants are packed into a single int per pairing in an {@link ObjectIntMap},
+ * so recording a game does not allocate.
+ * @param <E> The entrant type.
+ */
+public class SeriesManager<E> implements MemoryReportable, Serializable {
+
+    /** The largest number of games an entrant can win in a series. */
+    public static final int MAX_WINS = 0xFFFF;
+
+    private static final int WINS_BITS = 16;
+
+    /** The wins of the first entrant of the stored pairing in the low bits, those of the second in the high bits. */
+    private final ObjectIntMap<Pairing<E>> games = new ObjectIntMap<>();
+
+    /**
+     * Records a game of a series.
+     * @param pairing The pairing.
+     * @param winner The entrant that won the game.
+     * @return The number of games the winner has won in this series, including this game.
+     */
+    public int addGame(Pairing<E> pairing, E winner) {
+        return setWins(pairing, winner, getWins(pairing, winner) + 1, getWins(pairing, pairing.getOther(winner)));
+    }
+
+    /**
+     * Takes back a game of a series.
+     * @param pairing The pairing.
+     * @param winner The entrant that won the game.
+     * @return If the winner had won any game in this series.
+     */
+    public boolean removeGame(Pairing<E> pairing, E winner) {
+        int wins = getWins(pairing, winner);
+        if (wins == 0)
+            return false;
+
+        setWins(pairing, winner, wins - 1, getWins(pairing, pairing.getOther(winner)));
+        return true;
+    }
+
+    /**
+     * @param pairing The pairing.
+     * @param entrant An entrant of the pairing.
+     * @return The number of games the entrant has won in the series of this pairing.
+     */
+    public int getWins(Pairing<E> pairing, E entrant) {
+        int slot = games.find(pairing);
+        if (slot < 0)
+            return 0;
+
+        int packed = games.valueAt(slot);
+        return isFirstOf(slot, entrant) ? packed & MAX_WINS : packed >>> WINS_BITS;
+    }
+
+    /**
+     * Sets the state of a series, e.g. to restore it.
+     * The series is removed once neither entrant has won a game.
+     * @param pairing The pairing.
+     * @param entrant An entrant of the pairing.
+     * @param wins The number of games that entrant has won.
+     * @param opponentWins The number of games the other entrant has won.
+     * @return The number of games of the entrant.
+     */
+    public int setWins(Pairing<E> pairing, E entrant, int wins, int opponentWins) {
+        if (wins < 0 || opponentWins < 0 || wins > MAX_WINS || opponentWins > MAX_WINS)
+            throw new IllegalArgumentException("Invalid number of wins");
+        if (!pairing.contains(entrant))
+            throw new IllegalArgumentException("The entrant is not part of the pairing");
+
+        int slot = games.find(pairing);
+
+        if (wins == 0 && opponentWins == 0) {
+            if (slot >= 0)
+                games.removeAt(slot);
+            return 0;
+        }
+
+        if (slot < 0)
+            slot = games.insert(pairing, 0);
+
+        games.setValueAt(slot, isFirstOf(slot, entrant)
+                ? wins | opponentWins << WINS_BITS
+                : opponentWins | wins << WINS_BITS);
+        return wins;
+    }
+
+    /**
+     * Removes the series of a pairing, e.g. when the pairing is played again from the start.
+     * @param pairing The pairing.
+     * @return If any game of the pairing was recorded.
+     */
+    public boolean remove(Pairing<E> pairing) {
+        return games.remove(pairing);
+    }
+
+    public void clear() {
+        games.clear();
+    }
+
+    /**
+     * @return The number of pairings with at least one recorded game.
+     */
+    public int size() {
+        return games.size();
+    }
+
+    public boolean isEmpty() {
+        return games.isEmpty();
+    }
+
+    @Override
+    public void reportMemory(MemoryReport report) {
+        // Each slot holds a reference, a hash and the packed games.
+        report.add("series", games.capacity(), MemoryReport.REFERENCE_BYTES + 2 * Integer.BYTES);
+    }
+
+    private boolean isFirstOf(int slot, E entrant) {
+        return games.keyAt(slot).getFirst().equals(entrant);
+    }
+}
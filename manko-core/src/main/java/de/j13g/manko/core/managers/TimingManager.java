@@ -0,0 +1,179 @@
+package de.j13g.manko.core.managers;
+
+import de.j13g.manko.core.diagnostics.MemoryReport;
+import de.j13g.manko.core.diagnostics.MemoryReportable;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Keeps the timeline of each entrant of a round: when it joined, since when it waits
+ * for a pairing, when its last pairing started and when that pairing got a result.
+ * The times of all entrants are packed into a single long array with a fixed slot per entrant,
+ * so recording a time does not allocate.
+ * @param <E> The entrant type.
+ */
+public class TimingManager<E> implements MemoryReportable, Serializable {
+
+    /** The time of an event that did not happen (yet). */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final int JOINED = 0;
+    private static final int WAITING = 1;
+    private static final int PAIRED = 2;
+    private static final int RESULT = 3;
+    private static final int TIMES_PER_SLOT = 4;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final HashMap<E, Integer> slots = new HashMap<>();
+    private long[] times = new long[DEFAULT_CAPACITY * TIMES_PER_SLOT];
+
+    /**
+     * Records that an entrant joined the round. Only the first time counts.
+     * @param entrant The entrant.
+     * @param time The current time.
+     */
+    public void join(E entrant, long time) {
+        int slot = slotOf(entrant);
+        if (times[slot + JOINED] == NONE)
+            times[slot + JOINED] = time;
+    }
+
+    /**
+     * Records that an entrant starts waiting for a pairing, which clears its last pairing.
+     * @param entrant The entrant.
+     * @param time The current time.
+     */
+    public void startWaiting(E entrant, long time) {
+        int slot = slotOf(entrant);
+        times[slot + WAITING] = time;
+        times[slot + PAIRED] = NONE;
+        times[slot + RESULT] = NONE;
+    }
+
+    /**
+     * Records the start of a pairing. The time the entrant waited before is kept.
+     * @param entrant The entrant.
+     * @param time The current time.
+     */
+    public void pair(E entrant, long time) {
+        int slot = slotOf(entrant);
+        times[slot + PAIRED] = time;
+        times[slot + RESULT] = NONE;
+    }
+
+    /**
+     * Records that the pairing of an entrant was taken back, so it continues to wait since the same time.
+     * @param entrant The entrant.
+     */
+    public void unpair(E entrant) {
+        int slot = slotOf(entrant);
+        times[slot + PAIRED] = NONE;
+        times[slot + RESULT] = NONE;
+    }
+
+    /**
+     * Records the result of the pairing of an entrant.
+     * @param entrant The entrant.
+     * @param time The current time.
+     */
+    public void finish(E entrant, long time) {
+        times[slotOf(entrant) + RESULT] = time;
+    }
+
+    /**
+     * @param entrant The entrant.
+     * @return A copy of the timeline of the entrant, e.g. to restore it with setTimes.
+     */
+    public long[] getTimes(E entrant) {
+        int slot = slotOf(entrant);
+        return Arrays.copyOfRange(times, slot, slot + TIMES_PER_SLOT);
+    }
+
+    /**
+     * Replaces the timeline of an entrant.
+     * @param entrant The entrant.
+     * @param entrantTimes A timeline returned by getTimes.
+     */
+    public void setTimes(E entrant, long[] entrantTimes) {
+        System.arraycopy(entrantTimes, 0, times, slotOf(entrant), TIMES_PER_SLOT);
+    }
+
+    public long getJoinTime(E entrant) {
+        return get(entrant, JOINED);
+    }
+
+    public long getWaitingSince(E entrant) {
+        return get(entrant, WAITING);
+    }
+
+    public long getPairTime(E entrant) {
+        return get(entrant, PAIRED);
+    }
+
+    public long getResultTime(E entrant) {
+        return get(entrant, RESULT);
+    }
+
+    /**
+     * @param entrant The entrant.
+     * @param now The current time.
+     * @return How long the entrant waited for its last pairing or has been waiting so far, 0 if it never waited.
+     */
+    public long getWaitTime(E entrant, long now) {
+        long waitingSince = getWaitingSince(entrant);
+        if (waitingSince == NONE)
+            return 0;
+
+        long pairTime = getPairTime(entrant);
+        return (pairTime != NONE ? pairTime : now) - waitingSince;
+    }
+
+    /**
+     * @param entrant The entrant.
+     * @param now The current time.
+     * @return How long the last pairing of the entrant took or has been going on so far, 0 without a pairing.
+     */
+    public long getPairingDuration(E entrant, long now) {
+        long pairTime = getPairTime(entrant);
+        if (pairTime == NONE)
+            return 0;
+
+        long resultTime = getResultTime(entrant);
+        return (resultTime != NONE ? resultTime : now) - pairTime;
+    }
+
+    /**
+     * @return The entrants with a timeline, including removed entrants.
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    @Override
+    public void reportMemory(MemoryReport report) {
+        report.add("timing", slots.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("times", times.length, Long.BYTES);
+    }
+
+    private long get(E entrant, int field) {
+        Integer slot = slots.get(entrant);
+        return slot != null ? times[slot + field] : NONE;
+    }
+
+    private int slotOf(E entrant) {
+        Integer slot = slots.get(entrant);
+        if (slot != null)
+            return slot;
+
+        int newSlot = slots.size() * TIMES_PER_SLOT;
+        if (newSlot == times.length)
+            times = Arrays.copyOf(times, times.length * 2);
+
+        Arrays.fill(times, newSlot, newSlot + TIMES_PER_SLOT, NONE);
+        slots.put(entrant, newSlot);
+        return newSlot;
+    }
+}
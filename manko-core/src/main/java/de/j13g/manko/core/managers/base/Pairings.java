@@ -19,6 +19,13 @@ public interface Pairings<E> {
 
     Set<Pairing<E>> getFinished();
 
+    /**
+     * The winner is recorded when the pairing finishes, so it does not depend on later pairings of the entrants.
+     * @param pairing A finished pairing.
+     * @return The entrant that won the pairing or null if it was a tie or is not finished.
+     */
+    E getWinner(Pairing<E> pairing);
+
     Set<E> getActiveEntrants();
 
     Set<E> getFinishedEntrants();
@@ -0,0 +1,29 @@
+package de.j13g.manko.core.persistence;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts entrants to and from a binary representation of a fixed size.
+ * @param <E> The entrant type.
+ */
+public interface EntrantCodec<E> {
+
+    /**
+     * @return The number of bytes of an encoded entrant.
+     */
+    int getEncodedSize();
+
+    /**
+     * Writes exactly getEncodedSize() bytes at the position of the buffer.
+     * @param entrant The entrant.
+     * @param buffer The buffer.
+     */
+    void encode(E entrant, ByteBuffer buffer);
+
+    /**
+     * Reads exactly getEncodedSize() bytes at the position of the buffer.
+     * @param buffer The buffer.
+     * @return The decoded entrant.
+     */
+    E decode(ByteBuffer buffer);
+}
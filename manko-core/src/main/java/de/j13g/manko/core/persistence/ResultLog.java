@@ -0,0 +1,463 @@
+package de.j13g.manko.core.persistence;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.base.TournamentListener;
+import de.j13g.manko.core.base.UndoableRound;
+import de.j13g.manko.core.exceptions.CorruptLogException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of tournament changes in a memory-mapped file of fixed size.
+ * Each change is a record of fixed width: sequence number, round number, operation,
+ * entrant, opponent and a CRC32 checksum of the preceding fields.
+ * Appending a record only copies it to the mapped buffer, which is forced to disk periodically.
+ * The log complements a snapshot of the tournament:
+ * Records up to the sequence number at the time of the snapshot are skipped when recovering,
+ * later records are replayed. Once the log is almost full, a snapshot has to be taken and the log reset.
+ * @param <E> The entrant type.
+ */
+public class ResultLog<E> implements TournamentListener<E>, Closeable {
+
+    public enum Operation {
+        ADD,
+        REMOVE,
+        RESET,
+        PAIR,
+        REPLAY,
+        WIN,
+        TIE,
+        ROUND,
+        UNPAIR,
+        BYE,
+        GAME,
+        GAME_REPLAY
+    }
+
+    private static final int HEADER_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int CHECKSUM_BYTES = Integer.BYTES;
+
+    /** Free records that are required such that the changes of a single command always fit. */
+    private static final int SNAPSHOT_HEADROOM = 64;
+
+    private static final long FORCE_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final EntrantCodec<E> codec;
+
+    private final int capacity;
+    private final int recordBytes;
+
+    private final ByteBuffer record;
+    private final CRC32 checksum = new CRC32();
+
+    /** The number of valid consecutive records at the start of the file when it was opened. */
+    private int recoverableCount;
+
+    private int position = 0;
+    private long sequence = 0;
+    private boolean isOverflowed = false;
+
+    private boolean isDirty = false;
+    private long lastForceNanos = System.nanoTime();
+
+    private Tournament<E> tournament = null;
+    private int roundNumber = 1;
+
+    /** If the last game decided its series, so the following winner is contained in its record. */
+    private boolean isWinnerOfGame = false;
+
+    private ResultLog(FileChannel channel, int capacity, EntrantCodec<E> codec) throws IOException {
+        this.channel = channel;
+        this.capacity = capacity;
+        this.codec = codec;
+
+        recordBytes = HEADER_BYTES + 2 * codec.getEncodedSize() + CHECKSUM_BYTES;
+        record = ByteBuffer.allocate(recordBytes);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * recordBytes);
+
+        scan();
+    }
+
+    /**
+     * Opens or creates a log file.
+     * @param file The file.
+     * @param capacity The number of records that fit into the file.
+     * @param codec Converts entrants to records.
+     * @param <E> The entrant type.
+     * @return The opened log, which still needs to be recovered.
+     * @throws IOException The file could not be opened or mapped.
+     */
+    public static <E> ResultLog<E> open(File file, int capacity, EntrantCodec<E> codec) throws IOException {
+        if (capacity <= SNAPSHOT_HEADROOM)
+            throw new IllegalArgumentException("The capacity must be larger than " + SNAPSHOT_HEADROOM);
+
+        FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+
+        try {
+            return new ResultLog<>(channel, capacity, codec);
+        }
+        catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Replays all records that were appended after a snapshot.
+     * Afterwards, new records are appended after the replayed ones.
+     * @param tournament The tournament as it was restored from the snapshot or null if there is none.
+     * @param snapshotSequence The sequence number of the log at the time of the snapshot.
+     * @throws CorruptLogException Records are missing or cannot be applied to the tournament.
+     */
+    public void recover(Tournament<E> tournament, long snapshotSequence) throws CorruptLogException {
+        long firstSequence = recoverableCount > 0 ? readSequence(0) : 0;
+        long lastSequence = recoverableCount > 0 ? firstSequence + recoverableCount - 1 : 0;
+
+        if (recoverableCount == 0 || lastSequence <= snapshotSequence) {
+            // All records are contained in the snapshot.
+            sequence = Math.max(lastSequence, snapshotSequence);
+            reset();
+            return;
+        }
+
+        // New records must never continue the sequence of records that could not be replayed.
+        sequence = lastSequence;
+        position = recoverableCount;
+
+        if (tournament == null || firstSequence > snapshotSequence + 1)
+            throw new CorruptLogException();
+
+        // Rounds that were started automatically have their own records.
+        boolean isAutoAdvancing = tournament.isAutoAdvancing();
+        tournament.setAutoAdvancing(false);
+        try {
+            for (int index = (int) Math.max(0, snapshotSequence + 1 - firstSequence); index < recoverableCount; ++index)
+                apply(tournament, index);
+        }
+        finally {
+            tournament.setAutoAdvancing(isAutoAdvancing);
+        }
+
+        // Like after a restart, recovered changes cannot be undone.
+        tournament.clearHistory();
+    }
+
+    /**
+     * Appends records for all further changes of a tournament.
+     * @param tournament The tournament.
+     */
+    public void attach(Tournament<E> tournament) {
+        detach();
+
+        this.tournament = tournament;
+        roundNumber = tournament.getRoundNumber();
+        tournament.addListener(this);
+    }
+
+    public void detach() {
+        if (tournament != null)
+            tournament.removeListener(this);
+        tournament = null;
+    }
+
+    /**
+     * @return The sequence number of the last appended record.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return If the log is almost full or records were already dropped,
+     * e.g. because a round was restored, i.e. a snapshot has to be taken followed by a reset.
+     */
+    public boolean needsSnapshot() {
+        return isOverflowed || position > capacity - SNAPSHOT_HEADROOM;
+    }
+
+    /**
+     * Starts to overwrite the log from the beginning.
+     * Must only be called once a snapshot contains all changes up to the current sequence number.
+     */
+    public void reset() {
+        position = 0;
+        isOverflowed = false;
+    }
+
+    public void force() {
+        if (isDirty)
+            buffer.force();
+
+        isDirty = false;
+        lastForceNanos = System.nanoTime();
+    }
+
+    @Override
+    public void close() throws IOException {
+        detach();
+        force();
+        channel.close();
+    }
+
+    @Override
+    public void onEntrantAdded(Round<E> round, E entrant) {
+        append(Operation.ADD, entrant, null);
+    }
+
+    @Override
+    public void onEntrantRemoved(Round<E> round, E entrant) {
+        append(Operation.REMOVE, entrant, null);
+    }
+
+    @Override
+    public void onEntrantReset(Round<E> round, E entrant) {
+        append(Operation.RESET, entrant, null);
+    }
+
+    @Override
+    public void onPairing(Round<E> round, Pairing<E> pairing) {
+        append(Operation.PAIR, pairing.getFirst(), pairing.getSecond());
+    }
+
+    @Override
+    public void onBye(Round<E> round, E entrant) {
+        append(Operation.BYE, entrant, null);
+    }
+
+    @Override
+    public void onUnpairing(Round<E> round, Pairing<E> pairing) {
+        append(Operation.UNPAIR, pairing.getFirst(), pairing.getSecond());
+    }
+
+    @Override
+    public void onReplay(Round<E> round, Pairing<E> pairing) {
+        append(Operation.REPLAY, pairing.getFirst(), pairing.getSecond());
+    }
+
+    @Override
+    public void onWinner(Round<E> round, E winner, Pairing<E> pairing) {
+        // Replaying the deciding game of a series declares the winner again.
+        if (isWinnerOfGame) {
+            isWinnerOfGame = false;
+            return;
+        }
+
+        append(Operation.WIN, winner, pairing.getOther(winner));
+    }
+
+    @Override
+    public void onGame(Round<E> round, E winner, Pairing<E> pairing, int wins) {
+        isWinnerOfGame = wins >= tournament.getGamesToWin();
+        append(Operation.GAME, winner, pairing.getOther(winner));
+    }
+
+    @Override
+    public void onGameReplay(Round<E> round, E winner, Pairing<E> pairing) {
+        append(Operation.GAME_REPLAY, winner, pairing.getOther(winner));
+    }
+
+    @Override
+    public void onTie(Round<E> round, Pairing<E> pairing) {
+        append(Operation.TIE, pairing.getFirst(), pairing.getSecond());
+    }
+
+    @Override
+    public void onRoundChanged(Round<E> round, int roundNumber) {
+        this.roundNumber = roundNumber;
+        append(Operation.ROUND, null, null);
+    }
+
+    @Override
+    public void onRoundRestored(Round<E> round, int roundNumber) {
+        // A restored round cannot be expressed by records,
+        // so further records are dropped until the next snapshot contains the round.
+        this.roundNumber = roundNumber;
+        isOverflowed = true;
+    }
+
+    private void append(Operation operation, E entrant, E opponent) {
+        if (isOverflowed || position >= capacity) {
+            // Dropped changes are contained in the next snapshot.
+            isOverflowed = true;
+            return;
+        }
+
+        record.clear();
+        record.putLong(sequence + 1);
+        record.putInt(roundNumber);
+        record.putInt(operation.ordinal());
+        encode(entrant);
+        encode(opponent);
+
+        checksum.reset();
+        checksum.update(record.array(), 0, recordBytes - CHECKSUM_BYTES);
+        record.putInt((int) checksum.getValue());
+
+        record.flip();
+        buffer.position(position * recordBytes);
+        buffer.put(record);
+
+        sequence += 1;
+        position += 1;
+        isDirty = true;
+
+        if (System.nanoTime() - lastForceNanos >= FORCE_INTERVAL_NANOS)
+            force();
+    }
+
+    private void encode(E entrant) {
+        int start = record.position();
+        if (entrant == null) {
+            for (int i = 0; i < codec.getEncodedSize(); ++i)
+                record.put((byte) 0);
+        }
+        else {
+            codec.encode(entrant, record);
+        }
+
+        if (record.position() - start != codec.getEncodedSize())
+            throw new IllegalStateException("The codec did not write the expected number of bytes");
+    }
+
+    private void scan() {
+        recoverableCount = 0;
+
+        long previousSequence = 0;
+        while (recoverableCount < capacity && readRecord(recoverableCount)) {
+            long recordSequence = record.getLong(0);
+            if (recoverableCount > 0 && recordSequence != previousSequence + 1)
+                break;
+
+            previousSequence = recordSequence;
+            recoverableCount += 1;
+        }
+    }
+
+    /**
+     * Loads a record into the record buffer and verifies its checksum.
+     * @param index The index of the record.
+     * @return If the record is valid.
+     */
+    private boolean readRecord(int index) {
+        buffer.position(index * recordBytes);
+        buffer.get(record.array(), 0, recordBytes);
+
+        checksum.reset();
+        checksum.update(record.array(), 0, recordBytes - CHECKSUM_BYTES);
+        return record.getInt(recordBytes - CHECKSUM_BYTES) == (int) checksum.getValue();
+    }
+
+    private long readSequence(int index) {
+        readRecord(index);
+        return record.getLong(0);
+    }
+
+    private void apply(Tournament<E> tournament, int index) throws CorruptLogException {
+        if (!readRecord(index))
+            throw new CorruptLogException();
+
+        record.position(Long.BYTES);
+        int recordRound = record.getInt();
+        int ordinal = record.getInt();
+        if (ordinal < 0 || ordinal >= Operation.values().length)
+            throw new CorruptLogException();
+
+        Operation operation = Operation.values()[ordinal];
+        if (operation == Operation.ROUND) {
+            applyRoundChange(tournament, recordRound);
+            return;
+        }
+
+        if (recordRound != tournament.getRoundNumber())
+            throw new CorruptLogException();
+
+        E entrant = codec.decode(record);
+        E opponent = operation == Operation.ADD || operation == Operation.REMOVE || operation == Operation.RESET
+                || operation == Operation.BYE ? null : codec.decode(record);
+
+        try {
+            applyEntrantChange(tournament, operation, entrant, opponent);
+        }
+        catch (CorruptLogException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            // The tournament rejected the change, so the snapshot does not belong to this log.
+            throw new CorruptLogException();
+        }
+    }
+
+    private void applyRoundChange(Tournament<E> tournament, int newRoundNumber) throws CorruptLogException {
+        try {
+            if (newRoundNumber > tournament.getRoundNumber())
+                tournament.nextRound();
+            else
+                tournament.previousRound();
+        }
+        catch (Exception e) {
+            throw new CorruptLogException();
+        }
+
+        if (tournament.getRoundNumber() != newRoundNumber)
+            throw new CorruptLogException();
+    }
+
+    private void applyEntrantChange(Tournament<E> tournament, Operation operation, E entrant, E opponent)
+            throws Exception {
+
+        switch (operation) {
+            case ADD:
+                tournament.addEntrant(entrant);
+                break;
+            case REMOVE:
+                tournament.removeEntrant(entrant);
+                break;
+            case RESET:
+                tournament.resetEntrant(entrant);
+                break;
+            case PAIR:
+                // Random pairings have to be restored exactly, others are deterministic.
+                if (tournament.getCurrentRound() instanceof UndoableRound)
+                    tournament.pair(new Pairing<>(entrant, opponent));
+                else if (!tournament.nextPairing().equals(new Pairing<>(entrant, opponent)))
+                    throw new CorruptLogException();
+                break;
+            case UNPAIR:
+                tournament.unpair(new Pairing<>(entrant, opponent));
+                break;
+            case BYE:
+                // The bye policy is not logged, so the bye is applied directly.
+                tournament.advanceBye(entrant);
+                break;
+            case REPLAY:
+                tournament.replayPairing(new Pairing<>(entrant, opponent));
+                break;
+            case WIN:
+                tournament.declareWinner(entrant, new Pairing<>(entrant, opponent));
+                break;
+            case TIE:
+                tournament.declareTie(new Pairing<>(entrant, opponent));
+                break;
+            case GAME:
+                tournament.declareGameWinner(entrant, new Pairing<>(entrant, opponent));
+                break;
+            case GAME_REPLAY:
+                tournament.replayGame(entrant, new Pairing<>(entrant, opponent));
+                break;
+            default:
+                throw new CorruptLogException();
+        }
+    }
+}
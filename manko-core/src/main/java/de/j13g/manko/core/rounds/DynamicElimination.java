@@ -0,0 +1,826 @@
+package de.j13g.manko.core.rounds;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.PairingFactory;
+import de.j13g.manko.core.diagnostics.MemoryReport;
+import de.j13g.manko.core.diagnostics.MemoryReportable;
+import de.j13g.manko.core.managers.PairingManager;
+import de.j13g.manko.core.managers.ResultManager;
+import de.j13g.manko.core.managers.TimingManager;
+import de.j13g.manko.core.exceptions.*;
+import de.j13g.manko.core.base.EliminationRound;
+import de.j13g.manko.core.base.UndoableRound;
+import de.j13g.manko.core.managers.base.Pairings;
+import de.j13g.manko.util.Histogram;
+import de.j13g.manko.util.IndexedHeap;
+import de.j13g.manko.util.ShuffledSet;
+import de.j13g.manko.util.exceptions.EmptySetException;
+import de.j13g.manko.util.exceptions.NoSuchElementException;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.time.Clock;
+import java.util.*;
+import java.util.stream.Stream;
+
+public class DynamicElimination<E> implements EliminationRound<E>, UndoableRound<E>, MemoryReportable, Serializable {
+
+    /**
+     * Decides what happens when the only pending entrant is to be paired.
+     */
+    public enum ByePolicy {
+        /** The entrant waits for another entrant to join. */
+        HOLD,
+        /** The entrant advances without a pairing. */
+        ADVANCE,
+        /** The entrant is paired with a random eliminated entrant, which gets a second chance. */
+        LUCKY_LOSER
+    }
+
+    /**
+     * Decides which pending entrants are paired next.
+     */
+    public enum PairingPolicy {
+        /** Two random pending entrants are paired. */
+        RANDOM,
+        /** The two entrants that have been waiting the longest are paired. */
+        LONGEST_WAITING
+    }
+
+    protected final Random random;
+
+    protected final HashSet<E> entrants = new HashSet<>();
+    protected final ShuffledSet<E> pendingEntrants;
+
+    protected ByePolicy byePolicy = ByePolicy.HOLD;
+    protected PairingPolicy pairingPolicy = PairingPolicy.RANDOM;
+
+    /** The pending entrants by the time since which they are waiting, kept for every pairing policy. */
+    protected final IndexedHeap<E> waitingEntrants = new IndexedHeap<>();
+    protected final TimingManager<E> timing = new TimingManager<>();
+
+    /** Not serialized, a restored round uses the system clock. */
+    private transient Clock clock = Clock.systemUTC();
+
+    /** Entrants that advanced without a pairing. */
+    protected final HashSet<E> byeEntrants = new HashSet<>();
+    protected E lastByeEntrant = null;
+
+    /** Entrants that were eliminated and paired again. They are eliminated again if the pairing is taken back. */
+    protected final HashSet<E> luckyLosers = new HashSet<>();
+
+    protected final ResultManager<E> results = new ResultManager<>();
+    protected final ResultManager<E> floatingResults = new ResultManager<>();
+
+    protected final PairingManager<E> pairings = new PairingManager<>();
+    protected final PairingFactory<E> pairingFactory = new PairingFactory<>();
+
+    public DynamicElimination() {
+        this(new Random());
+    }
+
+    /**
+     * @param random The source of randomness for pairings.
+     */
+    public DynamicElimination(Random random) {
+        this.random = random;
+        pendingEntrants = new ShuffledSet<>(random);
+    }
+
+    public DynamicElimination(Collection<E> entrants) {
+        this(entrants, new Random());
+    }
+
+    public DynamicElimination(Collection<E> entrants, Random random) {
+        this(random);
+        entrants.forEach(this::addEntrant);
+    }
+
+    @Override
+    public boolean addEntrant(E entrant) {
+        if (hasEntrant(entrant))
+            return false;
+
+        entrants.add(entrant);
+        timing.join(entrant, now());
+
+        if (floatingResults.contains(entrant)) {
+            floatingResults.moveTo(results, entrant);
+            return true;
+        }
+
+        startWaiting(entrant);
+        return true;
+    }
+
+    public ByePolicy getByePolicy() {
+        return byePolicy;
+    }
+
+    public void setByePolicy(ByePolicy byePolicy) {
+        this.byePolicy = byePolicy;
+    }
+
+    public PairingPolicy getPairingPolicy() {
+        return pairingPolicy;
+    }
+
+    public void setPairingPolicy(PairingPolicy pairingPolicy) {
+        this.pairingPolicy = pairingPolicy;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * @param clock The clock for the times of the entrants, e.g. a fixed clock for tests.
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Generates the next pairing between two pending entrants, chosen by the pairing policy.
+     * If only one entrant is pending, the bye policy is applied.
+     * @return The pairing or null if the only pending entrant advanced without an opponent,
+     * which is then the last bye entrant.
+     * @throws NoEntrantsException There are no pending entrants.
+     * @throws NoOpponentException The only pending entrant does not have an opponent.
+     */
+    @Override
+    public Pairing<E> nextPairing() throws NoEntrantsException, NoOpponentException {
+        if (pendingEntrants.size() == 0) throw new NoEntrantsException();
+        if (pendingEntrants.size() == 1) return pairLastEntrant();
+
+        try {
+            E entrant1 = takePending();
+            E entrant2 = takePending();
+            return registerPairing(entrant1, entrant2);
+        }
+        catch (EmptySetException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Pairs two specific pending entrants instead of random ones,
+     * e.g. to restore a pairing that was chosen earlier.
+     * @param first The first entrant.
+     * @param second The second entrant.
+     * @return The new pairing.
+     * @throws NoSuchEntrantException One of the entrants is not pending.
+     */
+    public Pairing<E> pairEntrants(E first, E second) throws NoSuchEntrantException {
+        if (first.equals(second))
+            throw new IllegalArgumentException("An entrant cannot be paired with itself");
+        if (!isEntrantPending(first) || !isEntrantPending(second))
+            throw new NoSuchEntrantException();
+
+        removePending(first);
+        removePending(second);
+        return registerPairing(first, second);
+    }
+
+    /**
+     * Advances a pending entrant without a pairing.
+     * @param entrant The entrant.
+     * @throws NoSuchEntrantException The entrant is not pending.
+     */
+    public void advanceBye(E entrant) throws NoSuchEntrantException {
+        if (!isEntrantPending(entrant))
+            throw new NoSuchEntrantException();
+
+        removePending(entrant);
+        results.advance(entrant);
+        byeEntrants.add(entrant);
+        lastByeEntrant = entrant;
+        timing.finish(entrant, now());
+    }
+
+    /**
+     * @return Entrants that advanced without a pairing.
+     */
+    public Set<E> getByeEntrants() {
+        return Collections.unmodifiableSet(byeEntrants);
+    }
+
+    /**
+     * @return The entrant that most recently advanced without a pairing or null.
+     */
+    public E getLastByeEntrant() {
+        return lastByeEntrant;
+    }
+
+    /**
+     * @return The pending entrant that has been waiting the longest or null if no entrant is pending.
+     */
+    public E getLongestWaitingEntrant() {
+        return waitingEntrants.peek();
+    }
+
+    /**
+     * @param entrant The entrant.
+     * @return How long the entrant waited for its last pairing or has been waiting so far, in milliseconds.
+     */
+    public long getWaitTime(E entrant) {
+        return timing.getWaitTime(entrant, now());
+    }
+
+    /**
+     * @return The time each current entrant waited for its last pairing or has been waiting so far, in milliseconds.
+     */
+    public Histogram getWaitTimes() {
+        long now = now();
+        Histogram histogram = new Histogram();
+        for (E entrant : entrants)
+            if (timing.getWaitingSince(entrant) != TimingManager.NONE)
+                histogram.record(timing.getWaitTime(entrant, now));
+        return histogram;
+    }
+
+    /**
+     * Only the last pairing of each entrant has a duration.
+     * @return The duration of each finished pairing, in milliseconds.
+     */
+    public Histogram getPairingDurations() {
+        long now = now();
+        Histogram histogram = new Histogram();
+        for (Pairing<E> pairing : pairings.getFinished()) {
+            E first = pairing.getFirst();
+            if (pairing.equals(pairings.getLastPairingOfEntrant(first))
+                    && timing.getResultTime(first) != TimingManager.NONE)
+                histogram.record(timing.getPairingDuration(first, now));
+        }
+        return histogram;
+    }
+
+    /**
+     * @return The times at which entrants joined, waited, were paired and got results.
+     */
+    public TimingManager<E> getTiming() {
+        return timing;
+    }
+
+    @Override
+    public void unpair(Pairing<E> pairing) throws NoSuchPairingException {
+        pairing = pairingFactory.canonical(pairing);
+
+        if (!pairings.removeActive(pairing))
+            throw new NoSuchPairingException();
+
+        pairingFactory.remove(pairing);
+        resetUnpaired(pairing.getFirst());
+        resetUnpaired(pairing.getSecond());
+    }
+
+    /**
+     * Pairs two pending entrants or a pending entrant with an eliminated entrant as lucky loser.
+     * @param pairing The pairing.
+     * @throws NoSuchEntrantException An entrant cannot be paired.
+     */
+    @Override
+    public void pair(Pairing<E> pairing) throws NoSuchEntrantException {
+        E first = pairing.getFirst();
+        E second = pairing.getSecond();
+
+        if (isEntrantPending(first) && isEntrantEliminated(second))
+            pairLuckyLoser(first, second);
+        else if (isEntrantPending(second) && isEntrantEliminated(first))
+            pairLuckyLoser(second, first);
+        else
+            pairEntrants(first, second);
+    }
+
+    @Override
+    public Pairing<E> declareWinner(E winningEntrant) throws NoSuchEntrantException, MissingPairingException {
+        if (!hasEntrant(winningEntrant))
+            throw new NoSuchEntrantException();
+
+        Pairing<E> pairing = pairings.findActiveByEntrant(winningEntrant);
+        if (pairing == null)
+            throw new MissingPairingException();
+
+        try {
+            declareWinner(winningEntrant, pairing);
+        } catch (NoSuchPairingException e) {
+            throw new RuntimeException(e);
+        }
+
+        return pairing;
+    }
+
+    @Override
+    public void declareWinner(E winningEntrant, Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException {
+
+        pairing = pairingFactory.canonical(pairing);
+
+        if (!pairing.contains(winningEntrant))
+            throw new IllegalArgumentException("The entrant is not part of the pairing");
+
+        if (!hasEntrant(winningEntrant))
+            throw new NoSuchEntrantException();
+        if (!pairings.isActive(pairing))
+            throw new NoSuchPairingException();
+
+        results.advance(winningEntrant);
+        results.eliminate(getOtherUnsafe(pairing, winningEntrant));
+
+        finishPairing(pairing, winningEntrant);
+    }
+
+    @Override
+    public void declareTie(Pairing<E> pairing)
+            throws NoSuchPairingException {
+
+        pairing = pairingFactory.canonical(pairing);
+
+        if (!pairings.isActive(pairing))
+            throw new NoSuchPairingException();
+
+        results.eliminate(pairing.getFirst());
+        results.eliminate(pairing.getSecond());
+
+        finishPairing(pairing, null);
+    }
+
+    @Override
+    public boolean replayPairing(Pairing<E> pairing)
+            throws NoSuchPairingException, MissingEntrantException, OrphanedPairingException {
+
+        pairing = pairingFactory.canonical(pairing);
+
+        if (pairings.isActive(pairing))
+            return false;
+        if (!pairings.isFinished(pairing))
+            throw new NoSuchPairingException();
+
+        E first = pairing.getFirst();
+        E second = pairing.getSecond();
+
+        // One of the entrants could be removed,
+        // since finished pairings are only removed if both entrants are gone.
+        if (!hasEntrant(first) || !hasEntrant(second))
+            throw new MissingEntrantException();
+
+        if (isPairingOrphaned(pairing))
+            throw new OrphanedPairingException();
+
+        results.reset(first);
+        results.reset(second);
+        pairings.remove(pairing);
+
+        removePending(first);
+        removePending(second);
+        registerPairing(first, second);
+
+        return true;
+    }
+
+    @Override
+    public boolean resetEntrant(E entrant) {
+        if (!hasStateAbout(entrant) || isEntrantPending(entrant))
+            return false;
+
+        if (isEntrantPaired(entrant)) {
+            Pairing<E> pairing = pairings.removeActiveByEntrant(entrant);
+            pairingFactory.remove(pairing);
+            resetOtherUnsafe(pairing, entrant);
+            startWaiting(entrant);
+        }
+        else if (isEntrantAdvanced(entrant) || isEntrantEliminated(entrant)) {
+            results.reset(entrant);
+            startWaiting(entrant);
+        }
+        else if (floatingResults.isAdvanced(entrant) || floatingResults.isEliminated(entrant)) {
+            assert !hasEntrant(entrant);
+            floatingResults.reset(entrant);
+        }
+
+        byeEntrants.remove(entrant);
+        luckyLosers.remove(entrant);
+        if (entrant.equals(lastByeEntrant))
+            lastByeEntrant = null;
+
+        Set<Pairing<E>> entrantPairingSet = pairings.findFinishedByEntrant(entrant);
+
+        // Create a copy because removing elements from finishedPairings
+        // in the loop below will modify the original set.
+        List<Pairing<E>> entrantPairings = new ArrayList<>(entrantPairingSet);
+
+        // Remove all pairings that this entrant is part of
+        // and where the other entrant does not have any results
+        // i.e. the other entrant was reset before too.
+        for (Pairing<E> pairing : entrantPairings) {
+            E other = getOtherUnsafe(pairing, entrant);
+            if (!hasEntrantResult(other) && !floatingResults.contains(other)) {
+                pairings.removeFinished(pairing);
+                pairingFactory.remove(pairing);
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public Runnable resetEntrantRevertibly(E entrant) {
+        Pairing<E> activePairing = pairings.findActiveByEntrant(entrant);
+        E other = activePairing != null ? getOtherUnsafe(activePairing, entrant) : null;
+        boolean isOtherLuckyLoser = luckyLosers.contains(other);
+        long[] otherTimes = other != null ? timing.getTimes(other) : null;
+
+        ResultManager<E> entrantResults = hasEntrant(entrant) ? results : floatingResults;
+        boolean wasAdvanced = entrantResults.isAdvanced(entrant);
+        boolean wasEliminated = entrantResults.isEliminated(entrant);
+        boolean wasBye = byeEntrants.contains(entrant);
+        boolean wasLastBye = entrant.equals(lastByeEntrant);
+        boolean wasLuckyLoser = luckyLosers.contains(entrant);
+        LinkedHashMap<Pairing<E>, E> finishedPairings = new LinkedHashMap<>();
+        for (Pairing<E> pairing : pairings.findFinishedByEntrant(entrant))
+            finishedPairings.put(pairing, pairings.getWinner(pairing));
+        long[] times = timing.getTimes(entrant);
+
+        if (!resetEntrant(entrant))
+            return null;
+
+        return () -> {
+            if (hasEntrant(entrant))
+                removePending(entrant);
+
+            if (activePairing != null) {
+                if (isOtherLuckyLoser) {
+                    results.reset(other);
+                    luckyLosers.add(other);
+                }
+                else {
+                    removePending(other);
+                }
+
+                pairings.add(pairingFactory.intern(activePairing));
+                timing.setTimes(other, otherTimes);
+            }
+
+            if (wasAdvanced)
+                entrantResults.advance(entrant);
+            else if (wasEliminated)
+                entrantResults.eliminate(entrant);
+
+            if (wasBye)
+                byeEntrants.add(entrant);
+            if (wasLastBye)
+                lastByeEntrant = entrant;
+            if (wasLuckyLoser)
+                luckyLosers.add(entrant);
+
+            // Finished pairings whose other entrant was reset before were removed.
+            finishedPairings.forEach((pairing, winner) -> pairings.addFinished(pairingFactory.intern(pairing), winner));
+
+            timing.setTimes(entrant, times);
+        };
+    }
+
+    @Override
+    public boolean removeEntrant(E entrant) {
+        if (isEntrantPending(entrant)) {
+            removePending(entrant);
+        }
+        else if (isEntrantPaired(entrant)) {
+            Pairing<E> pairing = pairings.findActiveByEntrant(entrant);
+            resetOtherUnsafe(pairing, entrant);
+            pairings.removeActive(pairing);
+            pairingFactory.remove(pairing);
+
+            // A lucky loser keeps its elimination.
+            if (luckyLosers.remove(entrant)) {
+                results.eliminate(entrant);
+                results.moveTo(floatingResults, entrant);
+            }
+        }
+        else if (isEntrantAdvanced(entrant) || isEntrantEliminated(entrant)) {
+            boolean wasMoved = results.moveTo(floatingResults, entrant);
+            assert wasMoved; // No side effects in assert allowed.
+        }
+        else if (floatingResults.contains(entrant)) {
+            return false; // Already removed.
+        }
+
+        return entrants.remove(entrant);
+    }
+
+    @Override
+    public Set<E> getEntrants() {
+        return Collections.unmodifiableSet(entrants);
+    }
+
+    @Override
+    public Pairings<E> getPairings() {
+        return pairings;
+    }
+
+    @Override
+    public Set<E> getPairedEntrants() {
+        return pairings.getActiveEntrants();
+    }
+
+    @Override
+    public Set<Pairing<E>> getActivePairings() {
+        return pairings.getActive();
+    }
+
+    @Override
+    public Set<Pairing<E>> getFinishedPairings() {
+        return pairings.getFinished();
+    }
+
+    @Override
+    public Pairing<E> getLastPairing(E entrant) {
+        return pairings.getLastPairingOfEntrant(entrant);
+    }
+
+    @Override
+    public Set<E> getPendingEntrants() {
+        return pendingEntrants.elements();
+    }
+
+    @Override
+    public Set<E> getAdvancedEntrants() {
+        return results.getAdvanced();
+    }
+
+    @Override
+    public Stream<E> getEntrantsWithState() {
+        Stream<E> advanced = floatingResults.getAdvanced().stream();
+        Stream<E> eliminated = floatingResults.getEliminated().stream();
+        Stream<E> floating = Stream.concat(advanced, eliminated);
+        return Stream.concat(entrants.stream(), floating);
+    }
+
+    @Override
+    public Set<E> getEliminatedEntrants() {
+        return results.getEliminated();
+    }
+
+    @Override
+    public boolean hasEntrant(E entrant) {
+        return entrants.contains(entrant);
+    }
+
+    // FIXME hasEntrantResult does not involve
+    //  floatingResults, but hasWon and hasLost do.
+
+    @Override
+    public boolean hasEntrantResult(E entrant) {
+        return results.contains(entrant);
+    }
+
+    @Override
+    public boolean hasWon(E entrant) {
+        return results.isAdvanced(entrant) || floatingResults.isAdvanced(entrant);
+    }
+
+    @Override
+    public boolean hasLost(E entrant) {
+        return results.isEliminated(entrant) || floatingResults.isEliminated(entrant);
+    }
+
+    @Override
+    public boolean isEntrantPending(E entrant) {
+        return pendingEntrants.contains(entrant);
+    }
+
+    @Override
+    public boolean isEntrantPaired(E entrant) {
+        return pairings.hasActiveEntrant(entrant);
+    }
+
+    @Override
+    public boolean isFinished() {
+        // Assert either not finished or proper entrant distribution.
+        assert !(pendingEntrants.isEmpty() && !pairings.hasActive())
+                || entrants.size() == results.getAdvanced().size() + results.getEliminated().size();
+
+        return pendingEntrants.isEmpty() && !pairings.hasActive();
+    }
+
+    @Override
+    public boolean isEntrantAdvanced(E entrant) {
+        return results.isAdvanced(entrant);
+    }
+
+    @Override
+    public boolean isEntrantEliminated(E entrant) {
+        return results.isEliminated(entrant);
+    }
+
+    @Override
+    public boolean isPairingOrphaned(Pairing<E> pairing)
+            throws NoSuchPairingException {
+
+        pairing = pairingFactory.canonical(pairing);
+
+        if (pairings.isActive(pairing))
+            return false;
+        if (!pairings.isFinished(pairing))
+            throw new NoSuchPairingException();
+
+        E first = pairing.getFirst();
+        E second = pairing.getSecond();
+
+        Pairing<E> lastPairingFirst = pairings.getLastPairingOfEntrant(first);
+        Pairing<E> lastPairingSecond = pairings.getLastPairingOfEntrant(second);
+        if (!pairings.isActive(lastPairingFirst) && !pairings.isActive(lastPairingSecond))
+            return false;
+
+        return !pairing.equals(lastPairingFirst) || !pairing.equals(lastPairingSecond);
+    }
+
+    @Override
+    public boolean hasStateAbout(E entrant) {
+        return hasEntrant(entrant) || floatingResults.contains(entrant);
+    }
+
+    @Override
+    public void reportMemory(MemoryReport report) {
+        report.add("entrants", entrants.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("pending", pendingEntrants);
+        report.add("waitingEntrants", waitingEntrants.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.report("timing", timing);
+        report.add("byeEntrants", byeEntrants.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("luckyLosers", luckyLosers.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.report("results", results);
+        report.report("floatingResults", floatingResults);
+        report.report("pairings", pairings);
+        report.report("pairingFactory", pairingFactory);
+
+        int floatingCount = floatingResults.getAdvanced().size() + floatingResults.getEliminated().size();
+        if (floatingCount >= MemoryReport.WARNING_THRESHOLD)
+            report.warn(String.format("Results of %d removed entrants are kept.", floatingCount));
+
+        // Finished pairings are only removed once both entrants are reset.
+        int removedEntrantPairings = 0;
+        for (Pairing<E> pairing : pairings.getFinished())
+            if (!hasEntrant(pairing.getFirst()) && !hasEntrant(pairing.getSecond()))
+                removedEntrantPairings += 1;
+
+        if (removedEntrantPairings >= MemoryReport.WARNING_THRESHOLD)
+            report.warn(String.format("%d finished pairings are only kept for removed entrants.",
+                    removedEntrantPairings));
+    }
+
+    /**
+     * Creates a new pairing with two participants.
+     * Does not check if the participants are part of the round or are pending.
+     * @param first The first entrant.
+     * @param second The second entrant.
+     * @return The created pairing containing both entrants.
+     */
+    private Pairing<E> registerPairing(E first, E second) {
+
+        Pairing<E> pairing = pairingFactory.create(first, second);
+
+        // A finished pairing of a rematch is stale, since neither entrant has a result anymore.
+        pairings.removeFinished(pairing);
+
+        assert !pairings.contains(pairing);
+        assert !isEntrantPending(first) && !isEntrantPending(second);
+        assert !hasEntrantResult(first) && !hasEntrantResult(second);
+
+        pairings.add(pairing);
+
+        long now = now();
+        timing.pair(first, now);
+        timing.pair(second, now);
+        return pairing;
+    }
+
+    private void finishPairing(Pairing<E> pairing, E winner) {
+        assert pairings.isActive(pairing);
+
+        try {
+            pairings.finish(pairing, winner);
+        } catch (NoSuchPairingException e) {
+            throw new RuntimeException(e);
+        }
+
+        long now = now();
+        timing.finish(pairing.getFirst(), now);
+        timing.finish(pairing.getSecond(), now);
+
+        // Check that entrants don't end up where they shouldn't.
+        // Finished pairings are not compared, since they are kept for reset and removed entrants.
+        assert entrants.size() == pairings.getActiveEntrants().size() +
+                results.getAdvanced().size() + results.getEliminated().size() + pendingEntrants.size();
+    }
+
+    private E getOtherUnsafe(Pairing<E> pairing, E entrant) {
+        try {
+            return pairing.getOther(entrant);
+        } catch (NoSuchElementException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void resetOtherUnsafe(Pairing<E> pairing, E entrant) {
+        resetUnpaired(getOtherUnsafe(pairing, entrant));
+    }
+
+    /**
+     * Puts an entrant of a pairing that was taken back into its state before the pairing.
+     */
+    private void resetUnpaired(E entrant) {
+        timing.unpair(entrant);
+
+        if (luckyLosers.remove(entrant))
+            results.eliminate(entrant);
+        else
+            addPending(entrant, timing.getWaitingSince(entrant));
+    }
+
+    /**
+     * Makes an entrant pending, waiting from now on.
+     */
+    private void startWaiting(E entrant) {
+        long now = now();
+        timing.startWaiting(entrant, now);
+        addPending(entrant, now);
+    }
+
+    private void addPending(E entrant, long waitingSince) {
+        pendingEntrants.add(entrant);
+        waitingEntrants.add(entrant, waitingSince);
+    }
+
+    private void removePending(E entrant) {
+        pendingEntrants.remove(entrant);
+        waitingEntrants.remove(entrant);
+    }
+
+    /**
+     * Removes a pending entrant chosen by the pairing policy.
+     * @throws EmptySetException No entrant is pending.
+     */
+    private E takePending() throws EmptySetException {
+        E entrant = pairingPolicy == PairingPolicy.LONGEST_WAITING
+                ? waitingEntrants.poll()
+                : pendingEntrants.removeRandom();
+
+        removePending(entrant);
+        return entrant;
+    }
+
+    private long now() {
+        return clock.millis();
+    }
+
+    /**
+     * @return The pairing with a lucky loser or null if the entrant advanced.
+     */
+    private Pairing<E> pairLastEntrant() throws NoOpponentException {
+        E entrant = pendingEntrants.elements().iterator().next();
+
+        switch (byePolicy) {
+            case ADVANCE:
+                try {
+                    advanceBye(entrant);
+                }
+                catch (NoSuchEntrantException e) {
+                    throw new RuntimeException(e);
+                }
+                return null;
+            case LUCKY_LOSER:
+                Set<E> eliminatedEntrants = results.getEliminated();
+                if (eliminatedEntrants.isEmpty())
+                    throw new NoOpponentException();
+
+                int index = random.nextInt(eliminatedEntrants.size());
+                Iterator<E> it = eliminatedEntrants.iterator();
+                for (int i = 0; i < index; ++i)
+                    it.next();
+
+                return pairLuckyLoser(entrant, it.next());
+            default:
+                throw new NoOpponentException();
+        }
+    }
+
+    /**
+     * Pairs a pending entrant with an eliminated entrant.
+     * Does not check if the entrants are pending and eliminated.
+     */
+    private Pairing<E> pairLuckyLoser(E entrant, E luckyLoser) {
+        removePending(entrant);
+        results.reset(luckyLoser);
+        luckyLosers.add(luckyLoser);
+
+        // The lucky loser did not wait for this pairing.
+        timing.startWaiting(luckyLoser, now());
+        return registerPairing(entrant, luckyLoser);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        clock = Clock.systemUTC();
+    }
+}
@@ -5,6 +5,9 @@ import de.j13g.manko.core.Placement;
 import de.j13g.manko.core.annotations.UnsupportedOperation;
 import de.j13g.manko.core.base.FinalRound;
 import de.j13g.manko.core.base.RankingRound;
+import de.j13g.manko.core.base.UndoableRound;
+import de.j13g.manko.core.diagnostics.MemoryReport;
+import de.j13g.manko.core.diagnostics.MemoryReportable;
 import de.j13g.manko.core.managers.PairingManager;
 import de.j13g.manko.core.exceptions.*;
 import de.j13g.manko.core.managers.PlacementManager;
@@ -14,7 +17,7 @@ import org.jetbrains.annotations.Nullable;
 import java.io.Serializable;
 import java.util.*;
 
-public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
+public class Final<E> implements RankingRound<E>, FinalRound<E>, UndoableRound<E>, MemoryReportable, Serializable {
 
     private final Pairing<E> firstPlacePairing;
     private final Pairing<E> thirdPlacePairing;
@@ -55,14 +58,24 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
     public boolean addEntrant(E entrant) throws NewEntrantsNotAllowedException {
         if (hasEntrant(entrant))
             return false;
-        if (!firstPlacePairing.contains(entrant) && !thirdPlacePairing.contains(entrant))
+        if (!hasStateAbout(entrant))
             throw new NewEntrantsNotAllowedException();
 
         Pairing<E> pairing = getPairingForEntrant(entrant);
+        E otherEntrant = pairing.getOther(entrant);
 
-        if (!pairings.isFinished(pairing)) {
-            E otherEntrant = pairing.getOther(entrant);
+        // Without the opponent, the pairing cannot be carried out
+        // and the entrant keeps the placement of a walkover.
+        if (!hasEntrant(otherEntrant)) {
+            if (!pairings.isFinished(pairing))
+                placements.setPlacement(entrant,
+                        pairing.equals(firstPlacePairing) ? Placement.FIRST : Placement.THIRD);
+
+            entrants.add(entrant);
+            return true;
+        }
 
+        if (!pairings.isFinished(pairing)) {
             placements.setPlacement(entrant, Placement.TBD);
             placements.setPlacement(otherEntrant, Placement.TBD);
         }
@@ -112,6 +125,12 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    @UnsupportedOperation
+    public Runnable resetEntrantRevertibly(E entrant) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public Pairing<E> nextPairing() throws UnfinishedPairingsException, NoMorePairingsException {
         if (pairingOrder.isEmpty())
@@ -125,6 +144,22 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
         return pairing;
     }
 
+    @Override
+    public void unpair(Pairing<E> pairing) throws NoSuchPairingException {
+        if (!pairings.removeActive(pairing))
+            throw new NoSuchPairingException();
+
+        pairingOrder.add(0, pairing);
+    }
+
+    @Override
+    public void pair(Pairing<E> pairing) throws NoSuchPairingException {
+        if (pairings.hasActive() || !pairingOrder.remove(pairing))
+            throw new NoSuchPairingException();
+
+        pairings.add(pairing);
+    }
+
     @Override
     public boolean replayPairing(Pairing<E> pairing) throws NoSuchPairingException, MissingEntrantException {
         if (pairings.isActive(pairing))
@@ -165,7 +200,7 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
             placements.setPlacement(losingEntrant, Placement.NONE);
         }
 
-        pairings.finish(pairing);
+        pairings.finish(pairing, winningEntrant);
     }
 
     @Override
@@ -257,7 +292,7 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
 
     @Override
     public boolean hasStateAbout(E entrant) {
-        return firstPlacePairing.contains(entrant) || thirdPlacePairing.contains(entrant);
+        return firstPlacePairing.contains(entrant) || (thirdPlacePairing != null && thirdPlacePairing.contains(entrant));
     }
 
     @Override
@@ -290,6 +325,14 @@ public class Final<E> implements RankingRound<E>, FinalRound<E>, Serializable {
         return placements.getEntrantByPlacement(placement);
     }
 
+    @Override
+    public void reportMemory(MemoryReport report) {
+        report.add("entrants", entrants.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("pairingOrder", pairingOrder.size(), MemoryReport.REFERENCE_BYTES);
+        report.report("pairings", pairings);
+        report.report("placements", placements);
+    }
+
     private Pairing<E> getPairingForEntrant(E entrant) {
         assert firstPlacePairing.contains(entrant) || thirdPlacePairing.contains(entrant);
         return firstPlacePairing.contains(entrant) ? firstPlacePairing : thirdPlacePairing;
@@ -0,0 +1,652 @@
+package de.j13g.manko.core.rounds;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.PairingFactory;
+import de.j13g.manko.core.base.EliminationRound;
+import de.j13g.manko.core.base.UndoableRound;
+import de.j13g.manko.core.diagnostics.MemoryReport;
+import de.j13g.manko.core.diagnostics.MemoryReportable;
+import de.j13g.manko.core.exceptions.*;
+import de.j13g.manko.core.managers.PairingManager;
+import de.j13g.manko.core.managers.base.Pairings;
+import de.j13g.manko.util.ShuffledSet;
+import de.j13g.manko.util.exceptions.EmptySetException;
+import de.j13g.manko.util.exceptions.NoSuchElementException;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * An elimination in which entrants do not wait for the other pairings of their round to finish.
+ * Winners are pending again right away and are paired as soon as another entrant of the same level is free.
+ * The level of an entrant is the number of pairings it has won,
+ * i.e. the round of a regular elimination that it would be in.
+ * If no two pending entrants share a level and no running pairing can produce an opponent,
+ * the entrant of the lower level is moved up to be paired with the entrant of the next level.
+ * The round is finished once no more than a given number of entrants survive.
+ * @param <E> The entrant type.
+ */
+public class RollingElimination<E> implements EliminationRound<E>, UndoableRound<E>, MemoryReportable, Serializable {
+
+    private final int survivorCount;
+    private final Random random;
+
+    private final HashSet<E> entrants = new HashSet<>();
+    private final HashSet<E> eliminatedEntrants = new HashSet<>();
+
+    /** Entrants that won a pairing and are not eliminated, kept up to date whenever a level or elimination changes. */
+    private final HashSet<E> advancedEntrants = new HashSet<>();
+
+    /** Eliminated entrants that were removed. They are eliminated again when they are added back. */
+    private final HashSet<E> floatingEliminatedEntrants = new HashSet<>();
+
+    /** The level of every entrant with state, including removed entrants that won a pairing. */
+    private final HashMap<E, Integer> levels = new HashMap<>();
+
+    /** The level of entrants before they were moved up to be paired, restored if the pairing is taken back. */
+    private final HashMap<E, Integer> levelsBeforeMove = new HashMap<>();
+
+    private final HashSet<E> pendingEntrants = new HashSet<>();
+    private final TreeMap<Integer, ShuffledSet<E>> pendingEntrantsByLevel = new TreeMap<>();
+    private final TreeMap<Integer, Integer> activePairingCountByLevel = new TreeMap<>();
+
+    private final PairingManager<E> pairings = new PairingManager<>();
+    private final PairingFactory<E> pairingFactory = new PairingFactory<>();
+
+    /**
+     * @param survivorCount The number of entrants after which the round is finished.
+     */
+    public RollingElimination(int survivorCount) {
+        this(survivorCount, new Random());
+    }
+
+    /**
+     * @param survivorCount The number of entrants after which the round is finished.
+     * @param random The source of randomness for pairings.
+     */
+    public RollingElimination(int survivorCount, Random random) {
+        if (survivorCount < 2)
+            throw new IllegalArgumentException("At least two entrants must survive the round");
+
+        this.survivorCount = survivorCount;
+        this.random = random;
+    }
+
+    public RollingElimination(Collection<E> entrants, int survivorCount, Random random) {
+        this(survivorCount, random);
+        entrants.forEach(this::addEntrant);
+    }
+
+    @Override
+    public boolean addEntrant(E entrant) {
+        if (hasEntrant(entrant))
+            return false;
+
+        entrants.add(entrant);
+
+        if (floatingEliminatedEntrants.remove(entrant)) {
+            eliminatedEntrants.add(entrant);
+            return true;
+        }
+
+        levels.putIfAbsent(entrant, 0);
+        addPending(entrant);
+        updateAdvanced(entrant);
+        return true;
+    }
+
+    @Override
+    public boolean removeEntrant(E entrant) {
+        if (!hasEntrant(entrant))
+            return false;
+
+        if (isEntrantPending(entrant)) {
+            removePending(entrant);
+        }
+        else if (isEntrantPaired(entrant)) {
+            Pairing<E> pairing = pairings.findActiveByEntrant(entrant);
+            takeBackPairing(pairing);
+            addPending(getOtherUnsafe(pairing, entrant));
+        }
+        else if (eliminatedEntrants.remove(entrant)) {
+            floatingEliminatedEntrants.add(entrant);
+        }
+
+        // Entrants without a result do not need to be remembered.
+        if (!floatingEliminatedEntrants.contains(entrant) && getLevel(entrant) == 0)
+            levels.remove(entrant);
+
+        advancedEntrants.remove(entrant);
+        return entrants.remove(entrant);
+    }
+
+    @Override
+    public boolean resetEntrant(E entrant) {
+        if (!hasStateAbout(entrant))
+            return false;
+
+        if (!hasEntrant(entrant)) {
+            floatingEliminatedEntrants.remove(entrant);
+            levels.remove(entrant);
+            levelsBeforeMove.remove(entrant);
+            pairings.removeFinishedByEntrant(entrant).forEach(pairingFactory::remove);
+            return true;
+        }
+
+        if (isEntrantPending(entrant) && getLevel(entrant) == 0)
+            return false;
+
+        if (isEntrantPending(entrant)) {
+            removePending(entrant);
+        }
+        else if (isEntrantPaired(entrant)) {
+            Pairing<E> pairing = pairings.findActiveByEntrant(entrant);
+            takeBackPairing(pairing);
+            addPending(getOtherUnsafe(pairing, entrant));
+        }
+        else {
+            eliminatedEntrants.remove(entrant);
+        }
+
+        levels.put(entrant, 0);
+        levelsBeforeMove.remove(entrant);
+        pairings.removeFinishedByEntrant(entrant).forEach(pairingFactory::remove);
+        addPending(entrant);
+        updateAdvanced(entrant);
+        return true;
+    }
+
+    @Override
+    public Runnable resetEntrantRevertibly(E entrant) {
+        Pairing<E> activePairing = pairings.findActiveByEntrant(entrant);
+        E other = activePairing != null ? getOtherUnsafe(activePairing, entrant) : null;
+        Integer otherLevel = levels.get(other);
+        Integer otherLevelBeforeMove = levelsBeforeMove.get(other);
+
+        boolean wasPending = isEntrantPending(entrant);
+        boolean wasEliminated = eliminatedEntrants.contains(entrant);
+        boolean wasFloatingEliminated = floatingEliminatedEntrants.contains(entrant);
+        Integer level = levels.get(entrant);
+        Integer levelBeforeMove = levelsBeforeMove.get(entrant);
+        LinkedHashMap<Pairing<E>, E> finishedPairings = new LinkedHashMap<>();
+        for (Pairing<E> pairing : pairings.findFinishedByEntrant(entrant))
+            finishedPairings.put(pairing, pairings.getWinner(pairing));
+
+        if (!resetEntrant(entrant))
+            return null;
+
+        return () -> {
+            // The pools of pending entrants depend on the level, so it is restored in between.
+            if (hasEntrant(entrant))
+                removePending(entrant);
+            if (activePairing != null)
+                removePending(other);
+
+            putOrRemove(levels, entrant, level);
+            putOrRemove(levelsBeforeMove, entrant, levelBeforeMove);
+
+            if (activePairing != null) {
+                putOrRemove(levels, other, otherLevel);
+                putOrRemove(levelsBeforeMove, other, otherLevelBeforeMove);
+                pairings.add(pairingFactory.intern(activePairing));
+                addActiveLevel(getLevel(entrant), 1);
+            }
+
+            if (wasPending)
+                addPending(entrant);
+            if (wasEliminated)
+                eliminatedEntrants.add(entrant);
+            if (wasFloatingEliminated)
+                floatingEliminatedEntrants.add(entrant);
+
+            finishedPairings.forEach((pairing, winner) -> pairings.addFinished(pairingFactory.intern(pairing), winner));
+
+            updateAdvanced(entrant);
+            if (activePairing != null)
+                updateAdvanced(other);
+        };
+    }
+
+    @Override
+    public Pairing<E> nextPairing()
+            throws NoEntrantsException, NoOpponentException, UnfinishedPairingsException, NoMorePairingsException {
+
+        if (entrants.isEmpty())
+            throw new NoEntrantsException();
+
+        // Each running pairing eliminates one more entrant.
+        if (getSurvivingCount() - pairings.getActive().size() <= survivorCount) {
+            if (pairings.hasActive())
+                throw new UnfinishedPairingsException();
+            throw new NoMorePairingsException();
+        }
+
+        if (pendingEntrants.isEmpty())
+            throw new NoEntrantsException();
+
+        // Winners are paired first, so they do not wait for entrants of lower levels.
+        for (Map.Entry<Integer, ShuffledSet<E>> entry : pendingEntrantsByLevel.descendingMap().entrySet()) {
+            if (entry.getValue().size() >= 2) {
+                ShuffledSet<E> pool = entry.getValue();
+                return pairPending(removeRandom(pool), removeRandom(pool));
+            }
+        }
+
+        if (pendingEntrants.size() < 2)
+            throw new NoOpponentException();
+
+        // Every level has at most one pending entrant.
+        Iterator<ShuffledSet<E>> pools = pendingEntrantsByLevel.values().iterator();
+        ShuffledSet<E> lowerPool = pools.next();
+        ShuffledSet<E> upperPool = pools.next();
+
+        E upper = upperPool.elements().iterator().next();
+        Integer lowestActiveLevel = activePairingCountByLevel.isEmpty() ? null : activePairingCountByLevel.firstKey();
+        if (lowestActiveLevel != null && lowestActiveLevel < getLevel(upper))
+            throw new NoOpponentException(); // A running pairing can still produce an opponent.
+
+        return pairPending(removeRandom(lowerPool), removeRandom(upperPool));
+    }
+
+    @Override
+    public void pair(Pairing<E> pairing) throws NoSuchEntrantException {
+        E first = pairing.getFirst();
+        E second = pairing.getSecond();
+
+        if (first.equals(second))
+            throw new IllegalArgumentException("An entrant cannot be paired with itself");
+        if (!isEntrantPending(first) || !isEntrantPending(second))
+            throw new NoSuchEntrantException();
+
+        removePending(first);
+        removePending(second);
+        pairPending(first, second);
+    }
+
+    @Override
+    public void unpair(Pairing<E> pairing) throws NoSuchPairingException {
+        pairing = pairingFactory.canonical(pairing);
+
+        if (!pairings.isActive(pairing))
+            throw new NoSuchPairingException();
+
+        takeBackPairing(pairing);
+        addPending(pairing.getFirst());
+        addPending(pairing.getSecond());
+    }
+
+    @Override
+    public boolean replayPairing(Pairing<E> pairing)
+            throws NoSuchPairingException, MissingEntrantException, OrphanedPairingException {
+
+        pairing = pairingFactory.canonical(pairing);
+
+        if (pairings.isActive(pairing))
+            return false;
+        if (!pairings.isFinished(pairing))
+            throw new NoSuchPairingException();
+
+        E first = pairing.getFirst();
+        E second = pairing.getSecond();
+
+        if (!hasEntrant(first) || !hasEntrant(second))
+            throw new MissingEntrantException();
+
+        // The winner must not have moved on to another pairing.
+        if (isPairingOrphaned(pairing))
+            throw new OrphanedPairingException();
+
+        for (E entrant : Arrays.asList(first, second)) {
+            if (!eliminatedEntrants.remove(entrant)) {
+                removePending(entrant);
+                levels.put(entrant, getLevel(entrant) - 1);
+            }
+            updateAdvanced(entrant);
+        }
+
+        pairings.removeFinished(pairing);
+        pairings.add(pairing);
+        addActiveLevel(getLevel(first), 1);
+
+        return true;
+    }
+
+    @Override
+    public Pairing<E> declareWinner(E winningEntrant) throws NoSuchEntrantException, MissingPairingException {
+        if (!hasEntrant(winningEntrant))
+            throw new NoSuchEntrantException();
+
+        Pairing<E> pairing = pairings.findActiveByEntrant(winningEntrant);
+        if (pairing == null)
+            throw new MissingPairingException();
+
+        try {
+            declareWinner(winningEntrant, pairing);
+        } catch (NoSuchPairingException e) {
+            throw new RuntimeException(e);
+        }
+
+        return pairing;
+    }
+
+    @Override
+    public void declareWinner(E winningEntrant, Pairing<E> pairing)
+            throws NoSuchEntrantException, NoSuchPairingException {
+
+        pairing = pairingFactory.canonical(pairing);
+
+        if (!pairing.contains(winningEntrant))
+            throw new IllegalArgumentException("The entrant is not part of the pairing");
+
+        if (!hasEntrant(winningEntrant))
+            throw new NoSuchEntrantException();
+        if (!pairings.isActive(pairing))
+            throw new NoSuchPairingException();
+
+        finishPairing(pairing, winningEntrant);
+
+        E losingEntrant = getOtherUnsafe(pairing, winningEntrant);
+        eliminatedEntrants.add(losingEntrant);
+        levels.put(winningEntrant, getLevel(winningEntrant) + 1);
+        addPending(winningEntrant);
+
+        updateAdvanced(winningEntrant);
+        updateAdvanced(losingEntrant);
+    }
+
+    @Override
+    public void declareTie(Pairing<E> pairing) throws NoSuchPairingException {
+        pairing = pairingFactory.canonical(pairing);
+
+        if (!pairings.isActive(pairing))
+            throw new NoSuchPairingException();
+
+        finishPairing(pairing, null);
+
+        eliminatedEntrants.add(pairing.getFirst());
+        eliminatedEntrants.add(pairing.getSecond());
+        advancedEntrants.remove(pairing.getFirst());
+        advancedEntrants.remove(pairing.getSecond());
+    }
+
+    /**
+     * @param entrant The entrant.
+     * @return The number of pairings the entrant has won or 0 if there is no state about it.
+     */
+    public int getLevel(E entrant) {
+        return levels.getOrDefault(entrant, 0);
+    }
+
+    public int getSurvivorCount() {
+        return survivorCount;
+    }
+
+    /**
+     * @return Entrants that are not eliminated, including pending and paired entrants.
+     */
+    public Set<E> getSurvivingEntrants() {
+        HashSet<E> survivingEntrants = new HashSet<>(entrants);
+        survivingEntrants.removeAll(eliminatedEntrants);
+        return survivingEntrants;
+    }
+
+    @Override
+    public Set<E> getEntrants() {
+        return Collections.unmodifiableSet(entrants);
+    }
+
+    @Override
+    public Pairings<E> getPairings() {
+        return pairings;
+    }
+
+    @Override
+    public Set<E> getPairedEntrants() {
+        return pairings.getActiveEntrants();
+    }
+
+    @Override
+    public Set<Pairing<E>> getActivePairings() {
+        return pairings.getActive();
+    }
+
+    @Override
+    public Set<Pairing<E>> getFinishedPairings() {
+        return pairings.getFinished();
+    }
+
+    @Override
+    public Pairing<E> getLastPairing(E entrant) {
+        return pairings.getLastPairingOfEntrant(entrant);
+    }
+
+    @Override
+    public Set<E> getPendingEntrants() {
+        return Collections.unmodifiableSet(pendingEntrants);
+    }
+
+    /**
+     * Advanced entrants have won at least one pairing and are pending or paired again.
+     * @return Entrants that have advanced at least one level.
+     */
+    @Override
+    public Set<E> getAdvancedEntrants() {
+        return Collections.unmodifiableSet(advancedEntrants);
+    }
+
+    @Override
+    public Set<E> getEliminatedEntrants() {
+        return Collections.unmodifiableSet(eliminatedEntrants);
+    }
+
+    @Override
+    public Stream<E> getEntrantsWithState() {
+        return levels.keySet().stream();
+    }
+
+    @Override
+    public boolean hasEntrant(E entrant) {
+        return entrants.contains(entrant);
+    }
+
+    @Override
+    public boolean hasEntrantResult(E entrant) {
+        return hasEntrant(entrant) && (getLevel(entrant) > 0 || eliminatedEntrants.contains(entrant));
+    }
+
+    @Override
+    public boolean hasWon(E entrant) {
+        return getLevel(entrant) > 0;
+    }
+
+    @Override
+    public boolean hasLost(E entrant) {
+        return eliminatedEntrants.contains(entrant) || floatingEliminatedEntrants.contains(entrant);
+    }
+
+    @Override
+    public boolean hasStateAbout(E entrant) {
+        return hasEntrant(entrant) || levels.containsKey(entrant);
+    }
+
+    @Override
+    public boolean isEntrantPending(E entrant) {
+        return pendingEntrants.contains(entrant);
+    }
+
+    @Override
+    public boolean isEntrantPaired(E entrant) {
+        return pairings.hasActiveEntrant(entrant);
+    }
+
+    @Override
+    public boolean isEntrantAdvanced(E entrant) {
+        return advancedEntrants.contains(entrant);
+    }
+
+    @Override
+    public boolean isEntrantEliminated(E entrant) {
+        return eliminatedEntrants.contains(entrant);
+    }
+
+    @Override
+    public boolean isPairingOrphaned(Pairing<E> pairing) throws NoSuchPairingException {
+        pairing = pairingFactory.canonical(pairing);
+
+        if (pairings.isActive(pairing))
+            return false;
+        if (!pairings.isFinished(pairing))
+            throw new NoSuchPairingException();
+
+        // A later win of the winner still counts when that pairing was removed by resetting its opponent.
+        E winner = pairings.getWinner(pairing);
+        if (winner != null && getLevel(winner) != getLevel(getOtherUnsafe(pairing, winner)) + 1)
+            return true;
+
+        return !pairing.equals(pairings.getLastPairingOfEntrant(pairing.getFirst()))
+                || !pairing.equals(pairings.getLastPairingOfEntrant(pairing.getSecond()));
+    }
+
+    @Override
+    public boolean isFinished() {
+        return !pairings.hasActive() && getSurvivingCount() <= survivorCount;
+    }
+
+    @Override
+    public void reportMemory(MemoryReport report) {
+        report.add("entrants", entrants.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("eliminated", eliminatedEntrants.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("advanced", advancedEntrants.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("floatingEliminated", floatingEliminatedEntrants.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("levels", levels.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("levelsBeforeMove", levelsBeforeMove.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("pending", pendingEntrants.size(), MemoryReport.HASH_ENTRY_BYTES);
+        for (Map.Entry<Integer, ShuffledSet<E>> entry : pendingEntrantsByLevel.entrySet())
+            report.add("pending[" + entry.getKey() + "]", entry.getValue());
+        report.report("pairings", pairings);
+        report.report("pairingFactory", pairingFactory);
+    }
+
+    private int getSurvivingCount() {
+        return entrants.size() - eliminatedEntrants.size();
+    }
+
+    /**
+     * Pairs two entrants that were just removed from the pending entrants.
+     * The entrant of the lower level is moved up to the level of the other entrant.
+     */
+    private Pairing<E> pairPending(E first, E second) {
+        // Moves of earlier pairings are final once an entrant is paired again.
+        levelsBeforeMove.remove(first);
+        levelsBeforeMove.remove(second);
+
+        int firstLevel = getLevel(first);
+        int secondLevel = getLevel(second);
+        if (firstLevel != secondLevel) {
+            E lower = firstLevel < secondLevel ? first : second;
+            levelsBeforeMove.put(lower, getLevel(lower));
+            levels.put(lower, Math.max(firstLevel, secondLevel));
+            updateAdvanced(lower);
+        }
+
+        Pairing<E> pairing = pairingFactory.create(first, second);
+
+        // A finished pairing of a rematch is stale, since one of the entrants was reset.
+        pairings.removeFinished(pairing);
+        pairings.add(pairing);
+        addActiveLevel(getLevel(first), 1);
+
+        return pairing;
+    }
+
+    /**
+     * Removes an active pairing as if it never happened. Does not make the entrants pending.
+     */
+    private void takeBackPairing(Pairing<E> pairing) {
+        pairings.removeActive(pairing);
+        pairingFactory.remove(pairing);
+        addActiveLevel(getLevel(pairing.getFirst()), -1);
+
+        for (E entrant : Arrays.asList(pairing.getFirst(), pairing.getSecond())) {
+            Integer levelBeforeMove = levelsBeforeMove.remove(entrant);
+            if (levelBeforeMove != null) {
+                levels.put(entrant, levelBeforeMove);
+                updateAdvanced(entrant);
+            }
+        }
+    }
+
+    private void finishPairing(Pairing<E> pairing, E winner) {
+        try {
+            pairings.finish(pairing, winner);
+        } catch (NoSuchPairingException e) {
+            throw new RuntimeException(e);
+        }
+
+        addActiveLevel(getLevel(pairing.getFirst()), -1);
+    }
+
+    private void updateAdvanced(E entrant) {
+        if (hasEntrant(entrant) && !eliminatedEntrants.contains(entrant) && getLevel(entrant) > 0)
+            advancedEntrants.add(entrant);
+        else
+            advancedEntrants.remove(entrant);
+    }
+
+    private void addActiveLevel(int level, int delta) {
+        int count = activePairingCountByLevel.getOrDefault(level, 0) + delta;
+        assert count >= 0;
+
+        if (count == 0)
+            activePairingCountByLevel.remove(level);
+        else
+            activePairingCountByLevel.put(level, count);
+    }
+
+    private void addPending(E entrant) {
+        pendingEntrants.add(entrant);
+        pendingEntrantsByLevel.computeIfAbsent(getLevel(entrant), level -> new ShuffledSet<>(random)).add(entrant);
+    }
+
+    private void removePending(E entrant) {
+        pendingEntrants.remove(entrant);
+
+        int level = getLevel(entrant);
+        ShuffledSet<E> pool = pendingEntrantsByLevel.get(level);
+        pool.remove(entrant);
+        if (pool.isEmpty())
+            pendingEntrantsByLevel.remove(level);
+    }
+
+    private E removeRandom(ShuffledSet<E> pool) {
+        E entrant;
+        try {
+            entrant = pool.removeRandom();
+        }
+        catch (EmptySetException e) {
+            throw new RuntimeException(e);
+        }
+
+        pendingEntrants.remove(entrant);
+        if (pool.isEmpty())
+            pendingEntrantsByLevel.remove(getLevel(entrant));
+
+        return entrant;
+    }
+
+    private static <K> void putOrRemove(Map<K, Integer> map, K key, Integer value) {
+        if (value != null)
+            map.put(key, value);
+        else
+            map.remove(key);
+    }
+
+    private E getOtherUnsafe(Pairing<E> pairing, E entrant) {
+        try {
+            return pairing.getOther(entrant);
+        } catch (NoSuchElementException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
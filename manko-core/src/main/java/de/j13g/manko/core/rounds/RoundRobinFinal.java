@@ -1,11 +1,15 @@
 package de.j13g.manko.core.rounds;
 
 import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.PairingFactory;
 import de.j13g.manko.core.Placement;
 import de.j13g.manko.core.Standings;
 import de.j13g.manko.core.annotations.UnsupportedOperation;
 import de.j13g.manko.core.base.FinalRound;
 import de.j13g.manko.core.base.RankingRound;
+import de.j13g.manko.core.base.UndoableRound;
+import de.j13g.manko.core.diagnostics.MemoryReport;
+import de.j13g.manko.core.diagnostics.MemoryReportable;
 import de.j13g.manko.core.exceptions.*;
 import de.j13g.manko.core.managers.PairingManager;
 import de.j13g.manko.core.managers.ScoreManager;
@@ -16,7 +20,8 @@ import de.j13g.manko.util.UniformPairBiSet;
 import java.io.Serializable;
 import java.util.*;
 
-public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Serializable {
+public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, UndoableRound<E>, MemoryReportable,
+        Serializable {
 
     private static final int ENTRANT_COUNT = 3;
     private static final int MIN_SCORE = 0;
@@ -26,20 +31,30 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
 
     private final UniformPairBiSet<E, Pairing<E>> originalPairings = new UniformPairBiSet<>();
 
-    private final ShuffledSet<Pairing<E>> outstandingPairings = new ShuffledSet<>();
+    private final ShuffledSet<Pairing<E>> outstandingPairings;
 
-    private final HashMap<Pairing<E>, E> pairingWinners = new HashMap<>();
+    /** Entrants that were given the win of an unfinished pairing because their opponent was removed. */
+    private final HashMap<Pairing<E>, E> walkoverWinners = new HashMap<>();
 
     private final PairingManager<E> pairings = new PairingManager<>();
+    private final PairingFactory<E> pairingFactory = new PairingFactory<>();
     private final ScoreManager<E> scores = new ScoreManager<>();
 
     public RoundRobinFinal(E first, E second, E third) {
+        this(first, second, third, new Random());
+    }
+
+    /**
+     * @param random The source of randomness for the order of pairings.
+     */
+    public RoundRobinFinal(E first, E second, E third, Random random) {
+        outstandingPairings = new ShuffledSet<>(random);
         entrants.add(first);
         entrants.add(second);
         entrants.add(third);
-        originalPairings.add(new Pairing<>(first, second));
-        originalPairings.add(new Pairing<>(first, third));
-        originalPairings.add(new Pairing<>(second, third));
+        originalPairings.add(pairingFactory.create(first, second));
+        originalPairings.add(pairingFactory.create(first, third));
+        originalPairings.add(pairingFactory.create(second, third));
         originalPairings.elements().forEach(outstandingPairings::add);
     }
 
@@ -66,9 +81,15 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
 
         for (Pairing<E> pairing : getUnfinishedPairingsByEntrant(entrant)) {
 
+            // The win was already given to this entrant when the opponent was removed.
+            if (walkoverWinners.containsKey(pairing))
+                continue;
+
             // Unfinished pairings have to be finished.
             // So give the opponent the win when we remove this entrant.
-            int score = scores.incrementScore(pairing.getOther(entrant));
+            E other = pairing.getOther(entrant);
+            walkoverWinners.put(pairing, other);
+            int score = scores.incrementScore(other);
             boolean isPairingRemoved = outstandingPairings.remove(pairing);
 
             // Either this pairing was active or we removed a pending one.
@@ -89,7 +110,14 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
 
         for (Pairing<E> pairing : getUnfinishedPairingsByEntrant(entrant)) {
 
-            int score = scores.decrementScore(pairing.getOther(entrant));
+            // The pairing can only be carried out again once both entrants are back.
+            if (!hasEntrant(pairing.getOther(entrant)))
+                continue;
+
+            E walkoverWinner = walkoverWinners.remove(pairing);
+            assert walkoverWinner != null;
+
+            int score = scores.decrementScore(walkoverWinner);
             boolean wasAdded = outstandingPairings.add(pairing);
 
             assert wasAdded;
@@ -116,6 +144,8 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
     public void declareWinner(E winningEntrant, Pairing<E> pairing)
             throws NoSuchEntrantException, NoSuchPairingException {
 
+        pairing = pairingFactory.canonical(pairing);
+
         if (!pairing.contains(winningEntrant))
             throw new IllegalArgumentException("The entrant is not part of the pairing");
 
@@ -124,8 +154,7 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
         if (!pairings.isActive(pairing))
             throw new NoSuchPairingException();
 
-        pairings.finish(pairing);
-        pairingWinners.put(pairing, winningEntrant);
+        pairings.finish(pairing, winningEntrant);
         int score = scores.incrementScore(winningEntrant);
 
         assert score <= MAX_SCORE;
@@ -145,10 +174,32 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
         return pairing;
     }
 
+    @Override
+    public void unpair(Pairing<E> pairing) throws NoSuchPairingException {
+        pairing = pairingFactory.canonical(pairing);
+
+        if (!pairings.removeActive(pairing))
+            throw new NoSuchPairingException();
+
+        outstandingPairings.add(pairing);
+    }
+
+    @Override
+    public void pair(Pairing<E> pairing) throws NoSuchPairingException {
+        pairing = pairingFactory.canonical(pairing);
+
+        if (pairings.hasActive() || !outstandingPairings.remove(pairing))
+            throw new NoSuchPairingException();
+
+        pairings.add(pairing);
+    }
+
     @Override
     public boolean replayPairing(Pairing<E> pairing)
             throws NoSuchPairingException, MissingEntrantException, OrphanedPairingException {
 
+        pairing = pairingFactory.canonical(pairing);
+
         if (pairings.isActive(pairing))
             return false;
 
@@ -160,13 +211,12 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
         if (pairings.hasActiveEntrant(pairing.getFirst()) || pairings.hasActiveEntrant(pairing.getSecond()))
             throw new OrphanedPairingException();
 
-        assert pairingWinners.containsKey(pairing);
+        E winningEntrant = pairings.getWinner(pairing);
+        assert winningEntrant != null;
 
-        E winningEntrant = pairingWinners.get(pairing);
         int score = scores.decrementScore(winningEntrant);
         assert score >= MIN_SCORE;
 
-        pairingWinners.remove(pairing);
         boolean removedFinished = pairings.removeFinished(pairing);
         pairings.add(pairing);
 
@@ -180,6 +230,12 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    @UnsupportedOperation
+    public Runnable resetEntrantRevertibly(E entrant) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     @UnsupportedOperation
     public void declareTie(Pairing<E> pairing) {
@@ -290,6 +346,14 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
         return scores.getScore(entrant);
     }
 
+    /**
+     * @param pairing A finished pairing of this round.
+     * @return The entrant that won the pairing or null if it was not finished.
+     */
+    public E getWinner(Pairing<E> pairing) {
+        return pairings.getWinner(pairingFactory.canonical(pairing));
+    }
+
     @Override
     public Set<E> getPairedEntrants() {
         return pairings.getActiveEntrants();
@@ -319,7 +383,7 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
     public boolean hasEntrantResult(E entrant) {
         for (Pairing<E> pairing : originalPairings.elements())
             if (pairing.contains(entrant))
-                if (pairingWinners.containsKey(pairing))
+                if (pairings.isFinished(pairing))
                     return true;
         return false;
     }
@@ -369,4 +433,15 @@ public class RoundRobinFinal<E> implements RankingRound<E>, FinalRound<E>, Seria
     public boolean isFinished() {
         return outstandingPairings.isEmpty() && !pairings.hasActive();
     }
+
+    @Override
+    public void reportMemory(MemoryReport report) {
+        report.add("entrants", entrants.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("originalPairings", originalPairings.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.add("outstandingPairings", outstandingPairings);
+        report.add("walkoverWinners", walkoverWinners.size(), MemoryReport.HASH_ENTRY_BYTES);
+        report.report("pairings", pairings);
+        report.report("pairingFactory", pairingFactory);
+        report.report("scores", scores);
+    }
 }
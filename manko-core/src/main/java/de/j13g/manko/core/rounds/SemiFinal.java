@@ -21,6 +21,16 @@ public class SemiFinal<E> extends DynamicElimination<E> implements Serializable
     }
 
     public SemiFinal(Collection<E> entrants) {
+        this(entrants, new Random());
+    }
+
+    /**
+     * @param entrants The four entrants.
+     * @param random The source of randomness for pairings.
+     */
+    public SemiFinal(Collection<E> entrants, Random random) {
+        super(random);
+
         if (entrants.size() != ENTRANT_COUNT)
             throw new IllegalArgumentException();
 
@@ -0,0 +1,76 @@
+package de.j13g.manko.core.simulation;
+
+import java.util.Locale;
+
+/**
+ * The statistics of a simulated tournament.
+ */
+public class SimulationResult {
+
+    private final long seed;
+
+    int rounds = 1;
+    long pairings = 0;
+    long joins = 0;
+    long leaves = 0;
+    long resets = 0;
+
+    long elapsedNanos = 0;
+    long fingerprint = 0;
+
+    SimulationResult(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    public long getPairings() {
+        return pairings;
+    }
+
+    public long getJoins() {
+        return joins;
+    }
+
+    public long getLeaves() {
+        return leaves;
+    }
+
+    public long getResets() {
+        return resets;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return The number of decided pairings per second.
+     */
+    public double getPairingsPerSecond() {
+        return elapsedNanos == 0 ? 0 : pairings * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * @return A hash of all pairings and results in the order they happened.
+     * Two runs with the same fingerprint played out the same tournament.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "seed=%d rounds=%d pairings=%d joins=%d leaves=%d resets=%d " +
+                        "elapsed=%.1fms throughput=%.0f pairings/s fingerprint=%016x",
+                seed, rounds, pairings, joins, leaves, resets,
+                elapsedNanos / 1_000_000.0, getPairingsPerSecond(), fingerprint);
+    }
+}
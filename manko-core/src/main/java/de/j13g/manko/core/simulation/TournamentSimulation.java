@@ -0,0 +1,257 @@
+package de.j13g.manko.core.simulation;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.base.EliminationRound;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.base.TournamentListener;
+import de.j13g.manko.core.exceptions.*;
+import de.j13g.manko.core.formats.DefaultFormat;
+import de.j13g.manko.core.rounds.DynamicElimination;
+import de.j13g.manko.core.rounds.RollingElimination;
+import de.j13g.manko.core.rounds.SemiFinal;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Plays out whole tournaments of the default format with synthetic entrants.
+ * Entrants are consecutive integers. While elimination rounds are running,
+ * entrants join, leave and are reset at the configured rates.
+ * All random decisions are derived from a single seed,
+ * so a run with the same seed and configuration always leads to the same tournament.
+ */
+public class TournamentSimulation {
+
+    /** Mixed into the seed of the script, so it does not repeat the decisions of the format. */
+    private static final long SCRIPT_SEED_MASK = 0x5deece66dL;
+
+    private static final long FINGERPRINT_PRIME = 1099511628211L;
+
+    private final long seed;
+
+    private int entrantCount = 1000;
+    private double joinRate = 0;
+    private double leaveRate = 0;
+    private double resetRate = 0;
+    private boolean isRolling = false;
+
+    /**
+     * @param seed The seed of all random decisions.
+     */
+    public TournamentSimulation(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param entrantCount The number of entrants that are added before the first pairing.
+     * @return This simulation.
+     */
+    public TournamentSimulation withEntrants(int entrantCount) {
+        if (entrantCount < 0)
+            throw new IllegalArgumentException("The entrant count must not be negative");
+
+        this.entrantCount = entrantCount;
+        return this;
+    }
+
+    /**
+     * Configures the churn of elimination rounds.
+     * Each rate is the probability that the change happens before a pairing.
+     * @param joinRate The probability that a new entrant joins.
+     * @param leaveRate The probability that a random entrant leaves.
+     * @param resetRate The probability that a random entrant is reset.
+     * @return This simulation.
+     */
+    public TournamentSimulation withChurn(double joinRate, double leaveRate, double resetRate) {
+        if (!isProbability(joinRate) || !isProbability(leaveRate) || !isProbability(resetRate))
+            throw new IllegalArgumentException("Rates must be between 0 and 1");
+
+        this.joinRate = joinRate;
+        this.leaveRate = leaveRate;
+        this.resetRate = resetRate;
+        return this;
+    }
+
+    /**
+     * @param isRolling If the elimination is played as a rolling elimination.
+     * @return This simulation.
+     */
+    public TournamentSimulation withRolling(boolean isRolling) {
+        this.isRolling = isRolling;
+        return this;
+    }
+
+    /**
+     * Plays a tournament until its final round is finished.
+     * @return The statistics of the run.
+     */
+    public SimulationResult run() {
+        Random script = new Random(seed ^ SCRIPT_SEED_MASK);
+        DefaultFormat<Integer> format = new DefaultFormat<>(seed, isRolling);
+        format.setByePolicy(DynamicElimination.ByePolicy.LUCKY_LOSER);
+
+        Tournament<Integer> tournament = new Tournament<>(format);
+        tournament.setHistoryEnabled(false);
+
+        Fingerprint fingerprint = new Fingerprint();
+        tournament.addListener(fingerprint);
+
+        SimulationResult result = new SimulationResult(seed);
+        long start = System.nanoTime();
+
+        ArrayList<Integer> present = new ArrayList<>(entrantCount);
+        int nextEntrant = 0;
+        for (; nextEntrant < entrantCount; ++nextEntrant) {
+            tournament.addEntrant(nextEntrant);
+            present.add(nextEntrant);
+        }
+
+        while (true) {
+            Round<Integer> round = tournament.getCurrentRound();
+            boolean hasChurn = round instanceof RollingElimination
+                    || round instanceof DynamicElimination && !(round instanceof SemiFinal);
+
+            while (!round.isFinished()) {
+                if (hasChurn) {
+                    if (script.nextDouble() < joinRate) {
+                        tournament.addEntrant(nextEntrant);
+                        present.add(nextEntrant++);
+                        result.joins += 1;
+                    }
+                    if (script.nextDouble() < leaveRate && !present.isEmpty()) {
+                        tournament.removeEntrant(removeRandom(present, script));
+                        result.leaves += 1;
+                    }
+                    if (script.nextDouble() < resetRate && !present.isEmpty()) {
+                        Integer entrant = present.get(script.nextInt(present.size()));
+                        if (tournament.resetEntrant(entrant))
+                            result.resets += 1;
+                    }
+                }
+
+                playPairing(tournament, round, present, script, result);
+            }
+
+            try {
+                tournament.nextRound();
+            }
+            catch (FinalRoundException e) {
+                break;
+            }
+            catch (RoundNotFinishedException e) {
+                throw new IllegalStateException(e);
+            }
+
+            result.rounds += 1;
+
+            // Only the entrants of the new round can be changed.
+            present.clear();
+            present.addAll(tournament.getCurrentRound().getEntrants());
+            present.sort(null);
+        }
+
+        result.elapsedNanos = System.nanoTime() - start;
+        result.fingerprint = fingerprint.value;
+        return result;
+    }
+
+    private void playPairing(Tournament<Integer> tournament, Round<Integer> round,
+                             ArrayList<Integer> present, Random script, SimulationResult result) {
+
+        Pairing<Integer> pairing;
+        try {
+            pairing = tournament.nextPairing();
+        }
+        catch (NoOpponentException e) {
+            // There is no lucky loser for the last pending entrant yet, so it leaves.
+            EliminationRound<Integer> eliminationRound = (EliminationRound<Integer>) round;
+            Integer lastEntrant = eliminationRound.getPendingEntrants().iterator().next();
+            tournament.removeEntrant(lastEntrant);
+            present.remove(lastEntrant);
+            result.leaves += 1;
+            return;
+        }
+        catch (NoEntrantsException | UnfinishedPairingsException | NoMorePairingsException e) {
+            throw new IllegalStateException(e);
+        }
+
+        // The last pending entrant advanced without a pairing.
+        if (pairing == null)
+            return;
+
+        Integer winner = script.nextBoolean() ? pairing.getFirst() : pairing.getSecond();
+        try {
+            tournament.declareWinner(winner, pairing);
+        }
+        catch (NoSuchEntrantException | NoSuchPairingException e) {
+            throw new IllegalStateException(e);
+        }
+
+        result.pairings += 1;
+    }
+
+    private static Integer removeRandom(ArrayList<Integer> list, Random random) {
+        int index = random.nextInt(list.size());
+        int lastIndex = list.size() - 1;
+
+        Integer removed = list.get(index);
+        list.set(index, list.get(lastIndex));
+        list.remove(lastIndex);
+        return removed;
+    }
+
+    private static boolean isProbability(double rate) {
+        return rate >= 0 && rate <= 1;
+    }
+
+    /**
+     * Hashes the sequence of pairings and results, so runs can be compared without keeping them.
+     */
+    private static class Fingerprint implements TournamentListener<Integer> {
+
+        public long value = 0xcbf29ce484222325L;
+
+        @Override
+        public void onRoundChanged(Round<Integer> round, int roundNumber) {
+            update(-roundNumber);
+        }
+
+        @Override
+        public void onPairing(Round<Integer> round, Pairing<Integer> pairing) {
+            update(pairing.getFirst());
+            update(pairing.getSecond());
+        }
+
+        @Override
+        public void onWinner(Round<Integer> round, Integer winner, Pairing<Integer> pairing) {
+            update(winner);
+        }
+
+        private void update(int value) {
+            this.value = (this.value ^ value) * FINGERPRINT_PRIME;
+        }
+    }
+
+    /**
+     * Runs a simulation and prints its statistics.
+     * Arguments: entrant count, seed, join rate, leave rate, reset rate and "rolling" for a rolling elimination.
+     * @param args The arguments, all of which are optional.
+     */
+    public static void main(String[] args) {
+        int entrantCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : new Random().nextLong();
+        double joinRate = args.length > 2 ? Double.parseDouble(args[2]) : 0.1;
+        double leaveRate = args.length > 3 ? Double.parseDouble(args[3]) : 0.05;
+        double resetRate = args.length > 4 ? Double.parseDouble(args[4]) : 0.01;
+        boolean isRolling = args.length > 5 && args[5].equals("rolling");
+
+        SimulationResult result = new TournamentSimulation(seed)
+                .withEntrants(entrantCount)
+                .withChurn(joinRate, leaveRate, resetRate)
+                .withRolling(isRolling)
+                .run();
+
+        System.out.println(result);
+    }
+}
@@ -0,0 +1,157 @@
+package de.j13g.manko.core.statistics;
+
+import de.j13g.manko.core.Placement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The results of an entrant across archived tournaments.
+ * @param <E> The entrant type.
+ */
+public class EntrantStatistics<E> {
+
+    /**
+     * Won, lost and tied pairings.
+     */
+    public static class Score {
+
+        private int wins = 0;
+        private int losses = 0;
+        private int ties = 0;
+
+        public int getWins() {
+            return wins;
+        }
+
+        public int getLosses() {
+            return losses;
+        }
+
+        public int getTies() {
+            return ties;
+        }
+
+        public int getPairings() {
+            return wins + losses + ties;
+        }
+
+        /**
+         * @return The share of won pairings between 0 and 1, or 0 without pairings.
+         */
+        public double getWinRate() {
+            int pairings = getPairings();
+            return pairings == 0 ? 0 : (double) wins / pairings;
+        }
+    }
+
+    /**
+     * The outcome of a single tournament for the entrant.
+     */
+    public static class Participation {
+
+        private final int event;
+        private final long timestamp;
+        private final Placement placement;
+        private final int roundNumber;
+
+        public Participation(int event, long timestamp, Placement placement, int roundNumber) {
+            this.event = event;
+            this.timestamp = timestamp;
+            this.placement = placement;
+            this.roundNumber = roundNumber;
+        }
+
+        /**
+         * @return The number of the archived tournament, starting at 0.
+         */
+        public int getEvent() {
+            return event;
+        }
+
+        /**
+         * @return The time the tournament was archived, in milliseconds since the epoch.
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public Placement getPlacement() {
+            return placement;
+        }
+
+        /**
+         * @return The number of the last round the entrant took part in.
+         */
+        public int getRoundNumber() {
+            return roundNumber;
+        }
+    }
+
+    private final E entrant;
+
+    private final Score total = new Score();
+    private final LinkedHashMap<E, Score> headToHead = new LinkedHashMap<>();
+    private final ArrayList<Participation> participations = new ArrayList<>();
+
+    public EntrantStatistics(E entrant) {
+        this.entrant = entrant;
+    }
+
+    void addWin(E opponent) {
+        total.wins += 1;
+        scoreAgainst(opponent).wins += 1;
+    }
+
+    void addLoss(E opponent) {
+        total.losses += 1;
+        scoreAgainst(opponent).losses += 1;
+    }
+
+    void addTie(E opponent) {
+        total.ties += 1;
+        scoreAgainst(opponent).ties += 1;
+    }
+
+    void addParticipation(Participation participation) {
+        participations.add(participation);
+    }
+
+    public E getEntrant() {
+        return entrant;
+    }
+
+    public Score getTotal() {
+        return total;
+    }
+
+    /**
+     * @param opponent The opponent.
+     * @return The pairings against this opponent.
+     */
+    public Score getScoreAgainst(E opponent) {
+        Score score = headToHead.get(opponent);
+        return score != null ? score : new Score();
+    }
+
+    /**
+     * @return The pairings against each opponent, the most recent opponent first.
+     */
+    public Map<E, Score> getHeadToHead() {
+        return Collections.unmodifiableMap(headToHead);
+    }
+
+    /**
+     * @return The tournaments the entrant took part in, the most recent first.
+     */
+    public List<Participation> getParticipations() {
+        return Collections.unmodifiableList(participations);
+    }
+
+    private Score scoreAgainst(E opponent) {
+        return headToHead.computeIfAbsent(opponent, o -> new Score());
+    }
+}
@@ -0,0 +1,426 @@
+package de.j13g.manko.core.statistics;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.base.RankingRound;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.base.TournamentListener;
+import de.j13g.manko.util.FenwickTree;
+
+import java.util.*;
+
+/**
+ * The rank of every entrant of a tournament, not only of the placed entrants.
+ * Entrants are ranked in tiers by the last round they took part in, the later the better,
+ * and within a tier by their placement and then by tie-breakers.
+ * Entrants that are equal in all of them share a rank, e.g. 1, 2, 3, 3, 5.
+ * The tier of a round is sorted once when the tournament advances past it
+ * and the size of each tier is kept in a {@link FenwickTree}, so a rank is found in logarithmic time.
+ * Entrants of the current round are ranked once it is a finished ranking round.
+ * This class is not thread-safe.
+ * @param <E> The entrant type.
+ */
+public class FullRanking<E> implements TournamentListener<E> {
+
+    public enum TieBreaker {
+        /** More won pairings rank higher. */
+        WINS,
+        /** More tied pairings rank higher. */
+        TIES,
+        /** Fewer lost pairings rank higher. */
+        LOSSES,
+        /** Entrants that appeared earlier in the tournament rank higher. */
+        ENTRY
+    }
+
+    /**
+     * The results of an entrant in the rounds before its tier.
+     */
+    private static class Record {
+
+        private final int sequence;
+
+        private int wins = 0;
+        private int ties = 0;
+        private int losses = 0;
+
+        /** The round number of the tier of the entrant or 0 if it is not ranked in a tier yet. */
+        private int tier = 0;
+        /** The number of entrants that rank higher within the tier. */
+        private int position = 0;
+
+        private Record(int sequence) {
+            this.sequence = sequence;
+        }
+
+        private Record(Record record) {
+            sequence = record.sequence;
+            wins = record.wins;
+            ties = record.ties;
+            losses = record.losses;
+        }
+    }
+
+    private final Comparator<Record> order;
+
+    private Tournament<E> tournament = null;
+
+    private final HashMap<E, Record> records = new HashMap<>();
+    /** The entrants of each tier, best first. The tier of round 1 is at index 0. */
+    private final ArrayList<List<E>> tiers = new ArrayList<>();
+    /** The number of entrants in the tier of each round. */
+    private final FenwickTree tierSizes = new FenwickTree();
+
+    /** The entrants of the current round, null if the round changed. */
+    private Set<E> currentEntrants = null;
+    /** The position of each entrant of a finished ranking round, null if the round changed. */
+    private HashMap<E, Integer> currentPositions = null;
+    private List<E> currentTier = null;
+
+    /**
+     * Creates a ranking that breaks ties by won pairings.
+     */
+    public FullRanking() {
+        this(TieBreaker.WINS);
+    }
+
+    /**
+     * @param tieBreakers The criteria that order entrants with the same tier and placement, the first decides first.
+     */
+    public FullRanking(TieBreaker... tieBreakers) {
+        Comparator<Record> order = (a, b) -> 0;
+        for (TieBreaker tieBreaker : tieBreakers)
+            order = order.thenComparing(comparatorFor(tieBreaker));
+        this.order = order;
+    }
+
+    /**
+     * Ranks the entrants of a tournament and follows all further changes.
+     * @param tournament The tournament.
+     */
+    public void attach(Tournament<E> tournament) {
+        detach();
+
+        this.tournament = tournament;
+        tournament.addListener(this);
+        rebuild();
+    }
+
+    public void detach() {
+        if (tournament != null)
+            tournament.removeListener(this);
+        tournament = null;
+    }
+
+    public Tournament<E> getTournament() {
+        return tournament;
+    }
+
+    /**
+     * @param entrant The entrant.
+     * @return The rank of the entrant, starting at 1, or 0 if the entrant is not ranked yet.
+     */
+    public int getRank(E entrant) {
+        if (getCurrentEntrants().contains(entrant)) {
+            Integer position = getCurrentPositions().get(entrant);
+            return position != null ? position + 1 : 0;
+        }
+
+        Record record = records.get(entrant);
+        if (record == null || record.tier == 0)
+            return 0;
+
+        // Everyone who reached a later round ranks higher.
+        long higher = getCurrentEntrants().size() + tierSizes.sumFrom(record.tier + 1);
+        return (int) higher + record.position + 1;
+    }
+
+    /**
+     * @param entrant The entrant.
+     * @return The number of the last round the entrant took part in or 0 if the entrant is not ranked yet.
+     */
+    public int getTier(E entrant) {
+        if (getCurrentEntrants().contains(entrant))
+            return getCurrentPositions().containsKey(entrant) ? tournament.getRoundNumber() : 0;
+
+        Record record = records.get(entrant);
+        return record != null ? record.tier : 0;
+    }
+
+    /**
+     * @return All ranked entrants, best first.
+     */
+    public List<E> getRanking() {
+        ArrayList<E> ranking = new ArrayList<>(getRankedCount());
+        getCurrentPositions();
+        if (currentTier != null)
+            ranking.addAll(currentTier);
+        for (int i = tiers.size() - 1; i >= 0; --i)
+            ranking.addAll(tiers.get(i));
+        return ranking;
+    }
+
+    /**
+     * @return The number of ranked entrants.
+     */
+    public int getRankedCount() {
+        return (int) tierSizes.total() + getCurrentPositions().size();
+    }
+
+    /**
+     * @return If every entrant of the tournament is ranked.
+     */
+    public boolean isComplete() {
+        return getCurrentPositions().size() == getCurrentEntrants().size();
+    }
+
+    @Override
+    public void onRoundChanged(Round<E> round, int roundNumber) {
+        changeRound(roundNumber);
+    }
+
+    @Override
+    public void onRoundRestored(Round<E> round, int roundNumber) {
+        // A restored round might bring back entrants that already have a tier.
+        if (roundNumber == tiers.size() + 2)
+            addNextTier(roundNumber - 1);
+        else
+            rebuild();
+
+        invalidateCurrentRound();
+    }
+
+    @Override
+    public void onEntrantAdded(Round<E> round, E entrant) {
+        // An entrant that returns after it left the tournament moves up from its previous tier.
+        Record record = records.get(entrant);
+        if (record != null && record.tier > 0)
+            rebuild();
+        else
+            invalidateCurrentRound();
+    }
+
+    @Override
+    public void onEntrantRemoved(Round<E> round, E entrant) {
+        // An entrant that leaves the current round without a result falls back to its previous tier.
+        if (records.containsKey(entrant))
+            rebuild();
+        else
+            invalidateCurrentRound();
+    }
+
+    @Override
+    public void onEntrantReset(Round<E> round, E entrant) {
+        invalidateCurrentRound();
+    }
+
+    @Override
+    public void onBye(Round<E> round, E entrant) {
+        invalidateCurrentRound();
+    }
+
+    @Override
+    public void onUnpairing(Round<E> round, Pairing<E> pairing) {
+        invalidateCurrentRound();
+    }
+
+    @Override
+    public void onReplay(Round<E> round, Pairing<E> pairing) {
+        invalidateCurrentRound();
+    }
+
+    @Override
+    public void onWinner(Round<E> round, E winner, Pairing<E> pairing) {
+        invalidateCurrentRound();
+    }
+
+    @Override
+    public void onGameReplay(Round<E> round, E winner, Pairing<E> pairing) {
+        invalidateCurrentRound();
+    }
+
+    @Override
+    public void onTie(Round<E> round, Pairing<E> pairing) {
+        invalidateCurrentRound();
+    }
+
+    /**
+     * Advancing by one round only adds the tier of the previous round, every other change starts over.
+     * @param roundNumber The number of the current round.
+     */
+    private void changeRound(int roundNumber) {
+        if (roundNumber == tiers.size() + 2)
+            addNextTier(roundNumber - 1);
+        else if (roundNumber != tiers.size() + 1)
+            rebuild();
+
+        invalidateCurrentRound();
+    }
+
+    /**
+     * Ranks the entrants of a round that did not reach the following round.
+     * @param roundNumber The number of the round.
+     */
+    private void addNextTier(int roundNumber) {
+        List<Round<E>> rounds = tournament.getRounds();
+        Round<E> round = rounds.get(roundNumber - 1);
+        addResults(round, records);
+
+        Set<E> advanced = TournamentOutcome.getParticipants(rounds.get(roundNumber));
+        ArrayList<E> tier = new ArrayList<>();
+        for (E entrant : TournamentOutcome.getParticipants(round)) {
+            if (advanced.contains(entrant))
+                continue;
+
+            if (records.get(entrant).tier > 0) {
+                // The entrant already has an earlier tier, but only its last round counts.
+                rebuild();
+                return;
+            }
+
+            tier.add(entrant);
+        }
+
+        addTier(roundNumber, tier);
+    }
+
+    private void rebuild() {
+        records.clear();
+        tiers.clear();
+        tierSizes.clear();
+        invalidateCurrentRound();
+
+        List<Round<E>> rounds = tournament.getRounds();
+        HashMap<E, Integer> lastRoundNumbers = new HashMap<>();
+        for (int i = 0; i < rounds.size(); ++i)
+            for (E entrant : TournamentOutcome.getParticipants(rounds.get(i)))
+                lastRoundNumbers.put(entrant, i + 1);
+
+        for (int i = 0; i < rounds.size() - 1; ++i) {
+            Round<E> round = rounds.get(i);
+            int roundNumber = i + 1;
+            addResults(round, records);
+
+            ArrayList<E> tier = new ArrayList<>();
+            for (E entrant : TournamentOutcome.getParticipants(round))
+                if (lastRoundNumbers.get(entrant) == roundNumber)
+                    tier.add(entrant);
+
+            addTier(roundNumber, tier);
+        }
+    }
+
+    /**
+     * @param roundNumber The number of the round of the tier, which follows the last tier.
+     * @param tier The entrants whose last round it is.
+     */
+    private void addTier(int roundNumber, List<E> tier) {
+        sortTier(tier, records, (a, b) -> 0);
+        for (E entrant : tier)
+            records.get(entrant).tier = roundNumber;
+
+        tiers.add(Collections.unmodifiableList(tier));
+        tierSizes.add(roundNumber, tier.size());
+    }
+
+    private void invalidateCurrentRound() {
+        currentEntrants = null;
+        currentPositions = null;
+        currentTier = null;
+    }
+
+    private Set<E> getCurrentEntrants() {
+        if (currentEntrants == null)
+            currentEntrants = tournament != null
+                    ? TournamentOutcome.getParticipants(tournament.getCurrentRound())
+                    : Collections.emptySet();
+        return currentEntrants;
+    }
+
+    /**
+     * Ranks the entrants of the current round if it is a finished ranking round.
+     * Their results include the current round, without changing the records of the previous rounds.
+     * @return The position of each ranked entrant of the current round.
+     */
+    private HashMap<E, Integer> getCurrentPositions() {
+        if (currentPositions != null)
+            return currentPositions;
+
+        currentPositions = new HashMap<>();
+        Round<E> round = tournament != null ? tournament.getCurrentRound() : null;
+        if (!(round instanceof RankingRound) || !round.isFinished())
+            return currentPositions;
+
+        RankingRound<E> rankingRound = (RankingRound<E>) round;
+        HashMap<E, Record> currentRecords = new HashMap<>();
+        for (E entrant : getCurrentEntrants()) {
+            Record record = records.get(entrant);
+            currentRecords.put(entrant, record != null ? new Record(record) : new Record(records.size() + currentRecords.size()));
+        }
+        addResults(round, currentRecords);
+
+        // Placed entrants come first, then the others of the round.
+        HashMap<Record, Integer> placements = new HashMap<>();
+        for (E entrant : getCurrentEntrants()) {
+            int value = rankingRound.getPlacement(entrant).getValue();
+            placements.put(currentRecords.get(entrant), value > 0 ? value : Integer.MAX_VALUE);
+        }
+
+        ArrayList<E> tier = new ArrayList<>(getCurrentEntrants());
+        sortTier(tier, currentRecords, Comparator.comparingInt(placements::get));
+        for (E entrant : tier)
+            currentPositions.put(entrant, currentRecords.get(entrant).position);
+
+        currentTier = Collections.unmodifiableList(tier);
+        return currentPositions;
+    }
+
+    /**
+     * Sorts the entrants of a tier and sets their position within the tier.
+     * @param tier The entrants of the tier.
+     * @param records The records of the entrants.
+     * @param placementOrder Orders entrants by their placement before the tie-breakers.
+     */
+    private void sortTier(List<E> tier, Map<E, Record> records, Comparator<Record> placementOrder) {
+        Comparator<Record> tierOrder = placementOrder.thenComparing(order);
+        tier.sort((a, b) -> tierOrder.compare(records.get(a), records.get(b)));
+
+        for (int i = 0; i < tier.size(); ++i) {
+            Record record = records.get(tier.get(i));
+            Record previous = i > 0 ? records.get(tier.get(i - 1)) : null;
+            record.position = previous != null && tierOrder.compare(previous, record) == 0 ? previous.position : i;
+        }
+    }
+
+    /**
+     * Adds the finished pairings of a round to the records of their entrants.
+     * Entrants without a record are added in the order they appear.
+     */
+    private static <E> void addResults(Round<E> round, Map<E, Record> records) {
+        for (E entrant : TournamentOutcome.getParticipants(round))
+            if (!records.containsKey(entrant))
+                records.put(entrant, new Record(records.size()));
+
+        for (Pairing<E> pairing : round.getPairings().getFinished()) {
+            E winner = round.getPairings().getWinner(pairing);
+            if (winner != null) {
+                records.get(winner).wins += 1;
+                records.get(pairing.getOther(winner)).losses += 1;
+            }
+            else {
+                records.get(pairing.getFirst()).ties += 1;
+                records.get(pairing.getSecond()).ties += 1;
+            }
+        }
+    }
+
+    private static Comparator<Record> comparatorFor(TieBreaker tieBreaker) {
+        switch (tieBreaker) {
+            case WINS: return Comparator.comparingInt(r -> -r.wins);
+            case TIES: return Comparator.comparingInt(r -> -r.ties);
+            case LOSSES: return Comparator.comparingInt(r -> r.losses);
+            case ENTRY: return Comparator.comparingInt(r -> r.sequence);
+            default: throw new IllegalArgumentException("Unknown tie-breaker " + tieBreaker);
+        }
+    }
+}
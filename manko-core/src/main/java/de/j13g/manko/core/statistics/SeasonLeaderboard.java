@@ -0,0 +1,290 @@
+package de.j13g.manko.core.statistics;
+
+import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.persistence.EntrantCodec;
+import de.j13g.manko.util.FenwickTree;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * The standings of a season, in which entrants collect points over several tournaments.
+ * Entrants earn points for every round they reached and for their placement in the final round.
+ * Tournaments are added once they are finished, which only updates the standings of their entrants.
+ * Standings are kept sorted for the top entrants and the number of entrants per score is kept in a
+ * {@link FenwickTree}, so the rank of an entrant is found in logarithmic time.
+ * This class is not thread-safe.
+ * @param <E> The entrant type.
+ */
+public class SeasonLeaderboard<E> {
+
+    /**
+     * The points and placements of an entrant in the season.
+     * @param <E> The entrant type.
+     */
+    public static class Standing<E> {
+
+        private final E entrant;
+        /** The order in which entrants joined the season, the last criterion for sorting. */
+        private final int sequence;
+
+        private int points = 0;
+        private int tournaments = 0;
+        private final int[] placements = new int[PLACED_COUNT];
+
+        private Standing(E entrant, int sequence) {
+            this.entrant = entrant;
+            this.sequence = sequence;
+        }
+
+        public E getEntrant() {
+            return entrant;
+        }
+
+        public int getPoints() {
+            return points;
+        }
+
+        public int getTournaments() {
+            return tournaments;
+        }
+
+        /**
+         * @param placement FIRST, SECOND or THIRD.
+         * @return How often the entrant reached this placement.
+         */
+        public int getPlacementCount(Placement placement) {
+            int value = placement.getValue();
+            if (value < 1 || value > PLACED_COUNT)
+                throw new IllegalArgumentException("Only first, second and third place are counted");
+
+            return placements[value - 1];
+        }
+    }
+
+    private static final int MAGIC = 0x4d4e4b53; // "MNKS"
+
+    /** First, second and third place. */
+    private static final int PLACED_COUNT = 3;
+
+    private static final Comparator<Standing<?>> ORDER = Comparator
+            .comparingInt((Standing<?> s) -> -s.points)
+            .thenComparingInt(s -> -s.placements[0])
+            .thenComparingInt(s -> -s.placements[1])
+            .thenComparingInt(s -> -s.placements[2])
+            .thenComparingInt(s -> s.sequence);
+
+    private final int[] placementPoints;
+    private final int roundPoints;
+
+    private final HashMap<E, Standing<E>> standings = new HashMap<>();
+    private final TreeSet<Standing<E>> sortedStandings = new TreeSet<>(ORDER);
+    /** The number of entrants with each score. */
+    private final FenwickTree scores = new FenwickTree();
+
+    private int tournamentCount = 0;
+
+    /**
+     * Creates a leaderboard that awards 10, 6 and 3 points for the placements and 1 point per round.
+     */
+    public SeasonLeaderboard() {
+        this(10, 6, 3, 1);
+    }
+
+    /**
+     * @param firstPoints The points for first place.
+     * @param secondPoints The points for second place.
+     * @param thirdPoints The points for third place.
+     * @param roundPoints The points for each round an entrant took part in.
+     */
+    public SeasonLeaderboard(int firstPoints, int secondPoints, int thirdPoints, int roundPoints) {
+        if (firstPoints < 0 || secondPoints < 0 || thirdPoints < 0 || roundPoints < 0)
+            throw new IllegalArgumentException("Points must not be negative");
+
+        placementPoints = new int[] { firstPoints, secondPoints, thirdPoints };
+        this.roundPoints = roundPoints;
+    }
+
+    /**
+     * Awards the points of a finished tournament to its entrants.
+     * @param tournament The tournament.
+     */
+    public void addTournament(Tournament<E> tournament) {
+        TournamentOutcome<E> outcome = new TournamentOutcome<>(tournament);
+        for (E entrant : outcome.getEntrants())
+            addResult(entrant, outcome.getPlacement(entrant), outcome.getLastRoundNumber(entrant));
+
+        tournamentCount += 1;
+    }
+
+    /**
+     * Awards the points of a single entrant in a tournament.
+     * @param entrant The entrant.
+     * @param placement The placement of the entrant.
+     * @param roundNumber The number of the last round the entrant took part in.
+     * @return The points the entrant earned.
+     */
+    public int addResult(E entrant, Placement placement, int roundNumber) {
+        int points = roundPoints * roundNumber;
+        int value = placement.getValue();
+        if (value >= 1 && value <= PLACED_COUNT)
+            points += placementPoints[value - 1];
+
+        Standing<E> standing = detach(entrant);
+        standing.points += points;
+        standing.tournaments += 1;
+        if (value >= 1 && value <= PLACED_COUNT)
+            standing.placements[value - 1] += 1;
+        attach(standing);
+
+        return points;
+    }
+
+    /**
+     * @param count The maximum number of standings.
+     * @return The best standings, ordered by points and then by the number of first, second and third places.
+     */
+    public List<Standing<E>> getTop(int count) {
+        ArrayList<Standing<E>> top = new ArrayList<>(Math.min(count, sortedStandings.size()));
+        for (Standing<E> standing : sortedStandings) {
+            if (top.size() == count)
+                break;
+            top.add(standing);
+        }
+        return top;
+    }
+
+    /**
+     * @param entrant The entrant.
+     * @return The standing of the entrant or null if the entrant did not take part in the season.
+     */
+    public Standing<E> getStanding(E entrant) {
+        return standings.get(entrant);
+    }
+
+    /**
+     * Entrants with the same points share their rank, e.g. 1, 2, 2, 4.
+     * @param entrant The entrant.
+     * @return The rank of the entrant, starting at 1, or 0 if the entrant did not take part in the season.
+     */
+    public int getRank(E entrant) {
+        Standing<E> standing = standings.get(entrant);
+        if (standing == null)
+            return 0;
+
+        return (int) scores.sumFrom(standing.points + 1) + 1;
+    }
+
+    /**
+     * @return The number of entrants in the season.
+     */
+    public int size() {
+        return standings.size();
+    }
+
+    public int getTournamentCount() {
+        return tournamentCount;
+    }
+
+    /**
+     * Writes the leaderboard to a file, replacing it atomically.
+     * Each standing is a few integers after the encoded entrant.
+     * @param file The file.
+     * @param codec Converts entrants to bytes.
+     * @throws IOException The file could not be written.
+     */
+    public void save(File file, EntrantCodec<E> codec) throws IOException {
+        File tmpFile = new File(file.getPath() + ".tmp");
+
+        // Standings are written in the order the entrants joined, so the sorting is restored when loading.
+        ArrayList<Standing<E>> ordered = new ArrayList<>(standings.values());
+        ordered.sort(Comparator.comparingInt(s -> s.sequence));
+
+        ByteBuffer entrant = ByteBuffer.allocate(codec.getEncodedSize());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            out.writeInt(MAGIC);
+            for (int points : placementPoints)
+                out.writeInt(points);
+            out.writeInt(roundPoints);
+            out.writeInt(tournamentCount);
+
+            out.writeInt(ordered.size());
+            for (Standing<E> standing : ordered) {
+                entrant.clear();
+                codec.encode(standing.entrant, entrant);
+                out.write(entrant.array());
+                out.writeInt(standing.points);
+                out.writeInt(standing.tournaments);
+                for (int count : standing.placements)
+                    out.writeInt(count);
+            }
+        }
+
+        try {
+            Files.move(tmpFile.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @param file A file that was written with save.
+     * @param codec Converts bytes to entrants.
+     * @param <E> The entrant type.
+     * @return The leaderboard.
+     * @throws IOException The file could not be read or is not a leaderboard.
+     */
+    public static <E> SeasonLeaderboard<E> load(File file, EntrantCodec<E> codec) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException("Not a leaderboard file");
+
+            SeasonLeaderboard<E> leaderboard = new SeasonLeaderboard<>(
+                    in.readInt(), in.readInt(), in.readInt(), in.readInt());
+            leaderboard.tournamentCount = in.readInt();
+
+            int size = in.readInt();
+            byte[] entrant = new byte[codec.getEncodedSize()];
+            for (int i = 0; i < size; ++i) {
+                in.readFully(entrant);
+                Standing<E> standing = leaderboard.detach(codec.decode(ByteBuffer.wrap(entrant)));
+                standing.points = in.readInt();
+                standing.tournaments = in.readInt();
+                for (int p = 0; p < PLACED_COUNT; ++p)
+                    standing.placements[p] = in.readInt();
+                leaderboard.attach(standing);
+            }
+
+            return leaderboard;
+        }
+    }
+
+    /**
+     * Removes the standing of an entrant from the sorted structures, so it can be changed.
+     * @return The standing, which is created if the entrant is new.
+     */
+    private Standing<E> detach(E entrant) {
+        Standing<E> standing = standings.get(entrant);
+        if (standing == null) {
+            standing = new Standing<>(entrant, standings.size());
+            standings.put(entrant, standing);
+            return standing;
+        }
+
+        sortedStandings.remove(standing);
+        scores.add(standing.points, -1);
+        return standing;
+    }
+
+    private void attach(Standing<E> standing) {
+        sortedStandings.add(standing);
+        scores.add(standing.points, 1);
+    }
+}
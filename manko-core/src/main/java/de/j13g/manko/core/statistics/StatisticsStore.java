@@ -0,0 +1,424 @@
+package de.j13g.manko.core.statistics;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.persistence.EntrantCodec;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An append-only store of the results of archived tournaments, for statistics across tournaments.
+ * Results are records of fixed width, each linked to the previous records of both of its entrants,
+ * so the records of an entrant are read from disk without reading those of others.
+ * Archived tournaments are entries of fixed width in the order they were archived,
+ * which makes them an index by date that is searched with a binary search.
+ * Only the position of the last record of each entrant is kept in memory.
+ * It is saved after each archived tournament, so the records do not have to be scanned on startup.
+ * This class is not thread-safe.
+ * @param <E> The entrant type.
+ */
+public class StatisticsStore<E> implements Closeable {
+
+    private enum RecordType {
+        RESULT,
+        TIE,
+        PLACEMENT
+    }
+
+    private static final String RECORD_FILE = "records.dat";
+    private static final String EVENT_FILE = "events.dat";
+    private static final String HEAD_FILE = "heads.dat";
+    private static final String HEAD_FILE_TMP = HEAD_FILE + ".tmp";
+
+    /** Record type, event, round number and placement. */
+    private static final int RECORD_HEADER_BYTES = Byte.BYTES + 3 * Integer.BYTES;
+    /** Timestamp, first record and record count. */
+    private static final int EVENT_BYTES = 2 * Long.BYTES + Integer.BYTES;
+
+    private static final long NO_RECORD = -1;
+
+    private final File directory;
+    private final FileChannel records;
+    private final FileChannel events;
+    private final EntrantCodec<E> codec;
+
+    private final int recordBytes;
+    private final ByteBuffer record;
+    private final ByteBuffer event = ByteBuffer.allocate(EVENT_BYTES);
+
+    /** The last record of each entrant. */
+    private final HashMap<E, Long> heads = new HashMap<>();
+
+    private long recordCount = 0;
+    private int eventCount;
+
+    private StatisticsStore(File directory, FileChannel records, FileChannel events, EntrantCodec<E> codec)
+            throws IOException {
+
+        this.directory = directory;
+        this.records = records;
+        this.events = events;
+        this.codec = codec;
+
+        recordBytes = RECORD_HEADER_BYTES + 2 * codec.getEncodedSize() + 2 * Long.BYTES;
+        record = ByteBuffer.allocate(recordBytes);
+
+        eventCount = (int) (events.size() / EVENT_BYTES);
+        if (eventCount > 0) {
+            readEvent(eventCount - 1);
+            recordCount = event.getLong(Long.BYTES) + event.getInt(2 * Long.BYTES);
+        }
+
+        // Parts of a tournament that was not archived completely are dropped.
+        events.truncate((long) eventCount * EVENT_BYTES);
+        records.truncate(recordCount * recordBytes);
+
+        loadHeads();
+    }
+
+    /**
+     * Opens or creates a store in a directory.
+     * @param directory The directory of the files of the store.
+     * @param codec Converts entrants to records.
+     * @param <E> The entrant type.
+     * @return The store.
+     * @throws IOException The files could not be opened.
+     */
+    public static <E> StatisticsStore<E> open(File directory, EntrantCodec<E> codec) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Could not create the directory " + directory.getPath());
+
+        FileChannel records = FileChannel.open(new File(directory, RECORD_FILE).toPath(),
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        FileChannel events = null;
+
+        try {
+            events = FileChannel.open(new File(directory, EVENT_FILE).toPath(),
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+            return new StatisticsStore<>(directory, records, events, codec);
+        }
+        catch (IOException e) {
+            records.close();
+            if (events != null)
+                events.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends the finished pairings of all rounds and the placement of every entrant of a tournament.
+     * Results of finished pairings are derived from the state of their entrants.
+     * @param tournament The tournament.
+     * @param timestamp The time of the tournament, in milliseconds since the epoch.
+     *                  Must not be before the time of the last archived tournament.
+     * @return The number of the archived tournament, starting at 0.
+     * @throws IOException The tournament could not be written. The store is left unchanged.
+     */
+    public int archive(Tournament<E> tournament, long timestamp) throws IOException {
+        if (eventCount > 0 && timestamp < getTimestamp(eventCount - 1))
+            throw new IllegalArgumentException("Tournaments must be archived in chronological order");
+
+        List<Round<E>> rounds = tournament.getRounds();
+        HashMap<E, Long> newHeads = new HashMap<>();
+        long index = recordCount;
+
+        try {
+            for (int i = 0; i < rounds.size(); ++i) {
+                Round<E> round = rounds.get(i);
+                int roundNumber = i + 1;
+
+                for (Pairing<E> pairing : round.getPairings().getFinished()) {
+                    E winner = round.getPairings().getWinner(pairing);
+                    if (winner != null)
+                        writeRecord(index++, RecordType.RESULT, roundNumber, Placement.NONE,
+                                winner, pairing.getOther(winner), newHeads);
+                    else
+                        writeRecord(index++, RecordType.TIE, roundNumber, Placement.NONE,
+                                pairing.getFirst(), pairing.getSecond(), newHeads);
+                }
+            }
+
+            TournamentOutcome<E> outcome = new TournamentOutcome<>(tournament);
+            for (E entrant : outcome.getEntrants())
+                writeRecord(index++, RecordType.PLACEMENT, outcome.getLastRoundNumber(entrant),
+                        outcome.getPlacement(entrant), entrant, entrant, newHeads);
+
+            records.force(false);
+
+            // The event makes the records visible, so it is written last.
+            event.clear();
+            event.putLong(timestamp);
+            event.putLong(recordCount);
+            event.putInt((int) (index - recordCount));
+            event.flip();
+            writeFully(events, event, (long) eventCount * EVENT_BYTES);
+            events.force(false);
+        }
+        catch (IOException e) {
+            records.truncate(recordCount * recordBytes);
+            events.truncate((long) eventCount * EVENT_BYTES);
+            throw e;
+        }
+
+        heads.putAll(newHeads);
+        recordCount = index;
+        eventCount += 1;
+
+        saveHeads();
+        return eventCount - 1;
+    }
+
+    /**
+     * @param entrant The entrant.
+     * @return The results of the entrant in all archived tournaments.
+     * @throws IOException The records could not be read.
+     */
+    public EntrantStatistics<E> getStatistics(E entrant) throws IOException {
+        return getStatistics(entrant, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads only the records of the entrant, from the most recent tournament backwards.
+     * @param entrant The entrant.
+     * @param from The earliest time of a tournament, inclusive.
+     * @param until The latest time of a tournament, exclusive.
+     * @return The results of the entrant in the tournaments within this time.
+     * @throws IOException The records could not be read.
+     */
+    public EntrantStatistics<E> getStatistics(E entrant, long from, long until) throws IOException {
+        EntrantStatistics<E> statistics = new EntrantStatistics<>(entrant);
+
+        int firstEvent = findEvent(from);
+        int endEvent = findEvent(until);
+        if (firstEvent >= endEvent)
+            return statistics;
+
+        Long head = heads.get(entrant);
+        long index = head != null ? head : NO_RECORD;
+
+        while (index != NO_RECORD) {
+            readRecord(index);
+            RecordType type = RecordType.values()[record.get(0)];
+            int eventIndex = record.getInt(Byte.BYTES);
+            if (eventIndex < firstEvent)
+                break;
+
+            E first = decodeEntrant(0);
+            E second = decodeEntrant(1);
+            boolean isFirst = first.equals(entrant);
+            long previous = record.getLong(previousOffset(isFirst ? 0 : 1));
+
+            if (eventIndex < endEvent) {
+                if (type == RecordType.PLACEMENT) {
+                    int roundNumber = record.getInt(Byte.BYTES + Integer.BYTES);
+                    Placement placement = Placement.values()[record.getInt(Byte.BYTES + 2 * Integer.BYTES)];
+                    statistics.addParticipation(new EntrantStatistics.Participation(
+                            eventIndex, getTimestamp(eventIndex), placement, roundNumber));
+                }
+                else if (type == RecordType.TIE)
+                    statistics.addTie(isFirst ? second : first);
+                else if (isFirst)
+                    statistics.addWin(second);
+                else
+                    statistics.addLoss(first);
+            }
+
+            index = previous;
+        }
+
+        return statistics;
+    }
+
+    /**
+     * @return The number of archived tournaments.
+     */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * @return The number of entrants with at least one record.
+     */
+    public int getEntrantCount() {
+        return heads.size();
+    }
+
+    /**
+     * @param eventIndex The number of an archived tournament.
+     * @return The time of the tournament, in milliseconds since the epoch.
+     * @throws IOException The tournament could not be read.
+     */
+    public long getTimestamp(int eventIndex) throws IOException {
+        if (eventIndex < 0 || eventIndex >= eventCount)
+            throw new IndexOutOfBoundsException();
+
+        readEvent(eventIndex);
+        return event.getLong(0);
+    }
+
+    /**
+     * @param timestamp A time in milliseconds since the epoch.
+     * @return The number of the first archived tournament at or after this time,
+     * or the number of tournaments if there is none.
+     * @throws IOException The tournaments could not be read.
+     */
+    public int findEvent(long timestamp) throws IOException {
+        int low = 0;
+        int high = eventCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getTimestamp(middle) < timestamp)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            records.close();
+        }
+        finally {
+            events.close();
+        }
+    }
+
+    private void writeRecord(long index, RecordType type, int roundNumber, Placement placement,
+                             E first, E second, HashMap<E, Long> newHeads) throws IOException {
+
+        boolean isPlacement = type == RecordType.PLACEMENT;
+
+        record.clear();
+        record.put((byte) type.ordinal());
+        record.putInt(eventCount);
+        record.putInt(roundNumber);
+        record.putInt(placement.ordinal());
+        codec.encode(first, record);
+        codec.encode(second, record);
+        record.putLong(link(first, index, newHeads));
+        record.putLong(isPlacement ? NO_RECORD : link(second, index, newHeads));
+        record.flip();
+
+        writeFully(records, record, index * recordBytes);
+    }
+
+    /**
+     * Makes a record the last record of an entrant.
+     * @return The previous record of the entrant.
+     */
+    private long link(E entrant, long index, HashMap<E, Long> newHeads) {
+        Long previous = newHeads.put(entrant, index);
+        if (previous == null)
+            previous = heads.get(entrant);
+
+        return previous != null ? previous : NO_RECORD;
+    }
+
+    private void readRecord(long index) throws IOException {
+        record.clear();
+        readFully(records, record, index * recordBytes);
+    }
+
+    private void readEvent(int eventIndex) throws IOException {
+        event.clear();
+        readFully(events, event, (long) eventIndex * EVENT_BYTES);
+    }
+
+    private E decodeEntrant(int side) {
+        record.position(RECORD_HEADER_BYTES + side * codec.getEncodedSize());
+        return codec.decode(record);
+    }
+
+    private int previousOffset(int side) {
+        return RECORD_HEADER_BYTES + 2 * codec.getEncodedSize() + side * Long.BYTES;
+    }
+
+    private void loadHeads() throws IOException {
+        long savedCount = 0;
+
+        File file = new File(directory, HEAD_FILE);
+        if (file.isFile()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                long count = in.readLong();
+                if (count <= recordCount) {
+                    int size = in.readInt();
+                    byte[] entrant = new byte[codec.getEncodedSize()];
+                    for (int i = 0; i < size; ++i) {
+                        in.readFully(entrant);
+                        heads.put(codec.decode(ByteBuffer.wrap(entrant)), in.readLong());
+                    }
+                    savedCount = count;
+                }
+            }
+            catch (IOException e) {
+                // The last records of all entrants are found again below.
+                heads.clear();
+                savedCount = 0;
+            }
+        }
+
+        // Records that were archived after the heads were saved.
+        for (long index = savedCount; index < recordCount; ++index) {
+            readRecord(index);
+            heads.put(decodeEntrant(0), index);
+            if (record.get(0) != RecordType.PLACEMENT.ordinal())
+                heads.put(decodeEntrant(1), index);
+        }
+
+        if (savedCount != recordCount)
+            saveHeads();
+    }
+
+    private void saveHeads() throws IOException {
+        File file = new File(directory, HEAD_FILE);
+        File tmpFile = new File(directory, HEAD_FILE_TMP);
+
+        ByteBuffer entrant = ByteBuffer.allocate(codec.getEncodedSize());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            out.writeLong(recordCount);
+            out.writeInt(heads.size());
+            for (Map.Entry<E, Long> head : heads.entrySet()) {
+                entrant.clear();
+                codec.encode(head.getKey(), entrant);
+                out.write(entrant.array());
+                out.writeLong(head.getValue());
+            }
+        }
+
+        try {
+            Files.move(tmpFile.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                throw new EOFException();
+            position += read;
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,79 @@
+package de.j13g.manko.core.statistics;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.base.RankingRound;
+import de.j13g.manko.core.base.Round;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * How far each entrant of a tournament got, derived from the state of its rounds.
+ * @param <E> The entrant type.
+ */
+class TournamentOutcome<E> {
+
+    private final LinkedHashMap<E, Integer> lastRoundNumbers = new LinkedHashMap<>();
+    private final RankingRound<E> rankingRound;
+    private final int roundCount;
+
+    TournamentOutcome(Tournament<E> tournament) {
+        List<Round<E>> rounds = tournament.getRounds();
+        roundCount = rounds.size();
+
+        for (int i = 0; i < rounds.size(); ++i)
+            for (E entrant : getParticipants(rounds.get(i)))
+                lastRoundNumbers.put(entrant, i + 1);
+
+        Round<E> lastRound = rounds.get(rounds.size() - 1);
+        rankingRound = lastRound instanceof RankingRound && lastRound.isFinished()
+                ? (RankingRound<E>) lastRound
+                : null;
+    }
+
+    /**
+     * @return All entrants that took part in any round, in the order they first appeared.
+     */
+    Set<E> getEntrants() {
+        return lastRoundNumbers.keySet();
+    }
+
+    /**
+     * @param entrant An entrant of the tournament.
+     * @return The number of the last round the entrant took part in, starting at 1.
+     */
+    int getLastRoundNumber(E entrant) {
+        return lastRoundNumbers.get(entrant);
+    }
+
+    /**
+     * @param entrant An entrant of the tournament.
+     * @return The final placement of the entrant or NONE if it has none or the last round is not finished.
+     */
+    Placement getPlacement(E entrant) {
+        if (rankingRound == null || getLastRoundNumber(entrant) != roundCount)
+            return Placement.NONE;
+
+        return rankingRound.getPlacement(entrant);
+    }
+
+    /**
+     * @param round A round.
+     * @return The entrants of the round and the entrants that were removed after a finished pairing.
+     */
+    static <E> Set<E> getParticipants(Round<E> round) {
+        LinkedHashSet<E> participants = new LinkedHashSet<>(round.getEntrants());
+
+        // Entrants that were removed after their pairing still took part in the round.
+        for (Pairing<E> pairing : round.getPairings().getFinished()) {
+            participants.add(pairing.getFirst());
+            participants.add(pairing.getSecond());
+        }
+
+        return participants;
+    }
+}
@@ -1,7 +1,7 @@
 package de.j13g.manko.util;
 
 import java.io.Serializable;
-import java.util.*;
+import java.util.Set;
 
 /**
  * Base for a UniformPairBiSet.
@@ -12,8 +12,6 @@ import java.util.*;
 public abstract class BaseUniformPairBiSet<E, P extends UniformPair<E>, C>
         extends BaseSet<P> implements Serializable {
 
-    protected final HashMap<E, C> index = new HashMap<>();
-
     protected BaseUniformPairBiSet(Set<P> elements) {
         super(elements);
     }
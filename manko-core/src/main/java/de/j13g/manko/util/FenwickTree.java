@@ -0,0 +1,84 @@
+package de.j13g.manko.util;
+
+import java.util.Arrays;
+
+/**
+ * Counts at non-negative indices with prefix sums in logarithmic time, also known as binary indexed tree.
+ * The tree grows with the largest index that was added.
+ * This class is not thread-safe.
+ */
+public class FenwickTree {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /** Node i holds the sum of the counts at the indices (i - lowestOneBit(i), i], shifted by one. */
+    private long[] tree = new long[DEFAULT_CAPACITY + 1];
+
+    private long total = 0;
+
+    /**
+     * @param index The index.
+     * @param delta The value that is added to the count at this index.
+     */
+    public void add(int index, long delta) {
+        if (index < 0)
+            throw new IndexOutOfBoundsException("The index must not be negative");
+
+        if (index + 1 >= tree.length)
+            grow(index + 1);
+
+        for (int i = index + 1; i < tree.length; i += i & -i)
+            tree[i] += delta;
+        total += delta;
+    }
+
+    /**
+     * @param index The last index of the sum, inclusive.
+     * @return The sum of the counts from index 0 up to this index.
+     */
+    public long sum(int index) {
+        if (index < 0)
+            return 0;
+
+        long sum = 0;
+        for (int i = Math.min(index + 1, tree.length - 1); i > 0; i -= i & -i)
+            sum += tree[i];
+        return sum;
+    }
+
+    /**
+     * @param index The first index, inclusive.
+     * @return The sum of the counts from this index onwards.
+     */
+    public long sumFrom(int index) {
+        return total - sum(index - 1);
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public void clear() {
+        Arrays.fill(tree, 0);
+        total = 0;
+    }
+
+    private void grow(int minLength) {
+        int length = tree.length - 1;
+        while (length < minLength)
+            length *= 2;
+
+        // Nodes are rebuilt from the counts, since their ranges depend on the size of the tree.
+        long[] counts = new long[length + 1];
+        for (int index = 0; index < tree.length - 1; ++index)
+            counts[index + 1] = sum(index) - sum(index - 1);
+
+        for (int i = 1; i <= length; ++i) {
+            int parent = i + (i & -i);
+            if (parent <= length)
+                counts[parent] += counts[i];
+        }
+
+        tree = counts;
+    }
+}
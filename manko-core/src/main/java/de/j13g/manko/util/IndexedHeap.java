@@ -0,0 +1,174 @@
+package de.j13g.manko.util;
+
+import de.j13g.manko.util.exceptions.EmptySetException;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * A binary min-heap of elements by a key, which knows the position of each element,
+ * so any element is removed or gets a new key in logarithmic time.
+ * Elements with the same key come out in the order they were added.
+ * This class is not thread-safe.
+ * @param <E> The element type.
+ */
+public class IndexedHeap<E> implements Serializable {
+
+    private static class Node<E> implements Serializable {
+
+        private final E element;
+        private long key;
+        private long sequence;
+        private int index;
+
+        private Node(E element, long key, long sequence, int index) {
+            this.element = element;
+            this.key = key;
+            this.sequence = sequence;
+            this.index = index;
+        }
+    }
+
+    private final ArrayList<Node<E>> heap = new ArrayList<>();
+    private final HashMap<E, Node<E>> nodes = new HashMap<>();
+
+    /** Counts added elements, to order elements with the same key. */
+    private long sequence = 0;
+
+    /**
+     * @param element The element.
+     * @param key The key of the element, the smallest key comes first.
+     * @return If the element was added, false if it is already part of the heap.
+     */
+    public boolean add(E element, long key) {
+        if (nodes.containsKey(element))
+            return false;
+
+        Node<E> node = new Node<>(element, key, sequence++, heap.size());
+        heap.add(node);
+        nodes.put(element, node);
+        siftUp(node.index);
+        return true;
+    }
+
+    /**
+     * Changes the key of an element, which then counts as added last among the elements with the same key.
+     * @param element The element.
+     * @param key The new key.
+     * @return If the key was changed, false if the element is not part of the heap.
+     */
+    public boolean setKey(E element, long key) {
+        Node<E> node = nodes.get(element);
+        if (node == null)
+            return false;
+
+        node.key = key;
+        node.sequence = sequence++;
+        siftUp(node.index);
+        siftDown(node.index);
+        return true;
+    }
+
+    public boolean remove(E element) {
+        Node<E> node = nodes.remove(element);
+        if (node == null)
+            return false;
+
+        removeAt(node.index);
+        return true;
+    }
+
+    /**
+     * @return The element with the smallest key or null if the heap is empty.
+     */
+    public E peek() {
+        return heap.isEmpty() ? null : heap.get(0).element;
+    }
+
+    /**
+     * Removes the element with the smallest key.
+     * @return The element.
+     * @throws EmptySetException The heap is empty.
+     */
+    public E poll() throws EmptySetException {
+        if (heap.isEmpty())
+            throw new EmptySetException();
+
+        Node<E> node = heap.get(0);
+        nodes.remove(node.element);
+        removeAt(0);
+        return node.element;
+    }
+
+    public boolean contains(E element) {
+        return nodes.containsKey(element);
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    public boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    public void clear() {
+        heap.clear();
+        nodes.clear();
+    }
+
+    private void removeAt(int index) {
+        int lastIndex = heap.size() - 1;
+        Node<E> last = heap.remove(lastIndex);
+        if (index == lastIndex)
+            return;
+
+        last.index = index;
+        heap.set(index, last);
+        siftUp(index);
+        siftDown(last.index);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!isBefore(heap.get(index), heap.get(parent)))
+                return;
+
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int first = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+
+            if (left < heap.size() && isBefore(heap.get(left), heap.get(first)))
+                first = left;
+            if (right < heap.size() && isBefore(heap.get(right), heap.get(first)))
+                first = right;
+            if (first == index)
+                return;
+
+            swap(index, first);
+            index = first;
+        }
+    }
+
+    private void swap(int i, int j) {
+        Node<E> a = heap.get(i);
+        Node<E> b = heap.get(j);
+        heap.set(i, b);
+        heap.set(j, a);
+        a.index = j;
+        b.index = i;
+    }
+
+    private static boolean isBefore(Node<?> a, Node<?> b) {
+        return a.key < b.key || (a.key == b.key && a.sequence < b.sequence);
+    }
+}
@@ -0,0 +1,234 @@
+package de.j13g.manko.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A map from keys to ints, e.g. from pairings to the games of their series.
+ * Uses open addressing with linear probing and backward shift deletion, i.e. without tombstones,
+ * so looking up, changing and removing values does not allocate.
+ * Entries can be accessed by their slot, which is valid until the next insertion or removal.
+ * @param <K> The key type.
+ */
+public class ObjectIntMap<K> implements Serializable {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_LOAD_PERCENT = 60;
+
+    private transient Object[] keys;
+    private transient int[] hashes;
+    private transient int[] values;
+
+    private transient int size;
+
+    public ObjectIntMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param key The key.
+     * @return The slot of the key or -1 if it is not contained.
+     */
+    public int find(Object key) {
+        return findSlot(key, hash(key));
+    }
+
+    /**
+     * Adds a key that is not contained yet.
+     * @param key The key.
+     * @param value The value of the key.
+     * @return The slot of the key.
+     */
+    public int insert(K key, int value) {
+        if ((size + 1) * 100 > keys.length * MAX_LOAD_PERCENT)
+            resize(keys.length * 2);
+
+        int slot = insertSlot(key, hash(key));
+        values[slot] = value;
+        return slot;
+    }
+
+    /**
+     * @param key The key.
+     * @param defaultValue The value if the key is not contained.
+     * @return The value of the key.
+     */
+    public int get(Object key, int defaultValue) {
+        int slot = find(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    public void put(K key, int value) {
+        int slot = find(key);
+        if (slot < 0)
+            insert(key, value);
+        else
+            values[slot] = value;
+    }
+
+    /**
+     * @param key The key.
+     * @return If the key was contained.
+     */
+    public boolean remove(Object key) {
+        int slot = find(key);
+        if (slot < 0)
+            return false;
+
+        removeAt(slot);
+        return true;
+    }
+
+    /**
+     * @param slot The slot of a contained key.
+     * @return The key as it was inserted, which might only be equal to the key it was found with.
+     */
+    @SuppressWarnings("unchecked")
+    public K keyAt(int slot) {
+        return (K) keys[slot];
+    }
+
+    public int valueAt(int slot) {
+        return values[slot];
+    }
+
+    public void setValueAt(int slot, int value) {
+        values[slot] = value;
+    }
+
+    /**
+     * Removes the key of a slot. Other keys might move to a different slot.
+     * @param slot The slot of a contained key.
+     */
+    public void removeAt(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+
+        // Move entries back that would not be found anymore with the hole in place.
+        for (int i = (slot + 1) & mask; keys[i] != null; i = (i + 1) & mask) {
+            int home = hashes[i] & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                hashes[hole] = hashes[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+
+        keys[hole] = null;
+        values[hole] = 0;
+        size -= 1;
+    }
+
+    /**
+     * @param from The first slot to look at.
+     * @return The first slot at or after the given one that holds a key, or -1 if there is none.
+     */
+    public int nextSlot(int from) {
+        for (int slot = from; slot < keys.length; ++slot)
+            if (keys[slot] != null)
+                return slot;
+        return -1;
+    }
+
+    /**
+     * @return The number of slots, including empty ones.
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int findSlot(Object key, int hash) {
+        int mask = keys.length - 1;
+        for (int slot = hash & mask; keys[slot] != null; slot = (slot + 1) & mask)
+            if (hashes[slot] == hash && (keys[slot] == key || keys[slot].equals(key)))
+                return slot;
+        return -1;
+    }
+
+    private int insertSlot(Object key, int hash) {
+        int mask = keys.length - 1;
+        int slot = hash & mask;
+        while (keys[slot] != null)
+            slot = (slot + 1) & mask;
+
+        keys[slot] = key;
+        hashes[slot] = hash;
+        size += 1;
+        return slot;
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        hashes = new int[capacity];
+        values = new int[capacity];
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        Object[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        int[] oldValues = values;
+
+        allocate(capacity);
+
+        for (int from = 0; from < oldKeys.length; ++from) {
+            if (oldKeys[from] == null)
+                continue;
+
+            int to = insertSlot(oldKeys[from], oldHashes[from]);
+            values[to] = oldValues[from];
+        }
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (int slot = 0; slot < keys.length; ++slot) {
+            if (keys[slot] == null)
+                continue;
+
+            out.writeObject(keys[slot]);
+            out.writeInt(values[slot]);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        // Hash codes of keys might differ between runs, so the table is rebuilt.
+        int keyCount = in.readInt();
+        int capacity = DEFAULT_CAPACITY;
+        while (keyCount * 100 > capacity * MAX_LOAD_PERCENT)
+            capacity *= 2;
+
+        allocate(capacity);
+        for (int k = 0; k < keyCount; ++k) {
+            Object key = in.readObject();
+            int slot = insertSlot(key, hash(key));
+            values[slot] = in.readInt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package de.j13g.manko.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.TreeMap;
+
+/**
+ * Maps case-insensitive names to values, sorted by name,
+ * so that all values whose name starts with a prefix can be found without visiting the others.
+ * This class is not thread-safe.
+ * @param <V> The value type.
+ */
+public class PrefixIndex<V> {
+
+    private final TreeMap<String, V> values = new TreeMap<>();
+
+    /**
+     * @param name The name, case-insensitive.
+     * @param value The value.
+     * @return The value that was previously mapped to this name or null.
+     */
+    public V put(String name, V value) {
+        return values.put(toKey(name), value);
+    }
+
+    /**
+     * @param name The name, case-insensitive.
+     * @param value The value.
+     * @return The value that is already mapped to this name or null if the value was added.
+     */
+    public V putIfAbsent(String name, V value) {
+        return values.putIfAbsent(toKey(name), value);
+    }
+
+    /**
+     * @param name The name, case-insensitive.
+     * @return The value with this name or null.
+     */
+    public V get(String name) {
+        return values.get(toKey(name));
+    }
+
+    /**
+     * Removes a name, but only if it is still mapped to the given value.
+     * @param name The name, case-insensitive.
+     * @param value The value.
+     * @return If the name was removed.
+     */
+    public boolean remove(String name, V value) {
+        return values.remove(toKey(name), value);
+    }
+
+    /**
+     * @param prefix The prefix, case-insensitive.
+     * @return A view of the values whose name starts with the prefix, ordered by name.
+     */
+    public Collection<V> withPrefix(String prefix) {
+        String from = toKey(prefix);
+        if (from.isEmpty())
+            return Collections.unmodifiableCollection(values.values());
+
+        // The first string after all strings with the prefix.
+        char last = from.charAt(from.length() - 1);
+        if (last == Character.MAX_VALUE)
+            return Collections.unmodifiableCollection(values.tailMap(from, true).values());
+
+        String to = from.substring(0, from.length() - 1) + (char) (last + 1);
+        return Collections.unmodifiableCollection(values.subMap(from, true, to, false).values());
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    public void clear() {
+        values.clear();
+    }
+
+    private static String toKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,102 @@
+package de.j13g.manko.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Assigns members to teams, with a reverse index from each member to its team.
+ * A member is on at most one team, so finding the team of a member is a single lookup.
+ * The members of each team are kept in the order they joined.
+ * This class is not thread-safe.
+ * @param <T> The team type.
+ * @param <M> The member type.
+ */
+public class RosterIndex<T, M> {
+
+    private final HashMap<T, LinkedHashSet<M>> rosters = new HashMap<>();
+    private final HashMap<M, T> teams = new HashMap<>();
+
+    /**
+     * Adds a member to a team. The member leaves its previous team, if any.
+     * @param team The team.
+     * @param member The member.
+     * @return The previous team of the member or null.
+     */
+    public T add(T team, M member) {
+        T previousTeam = teams.put(member, team);
+        if (team.equals(previousTeam))
+            return previousTeam;
+
+        if (previousTeam != null)
+            removeFromRoster(previousTeam, member);
+
+        rosters.computeIfAbsent(team, t -> new LinkedHashSet<>()).add(member);
+        return previousTeam;
+    }
+
+    /**
+     * @param member The member.
+     * @return The team the member has left or null if the member was on no team.
+     */
+    public T remove(M member) {
+        T team = teams.remove(member);
+        if (team != null)
+            removeFromRoster(team, member);
+
+        return team;
+    }
+
+    /**
+     * Removes a team and all of its members.
+     * @param team The team.
+     * @return The former members of the team.
+     */
+    public Set<M> removeTeam(T team) {
+        LinkedHashSet<M> members = rosters.remove(team);
+        if (members == null)
+            return Collections.emptySet();
+
+        for (M member : members)
+            teams.remove(member);
+
+        return members;
+    }
+
+    /**
+     * @param member The member.
+     * @return The team of the member or null.
+     */
+    public T getTeam(M member) {
+        return teams.get(member);
+    }
+
+    /**
+     * @param team The team.
+     * @return An unmodifiable view of the members of the team, in the order they joined.
+     */
+    public Set<M> getMembers(T team) {
+        LinkedHashSet<M> members = rosters.get(team);
+        return members != null ? Collections.unmodifiableSet(members) : Collections.emptySet();
+    }
+
+    /**
+     * @return The teams with at least one member.
+     */
+    public Set<T> getTeams() {
+        return Collections.unmodifiableSet(rosters.keySet());
+    }
+
+    public void clear() {
+        rosters.clear();
+        teams.clear();
+    }
+
+    private void removeFromRoster(T team, M member) {
+        LinkedHashSet<M> members = rosters.get(team);
+        members.remove(member);
+        if (members.isEmpty())
+            rosters.remove(team);
+    }
+}
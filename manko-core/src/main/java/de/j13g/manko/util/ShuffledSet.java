@@ -22,15 +22,30 @@ public class ShuffledSet<E> extends BaseSet<E> implements Serializable {
      */
     private final ArrayList<E> elementList = new ArrayList<>();
 
-    private transient Random random;
+    /**
+     * Serialized with the set, so that a restored set continues the same random sequence.
+     * May be shared with other sets to make a whole tournament reproducible from a single seed.
+     */
+    private Random random;
 
     public ShuffledSet() {
+        this(new Random());
+    }
+
+    /**
+     * @param random The source of randomness for removeRandom.
+     */
+    public ShuffledSet(Random random) {
         super(new HashSet<>());
-        initTransient();
+        this.random = random;
     }
 
     public ShuffledSet(Set<E> elements) {
-        this();
+        this(elements, new Random());
+    }
+
+    public ShuffledSet(Set<E> elements, Random random) {
+        this(random);
         this.elements.addAll(elements);
         elementList.addAll(elements);
     }
@@ -61,7 +76,10 @@ public class ShuffledSet<E> extends BaseSet<E> implements Serializable {
 
         while (!elementList.isEmpty()) {
             E popped = popRandomListElement();
-            if (!removedElements.contains(popped)) {
+
+            // A removed element is dropped from the list here,
+            // so it has to be added to the list again if it is added back.
+            if (!removedElements.remove(popped)) {
                 super.remove(popped);
                 return popped;
             }
@@ -70,6 +88,20 @@ public class ShuffledSet<E> extends BaseSet<E> implements Serializable {
         throw new EmptySetException();
     }
 
+    /**
+     * @return The number of removed elements that are still kept in the element list.
+     */
+    public int getTombstoneCount() {
+        return removedElements.size();
+    }
+
+    /**
+     * @return The size of the element list, including removed elements.
+     */
+    public int getElementListSize() {
+        return elementList.size();
+    }
+
     @Override
     public void clear() {
         super.clear();
@@ -88,12 +120,11 @@ public class ShuffledSet<E> extends BaseSet<E> implements Serializable {
         return declared;
     }
 
-    private void initTransient() {
-        random = new Random();
-    }
-
     private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
         in.defaultReadObject();
-        initTransient();
+
+        // Sets that were saved before the random source was serialized.
+        if (random == null)
+            random = new Random();
     }
 }
@@ -0,0 +1,87 @@
+package de.j13g.manko.util;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A set that contains uniform pairs, i.e. pairs with values of equal type (UniformPair).
+ * Offers access to all contained pairs of a value by querying with that value (BiSet).
+ * @see UniformPairIndex
+ * @param <E> The type of the pair elements.
+ * @param <P> The type of the pair.
+ */
+public class UniformPairBiSet<E, P extends UniformPair<E>>
+        extends BaseUniformPairBiSet<E, P, Set<P>> implements Serializable {
+
+    protected final UniformPairIndex<E, P> index = new UniformPairIndex<>();
+
+    public UniformPairBiSet() {
+        super(new HashSet<>());
+    }
+
+    public UniformPairBiSet(Set<P> elementContainer) {
+        super(elementContainer);
+    }
+
+    @Override
+    public boolean add(P pair) throws IllegalArgumentException {
+        if (contains(pair))
+            return false;
+
+        // A pair with the same element twice is only indexed once.
+        index.add(pair.getFirst(), pair);
+        index.add(pair.getSecond(), pair);
+
+        return super.add(pair);
+    }
+
+    @Override
+    public boolean remove(P pair) {
+        if (!contains(pair))
+            return false;
+
+        super.remove(pair);
+
+        E first = pair.getFirst();
+        E second = pair.getSecond();
+
+        boolean firstRemoved = index.remove(first, pair);
+        boolean secondRemoved = index.remove(second, pair) || first.equals(second);
+        assert firstRemoved && secondRemoved;
+
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        index.clear();
+    }
+
+    @Override
+    public Set<P> removeByElement(E element) {
+        Set<P> pairs = index.removeKey(element);
+        for (P pair : pairs) {
+            super.remove(pair);
+            index.remove(pair.getFirst(), pair);
+            index.remove(pair.getSecond(), pair);
+        }
+
+        return pairs;
+    }
+
+    @Override
+    public Set<P> findByElement(E element) {
+        return index.get(element);
+    }
+
+    @Override
+    public P findLastByElement(E element) {
+        return index.getLast(element);
+    }
+
+    @Override
+    public Set<E> getPairElementSet() {
+        return index.keySet();
+    }
+}
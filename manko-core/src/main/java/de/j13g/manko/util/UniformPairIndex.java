@@ -0,0 +1,393 @@
+package de.j13g.manko.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A multimap from elements to the pairs that contain them, in insertion order.
+ * Each element is mapped to an entry by an {@link ObjectIntMap},
+ * the entry stays in place when other elements are removed.
+ * The first pairs of an element are stored inline in the arrays of the entries,
+ * since elements are usually contained in only 1-3 pairs.
+ * Only elements with more pairs than that get an overflow array.
+ * Adding a pair to a known element and removing pairs does not allocate.
+ * @param <E> The element type.
+ * @param <P> The pair type.
+ */
+public class UniformPairIndex<E, P> implements Serializable {
+
+    private static final int INLINE_CAPACITY = 3;
+    private static final int INITIAL_OVERFLOW_CAPACITY = 4;
+
+    private static final int DEFAULT_ENTRY_CAPACITY = 8;
+
+    /** The entry of each element, which indexes the arrays below. */
+    private transient ObjectIntMap<E> entries;
+    private transient int[] counts;
+    private transient Object[] inlinePairs;
+    private transient Object[][] overflowPairs;
+
+    /** Entries of removed elements, which are reused before new ones. */
+    private transient int[] freeEntries;
+    private transient int freeCount;
+    /** The number of entries that have been used so far. */
+    private transient int usedCount;
+
+    /** Counts changes, so iterators of the views fail fast instead of skipping or repeating pairs. */
+    private transient int modCount;
+
+    private transient Set<E> keySet;
+
+    public UniformPairIndex() {
+        allocate(DEFAULT_ENTRY_CAPACITY);
+    }
+
+    /**
+     * Appends a pair to the pairs of an element.
+     * @param key The element.
+     * @param pair The pair.
+     * @return If the pair was not already associated with the element.
+     */
+    public boolean add(E key, P pair) {
+        int slot = entries.find(key);
+
+        int entry;
+        if (slot < 0) {
+            entry = allocateEntry();
+            entries.insert(key, entry);
+        }
+        else {
+            entry = entries.valueAt(slot);
+            if (indexOf(entry, pair) >= 0)
+                return false;
+        }
+
+        append(entry, pair);
+        modCount += 1;
+        return true;
+    }
+
+    /**
+     * Removes a pair from the pairs of an element.
+     * The element is removed once no pairs are associated with it anymore.
+     * @param key The element.
+     * @param pair The pair.
+     * @return If the pair was associated with the element.
+     */
+    public boolean remove(E key, P pair) {
+        int slot = entries.find(key);
+        if (slot < 0)
+            return false;
+
+        int entry = entries.valueAt(slot);
+        int index = indexOf(entry, pair);
+        if (index < 0)
+            return false;
+
+        // Shift subsequent pairs to the left to retain the insertion order.
+        int count = counts[entry];
+        for (int i = index; i < count - 1; ++i)
+            setPair(entry, i, getPair(entry, i + 1));
+        setPair(entry, count - 1, null);
+        counts[entry] = count - 1;
+
+        if (count == 1) {
+            entries.removeAt(slot);
+            freeEntry(entry);
+        }
+
+        modCount += 1;
+        return true;
+    }
+
+    /**
+     * Removes an element and returns all pairs that were associated with it.
+     * @param key The element.
+     * @return The pairs of that element, in insertion order.
+     */
+    public Set<P> removeKey(E key) {
+        int slot = entries.find(key);
+        if (slot < 0)
+            return Collections.emptySet();
+
+        int entry = entries.valueAt(slot);
+        int count = counts[entry];
+        Object[] pairs = new Object[count];
+        for (int i = 0; i < count; ++i)
+            pairs[i] = getPair(entry, i);
+
+        entries.removeAt(slot);
+        freeEntry(entry);
+        modCount += 1;
+        return new ArraySet<>(pairs);
+    }
+
+    public void clear() {
+        entries.clear();
+        Arrays.fill(counts, 0);
+        Arrays.fill(inlinePairs, null);
+        Arrays.fill(overflowPairs, null);
+        freeCount = 0;
+        usedCount = 0;
+        modCount += 1;
+    }
+
+    public boolean containsKey(E key) {
+        return entries.find(key) >= 0;
+    }
+
+    /**
+     * @param key The element.
+     * @return The number of pairs that contain this element.
+     */
+    public int count(E key) {
+        int entry = entries.get(key, -1);
+        return entry < 0 ? 0 : counts[entry];
+    }
+
+    /**
+     * @param key The element.
+     * @return The last added pair that contains this element or null.
+     */
+    public P getLast(E key) {
+        int entry = entries.get(key, -1);
+        return entry < 0 ? null : getPair(entry, counts[entry] - 1);
+    }
+
+    /**
+     * Returns a view of the pairs of an element, in insertion order.
+     * @param key The element.
+     * @return The pairs that contain this element.
+     */
+    public Set<P> get(E key) {
+        return new PairSet(key);
+    }
+
+    /**
+     * @return A view of all elements that are contained in any pair.
+     */
+    public Set<E> keySet() {
+        if (keySet == null)
+            keySet = new KeySet();
+        return keySet;
+    }
+
+    /**
+     * @return The number of elements.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    private int allocateEntry() {
+        if (freeCount > 0)
+            return freeEntries[--freeCount];
+
+        if (usedCount == counts.length)
+            grow(counts.length * 2);
+
+        return usedCount++;
+    }
+
+    private void freeEntry(int entry) {
+        counts[entry] = 0;
+        Arrays.fill(inlinePairs, entry * INLINE_CAPACITY, (entry + 1) * INLINE_CAPACITY, null);
+        overflowPairs[entry] = null;
+        freeEntries[freeCount++] = entry;
+    }
+
+    private int indexOf(int entry, Object pair) {
+        int count = counts[entry];
+        for (int i = 0; i < count; ++i) {
+            Object other = getPair(entry, i);
+            if (other == pair || other.equals(pair))
+                return i;
+        }
+        return -1;
+    }
+
+    private void append(int entry, P pair) {
+        int count = counts[entry];
+        if (count >= INLINE_CAPACITY) {
+            Object[] overflow = overflowPairs[entry];
+            int overflowIndex = count - INLINE_CAPACITY;
+            if (overflow == null)
+                overflowPairs[entry] = new Object[INITIAL_OVERFLOW_CAPACITY];
+            else if (overflowIndex == overflow.length)
+                overflowPairs[entry] = Arrays.copyOf(overflow, overflow.length * 2);
+        }
+
+        setPair(entry, count, pair);
+        counts[entry] = count + 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private P getPair(int entry, int index) {
+        if (index < INLINE_CAPACITY)
+            return (P) inlinePairs[entry * INLINE_CAPACITY + index];
+        return (P) overflowPairs[entry][index - INLINE_CAPACITY];
+    }
+
+    private void setPair(int entry, int index, Object pair) {
+        if (index < INLINE_CAPACITY)
+            inlinePairs[entry * INLINE_CAPACITY + index] = pair;
+        else
+            overflowPairs[entry][index - INLINE_CAPACITY] = pair;
+    }
+
+    private void allocate(int entryCapacity) {
+        entries = new ObjectIntMap<>();
+        counts = new int[entryCapacity];
+        inlinePairs = new Object[entryCapacity * INLINE_CAPACITY];
+        overflowPairs = new Object[entryCapacity][];
+        freeEntries = new int[entryCapacity];
+        freeCount = 0;
+        usedCount = 0;
+    }
+
+    private void grow(int entryCapacity) {
+        counts = Arrays.copyOf(counts, entryCapacity);
+        inlinePairs = Arrays.copyOf(inlinePairs, entryCapacity * INLINE_CAPACITY);
+        overflowPairs = Arrays.copyOf(overflowPairs, entryCapacity);
+        freeEntries = Arrays.copyOf(freeEntries, entryCapacity);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(entries.size());
+        for (int slot = entries.nextSlot(0); slot >= 0; slot = entries.nextSlot(slot + 1)) {
+            int entry = entries.valueAt(slot);
+            out.writeObject(entries.keyAt(slot));
+            out.writeInt(counts[entry]);
+            for (int i = 0; i < counts[entry]; ++i)
+                out.writeObject(getPair(entry, i));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        // Hash codes of elements might differ between runs, so the index is rebuilt.
+        int keyCount = in.readInt();
+        allocate(Math.max(DEFAULT_ENTRY_CAPACITY, keyCount));
+        for (int k = 0; k < keyCount; ++k) {
+            E key = (E) in.readObject();
+            int count = in.readInt();
+            for (int i = 0; i < count; ++i)
+                add(key, (P) in.readObject());
+        }
+    }
+
+    private class PairSet extends AbstractSet<P> {
+
+        private final E key;
+
+        public PairSet(E key) {
+            this.key = key;
+        }
+
+        @Override
+        public Iterator<P> iterator() {
+            return new Iterator<P>() {
+
+                private final int entry = entries.get(key, -1);
+                private final int expectedModCount = modCount;
+                private int index = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return entry >= 0 && index < counts[entry];
+                }
+
+                @Override
+                public P next() {
+                    if (modCount != expectedModCount)
+                        throw new ConcurrentModificationException();
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    return getPair(entry, index++);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return count(key);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            int entry = entries.get(key, -1);
+            return entry >= 0 && indexOf(entry, o) >= 0;
+        }
+    }
+
+    private class KeySet extends AbstractSet<E> {
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<E>() {
+
+                private int slot = entries.nextSlot(0);
+                private final int expectedModCount = modCount;
+
+                @Override
+                public boolean hasNext() {
+                    return slot >= 0;
+                }
+
+                @Override
+                public E next() {
+                    if (modCount != expectedModCount)
+                        throw new ConcurrentModificationException();
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    E key = entries.keyAt(slot);
+                    slot = entries.nextSlot(slot + 1);
+                    return key;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o != null && entries.find(o) >= 0;
+        }
+    }
+
+    /**
+     * An unmodifiable set that is backed by an array of distinct elements.
+     */
+    private static class ArraySet<T> extends AbstractSet<T> {
+
+        private final Object[] elements;
+
+        public ArraySet(Object[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Iterator<T> iterator() {
+            return (Iterator<T>) Arrays.asList(elements).iterator();
+        }
+
+        @Override
+        public int size() {
+            return elements.length;
+        }
+    }
+}
@@ -13,6 +13,8 @@ import java.util.*;
 public class UniformPairUniqueBiSet<E, P extends UniformPair<E>>
         extends BaseUniformPairBiSet<E, P, P> implements Serializable {
 
+    protected final HashMap<E, P> index = new HashMap<>();
+
     public UniformPairUniqueBiSet() {
         super(new HashSet<>());
     }
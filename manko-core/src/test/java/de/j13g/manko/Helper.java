@@ -73,4 +73,14 @@ public class Helper {
 
         return type.cast(d);
     }
+
+    /**
+     * Copies an object by serializing and deserializing it, keeping its generic type.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Serializable> T serializeDeserialize(T o)
+        throws IOException, ClassNotFoundException {
+
+        return (T) serializeDeserialize(o, Serializable.class);
+    }
 }
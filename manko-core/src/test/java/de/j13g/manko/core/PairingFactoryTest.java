@@ -0,0 +1,62 @@
+package de.j13g.manko.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PairingFactoryTest {
+
+    private final TestEntrant first = new TestEntrant(1);
+    private final TestEntrant second = new TestEntrant(2);
+    private final TestEntrant third = new TestEntrant(3);
+
+    private final PairingFactory<TestEntrant> factory = new PairingFactory<>();
+
+    @Test
+    void createTwice_eitherOrder_returnsSameInstance() {
+        Pairing<TestEntrant> pairing = factory.create(first, second);
+        assertSame(pairing, factory.create(first, second));
+        assertSame(pairing, factory.create(second, first));
+        assertEquals(1, factory.size());
+    }
+
+    @Test
+    void createdPairing_canonicalOfEqualPairing_returnsInterned() {
+        Pairing<TestEntrant> pairing = factory.create(first, second);
+        assertSame(pairing, factory.canonical(new Pairing<>(second, first)));
+    }
+
+    @Test
+    void unknownPairing_canonical_returnsArgument() {
+        Pairing<TestEntrant> pairing = new Pairing<>(first, third);
+        assertSame(pairing, factory.canonical(pairing));
+        assertNull(factory.find(first, third));
+    }
+
+    @Test
+    void reversedPairings_areEqualWithEqualHash() {
+        Pairing<TestEntrant> pairing = new Pairing<>(first, second);
+        Pairing<TestEntrant> reversed = new Pairing<>(second, first);
+        assertEquals(pairing, reversed);
+        assertEquals(pairing.hashCode(), reversed.hashCode());
+        assertNotEquals(pairing, new Pairing<>(first, third));
+    }
+
+    @Test
+    void removedPairing_create_returnsNewInstance() {
+        Pairing<TestEntrant> pairing = factory.create(first, second);
+
+        assertTrue(factory.remove(new Pairing<>(second, first)));
+        assertEquals(0, factory.size());
+        assertNotSame(pairing, factory.create(first, second));
+    }
+
+    @Test
+    void removedPairing_intern_returnsSameInstanceAgain() {
+        Pairing<TestEntrant> pairing = factory.create(first, second);
+        factory.remove(pairing);
+
+        assertSame(pairing, factory.intern(pairing));
+        assertSame(pairing, factory.create(second, first));
+    }
+}
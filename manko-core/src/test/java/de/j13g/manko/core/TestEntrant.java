@@ -9,4 +9,9 @@ public class TestEntrant extends Identifiable<Integer> implements Serializable {
     public TestEntrant(Integer id) {
         super(id);
     }
+
+    @Override
+    public String toString() {
+        return "TestEntrant(" + id + ")";
+    }
 }
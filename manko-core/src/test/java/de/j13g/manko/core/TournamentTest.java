@@ -0,0 +1,384 @@
+package de.j13g.manko.core;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.base.EliminationRound;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.exceptions.*;
+import de.j13g.manko.core.formats.DefaultFormat;
+import de.j13g.manko.core.rounds.DynamicElimination;
+import de.j13g.manko.core.rounds.Final;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest extends RoundTest {
+
+    private Tournament<TestEntrant> tournament;
+
+    @BeforeEach
+    void init() {
+        tournament = new Tournament<>(new DefaultFormat<>(0));
+        tournament.addEntrant(first);
+        tournament.addEntrant(second);
+        tournament.addEntrant(third);
+        tournament.addEntrant(fourth);
+        tournament.clearHistory();
+    }
+
+    @Test
+    void newTournament_undo_throwsNothingToUndoException() {
+        assertFalse(tournament.canUndo());
+        assertThrows(NothingToUndoException.class, () -> tournament.undo());
+        assertThrows(NothingToRedoException.class, () -> tournament.redo());
+    }
+
+    @Test
+    void declaredWinner_undo_pairingIsActiveAgain() throws Exception {
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        TestEntrant winner = pairing.getFirst();
+        tournament.declareWinner(winner, pairing);
+
+        tournament.undo();
+
+        Round<TestEntrant> round = tournament.getCurrentRound();
+        assertTrue(round.getActivePairings().contains(pairing));
+        assertFalse(round.hasWon(winner));
+        assertFalse(round.hasLost(pairing.getSecond()));
+    }
+
+    @Test
+    void undoneWinner_redo_winnerIsDeclaredAgain() throws Exception {
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        TestEntrant winner = pairing.getFirst();
+        tournament.declareWinner(winner, pairing);
+
+        tournament.undo();
+        tournament.redo();
+
+        assertTrue(tournament.getCurrentRound().hasWon(winner));
+        assertTrue(tournament.getCurrentRound().getFinishedPairings().contains(pairing));
+        assertFalse(tournament.canRedo());
+    }
+
+    @Test
+    void pairing_undo_entrantsArePendingAndRedoRestoresTheSamePairing() throws Exception {
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+
+        tournament.undo();
+        assertTrue(tournament.getCurrentRound().getActivePairings().isEmpty());
+        assertEquals(4, elimination().getPendingEntrants().size());
+
+        tournament.redo();
+        assertEquals(1, tournament.getCurrentRound().getActivePairings().size());
+        assertTrue(tournament.getCurrentRound().getActivePairings().contains(pairing));
+    }
+
+    @Test
+    void addedEntrant_undo_entrantIsRemoved() throws Exception {
+        TestEntrant entrant = createEntrant();
+        tournament.addEntrant(entrant);
+
+        tournament.undo();
+        assertFalse(tournament.getCurrentRound().hasEntrant(entrant));
+
+        tournament.redo();
+        assertTrue(tournament.getCurrentRound().hasEntrant(entrant));
+    }
+
+    @Test
+    void removedPairedEntrant_undo_restoresPairing() throws Exception {
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        tournament.removeEntrant(pairing.getFirst());
+
+        tournament.undo();
+
+        Round<TestEntrant> round = tournament.getCurrentRound();
+        assertTrue(round.hasEntrant(pairing.getFirst()));
+        assertTrue(round.getActivePairings().contains(pairing));
+    }
+
+    @Test
+    void resetEntrant_undo_restoresResult() throws Exception {
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        TestEntrant winner = pairing.getFirst();
+        tournament.declareWinner(winner, pairing);
+        tournament.resetEntrant(winner);
+
+        tournament.undo();
+        assertTrue(tournament.getCurrentRound().hasWon(winner));
+
+        tournament.redo();
+        assertFalse(tournament.getCurrentRound().hasWon(winner));
+    }
+
+    @Test
+    void resetPairedEntrant_undo_restoresPairingInTheSameRound() throws Exception {
+        Round<TestEntrant> round = tournament.getCurrentRound();
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        tournament.resetEntrant(pairing.getFirst());
+
+        tournament.undo();
+
+        assertSame(round, tournament.getCurrentRound());
+        assertTrue(round.getActivePairings().contains(pairing));
+        assertFalse(elimination().isEntrantPending(pairing.getSecond()));
+    }
+
+    @Test
+    void replayedPairing_undo_declaresTheSameWinnerAgain() throws Exception {
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        TestEntrant winner = pairing.getSecond();
+        tournament.declareWinner(winner, pairing);
+        tournament.replayPairing(pairing);
+
+        tournament.undo();
+        assertTrue(elimination().isEntrantAdvanced(winner));
+        assertTrue(elimination().isEntrantEliminated(pairing.getFirst()));
+
+        tournament.redo();
+        assertTrue(tournament.getCurrentRound().getActivePairings().contains(pairing));
+    }
+
+    @Test
+    void replayedTie_undo_declaresTieAgain() throws Exception {
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        tournament.declareTie(pairing);
+        tournament.replayPairing(pairing);
+
+        tournament.undo();
+        assertTrue(elimination().isEntrantEliminated(pairing.getFirst()));
+        assertTrue(elimination().isEntrantEliminated(pairing.getSecond()));
+    }
+
+    @Test
+    void removedPairedEntrantInFinal_undo_restoresPairing() throws Exception {
+        finishRound();
+        tournament.nextRound();
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        tournament.removeEntrant(pairing.getFirst());
+
+        tournament.undo();
+
+        Final<TestEntrant> round = (Final<TestEntrant>) tournament.getCurrentRound();
+        assertTrue(round.getActivePairings().contains(pairing));
+        assertEquals(Placement.TBD, round.getPlacement(pairing.getSecond()));
+    }
+
+    @Test
+    void nextRound_undoAndRedo_restoresTheSameRound() throws Exception {
+        finishRound();
+        tournament.nextRound();
+        Round<TestEntrant> nextRound = tournament.getCurrentRound();
+
+        tournament.undo();
+        assertEquals(1, tournament.getRoundNumber());
+        assertEquals(2, elimination().getAdvancedEntrants().size());
+
+        tournament.redo();
+        assertEquals(2, tournament.getRoundNumber());
+        assertSame(nextRound, tournament.getCurrentRound());
+    }
+
+    @Test
+    void pairingInFinal_undo_pairingIsOutstandingAgain() throws Exception {
+        finishRound();
+        tournament.nextRound();
+        assertTrue(tournament.getCurrentRound() instanceof Final);
+
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        tournament.undo();
+
+        assertTrue(tournament.getCurrentRound().getActivePairings().isEmpty());
+        assertEquals(pairing, tournament.nextPairing());
+    }
+
+    @Test
+    void bye_undoAndRedo_entrantIsPendingAndAdvancedAgain() throws Exception {
+        ((DynamicElimination<TestEntrant>) tournament.getCurrentRound())
+                .setByePolicy(DynamicElimination.ByePolicy.ADVANCE);
+        TestEntrant entrant = createEntrant();
+        tournament.addEntrant(entrant);
+        tournament.nextPairing();
+        tournament.nextPairing();
+
+        assertNull(tournament.nextPairing());
+        assertTrue(elimination().isEntrantAdvanced(entrant));
+
+        tournament.undo();
+        assertTrue(elimination().isEntrantPending(entrant));
+
+        tournament.redo();
+        assertTrue(elimination().isEntrantAdvanced(entrant));
+    }
+
+    @Test
+    void newChange_afterUndo_discardsRedo() throws Exception {
+        tournament.nextPairing();
+        tournament.undo();
+        assertTrue(tournament.canRedo());
+
+        tournament.addEntrant(createEntrant());
+        assertFalse(tournament.canRedo());
+    }
+
+    @Test
+    void disabledHistory_change_cannotBeUndone() throws Exception {
+        tournament.setHistoryEnabled(false);
+        tournament.nextPairing();
+
+        assertFalse(tournament.canUndo());
+    }
+
+    @Test
+    void finishedRound_changed_nextRoundReflectsTheChange() throws Exception {
+        finishRound();
+        TestEntrant fifth = createEntrant();
+        TestEntrant sixth = createEntrant();
+        tournament.addEntrant(fifth);
+        tournament.addEntrant(sixth);
+        assertThrows(RoundNotFinishedException.class, () -> tournament.nextRound());
+
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        tournament.declareWinner(pairing.getFirst(), pairing);
+        tournament.nextRound();
+
+        assertEquals(3, tournament.getCurrentRound().getEntrants().size());
+        assertTrue(tournament.getCurrentRound().getEntrants().contains(pairing.getFirst()));
+    }
+
+    @Test
+    void autoAdvancing_lastResult_startsNextRound() throws Exception {
+        tournament.setAutoAdvancing(true);
+        finishRound();
+
+        assertEquals(2, tournament.getRoundNumber());
+        assertTrue(tournament.getCurrentRound() instanceof Final);
+    }
+
+    @Test
+    void autoAdvancing_undo_doesNotStartNextRoundAgain() throws Exception {
+        tournament.setAutoAdvancing(true);
+        finishRound();
+
+        tournament.undo();
+        assertEquals(1, tournament.getRoundNumber());
+        assertTrue(tournament.getCurrentRound().isFinished());
+
+        tournament.undo();
+        tournament.redo();
+        tournament.redo();
+        assertEquals(2, tournament.getRoundNumber());
+        assertFalse(tournament.canRedo());
+    }
+
+    @Test
+    void autoAdvancing_finishedFinal_staysInFinalRound() throws Exception {
+        tournament.setAutoAdvancing(true);
+        finishRound();
+
+        while (!tournament.getCurrentRound().isFinished()) {
+            Pairing<TestEntrant> pairing = tournament.nextPairing();
+            tournament.declareWinner(pairing.getFirst(), pairing);
+        }
+
+        assertEquals(2, tournament.getRoundNumber());
+        assertThrows(FinalRoundException.class, () -> tournament.nextRound());
+    }
+
+    @Test
+    void bestOfThree_games_decidePairingAfterTwoWins() throws Exception {
+        tournament.setBestOf(3);
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        TestEntrant winner = pairing.getFirst();
+
+        assertFalse(tournament.declareGameWinner(winner, pairing));
+        assertFalse(tournament.declareGameWinner(pairing.getSecond(), pairing));
+        assertTrue(tournament.getCurrentRound().getActivePairings().contains(pairing));
+
+        assertTrue(tournament.declareGameWinner(winner, pairing));
+        assertTrue(tournament.getCurrentRound().hasWon(winner));
+        assertEquals(2, tournament.getGameWins(pairing, winner));
+    }
+
+    @Test
+    void evenNumberOfGames_setBestOf_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> tournament.setBestOf(2));
+        assertThrows(IllegalArgumentException.class, () -> tournament.setBestOf(4));
+        assertThrows(IllegalArgumentException.class, () -> tournament.setBestOf(0));
+        assertEquals(1, tournament.getBestOf());
+    }
+
+    @Test
+    void decidingGame_replayGame_pairingIsActiveAgain() throws Exception {
+        tournament.setBestOf(3);
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        TestEntrant winner = pairing.getFirst();
+        tournament.declareGameWinner(winner, pairing);
+        tournament.declareGameWinner(winner, pairing);
+
+        assertTrue(tournament.replayGame(winner, pairing));
+
+        assertTrue(tournament.getCurrentRound().getActivePairings().contains(pairing));
+        assertEquals(1, tournament.getGameWins(pairing, winner));
+        assertThrows(NoSuchPairingException.class, () -> tournament.replayGame(pairing.getSecond(), pairing));
+    }
+
+    @Test
+    void game_undoAndRedo_revertsOnlyThatGame() throws Exception {
+        tournament.setBestOf(3);
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        TestEntrant winner = pairing.getFirst();
+        tournament.declareGameWinner(winner, pairing);
+        tournament.declareGameWinner(winner, pairing);
+
+        tournament.undo();
+        assertEquals(1, tournament.getGameWins(pairing, winner));
+        assertFalse(tournament.getCurrentRound().hasWon(winner));
+
+        tournament.redo();
+        assertTrue(tournament.getCurrentRound().hasWon(winner));
+    }
+
+    @Test
+    void decidedSeries_replayPairing_startsSeriesAgainAndUndoRestoresIt() throws Exception {
+        tournament.setBestOf(3);
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        TestEntrant winner = pairing.getFirst();
+        tournament.declareGameWinner(winner, pairing);
+        tournament.declareGameWinner(winner, pairing);
+
+        tournament.replayPairing(pairing);
+        assertEquals(0, tournament.getGameWins(pairing, winner));
+
+        tournament.undo();
+        assertEquals(2, tournament.getGameWins(pairing, winner));
+    }
+
+    @Test
+    void nextRound_games_startWithoutPreviousSeries() throws Exception {
+        tournament.setBestOf(3);
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        tournament.declareGameWinner(pairing.getFirst(), pairing);
+        tournament.declareWinner(pairing.getFirst(), pairing);
+        Pairing<TestEntrant> other = tournament.nextPairing();
+        tournament.declareWinner(other.getFirst(), other);
+
+        tournament.nextRound();
+        assertEquals(0, tournament.getGameWins(pairing, pairing.getFirst()));
+
+        tournament.undo();
+        assertEquals(1, tournament.getGameWins(pairing, pairing.getFirst()));
+    }
+
+    private EliminationRound<TestEntrant> elimination() {
+        return (EliminationRound<TestEntrant>) tournament.getCurrentRound();
+    }
+
+    private void finishRound() throws Exception {
+        for (int i = 0; i < 2; ++i) {
+            Pairing<TestEntrant> pairing = tournament.nextPairing();
+            tournament.declareWinner(pairing.getFirst(), pairing);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package de.j13g.manko.core.diagnostics;
+
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.formats.DefaultFormat;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryReportTest {
+
+    private final Tournament<TestEntrant> tournament = new Tournament<>(new DefaultFormat<>());
+
+    @Test
+    void tournamentWithEntrants_report_countsEntrantsOfCurrentRound() {
+        for (int i = 0; i < 10; ++i)
+            tournament.addEntrant(new TestEntrant(i));
+
+        MemoryReport report = MemoryReport.of(tournament);
+
+        Optional<MemoryReport.Entry> entrants = findEntry(report, "currentRound.entrants");
+        assertTrue(entrants.isPresent());
+        assertEquals(10, entrants.get().getCount());
+        assertTrue(report.getTotalEstimatedBytes() > 0);
+        assertTrue(report.getWarnings().isEmpty());
+    }
+
+    @Test
+    void manyRemovedPendingEntrants_report_warnsAboutTombstones() {
+        List<TestEntrant> entrants = new ArrayList<>();
+        for (int i = 0; i < MemoryReport.WARNING_THRESHOLD * 2; ++i) {
+            TestEntrant entrant = new TestEntrant(i);
+            entrants.add(entrant);
+            tournament.addEntrant(entrant);
+        }
+        for (TestEntrant entrant : entrants)
+            tournament.removeEntrant(entrant);
+
+        MemoryReport report = MemoryReport.of(tournament);
+
+        Optional<MemoryReport.Entry> tombstones = findEntry(report, "currentRound.pending.tombstones");
+        assertTrue(tombstones.isPresent());
+        assertEquals(entrants.size(), tombstones.get().getCount());
+        assertEquals(1, report.getWarnings().size());
+        assertTrue(report.getWarnings().get(0).startsWith("currentRound.pending: "));
+    }
+
+    @Test
+    void scopedReport_add_prefixesName() {
+        MemoryReport report = new MemoryReport();
+        report.scope("outer").scope("inner").add("set", 2, MemoryReport.HASH_ENTRY_BYTES);
+
+        assertTrue(findEntry(report, "outer.inner.set").isPresent());
+        assertEquals(2 * MemoryReport.HASH_ENTRY_BYTES, report.getTotalEstimatedBytes());
+    }
+
+    private Optional<MemoryReport.Entry> findEntry(MemoryReport report, String name) {
+        return report.getEntries().stream()
+                .filter(e -> e.getName().equals(name))
+                .findFirst();
+    }
+}
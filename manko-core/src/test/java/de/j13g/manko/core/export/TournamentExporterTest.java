@@ -0,0 +1,80 @@
+package de.j13g.manko.core.export;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.exceptions.*;
+import de.j13g.manko.core.formats.DefaultFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TournamentExporterTest {
+
+    private final TestEntrant first = new TestEntrant(1);
+    private final TestEntrant second = new TestEntrant(2);
+
+    private final StringWriter output = new StringWriter();
+
+    private Tournament<TestEntrant> tournament;
+
+    @BeforeEach
+    void init() {
+        tournament = new Tournament<>(new DefaultFormat<>());
+        tournament.addEntrant(first);
+        tournament.addEntrant(second);
+    }
+
+    @Test
+    void finishedPairing_exportHistoryAsCsv_writesRoundAndResult() throws Exception {
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        tournament.declareWinner(first, pairing);
+
+        TournamentExporter.csv(output, this::nameOf).exportHistory(tournament);
+
+        String[] lines = output.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("event,round,first,second,winner,placement", lines[0]);
+        assertEquals("round,1,,,,", lines[1]);
+        assertTrue(lines[2].startsWith("result,1,"));
+        assertTrue(lines[2].endsWith(",e1,"));
+    }
+
+    @Test
+    void listeningExporter_declareWinner_appendsRecordsAsJsonLines() throws Exception {
+        tournament.addListener(TournamentExporter.jsonLines(output, this::nameOf));
+
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        assertTrue(output.toString().startsWith("{\"event\":\"pairing\",\"round\":1,"));
+
+        tournament.declareWinner(second, pairing);
+        String[] lines = output.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].startsWith("{\"event\":\"result\",\"round\":1,"));
+        assertTrue(lines[1].endsWith(",\"winner\":\"e2\"}"));
+    }
+
+    @Test
+    void removedListener_declareWinner_appendsNothing() throws Exception {
+        TournamentExporter<TestEntrant> exporter = TournamentExporter.csv(output, this::nameOf);
+        tournament.addListener(exporter);
+        tournament.removeListener(exporter);
+
+        tournament.declareWinner(first, tournament.nextPairing());
+        assertEquals("", output.toString());
+    }
+
+    @Test
+    void entrantNameWithComma_csvRecord_quotesName() {
+        TournamentExporter<TestEntrant> exporter = TournamentExporter.csv(output, e -> "a,\"b\"");
+        exporter.onPairing(tournament.getCurrentRound(), new Pairing<>(first, second));
+        assertEquals("pairing,1,\"a,\"\"b\"\"\",\"a,\"\"b\"\"\",,\n", output.toString());
+    }
+
+    private String nameOf(TestEntrant entrant) {
+        return "e" + entrant.id();
+    }
+}
@@ -9,6 +9,7 @@ import de.j13g.manko.core.base.TournamentFormat;
 import de.j13g.manko.core.exceptions.FinalRoundException;
 import de.j13g.manko.core.exceptions.RoundNotFinishedException;
 import de.j13g.manko.core.rounds.Final;
+import de.j13g.manko.core.rounds.RollingElimination;
 import de.j13g.manko.core.rounds.SemiFinal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -139,4 +140,22 @@ class DefaultFormatTest extends RoundTest {
         assertEquals(1, upcomingPairings.size());
         assertEquals(new Pairing<>(firstWinner, secondWinner), upcomingPairings.get(0));
     }
+
+    @Test
+    void finishedRollingElimination_createNextRound_createsSemiFinalOfSurvivors() throws Exception {
+        TournamentFormat<TestEntrant> rollingFormat = new DefaultFormat<>(0, true);
+        Round<TestEntrant> round = rollingFormat.createInitialRound();
+        assertTrue(round instanceof RollingElimination);
+
+        for (int i = 0; i < 9; ++i)
+            round.addEntrant(createEntrant());
+        while (!round.isFinished()) {
+            Pairing<TestEntrant> pairing = round.nextPairing();
+            round.declareWinner(pairing.getFirst(), pairing);
+        }
+
+        Round<TestEntrant> nextRound = rollingFormat.createNextRound(round);
+        assertTrue(nextRound instanceof SemiFinal);
+        assertEquals(((RollingElimination<TestEntrant>) round).getSurvivingEntrants(), nextRound.getEntrants());
+    }
 }
@@ -0,0 +1,205 @@
+package de.j13g.manko.core.formats;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.exceptions.FinalRoundException;
+import de.j13g.manko.core.exceptions.InvalidFormatException;
+import de.j13g.manko.core.exceptions.RoundNotFinishedException;
+import de.j13g.manko.core.rounds.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableFormatTest extends RoundTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = { 2, 3, 4, 5, 9 })
+    void defaultDescription_createNextRound_matchesDefaultFormat(int advancedCount) throws Exception {
+        TableFormat<TestEntrant> tableFormat = TableFormat.compile(TableFormat.DEFAULT_DESCRIPTION, 0);
+        DefaultFormat<TestEntrant> defaultFormat = new DefaultFormat<>(0);
+        DynamicElimination<TestEntrant> round = createFinishedElimination(advancedCount);
+
+        Round<TestEntrant> tableRound = tableFormat.createNextRound(round);
+        Round<TestEntrant> defaultRound = defaultFormat.createNextRound(round);
+
+        assertSame(defaultRound.getClass(), tableRound.getClass());
+        assertEquals(defaultRound.getEntrants(), tableRound.getEntrants());
+    }
+
+    @Test
+    void defaultDescription_finishedSemiFinal_createsPlacementFinal() throws Exception {
+        TableFormat<TestEntrant> format = TableFormat.compile(TableFormat.DEFAULT_DESCRIPTION, 0);
+        SemiFinal<TestEntrant> semiFinal = new SemiFinal<>(first, second, third, fourth);
+        finish(semiFinal);
+
+        Round<TestEntrant> round = format.createNextRound(semiFinal);
+
+        assertTrue(round instanceof Final);
+        assertEquals(2, ((Final<TestEntrant>) round).getUpcomingPairings().size());
+    }
+
+    @Test
+    void tiedRoundRobin_createNextRound_playsRoundRobinAgain() throws Exception {
+        TableFormat<TestEntrant> format = TableFormat.compile(TableFormat.DEFAULT_DESCRIPTION, 0);
+        RoundRobinFinal<TestEntrant> roundRobin = new RoundRobinFinal<>(first, second, third);
+
+        // Everyone wins against the next entrant in the cycle first, second, third.
+        List<TestEntrant> cycle = Arrays.asList(first, second, third);
+        while (!roundRobin.isFinished()) {
+            Pairing<TestEntrant> pairing = roundRobin.nextPairing();
+            int firstIndex = cycle.indexOf(pairing.getFirst());
+            boolean isFirstWinner = cycle.get((firstIndex + 1) % 3).equals(pairing.getSecond());
+            roundRobin.declareWinner(isFirstWinner ? pairing.getFirst() : pairing.getSecond(), pairing);
+        }
+        assertTrue(roundRobin.isTie());
+
+        Round<TestEntrant> round = format.createNextRound(roundRobin);
+
+        assertTrue(round instanceof RoundRobinFinal);
+        assertEquals(roundRobin.getEntrants(), round.getEntrants());
+    }
+
+    @Test
+    void firstMatchingRule_createNextRound_takesPrecedence() throws Exception {
+        TableFormat<TestEntrant> format = TableFormat.compile(String.join("\n",
+                "start elimination",
+                "elimination 4-6 -> rolling 2  # Overlaps with the next rule.",
+                "elimination 2+ -> elimination"), 0);
+
+        Round<TestEntrant> rolling = format.createNextRound(createFinishedElimination(5));
+        Round<TestEntrant> elimination = format.createNextRound(createFinishedElimination(7));
+
+        assertTrue(rolling instanceof RollingElimination);
+        assertEquals(2, ((RollingElimination<TestEntrant>) rolling).getSurvivorCount());
+        assertSame(DynamicElimination.class, elimination.getClass());
+    }
+
+    @Test
+    void hugeRange_createNextRound_looksUpCountsBeyondTable() throws Exception {
+        TableFormat<TestEntrant> format = TableFormat.compile(String.join("\n",
+                "start elimination",
+                "elimination 1500-2000000000 -> rolling 2",
+                "elimination 2+ -> elimination"), 0);
+
+        Round<TestEntrant> below = format.createNextRound(createFinishedElimination(1499));
+        Round<TestEntrant> inside = format.createNextRound(createFinishedElimination(1500));
+
+        assertSame(DynamicElimination.class, below.getClass());
+        assertTrue(inside instanceof RollingElimination);
+    }
+
+    @Test
+    void noMatchingRule_createNextRound_throwsFinalRoundException() throws Exception {
+        TableFormat<TestEntrant> format = TableFormat.compile("start elimination\nelimination 4 -> semi-final", 0);
+        DynamicElimination<TestEntrant> round = createFinishedElimination(3);
+
+        assertThrows(FinalRoundException.class, () -> format.createNextRound(round));
+    }
+
+    @Test
+    void unfinishedRound_createNextRound_throwsRoundNotFinishedException() throws Exception {
+        TableFormat<TestEntrant> format = TableFormat.compile(TableFormat.DEFAULT_DESCRIPTION, 0);
+        Round<TestEntrant> round = format.createInitialRound();
+        round.addEntrant(first);
+
+        assertThrows(RoundNotFinishedException.class, () -> format.createNextRound(round));
+    }
+
+    @Test
+    void byePolicy_createInitialRound_isAppliedToElimination() throws Exception {
+        TableFormat<TestEntrant> format = TableFormat.compile("start elimination\nbye lucky-loser", 0);
+
+        DynamicElimination<TestEntrant> round = (DynamicElimination<TestEntrant>) format.createInitialRound();
+
+        assertEquals(DynamicElimination.ByePolicy.LUCKY_LOSER, round.getByePolicy());
+    }
+
+    @Test
+    void pairingPolicy_createInitialRound_isAppliedToElimination() throws Exception {
+        TableFormat<TestEntrant> format = TableFormat.compile("start elimination\npairing longest-waiting", 0);
+
+        DynamicElimination<TestEntrant> round = (DynamicElimination<TestEntrant>) format.createInitialRound();
+
+        assertEquals(DynamicElimination.PairingPolicy.LONGEST_WAITING, round.getPairingPolicy());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "start final",
+            "start elimination\nelimination 3 -> final",
+            "start elimination\nelimination 4+ -> semi-final",
+            "start elimination\nfinal 2 -> elimination",
+            "start elimination\nround-robin 3 -> round-robin",
+            "start elimination\nelimination tie -> elimination",
+            "start elimination\nelimination x -> final",
+            "start elimination\nelimination 2 final",
+            "start elimination\nelimination 2 -> knockout",
+            "start elimination\nelimination 2+ -> elimination 3",
+            "start rolling 0",
+            "start elimination\nbye never",
+            "start elimination\npairing fastest",
+            "start elimination\nstart rolling"
+    })
+    void invalidDescription_compile_throwsInvalidFormatException(String description) {
+        assertThrows(InvalidFormatException.class, () -> TableFormat.compile(description, 0));
+    }
+
+    @Test
+    void invalidLine_compile_reportsLineNumber() {
+        InvalidFormatException e = assertThrows(InvalidFormatException.class,
+                () -> TableFormat.compile("# Comment\nstart elimination\n\nelimination 1 -> final", 0));
+
+        assertTrue(e.getMessage().startsWith("Line 4:"));
+    }
+
+    @Test
+    void descriptionFile_load_compilesFormat() throws Exception {
+        File file = File.createTempFile("manko", ".format");
+        try {
+            Files.write(file.toPath(), Collections.singletonList("start rolling 8"), StandardCharsets.UTF_8);
+
+            TableFormat<TestEntrant> format = TableFormat.load(file, 0);
+            Round<TestEntrant> round = format.createInitialRound();
+
+            assertTrue(round instanceof RollingElimination);
+            assertEquals(8, ((RollingElimination<TestEntrant>) round).getSurvivorCount());
+        }
+        finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    private DynamicElimination<TestEntrant> createFinishedElimination(int advancedCount) {
+        DynamicElimination<TestEntrant> round = new DynamicElimination<>();
+        for (int i = 0; i < 2 * advancedCount; ++i)
+            round.addEntrant(createEntrant());
+
+        finish(round);
+        assertEquals(advancedCount, round.getAdvancedEntrants().size());
+        return round;
+    }
+
+    private void finish(DynamicElimination<TestEntrant> round) {
+        try {
+            while (!round.isFinished()) {
+                Pairing<TestEntrant> pairing = round.nextPairing();
+                round.declareWinner(pairing.getFirst(), pairing);
+            }
+        }
+        catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package de.j13g.manko.core.managers;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.TestEntrant;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.j13g.manko.Helper.serializeDeserialize;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeriesManagerTest extends RoundTest {
+
+    private final SeriesManager<TestEntrant> series = new SeriesManager<>();
+
+    private final Pairing<TestEntrant> pairing = new Pairing<>(first, second);
+
+    @Test
+    void games_addGame_countsWinsOfEachEntrant() {
+        assertEquals(1, series.addGame(pairing, first));
+        assertEquals(2, series.addGame(pairing, first));
+        assertEquals(1, series.addGame(pairing, second));
+
+        assertEquals(2, series.getWins(pairing, first));
+        assertEquals(1, series.getWins(pairing, second));
+    }
+
+    @Test
+    void reversedPairing_getWins_returnsSameWins() {
+        series.addGame(pairing, second);
+
+        Pairing<TestEntrant> reversed = new Pairing<>(second, first);
+        assertEquals(1, series.getWins(reversed, second));
+        assertEquals(0, series.getWins(reversed, first));
+    }
+
+    @Test
+    void lastGame_removeGame_removesSeries() {
+        series.addGame(pairing, first);
+
+        assertTrue(series.removeGame(pairing, first));
+        assertFalse(series.removeGame(pairing, first));
+        assertTrue(series.isEmpty());
+    }
+
+    @Test
+    void manyPairings_addAndRemove_keepsAllOtherSeries() {
+        List<Pairing<TestEntrant>> pairings = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            Pairing<TestEntrant> other = new Pairing<>(createEntrant(), createEntrant());
+            pairings.add(other);
+            for (int game = 0; game <= i % 3; ++game)
+                series.addGame(other, other.getFirst());
+        }
+
+        for (int i = 0; i < pairings.size(); i += 2)
+            assertTrue(series.remove(pairings.get(i)));
+
+        assertEquals(100, series.size());
+        for (int i = 0; i < pairings.size(); ++i) {
+            Pairing<TestEntrant> other = pairings.get(i);
+            int expectedWins = i % 2 == 0 ? 0 : i % 3 + 1;
+            assertEquals(expectedWins, series.getWins(other, other.getFirst()));
+        }
+    }
+
+    @Test
+    void series_serialize_keepsGames() throws Exception {
+        series.addGame(pairing, first);
+        series.addGame(pairing, second);
+        series.addGame(pairing, second);
+
+        @SuppressWarnings("unchecked")
+        SeriesManager<TestEntrant> copy = serializeDeserialize(series, SeriesManager.class);
+
+        assertEquals(1, copy.getWins(pairing, first));
+        assertEquals(2, copy.getWins(pairing, second));
+    }
+
+    @Test
+    void invalidWins_setWins_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> series.setWins(pairing, first, -1, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> series.setWins(pairing, first, SeriesManager.MAX_WINS + 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> series.setWins(pairing, third, 1, 0));
+    }
+}
@@ -0,0 +1,285 @@
+package de.j13g.manko.core.persistence;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.base.EliminationRound;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.base.TournamentListener;
+import de.j13g.manko.core.exceptions.CorruptLogException;
+import de.j13g.manko.core.formats.DefaultFormat;
+import de.j13g.manko.core.formats.TableFormat;
+import de.j13g.manko.core.rounds.DynamicElimination;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static de.j13g.manko.Helper.serializeDeserialize;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultLogTest {
+
+    private static final int CAPACITY = 128;
+
+    private final EntrantCodec<TestEntrant> codec = new EntrantCodec<TestEntrant>() {
+
+        @Override
+        public int getEncodedSize() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(TestEntrant entrant, ByteBuffer buffer) {
+            buffer.putInt(entrant.id());
+        }
+
+        @Override
+        public TestEntrant decode(ByteBuffer buffer) {
+            return new TestEntrant(buffer.getInt());
+        }
+    };
+
+    private final TestEntrant first = new TestEntrant(1);
+    private final TestEntrant second = new TestEntrant(2);
+    private final TestEntrant third = new TestEntrant(3);
+    private final TestEntrant fourth = new TestEntrant(4);
+
+    private File file;
+    private Tournament<TestEntrant> tournament;
+    private ResultLog<TestEntrant> log;
+
+    @BeforeEach
+    void init() throws IOException {
+        file = File.createTempFile("manko", ".log");
+        assertTrue(file.delete());
+
+        tournament = new Tournament<>(new DefaultFormat<>());
+        log = ResultLog.open(file, CAPACITY, codec);
+        log.attach(tournament);
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        log.close();
+        assertTrue(file.delete());
+    }
+
+    @Test
+    void loggedChanges_recoverIntoEmptyTournament_restoresState() throws Exception {
+        tournament.addEntrant(first);
+        tournament.addEntrant(second);
+        tournament.addEntrant(third);
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        TestEntrant winner = pairing.getFirst();
+        tournament.declareWinner(winner, pairing);
+
+        Tournament<TestEntrant> recovered = reopenAndRecover(new Tournament<>(new DefaultFormat<>()), 0);
+
+        assertEquals(tournament.getCurrentRound().getEntrants(), recovered.getCurrentRound().getEntrants());
+        assertEquals(tournament.getCurrentRound().getFinishedPairings(),
+                recovered.getCurrentRound().getFinishedPairings());
+        assertTrue(recovered.getCurrentRound().hasWon(winner));
+        assertEquals(5, log.getSequence());
+    }
+
+    @Test
+    void snapshotAfterChanges_recover_onlyAppliesLaterChanges() throws Exception {
+        tournament.addEntrant(first);
+        tournament.addEntrant(second);
+
+        Tournament<TestEntrant> snapshot = serializeDeserialize(tournament);
+        long snapshotSequence = log.getSequence();
+        log.reset();
+
+        tournament.addEntrant(third);
+
+        Tournament<TestEntrant> recovered = reopenAndRecover(snapshot, snapshotSequence);
+        assertEquals(3, recovered.getCurrentRound().getEntrants().size());
+        assertEquals(snapshotSequence + 1, log.getSequence());
+    }
+
+    @Test
+    void tornLastRecord_recover_stopsBeforeIt() throws Exception {
+        tournament.addEntrant(first);
+        tournament.addEntrant(second);
+        log.close();
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            int recordBytes = (int) (raf.length() / CAPACITY);
+            raf.seek(recordBytes + 8);
+            raf.writeInt(42);
+        }
+
+        log = ResultLog.open(file, CAPACITY, codec);
+        Tournament<TestEntrant> recovered = new Tournament<>(new DefaultFormat<>());
+        log.recover(recovered, 0);
+
+        assertEquals(1, recovered.getCurrentRound().getEntrants().size());
+        assertEquals(1, log.getSequence());
+    }
+
+    @Test
+    void missingRecords_recover_throwsCorruptLogException() throws Exception {
+        tournament.addEntrant(first);
+        log.reset();
+        tournament.addEntrant(second);
+        tournament.addEntrant(third);
+        log.close();
+
+        log = ResultLog.open(file, CAPACITY, codec);
+        assertThrows(CorruptLogException.class, () -> log.recover(new Tournament<>(new DefaultFormat<>()), 0));
+    }
+
+    @Test
+    void undonePairing_recover_restoresPendingEntrants() throws Exception {
+        tournament.addEntrant(first);
+        tournament.addEntrant(second);
+        tournament.nextPairing();
+        tournament.undo();
+
+        Tournament<TestEntrant> recovered = reopenAndRecover(new Tournament<>(new DefaultFormat<>()), 0);
+
+        assertTrue(recovered.getCurrentRound().getActivePairings().isEmpty());
+        assertEquals(2, ((EliminationRound<TestEntrant>) recovered.getCurrentRound()).getPendingEntrants().size());
+    }
+
+    @Test
+    void bye_recover_advancesEntrant() throws Exception {
+        ((DynamicElimination<TestEntrant>) tournament.getCurrentRound())
+                .setByePolicy(DynamicElimination.ByePolicy.ADVANCE);
+        tournament.addEntrant(first);
+        assertNull(tournament.nextPairing());
+
+        Tournament<TestEntrant> recovered = reopenAndRecover(new Tournament<>(new DefaultFormat<>()), 0);
+
+        assertTrue(((EliminationRound<TestEntrant>) recovered.getCurrentRound()).isEntrantAdvanced(first));
+        assertFalse(recovered.canUndo());
+    }
+
+    @Test
+    void bye_recover_notifiesListeners() throws Exception {
+        ((DynamicElimination<TestEntrant>) tournament.getCurrentRound())
+                .setByePolicy(DynamicElimination.ByePolicy.ADVANCE);
+        tournament.addEntrant(first);
+        tournament.nextPairing();
+
+        List<TestEntrant> byes = new ArrayList<>();
+        Tournament<TestEntrant> snapshot = new Tournament<>(new DefaultFormat<>());
+        snapshot.addListener(new TournamentListener<TestEntrant>() {
+            @Override
+            public void onBye(Round<TestEntrant> round, TestEntrant entrant) {
+                byes.add(entrant);
+            }
+        });
+
+        reopenAndRecover(snapshot, 0);
+        assertEquals(Collections.singletonList(first), byes);
+    }
+
+    @Test
+    void byeInRollingElimination_recover_throwsCorruptLogException() throws Exception {
+        ((DynamicElimination<TestEntrant>) tournament.getCurrentRound())
+                .setByePolicy(DynamicElimination.ByePolicy.ADVANCE);
+        tournament.addEntrant(first);
+        tournament.nextPairing();
+        log.close();
+
+        log = ResultLog.open(file, CAPACITY, codec);
+        Tournament<TestEntrant> rolling = new Tournament<>(TableFormat.compile("start rolling 2", 0));
+        assertThrows(CorruptLogException.class, () -> log.recover(rolling, 0));
+    }
+
+    @Test
+    void autoAdvancedRound_recover_startsRoundOnce() throws Exception {
+        tournament.setAutoAdvancing(true);
+        tournament.addEntrant(first);
+        tournament.addEntrant(second);
+        tournament.addEntrant(third);
+        tournament.addEntrant(fourth);
+        for (int i = 0; i < 2; ++i) {
+            Pairing<TestEntrant> pairing = tournament.nextPairing();
+            tournament.declareWinner(pairing.getFirst(), pairing);
+        }
+        assertEquals(2, tournament.getRoundNumber());
+
+        Tournament<TestEntrant> autoAdvancing = new Tournament<>(new DefaultFormat<>());
+        autoAdvancing.setAutoAdvancing(true);
+        Tournament<TestEntrant> recovered = reopenAndRecover(autoAdvancing, 0);
+
+        assertEquals(2, recovered.getRoundNumber());
+        assertTrue(recovered.isAutoAdvancing());
+    }
+
+    @Test
+    void games_recover_restoresSeriesAndWinner() throws Exception {
+        tournament.setBestOf(3);
+        tournament.addEntrant(first);
+        tournament.addEntrant(second);
+        tournament.addEntrant(third);
+        tournament.addEntrant(fourth);
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        TestEntrant winner = pairing.getFirst();
+        tournament.declareGameWinner(winner, pairing);
+        tournament.declareGameWinner(pairing.getSecond(), pairing);
+        tournament.declareGameWinner(winner, pairing);
+        tournament.replayGame(winner, pairing);
+        tournament.declareGameWinner(winner, pairing);
+
+        Tournament<TestEntrant> bestOfThree = new Tournament<>(new DefaultFormat<>());
+        bestOfThree.setBestOf(3);
+        Tournament<TestEntrant> recovered = reopenAndRecover(bestOfThree, 0);
+
+        assertTrue(recovered.getCurrentRound().hasWon(winner));
+        assertEquals(2, recovered.getGameWins(pairing, winner));
+        assertEquals(1, recovered.getGameWins(pairing, pairing.getSecond()));
+    }
+
+    @Test
+    void restoredRound_needsSnapshotAndDropsRecords() throws Exception {
+        tournament.addEntrant(first);
+        tournament.addEntrant(second);
+        tournament.resetEntrant(first);
+        Pairing<TestEntrant> pairing = tournament.nextPairing();
+        tournament.declareWinner(pairing.getFirst(), pairing);
+        long sequence = log.getSequence();
+
+        tournament.resetEntrant(pairing.getFirst());
+        tournament.undo();
+
+        assertTrue(log.needsSnapshot());
+        tournament.addEntrant(third);
+        assertEquals(sequence + 1, log.getSequence());
+    }
+
+    @Test
+    void almostFullLog_needsSnapshot() {
+        assertFalse(log.needsSnapshot());
+        for (int i = 0; i < CAPACITY; ++i)
+            tournament.addEntrant(new TestEntrant(i + 10));
+
+        assertTrue(log.needsSnapshot());
+        log.reset();
+        assertFalse(log.needsSnapshot());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Tournament<TestEntrant> reopenAndRecover(Tournament<?> snapshot, long snapshotSequence)
+            throws IOException, CorruptLogException {
+
+        log.close();
+        log = ResultLog.open(file, CAPACITY, codec);
+
+        Tournament<TestEntrant> recovered = (Tournament<TestEntrant>) snapshot;
+        log.recover(recovered, snapshotSequence);
+        log.attach(recovered);
+        return recovered;
+    }
+}
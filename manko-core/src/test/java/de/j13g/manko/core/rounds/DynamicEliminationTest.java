@@ -8,6 +8,10 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.*;
 
 import static de.j13g.manko.Helper.assertSuppliesAll;
@@ -114,6 +118,48 @@ public class DynamicEliminationTest extends RoundTest {
         assertThrows(NoOpponentException.class, () -> oneEntrantRound.nextPairing());
     }
 
+    @Test
+    void oneEntrantRoundWithAdvancePolicy_nextPairing_advancesEntrant() throws Exception {
+        oneEntrantRound.setByePolicy(DynamicElimination.ByePolicy.ADVANCE);
+
+        assertNull(oneEntrantRound.nextPairing());
+        assertEquals(first, oneEntrantRound.getLastByeEntrant());
+        assertTrue(oneEntrantRound.isEntrantAdvanced(first));
+        assertTrue(oneEntrantRound.getByeEntrants().contains(first));
+        assertTrue(oneEntrantRound.isFinished());
+    }
+
+    @Test
+    void lastEntrantWithLuckyLoserPolicy_nextPairing_pairsWithEliminatedEntrant() throws Exception {
+        singlePairFinishedRound.setByePolicy(DynamicElimination.ByePolicy.LUCKY_LOSER);
+        singlePairFinishedRound.addEntrant(third);
+
+        Pairing<TestEntrant> pairing = singlePairFinishedRound.nextPairing();
+        assertEquals(new Pairing<>(third, loser), pairing);
+        assertFalse(singlePairFinishedRound.isEntrantEliminated(loser));
+    }
+
+    @Test
+    void luckyLoserPairing_unpair_eliminatesLuckyLoserAgain() throws Exception {
+        singlePairFinishedRound.setByePolicy(DynamicElimination.ByePolicy.LUCKY_LOSER);
+        singlePairFinishedRound.addEntrant(third);
+        Pairing<TestEntrant> pairing = singlePairFinishedRound.nextPairing();
+
+        singlePairFinishedRound.unpair(pairing);
+        assertTrue(singlePairFinishedRound.isEntrantEliminated(loser));
+        assertTrue(singlePairFinishedRound.isEntrantPending(third));
+
+        singlePairFinishedRound.pair(pairing);
+        assertTrue(singlePairFinishedRound.getActivePairings().contains(pairing));
+    }
+
+    @Test
+    void noEliminatedEntrantsWithLuckyLoserPolicy_nextPairing_throwsNoOpponentException() {
+        oneEntrantRound.setByePolicy(DynamicElimination.ByePolicy.LUCKY_LOSER);
+        assertThrows(NoOpponentException.class, () -> oneEntrantRound.nextPairing());
+        assertTrue(oneEntrantRound.isEntrantPending(first));
+    }
+
     @Test
     void twoEntrantRound_nextPairing_noPendingEntrants() throws Exception {
         twoEntrantRound.nextPairing();
@@ -296,6 +342,35 @@ public class DynamicEliminationTest extends RoundTest {
         assertTrue(singlePairRound.isEntrantPending(first));
     }
 
+    @Test
+    void luckyLoserPairing_resetAndRestoreEntrant_luckyLoserIsPairedAgain() throws Exception {
+        singlePairFinishedRound.setByePolicy(DynamicElimination.ByePolicy.LUCKY_LOSER);
+        singlePairFinishedRound.addEntrant(third);
+        Pairing<TestEntrant> pairing = singlePairFinishedRound.nextPairing();
+
+        singlePairFinishedRound.resetEntrantRevertibly(third).run();
+        assertTrue(singlePairFinishedRound.getActivePairings().contains(pairing));
+        assertTrue(singlePairFinishedRound.getPendingEntrants().isEmpty());
+
+        singlePairFinishedRound.unpair(pairing);
+        assertTrue(singlePairFinishedRound.isEntrantEliminated(loser));
+    }
+
+    @Test
+    void singlePairFinishedRound_resetBothAndRestore_pairingIsFinishedAgain() {
+        Pairing<TestEntrant> pairing = getFinishedPairing(singlePairFinishedRound);
+        Runnable restoreWinner = singlePairFinishedRound.resetEntrantRevertibly(winner);
+        Runnable restoreLoser = singlePairFinishedRound.resetEntrantRevertibly(loser);
+
+        restoreLoser.run();
+        restoreWinner.run();
+
+        assertTrue(singlePairFinishedRound.getFinishedPairings().contains(pairing));
+        assertEquals(winner, singlePairFinishedRound.getPairings().getWinner(pairing));
+        assertTrue(singlePairFinishedRound.isEntrantEliminated(loser));
+        assertTrue(singlePairFinishedRound.getPendingEntrants().isEmpty());
+    }
+
     @Test
     void singleEntrantRound_resetInvalidEntrant_returnsFalse() {
         assertFalse(singlePairRound.resetEntrant(invalidEntrant));
@@ -475,6 +550,94 @@ public class DynamicEliminationTest extends RoundTest {
         assertEquals(singlePairFinishedRound.hasStateAbout(winner), otherRound.hasStateAbout(winner));
     }
 
+    // Timing
+
+    @Test
+    void longestWaitingPolicy_nextPairing_pairsEntrantsThatWaitedLongest() {
+        TestClock clock = new TestClock();
+        DynamicElimination<TestEntrant> round = new DynamicElimination<>();
+        round.setClock(clock);
+        round.setPairingPolicy(DynamicElimination.PairingPolicy.LONGEST_WAITING);
+
+        for (TestEntrant entrant : entrants) {
+            round.addEntrant(entrant);
+            clock.advance(1000);
+        }
+
+        Pairing<TestEntrant> pairing = assertDoesNotThrow(() -> round.nextPairing());
+        assertEquals(new HashSet<>(Arrays.asList(first, second)),
+                new HashSet<>(Arrays.asList(pairing.getFirst(), pairing.getSecond())));
+        assertEquals(third, round.getLongestWaitingEntrant());
+    }
+
+    @Test
+    void repeatedPairings_unpair_doesNotInternTakenBackPairings() throws Exception {
+        for (int i = 0; i < 20; ++i)
+            multiEntrantRound.unpair(multiEntrantRound.nextPairing());
+
+        assertEquals(0, multiEntrantRound.pairingFactory.size());
+    }
+
+    @Test
+    void longestWaitingPolicy_unpair_keepsWaitingTime() {
+        TestClock clock = new TestClock();
+        DynamicElimination<TestEntrant> round = new DynamicElimination<>();
+        round.setClock(clock);
+        round.setPairingPolicy(DynamicElimination.PairingPolicy.LONGEST_WAITING);
+
+        round.addEntrant(first);
+        round.addEntrant(second);
+        clock.advance(1000);
+        round.addEntrant(third);
+        round.addEntrant(fourth);
+
+        Pairing<TestEntrant> pairing = assertDoesNotThrow(() -> round.nextPairing());
+        clock.advance(1000);
+        assertDoesNotThrow(() -> round.unpair(pairing));
+
+        assertTrue(pairing.contains(round.getLongestWaitingEntrant()));
+        assertEquals(2000, round.getWaitTime(first));
+    }
+
+    @Test
+    void finishedPairing_getPairingDurations_recordsTimeFromPairingToResult() {
+        TestClock clock = new TestClock();
+        DynamicElimination<TestEntrant> round = new DynamicElimination<>();
+        round.setClock(clock);
+
+        round.addEntrant(first);
+        clock.advance(500);
+        round.addEntrant(second);
+        Pairing<TestEntrant> pairing = assertDoesNotThrow(() -> round.nextPairing());
+        clock.advance(3000);
+        assertDoesNotThrow(() -> round.declareWinner(first, pairing));
+
+        assertEquals(1, round.getPairingDurations().getCount());
+        assertEquals(3000, round.getPairingDurations().getMax());
+        assertEquals(500, round.getWaitTime(first));
+        assertEquals(0, round.getWaitTime(second));
+        assertEquals(3500, round.getTiming().getResultTime(first) - round.getTiming().getJoinTime(first));
+    }
+
+    @Test
+    void resetEntrant_getWaitTime_startsWaitingAgain() {
+        TestClock clock = new TestClock();
+        DynamicElimination<TestEntrant> round = new DynamicElimination<>();
+        round.setClock(clock);
+
+        round.addEntrant(first);
+        round.addEntrant(second);
+        Pairing<TestEntrant> pairing = assertDoesNotThrow(() -> round.nextPairing());
+        clock.advance(1000);
+        assertDoesNotThrow(() -> round.declareWinner(first, pairing));
+        clock.advance(1000);
+        round.resetEntrant(first);
+        clock.advance(250);
+
+        assertEquals(250, round.getWaitTime(first));
+        assertEquals(first, round.getLongestWaitingEntrant());
+    }
+
     // Miscellaneous
 
     @Test
@@ -487,4 +650,36 @@ public class DynamicEliminationTest extends RoundTest {
             })
         );
     }
+
+    /**
+     * A clock that only moves when told to.
+     */
+    private static class TestClock extends Clock {
+
+        private long millis = 0;
+
+        void advance(long millis) {
+            this.millis += millis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
 }
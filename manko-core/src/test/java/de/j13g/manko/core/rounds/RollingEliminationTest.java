@@ -0,0 +1,294 @@
+package de.j13g.manko.core.rounds;
+
+import de.j13g.manko.RoundTest;
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.exceptions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RollingEliminationTest extends RoundTest {
+
+    private static final int SURVIVOR_COUNT = 4;
+
+    private final List<TestEntrant> entrants = new ArrayList<>(Arrays.asList(first, second, third, fourth));
+
+    private RollingElimination<TestEntrant> round;
+
+    @BeforeEach
+    void init() {
+        for (int i = 0; i < 12; ++i)
+            entrants.add(createEntrant());
+
+        round = new RollingElimination<>(entrants, SURVIVOR_COUNT, new Random(0));
+    }
+
+    @Test
+    void winner_declareWinner_isPendingAtNextLevel() throws Exception {
+        Pairing<TestEntrant> pairing = round.nextPairing();
+        TestEntrant winner = pairing.getFirst();
+        round.declareWinner(winner, pairing);
+
+        assertEquals(1, round.getLevel(winner));
+        assertTrue(round.isEntrantPending(winner));
+        assertTrue(round.isEntrantAdvanced(winner));
+        assertTrue(round.isEntrantEliminated(pairing.getSecond()));
+    }
+
+    @Test
+    void twoWinners_nextPairing_pairsWinnersBeforeOtherRoundsFinish() throws Exception {
+        Pairing<TestEntrant> firstPairing = round.nextPairing();
+        Pairing<TestEntrant> secondPairing = round.nextPairing();
+        Pairing<TestEntrant> unfinishedPairing = round.nextPairing();
+
+        round.declareWinner(firstPairing.getFirst(), firstPairing);
+        round.declareWinner(secondPairing.getFirst(), secondPairing);
+
+        Pairing<TestEntrant> pairing = round.nextPairing();
+        assertEquals(new Pairing<>(firstPairing.getFirst(), secondPairing.getFirst()), pairing);
+        assertTrue(round.getActivePairings().contains(unfinishedPairing));
+    }
+
+    @Test
+    void winnerPairedAgain_getWinner_keepsEarlierWin() throws Exception {
+        Pairing<TestEntrant> firstPairing = round.nextPairing();
+        Pairing<TestEntrant> secondPairing = round.nextPairing();
+        round.declareWinner(firstPairing.getFirst(), firstPairing);
+        round.declareWinner(secondPairing.getFirst(), secondPairing);
+
+        Pairing<TestEntrant> pairing = round.nextPairing();
+        round.declareWinner(secondPairing.getFirst(), pairing);
+
+        assertEquals(firstPairing.getFirst(), round.getPairings().getWinner(firstPairing));
+        assertEquals(secondPairing.getFirst(), round.getPairings().getWinner(secondPairing));
+        assertEquals(secondPairing.getFirst(), round.getPairings().getWinner(pairing));
+    }
+
+    @Test
+    void loneEntrantOfLevel_nextPairing_waitsForRunningPairings() throws Exception {
+        round = new RollingElimination<>(entrants.subList(0, 9), SURVIVOR_COUNT, new Random(0));
+
+        List<Pairing<TestEntrant>> pairings = new ArrayList<>();
+        for (int i = 0; i < 4; ++i)
+            pairings.add(round.nextPairing());
+
+        assertThrows(NoOpponentException.class, () -> round.nextPairing());
+
+        // The last entrant of level 0 could be paired with the winner,
+        // but the other pairings can still produce an opponent of level 1.
+        round.declareWinner(pairings.get(0).getFirst(), pairings.get(0));
+        assertThrows(NoOpponentException.class, () -> round.nextPairing());
+
+        round.declareWinner(pairings.get(1).getFirst(), pairings.get(1));
+        Pairing<TestEntrant> pairing = round.nextPairing();
+        assertEquals(1, round.getLevel(pairing.getFirst()));
+        assertEquals(1, round.getLevel(pairing.getSecond()));
+    }
+
+    @Test
+    void noOpponentPossible_nextPairing_movesLowerEntrantUp() throws Exception {
+        round = new RollingElimination<>(entrants.subList(0, 7), 2, new Random(0));
+
+        List<Pairing<TestEntrant>> pairings = new ArrayList<>();
+        for (int i = 0; i < 3; ++i)
+            pairings.add(round.nextPairing());
+        TestEntrant lone = round.getPendingEntrants().iterator().next();
+
+        round.declareWinner(pairings.get(0).getFirst(), pairings.get(0));
+        round.declareWinner(pairings.get(1).getFirst(), pairings.get(1));
+        Pairing<TestEntrant> secondLevelPairing = round.nextPairing();
+        round.declareWinner(pairings.get(2).getFirst(), pairings.get(2));
+
+        // Only a pairing of level 1 is running, so no opponent of level 0 can appear.
+        Pairing<TestEntrant> pairing = round.nextPairing();
+        assertTrue(pairing.contains(lone));
+        assertEquals(1, round.getLevel(lone));
+
+        round.unpair(pairing);
+        assertEquals(0, round.getLevel(lone));
+        assertTrue(round.isEntrantPending(lone));
+        assertTrue(round.getActivePairings().contains(secondLevelPairing));
+    }
+
+    @Test
+    void finishedRound_nextPairing_throwsNoMorePairingsException() throws Exception {
+        while (!round.isFinished()) {
+            Pairing<TestEntrant> pairing = round.nextPairing();
+            round.declareWinner(pairing.getFirst(), pairing);
+        }
+
+        assertEquals(SURVIVOR_COUNT, round.getSurvivingEntrants().size());
+        assertThrows(NoMorePairingsException.class, () -> round.nextPairing());
+    }
+
+    @Test
+    void lastRunningPairings_nextPairing_throwsUnfinishedPairingsException() throws Exception {
+        round = new RollingElimination<>(entrants.subList(0, 6), SURVIVOR_COUNT, new Random(0));
+        round.nextPairing();
+        round.nextPairing();
+
+        assertThrows(UnfinishedPairingsException.class, () -> round.nextPairing());
+        assertFalse(round.isFinished());
+    }
+
+    @Test
+    void lastPairingOfWinner_replayPairing_revertsResult() throws Exception {
+        Pairing<TestEntrant> pairing = round.nextPairing();
+        TestEntrant winner = pairing.getFirst();
+        round.declareWinner(winner, pairing);
+
+        assertTrue(round.replayPairing(pairing));
+        assertEquals(0, round.getLevel(winner));
+        assertTrue(round.getActivePairings().contains(pairing));
+        assertFalse(round.isEntrantEliminated(pairing.getSecond()));
+    }
+
+    @Test
+    void winnerPairedAgain_replayPairing_throwsOrphanedPairingException() throws Exception {
+        Pairing<TestEntrant> firstPairing = round.nextPairing();
+        Pairing<TestEntrant> secondPairing = round.nextPairing();
+        round.declareWinner(firstPairing.getFirst(), firstPairing);
+        round.declareWinner(secondPairing.getFirst(), secondPairing);
+        round.nextPairing();
+
+        assertThrows(OrphanedPairingException.class, () -> round.replayPairing(firstPairing));
+    }
+
+    @Test
+    void laterOpponentOfWinnerReset_replayPairing_throwsOrphanedPairingException() throws Exception {
+        Pairing<TestEntrant> firstPairing = round.nextPairing();
+        Pairing<TestEntrant> secondPairing = round.nextPairing();
+        round.declareWinner(firstPairing.getFirst(), firstPairing);
+        round.declareWinner(secondPairing.getFirst(), secondPairing);
+        Pairing<TestEntrant> thirdPairing = new Pairing<>(firstPairing.getFirst(), secondPairing.getFirst());
+        round.pair(thirdPairing);
+        round.declareWinner(firstPairing.getFirst(), thirdPairing);
+
+        round.resetEntrant(secondPairing.getFirst());
+
+        assertEquals(2, round.getLevel(firstPairing.getFirst()));
+        assertThrows(OrphanedPairingException.class, () -> round.replayPairing(firstPairing));
+    }
+
+    @Test
+    void removedWinner_addEntrant_keepsLevel() throws Exception {
+        Pairing<TestEntrant> pairing = round.nextPairing();
+        TestEntrant winner = pairing.getFirst();
+        round.declareWinner(winner, pairing);
+
+        round.removeEntrant(winner);
+        assertTrue(round.hasStateAbout(winner));
+        round.addEntrant(winner);
+
+        assertEquals(1, round.getLevel(winner));
+        assertTrue(round.isEntrantPending(winner));
+    }
+
+    @Test
+    void winner_resetEntrant_isPendingAtFirstLevel() throws Exception {
+        Pairing<TestEntrant> pairing = round.nextPairing();
+        TestEntrant winner = pairing.getFirst();
+        round.declareWinner(winner, pairing);
+
+        assertTrue(round.resetEntrant(winner));
+        assertEquals(0, round.getLevel(winner));
+        assertTrue(round.isEntrantPending(winner));
+        assertFalse(round.getFinishedPairings().contains(pairing));
+    }
+
+    @Test
+    void resetWinner_restore_isPendingAtLevelWithPairingAgain() throws Exception {
+        Pairing<TestEntrant> pairing = round.nextPairing();
+        TestEntrant winner = pairing.getFirst();
+        round.declareWinner(winner, pairing);
+
+        round.resetEntrantRevertibly(winner).run();
+
+        assertEquals(1, round.getLevel(winner));
+        assertTrue(round.isEntrantPending(winner));
+        assertTrue(round.getFinishedPairings().contains(pairing));
+        assertEquals(winner, round.getPairings().getWinner(pairing));
+    }
+
+    @Test
+    void resetPairedEntrant_restore_opponentIsPairedAtMovedLevel() throws Exception {
+        Pairing<TestEntrant> firstPairing = round.nextPairing();
+        TestEntrant winner = firstPairing.getFirst();
+        round.declareWinner(winner, firstPairing);
+
+        TestEntrant movedEntrant = entrants.stream().filter(e -> round.getLevel(e) == 0 && round.isEntrantPending(e))
+                .findFirst().orElseThrow(IllegalStateException::new);
+        Pairing<TestEntrant> pairing = new Pairing<>(winner, movedEntrant);
+        round.pair(pairing);
+
+        round.resetEntrantRevertibly(winner).run();
+
+        assertTrue(round.getActivePairings().contains(pairing));
+        assertEquals(1, round.getLevel(movedEntrant));
+        assertFalse(round.isEntrantPending(winner));
+        assertFalse(round.isEntrantPending(movedEntrant));
+
+        round.unpair(pairing);
+        assertEquals(0, round.getLevel(movedEntrant));
+    }
+
+    @Test
+    void randomChanges_getAdvancedEntrants_matchesLevelsAndEliminations() throws Exception {
+        Random random = new Random(1);
+        for (int i = 0; i < 2000; ++i) {
+            TestEntrant entrant = entrants.get(random.nextInt(entrants.size()));
+            Pairing<TestEntrant> lastPairing = round.getLastPairing(entrant);
+            switch (random.nextInt(8)) {
+                case 0:
+                    round.resetEntrant(entrant);
+                    break;
+                case 1:
+                    if (!round.removeEntrant(entrant))
+                        round.addEntrant(entrant);
+                    break;
+                case 2:
+                    Runnable restore = round.resetEntrantRevertibly(entrant);
+                    if (restore != null)
+                        restore.run();
+                    break;
+                case 3:
+                    if (lastPairing != null && round.getActivePairings().contains(lastPairing))
+                        round.unpair(lastPairing);
+                    break;
+                case 4:
+                    if (lastPairing != null && round.getFinishedPairings().contains(lastPairing)
+                            && round.hasEntrant(lastPairing.getFirst()) && round.hasEntrant(lastPairing.getSecond())
+                            && !round.isPairingOrphaned(lastPairing))
+                        round.replayPairing(lastPairing);
+                    break;
+                case 5:
+                    // Entrants of different levels are moved up to be paired.
+                    TestEntrant other = entrants.get(random.nextInt(entrants.size()));
+                    if (!entrant.equals(other) && round.isEntrantPending(entrant) && round.isEntrantPending(other))
+                        round.pair(new Pairing<>(entrant, other));
+                    break;
+                default:
+                    try {
+                        Pairing<TestEntrant> pairing = round.nextPairing();
+                        round.declareWinner(random.nextBoolean() ? pairing.getFirst() : pairing.getSecond(), pairing);
+                    }
+                    catch (NoOpponentException | NoEntrantsException | UnfinishedPairingsException
+                           | NoMorePairingsException e) {
+                        // Changes in the next iterations make pairings possible again.
+                    }
+            }
+
+            for (TestEntrant e : entrants) {
+                boolean isAdvanced = round.hasEntrant(e) && !round.isEntrantEliminated(e) && round.getLevel(e) > 0;
+                assertEquals(isAdvanced, round.getAdvancedEntrants().contains(e));
+            }
+        }
+    }
+}
@@ -0,0 +1,524 @@
+package de.j13g.manko.core.rounds;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.base.EliminationRound;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.exceptions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Applies long random sequences of operations to every round type
+ * and checks the invariants of the round after every step.
+ * Elimination rounds are additionally compared against a simple reference model.
+ * Seeds are fuzzed in parallel. A failure reports the seed and step, so it can be replayed.
+ * The number of seeds and steps can be raised with the system properties
+ * manko.fuzz.seeds and manko.fuzz.steps.
+ */
+public class RoundFuzzTest {
+
+    private static final int SEEDS = Integer.getInteger("manko.fuzz.seeds", 128);
+    private static final int STEPS = Integer.getInteger("manko.fuzz.steps", 500);
+
+    private static final int ENTRANT_COUNT = 12;
+
+    /** The number of operations that are reported with a failure. */
+    private static final int HISTORY_SIZE = 20;
+
+    private enum State {
+        PENDING,
+        PAIRED,
+        ADVANCED,
+        ELIMINATED,
+        FLOATING_ADVANCED,
+        FLOATING_ELIMINATED
+    }
+
+    /**
+     * The expected state of an elimination round, entrants without state are absent.
+     */
+    private static class EliminationModel {
+
+        public final HashMap<TestEntrant, State> states = new HashMap<>();
+        public final HashMap<TestEntrant, Pairing<TestEntrant>> activePairings = new HashMap<>();
+
+        public boolean isPresent(TestEntrant entrant) {
+            State state = states.get(entrant);
+            return state != null && state != State.FLOATING_ADVANCED && state != State.FLOATING_ELIMINATED;
+        }
+
+        public long count(State state) {
+            return states.values().stream().filter(s -> s == state).count();
+        }
+
+        public void pair(Pairing<TestEntrant> pairing) {
+            states.put(pairing.getFirst(), State.PAIRED);
+            states.put(pairing.getSecond(), State.PAIRED);
+            activePairings.put(pairing.getFirst(), pairing);
+            activePairings.put(pairing.getSecond(), pairing);
+        }
+
+        public void finish(Pairing<TestEntrant> pairing, State first, State second) {
+            states.put(pairing.getFirst(), first);
+            states.put(pairing.getSecond(), second);
+            activePairings.remove(pairing.getFirst());
+            activePairings.remove(pairing.getSecond());
+        }
+
+        /**
+         * Puts the opponent of a paired entrant back to pending.
+         */
+        public void unpair(TestEntrant entrant) {
+            Pairing<TestEntrant> pairing = activePairings.remove(entrant);
+            TestEntrant other = pairing.getFirst().equals(entrant) ? pairing.getSecond() : pairing.getFirst();
+            activePairings.remove(other);
+            states.put(other, State.PENDING);
+        }
+    }
+
+    /**
+     * Runs a fuzzer for each seed in parallel and reports the first failure.
+     */
+    private void fuzzInParallel(Function<Long, Fuzzer> fuzzerFactory) {
+        List<AssertionError> failures = IntStream.range(0, SEEDS).parallel()
+                .mapToObj(seed -> fuzzerFactory.apply((long) seed).run())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        if (!failures.isEmpty())
+            throw failures.get(0);
+    }
+
+    private abstract static class Fuzzer {
+
+        protected final long seed;
+        protected final Random random;
+        protected final List<TestEntrant> entrants = new ArrayList<>();
+
+        private final ArrayDeque<String> history = new ArrayDeque<>();
+
+        protected Fuzzer(long seed) {
+            this.seed = seed;
+            random = new Random(seed);
+            for (int id = 0; id < ENTRANT_COUNT; ++id)
+                entrants.add(new TestEntrant(id));
+        }
+
+        /**
+         * @return The failure or null if all invariants held.
+         */
+        public AssertionError run() {
+            int step = 0;
+            try {
+                init();
+                check();
+                for (; step < STEPS; ++step) {
+                    step();
+                    check();
+                }
+                return null;
+            }
+            catch (Throwable e) {
+                return new AssertionError(format("Seed %d, step %d, after %s", seed, step, String.join(", ", history)), e);
+            }
+        }
+
+        protected void operation(String name, Object... arguments) {
+            if (history.size() == HISTORY_SIZE)
+                history.removeFirst();
+            history.addLast(name + Arrays.toString(arguments));
+        }
+
+        protected void operation(String name, Pairing<TestEntrant> pairing) {
+            operation(name, pairing.getFirst(), pairing.getSecond());
+        }
+
+        protected TestEntrant randomEntrant() {
+            return entrants.get(random.nextInt(entrants.size()));
+        }
+
+        /**
+         * Chooses a pairing independently of the iteration order of the collection.
+         */
+        protected Pairing<TestEntrant> randomPairing(Collection<Pairing<TestEntrant>> pairings) {
+            List<Pairing<TestEntrant>> sorted = pairings.stream()
+                    .sorted(Comparator.<Pairing<TestEntrant>>comparingInt(p -> p.getFirst().id())
+                            .thenComparingInt(p -> p.getSecond().id()))
+                    .collect(Collectors.toList());
+            return sorted.get(random.nextInt(sorted.size()));
+        }
+
+        protected abstract void init() throws Exception;
+
+        protected abstract void step() throws Exception;
+
+        protected abstract void check();
+
+        private static String format(String format, Object... arguments) {
+            return String.format(format, arguments);
+        }
+    }
+
+    /**
+     * Checks the invariants that hold for every round type.
+     */
+    private static void checkRoundInvariants(Round<TestEntrant> round) {
+        Set<TestEntrant> paired = new HashSet<>();
+        for (Pairing<TestEntrant> pairing : round.getActivePairings()) {
+            assertTrue(round.hasEntrant(pairing.getFirst()), "Paired entrant is not part of the round");
+            assertTrue(round.hasEntrant(pairing.getSecond()), "Paired entrant is not part of the round");
+            assertTrue(paired.add(pairing.getFirst()), "Entrant is part of two active pairings");
+            assertTrue(paired.add(pairing.getSecond()), "Entrant is part of two active pairings");
+            assertFalse(round.getFinishedPairings().contains(pairing), "Pairing is active and finished");
+        }
+
+        assertEquals(paired, round.getPairedEntrants());
+        for (TestEntrant entrant : paired)
+            assertTrue(round.isEntrantPaired(entrant));
+
+        if (round.isFinished())
+            assertTrue(round.getActivePairings().isEmpty(), "Finished round has active pairings");
+    }
+
+    private static class EliminationFuzzer extends Fuzzer {
+
+        private final boolean isSemiFinal;
+
+        private DynamicElimination<TestEntrant> round;
+        private final EliminationModel model = new EliminationModel();
+
+        public EliminationFuzzer(long seed, boolean isSemiFinal) {
+            super(seed);
+            this.isSemiFinal = isSemiFinal;
+
+            // Only the original entrants can take part in a semi-final.
+            if (isSemiFinal)
+                entrants.subList(4, entrants.size()).clear();
+        }
+
+        @Override
+        protected void init() {
+            if (isSemiFinal) {
+                round = new SemiFinal<>(entrants, new Random(seed));
+                entrants.forEach(e -> model.states.put(e, State.PENDING));
+            }
+            else {
+                round = new DynamicElimination<>(new Random(seed));
+            }
+        }
+
+        @Override
+        protected void step() throws Exception {
+            switch (random.nextInt(isSemiFinal ? 6 : 7)) {
+                case 0: add(randomEntrant()); break;
+                case 1: remove(randomEntrant()); break;
+                case 2: nextPairing(); break;
+                case 3: declareWinner(randomEntrant()); break;
+                case 4: declareTie(); break;
+                case 5: replay(); break;
+                case 6: reset(randomEntrant()); break;
+            }
+        }
+
+        private void add(TestEntrant entrant) {
+            operation("add", entrant);
+
+            State state = model.states.get(entrant);
+            boolean isAdded = round.addEntrant(entrant);
+            assertEquals(!model.isPresent(entrant), isAdded);
+
+            if (state == null)
+                model.states.put(entrant, State.PENDING);
+            else if (state == State.FLOATING_ADVANCED)
+                model.states.put(entrant, State.ADVANCED);
+            else if (state == State.FLOATING_ELIMINATED)
+                model.states.put(entrant, State.ELIMINATED);
+        }
+
+        private void remove(TestEntrant entrant) {
+            operation("remove", entrant);
+
+            State state = model.states.get(entrant);
+            boolean isRemoved = round.removeEntrant(entrant);
+            assertEquals(model.isPresent(entrant), isRemoved);
+
+            if (state == State.PENDING) {
+                model.states.remove(entrant);
+            }
+            else if (state == State.PAIRED) {
+                model.unpair(entrant);
+                model.states.remove(entrant);
+            }
+            else if (state == State.ADVANCED) {
+                model.states.put(entrant, State.FLOATING_ADVANCED);
+            }
+            else if (state == State.ELIMINATED) {
+                model.states.put(entrant, State.FLOATING_ELIMINATED);
+            }
+        }
+
+        private void reset(TestEntrant entrant) {
+            operation("reset", entrant);
+
+            State state = model.states.get(entrant);
+            boolean isReset = round.resetEntrant(entrant);
+            assertEquals(state != null && state != State.PENDING, isReset);
+
+            if (state == State.PAIRED) {
+                model.unpair(entrant);
+                model.states.put(entrant, State.PENDING);
+            }
+            else if (state == State.ADVANCED || state == State.ELIMINATED) {
+                model.states.put(entrant, State.PENDING);
+            }
+            else if (state == State.FLOATING_ADVANCED || state == State.FLOATING_ELIMINATED) {
+                model.states.remove(entrant);
+            }
+        }
+
+        private void nextPairing() throws Exception {
+            operation("nextPairing");
+
+            long pendingCount = model.count(State.PENDING);
+            if (pendingCount == 0) {
+                assertThrows(NoEntrantsException.class, round::nextPairing);
+                return;
+            }
+            if (pendingCount == 1) {
+                assertThrows(NoOpponentException.class, round::nextPairing);
+                return;
+            }
+
+            Pairing<TestEntrant> pairing = round.nextPairing();
+            assertEquals(State.PENDING, model.states.get(pairing.getFirst()));
+            assertEquals(State.PENDING, model.states.get(pairing.getSecond()));
+            model.pair(pairing);
+        }
+
+        private void declareWinner(TestEntrant entrant) throws Exception {
+            operation("declareWinner", entrant);
+
+            if (!model.isPresent(entrant)) {
+                assertThrows(NoSuchEntrantException.class, () -> round.declareWinner(entrant));
+                return;
+            }
+            if (model.states.get(entrant) != State.PAIRED) {
+                assertThrows(MissingPairingException.class, () -> round.declareWinner(entrant));
+                return;
+            }
+
+            Pairing<TestEntrant> pairing = round.declareWinner(entrant);
+            assertEquals(model.activePairings.get(entrant), pairing);
+
+            boolean isFirst = pairing.getFirst().equals(entrant);
+            model.finish(pairing,
+                    isFirst ? State.ADVANCED : State.ELIMINATED,
+                    isFirst ? State.ELIMINATED : State.ADVANCED);
+        }
+
+        private void declareTie() throws Exception {
+            if (model.activePairings.isEmpty()) {
+                operation("declareTie");
+                assertThrows(NoSuchPairingException.class,
+                        () -> round.declareTie(new Pairing<>(entrants.get(0), entrants.get(1))));
+                return;
+            }
+
+            Pairing<TestEntrant> pairing = randomPairing(model.activePairings.values());
+            operation("declareTie", pairing);
+
+            round.declareTie(pairing);
+            model.finish(pairing, State.ELIMINATED, State.ELIMINATED);
+        }
+
+        private void replay() throws Exception {
+            if (round.getFinishedPairings().isEmpty())
+                return;
+
+            Pairing<TestEntrant> pairing = randomPairing(round.getFinishedPairings());
+            operation("replay", pairing);
+
+            boolean isMissing = !model.isPresent(pairing.getFirst()) || !model.isPresent(pairing.getSecond());
+            try {
+                assertTrue(round.replayPairing(pairing));
+            }
+            catch (MissingEntrantException e) {
+                assertTrue(isMissing);
+                return;
+            }
+            catch (OrphanedPairingException e) {
+                // One of the entrants is paired again, which the model does not need to know.
+                assertTrue(model.states.get(pairing.getFirst()) == State.PAIRED
+                        || model.states.get(pairing.getSecond()) == State.PAIRED);
+                return;
+            }
+
+            assertFalse(isMissing);
+            for (TestEntrant entrant : Arrays.asList(pairing.getFirst(), pairing.getSecond()))
+                if (model.states.get(entrant) == State.PAIRED)
+                    model.unpair(entrant);
+
+            model.pair(pairing);
+        }
+
+        @Override
+        protected void check() {
+            checkRoundInvariants(round);
+            checkEliminationInvariants(round);
+
+            for (TestEntrant entrant : entrants) {
+                State state = model.states.get(entrant);
+                String message = entrant + " should be " + state;
+
+                assertEquals(model.isPresent(entrant), round.hasEntrant(entrant), message);
+                assertEquals(state == State.PENDING, round.isEntrantPending(entrant), message);
+                assertEquals(state == State.PAIRED, round.isEntrantPaired(entrant), message);
+                assertEquals(state == State.ADVANCED, round.isEntrantAdvanced(entrant), message);
+                assertEquals(state == State.ELIMINATED, round.isEntrantEliminated(entrant), message);
+                assertEquals(state == State.ADVANCED || state == State.FLOATING_ADVANCED,
+                        round.hasWon(entrant), message);
+                assertEquals(state == State.ELIMINATED || state == State.FLOATING_ELIMINATED,
+                        round.hasLost(entrant), message);
+
+                if (state == State.PAIRED)
+                    assertEquals(model.activePairings.get(entrant), round.getLastPairing(entrant), message);
+            }
+
+            boolean isFinished = model.count(State.PENDING) == 0 && model.count(State.PAIRED) == 0;
+            assertEquals(isFinished, round.isFinished());
+        }
+    }
+
+    /**
+     * Checks that every entrant of an elimination round is in exactly one state.
+     */
+    private static void checkEliminationInvariants(EliminationRound<TestEntrant> round) {
+        for (TestEntrant entrant : round.getEntrants()) {
+            int states = (round.isEntrantPending(entrant) ? 1 : 0)
+                    + (round.isEntrantPaired(entrant) ? 1 : 0)
+                    + (round.isEntrantAdvanced(entrant) ? 1 : 0)
+                    + (round.isEntrantEliminated(entrant) ? 1 : 0);
+            assertEquals(1, states, entrant + " is in " + states + " states");
+        }
+
+        assertTrue(round.getEntrants().containsAll(round.getPendingEntrants()));
+        assertTrue(round.getEntrants().containsAll(round.getAdvancedEntrants()));
+        assertTrue(round.getEntrants().containsAll(round.getEliminatedEntrants()));
+    }
+
+    /**
+     * Fuzzes rounds that only know their original entrants, i.e. finals.
+     * There is no reference model, only the invariants and the declared exceptions are checked.
+     */
+    private static class FinalRoundFuzzer extends Fuzzer {
+
+        private final Function<Fuzzer, Round<TestEntrant>> roundFactory;
+        private Round<TestEntrant> round;
+
+        public FinalRoundFuzzer(long seed, Function<Fuzzer, Round<TestEntrant>> roundFactory) {
+            super(seed);
+            this.roundFactory = roundFactory;
+        }
+
+        @Override
+        protected void init() {
+            round = roundFactory.apply(this);
+        }
+
+        @Override
+        protected void step() {
+            TestEntrant entrant = randomEntrant();
+            try {
+                switch (random.nextInt(5)) {
+                    case 0:
+                        operation("add", entrant);
+                        boolean wasPresent = round.hasEntrant(entrant);
+                        boolean isAdded = round.addEntrant(entrant);
+                        assertNotEquals(wasPresent, isAdded);
+                        break;
+                    case 1:
+                        operation("remove", entrant);
+                        round.removeEntrant(entrant);
+                        assertFalse(round.hasEntrant(entrant));
+                        break;
+                    case 2:
+                        operation("nextPairing");
+                        round.nextPairing();
+                        break;
+                    case 3:
+                        operation("declareWinner", entrant);
+                        round.declareWinner(entrant);
+                        break;
+                    case 4:
+                        if (round.getFinishedPairings().isEmpty())
+                            return;
+                        Pairing<TestEntrant> pairing = randomPairing(round.getFinishedPairings());
+                        operation("replay", pairing);
+                        round.replayPairing(pairing);
+                        break;
+                }
+            }
+            catch (NewEntrantsNotAllowedException e) {
+                assertFalse(round.hasStateAbout(entrant));
+            }
+            catch (NoEntrantsException | NoOpponentException | UnfinishedPairingsException
+                    | NoMorePairingsException | NoSuchEntrantException | MissingPairingException
+                    | NoSuchPairingException | MissingEntrantException | OrphanedPairingException e) {
+                // Rejected operations must leave the round intact, which is checked next.
+            }
+        }
+
+        @Override
+        protected void check() {
+            checkRoundInvariants(round);
+
+            if (round instanceof RoundRobinFinal) {
+                RoundRobinFinal<TestEntrant> roundRobinFinal = (RoundRobinFinal<TestEntrant>) round;
+                int totalScore = 0;
+                for (TestEntrant entrant : roundRobinFinal.getEntrants()) {
+                    int score = roundRobinFinal.getScore(entrant);
+                    assertTrue(score >= 0 && score <= 2, "Score out of range: " + score);
+                    totalScore += score;
+                }
+                // Removed entrants give their opponents the win of their outstanding pairings.
+                assertTrue(totalScore <= 3, "Total score out of range: " + totalScore);
+            }
+        }
+    }
+
+    @Test
+    void dynamicElimination_randomOperations_matchModel() {
+        fuzzInParallel(seed -> new EliminationFuzzer(seed, false));
+    }
+
+    @Test
+    void semiFinal_randomOperations_matchModel() {
+        fuzzInParallel(seed -> new EliminationFuzzer(seed, true));
+    }
+
+    @Test
+    void finalWithThirdPlace_randomOperations_keepInvariants() {
+        fuzzInParallel(seed -> new FinalRoundFuzzer(seed, fuzzer -> new Final<>(
+                new Pairing<>(fuzzer.entrants.get(0), fuzzer.entrants.get(1)),
+                new Pairing<>(fuzzer.entrants.get(2), fuzzer.entrants.get(3)))));
+    }
+
+    @Test
+    void finalWithoutThirdPlace_randomOperations_keepInvariants() {
+        fuzzInParallel(seed -> new FinalRoundFuzzer(seed, fuzzer -> new Final<>(
+                new Pairing<>(fuzzer.entrants.get(0), fuzzer.entrants.get(1)))));
+    }
+
+    @Test
+    void roundRobinFinal_randomOperations_keepInvariants() {
+        fuzzInParallel(seed -> new FinalRoundFuzzer(seed, fuzzer -> new RoundRobinFinal<>(
+                fuzzer.entrants.get(0), fuzzer.entrants.get(1), fuzzer.entrants.get(2), new Random(seed))));
+    }
+}
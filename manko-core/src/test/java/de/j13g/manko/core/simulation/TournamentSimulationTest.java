@@ -0,0 +1,60 @@
+package de.j13g.manko.core.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TournamentSimulationTest {
+
+    private SimulationResult simulate(long seed) {
+        return new TournamentSimulation(seed)
+                .withEntrants(500)
+                .withChurn(0.2, 0.1, 0.05)
+                .run();
+    }
+
+    @Test
+    void sameSeed_run_playsSameTournament() {
+        SimulationResult result = simulate(42);
+        SimulationResult other = simulate(42);
+
+        assertEquals(result.getFingerprint(), other.getFingerprint());
+        assertEquals(result.getPairings(), other.getPairings());
+        assertEquals(result.getRounds(), other.getRounds());
+    }
+
+    @Test
+    void differentSeed_run_playsDifferentTournament() {
+        assertNotEquals(simulate(42).getFingerprint(), simulate(43).getFingerprint());
+    }
+
+    @Test
+    void withChurn_run_playsUntilFinalRound() {
+        SimulationResult result = simulate(7);
+
+        assertTrue(result.getRounds() > 1);
+        assertTrue(result.getPairings() >= 500 / 2);
+        assertTrue(result.getJoins() > 0);
+        assertTrue(result.getLeaves() > 0);
+    }
+
+    @Test
+    void noEntrants_run_finishesImmediately() {
+        SimulationResult result = new TournamentSimulation(1).withEntrants(0).run();
+        assertEquals(1, result.getRounds());
+        assertEquals(0, result.getPairings());
+    }
+
+    @Test
+    void rolling_run_playsUntilFinalRound() {
+        SimulationResult result = new TournamentSimulation(7)
+                .withEntrants(500)
+                .withChurn(0.2, 0.1, 0.05)
+                .withRolling(true)
+                .run();
+
+        // A rolling elimination is followed by a semi-final and a final.
+        assertEquals(3, result.getRounds());
+        assertTrue(result.getPairings() >= 500 - 4);
+    }
+}
@@ -0,0 +1,175 @@
+package de.j13g.manko.core.statistics;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.exceptions.FinalRoundException;
+import de.j13g.manko.core.formats.DefaultFormat;
+import de.j13g.manko.core.rounds.DynamicElimination;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FullRankingTest {
+
+    private final TestEntrant first = new TestEntrant(1);
+
+    @Test
+    void finishedTournament_getRanking_ranksEveryEntrant() throws Exception {
+        Tournament<TestEntrant> tournament = createTournament(8);
+        FullRanking<TestEntrant> ranking = new FullRanking<>();
+        ranking.attach(tournament);
+
+        playTournament(tournament);
+
+        List<TestEntrant> entrants = ranking.getRanking();
+        assertTrue(ranking.isComplete());
+        assertEquals(8, entrants.size());
+        assertEquals(8, ranking.getRankedCount());
+        assertEquals(first, entrants.get(0));
+        assertEquals(1, ranking.getRank(first));
+        for (int i = 1; i < entrants.size(); ++i)
+            assertTrue(ranking.getRank(entrants.get(i - 1)) <= ranking.getRank(entrants.get(i)));
+    }
+
+    @Test
+    void finishedTournament_getTier_isLastRoundOfEntrant() throws Exception {
+        Tournament<TestEntrant> tournament = createTournament(8);
+        FullRanking<TestEntrant> ranking = new FullRanking<>();
+        ranking.attach(tournament);
+
+        playTournament(tournament);
+
+        TournamentOutcome<TestEntrant> outcome = new TournamentOutcome<>(tournament);
+        for (TestEntrant entrant : outcome.getEntrants())
+            assertEquals(outcome.getLastRoundNumber(entrant), ranking.getTier(entrant));
+    }
+
+    @Test
+    void sameResults_getRank_isSharedWithinTier() throws Exception {
+        Tournament<TestEntrant> tournament = createTournament(8);
+        FullRanking<TestEntrant> ranking = new FullRanking<>(FullRanking.TieBreaker.WINS);
+        ranking.attach(tournament);
+
+        playTournament(tournament);
+
+        // The four entrants that lost their first pairing are equal.
+        for (TestEntrant entrant : ranking.getRanking().subList(4, 8))
+            assertEquals(5, ranking.getRank(entrant));
+    }
+
+    @Test
+    void entryTieBreaker_getRank_isUnique() throws Exception {
+        Tournament<TestEntrant> tournament = createTournament(8);
+        FullRanking<TestEntrant> ranking = new FullRanking<>(FullRanking.TieBreaker.WINS, FullRanking.TieBreaker.ENTRY);
+        ranking.attach(tournament);
+
+        playTournament(tournament);
+
+        List<TestEntrant> entrants = ranking.getRanking();
+        for (int i = 0; i < entrants.size(); ++i)
+            assertEquals(i + 1, ranking.getRank(entrants.get(i)));
+    }
+
+    @Test
+    void nextRound_getRank_ranksEliminatedEntrants() throws Exception {
+        Tournament<TestEntrant> tournament = createTournament(8);
+        FullRanking<TestEntrant> ranking = new FullRanking<>();
+        ranking.attach(tournament);
+
+        playRound(tournament);
+        tournament.nextRound();
+
+        assertFalse(ranking.isComplete());
+        assertEquals(4, ranking.getRankedCount());
+        assertEquals(0, ranking.getRank(first));
+        for (TestEntrant entrant : ranking.getRanking())
+            assertEquals(5, ranking.getRank(entrant));
+    }
+
+    @Test
+    void previousRound_getRank_removesTier() throws Exception {
+        Tournament<TestEntrant> tournament = createTournament(8);
+        FullRanking<TestEntrant> ranking = new FullRanking<>();
+        ranking.attach(tournament);
+
+        playRound(tournament);
+        tournament.nextRound();
+        tournament.previousRound();
+
+        assertEquals(0, ranking.getRankedCount());
+        assertTrue(ranking.getRanking().isEmpty());
+    }
+
+    @Test
+    void attachedLate_getRank_equalsIncrementalRanking() throws Exception {
+        Tournament<TestEntrant> tournament = createTournament(500);
+        FullRanking<TestEntrant> incremental = new FullRanking<>(FullRanking.TieBreaker.WINS, FullRanking.TieBreaker.TIES);
+        incremental.attach(tournament);
+
+        playTournament(tournament);
+
+        FullRanking<TestEntrant> rebuilt = new FullRanking<>(FullRanking.TieBreaker.WINS, FullRanking.TieBreaker.TIES);
+        rebuilt.attach(tournament);
+
+        assertEquals(500, incremental.getRankedCount());
+        for (int id = 1; id <= 500; ++id) {
+            TestEntrant entrant = new TestEntrant(id);
+            assertEquals(rebuilt.getRank(entrant), incremental.getRank(entrant));
+        }
+    }
+
+    @Test
+    void detachedRanking_nextRound_isNotUpdated() throws Exception {
+        Tournament<TestEntrant> tournament = createTournament(8);
+        FullRanking<TestEntrant> ranking = new FullRanking<>();
+        ranking.attach(tournament);
+        ranking.detach();
+
+        playRound(tournament);
+        tournament.nextRound();
+
+        assertNull(ranking.getTournament());
+        assertEquals(0, ranking.getRankedCount());
+    }
+
+    private Tournament<TestEntrant> createTournament(int entrantCount) {
+        DefaultFormat<TestEntrant> format = new DefaultFormat<>(0);
+        format.setByePolicy(DynamicElimination.ByePolicy.ADVANCE);
+
+        Tournament<TestEntrant> tournament = new Tournament<>(format);
+        for (int id = 1; id <= entrantCount; ++id)
+            tournament.addEntrant(new TestEntrant(id));
+        return tournament;
+    }
+
+    /**
+     * Finishes the current round, in which the entrant with the lower ID always wins and byes advance.
+     */
+    private void playRound(Tournament<TestEntrant> tournament) throws Exception {
+        while (!tournament.getCurrentRound().isFinished()) {
+            Pairing<TestEntrant> pairing = tournament.nextPairing();
+            if (pairing == null)
+                continue;
+
+            TestEntrant winner = pairing.getFirst().id() < pairing.getSecond().id()
+                    ? pairing.getFirst() : pairing.getSecond();
+            tournament.declareWinner(winner, pairing);
+        }
+    }
+
+    private void playTournament(Tournament<TestEntrant> tournament) throws Exception {
+        while (true) {
+            playRound(tournament);
+
+            try {
+                tournament.nextRound();
+            }
+            catch (FinalRoundException e) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package de.j13g.manko.core.statistics;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.exceptions.FinalRoundException;
+import de.j13g.manko.core.formats.DefaultFormat;
+import de.j13g.manko.core.persistence.EntrantCodec;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeasonLeaderboardTest {
+
+    private final EntrantCodec<TestEntrant> codec = new EntrantCodec<TestEntrant>() {
+
+        @Override
+        public int getEncodedSize() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(TestEntrant entrant, ByteBuffer buffer) {
+            buffer.putInt(entrant.id());
+        }
+
+        @Override
+        public TestEntrant decode(ByteBuffer buffer) {
+            return new TestEntrant(buffer.getInt());
+        }
+    };
+
+    private final TestEntrant first = new TestEntrant(1);
+    private final TestEntrant second = new TestEntrant(2);
+    private final TestEntrant third = new TestEntrant(3);
+    private final TestEntrant fourth = new TestEntrant(4);
+
+    private final SeasonLeaderboard<TestEntrant> leaderboard = new SeasonLeaderboard<>(10, 6, 3, 1);
+
+    @Test
+    void results_addResult_awardsPlacementAndRoundPoints() {
+        assertEquals(13, leaderboard.addResult(first, Placement.FIRST, 3));
+        assertEquals(2, leaderboard.addResult(first, Placement.NONE, 2));
+
+        SeasonLeaderboard.Standing<TestEntrant> standing = leaderboard.getStanding(first);
+        assertEquals(15, standing.getPoints());
+        assertEquals(2, standing.getTournaments());
+        assertEquals(1, standing.getPlacementCount(Placement.FIRST));
+    }
+
+    @Test
+    void samePoints_getRank_isShared() {
+        leaderboard.addResult(first, Placement.FIRST, 3);
+        leaderboard.addResult(second, Placement.NONE, 4);
+        leaderboard.addResult(third, Placement.NONE, 4);
+        leaderboard.addResult(fourth, Placement.NONE, 1);
+
+        assertEquals(1, leaderboard.getRank(first));
+        assertEquals(2, leaderboard.getRank(second));
+        assertEquals(2, leaderboard.getRank(third));
+        assertEquals(4, leaderboard.getRank(fourth));
+        assertEquals(0, leaderboard.getRank(new TestEntrant(5)));
+    }
+
+    @Test
+    void samePoints_getTop_prefersMorePlacements() {
+        leaderboard.addResult(first, Placement.NONE, 8);
+        leaderboard.addResult(second, Placement.THIRD, 5);
+        leaderboard.addResult(third, Placement.FIRST, 10);
+
+        assertEquals(Arrays.asList(third, second, first), entrantsOf(leaderboard.getTop(10)));
+        assertEquals(Arrays.asList(third), entrantsOf(leaderboard.getTop(1)));
+    }
+
+    @Test
+    void laterResult_getTop_reordersStandings() {
+        leaderboard.addResult(first, Placement.FIRST, 3);
+        leaderboard.addResult(second, Placement.SECOND, 3);
+        leaderboard.addResult(second, Placement.FIRST, 3);
+
+        assertEquals(Arrays.asList(second, first), entrantsOf(leaderboard.getTop(2)));
+        assertEquals(2, leaderboard.getRank(first));
+    }
+
+    @Test
+    void finishedTournament_addTournament_ranksWinnerFirst() throws Exception {
+        leaderboard.addTournament(playTournament());
+
+        assertEquals(1, leaderboard.getTournamentCount());
+        assertEquals(4, leaderboard.size());
+        assertEquals(first, leaderboard.getTop(1).get(0).getEntrant());
+        assertEquals(1, leaderboard.getStanding(first).getPlacementCount(Placement.FIRST));
+        assertEquals(1, leaderboard.getStanding(second).getPlacementCount(Placement.SECOND));
+    }
+
+    @Test
+    void savedLeaderboard_load_restoresStandings() throws Exception {
+        leaderboard.addTournament(playTournament());
+        leaderboard.addResult(fourth, Placement.FIRST, 5);
+
+        File file = File.createTempFile("manko", ".season");
+        try {
+            leaderboard.save(file, codec);
+            SeasonLeaderboard<TestEntrant> loaded = SeasonLeaderboard.load(file, codec);
+
+            assertEquals(entrantsOf(leaderboard.getTop(10)), entrantsOf(loaded.getTop(10)));
+            assertEquals(leaderboard.getStanding(fourth).getPoints(), loaded.getStanding(fourth).getPoints());
+            assertEquals(leaderboard.getRank(third), loaded.getRank(third));
+            assertEquals(1, loaded.getTournamentCount());
+            assertEquals(13, loaded.addResult(first, Placement.FIRST, 3));
+        }
+        finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    void otherFile_load_throwsIOException() throws Exception {
+        File file = File.createTempFile("manko", ".season");
+        try {
+            assertThrows(IOException.class, () -> SeasonLeaderboard.load(file, codec));
+        }
+        finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    private static List<TestEntrant> entrantsOf(List<SeasonLeaderboard.Standing<TestEntrant>> standings) {
+        return standings.stream().map(SeasonLeaderboard.Standing::getEntrant).collect(Collectors.toList());
+    }
+
+    /**
+     * Plays a tournament of the default format, in which the entrant with the lower ID always wins.
+     */
+    private Tournament<TestEntrant> playTournament() throws Exception {
+        Tournament<TestEntrant> tournament = new Tournament<>(new DefaultFormat<>(0));
+        for (TestEntrant entrant : Arrays.asList(first, second, third, fourth))
+            tournament.addEntrant(entrant);
+
+        while (true) {
+            while (!tournament.getCurrentRound().isFinished()) {
+                Pairing<TestEntrant> pairing = tournament.nextPairing();
+                TestEntrant winner = pairing.getFirst().id() < pairing.getSecond().id()
+                        ? pairing.getFirst() : pairing.getSecond();
+                tournament.declareWinner(winner, pairing);
+            }
+
+            try {
+                tournament.nextRound();
+            }
+            catch (FinalRoundException e) {
+                return tournament;
+            }
+        }
+    }
+}
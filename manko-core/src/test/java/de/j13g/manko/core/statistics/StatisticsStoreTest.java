@@ -0,0 +1,199 @@
+package de.j13g.manko.core.statistics;
+
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.TestEntrant;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.exceptions.FinalRoundException;
+import de.j13g.manko.core.formats.DefaultFormat;
+import de.j13g.manko.core.persistence.EntrantCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatisticsStoreTest {
+
+    private final EntrantCodec<TestEntrant> codec = new EntrantCodec<TestEntrant>() {
+
+        @Override
+        public int getEncodedSize() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(TestEntrant entrant, ByteBuffer buffer) {
+            buffer.putInt(entrant.id());
+        }
+
+        @Override
+        public TestEntrant decode(ByteBuffer buffer) {
+            return new TestEntrant(buffer.getInt());
+        }
+    };
+
+    private final TestEntrant first = new TestEntrant(1);
+    private final TestEntrant second = new TestEntrant(2);
+    private final TestEntrant third = new TestEntrant(3);
+    private final TestEntrant fourth = new TestEntrant(4);
+
+    private File directory;
+    private StatisticsStore<TestEntrant> store;
+
+    @BeforeEach
+    void init() throws IOException {
+        directory = Files.createTempDirectory("manko").toFile();
+        store = StatisticsStore.open(directory, codec);
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        store.close();
+        for (File file : directory.listFiles())
+            assertTrue(file.delete());
+        assertTrue(directory.delete());
+    }
+
+    @Test
+    void finishedTournament_archive_recordsResultsAndPlacements() throws Exception {
+        store.archive(playTournament(first, second, third, fourth), 100);
+
+        EntrantStatistics<TestEntrant> statistics = store.getStatistics(first);
+
+        assertEquals(2, statistics.getTotal().getWins());
+        assertEquals(0, statistics.getTotal().getLosses());
+        assertEquals(1.0, statistics.getTotal().getWinRate());
+        assertEquals(1, statistics.getParticipations().size());
+        assertEquals(Placement.FIRST, statistics.getParticipations().get(0).getPlacement());
+        assertEquals(100, statistics.getParticipations().get(0).getTimestamp());
+
+        EntrantStatistics<TestEntrant> loser = store.getStatistics(fourth);
+        assertEquals(1, loser.getTotal().getLosses());
+        assertEquals(1, loser.getHeadToHead().size());
+        assertEquals(Placement.NONE, loser.getParticipations().get(0).getPlacement());
+        assertEquals(1, loser.getParticipations().get(0).getRoundNumber());
+    }
+
+    @Test
+    void severalTournaments_getStatistics_addsUpHeadToHead() throws Exception {
+        store.archive(playTournament(first, second, third, fourth), 100);
+        store.archive(playTournament(second, third, fourth, new TestEntrant(5)), 200);
+
+        EntrantStatistics<TestEntrant> statistics = store.getStatistics(second);
+        List<EntrantStatistics.Participation> participations = statistics.getParticipations();
+
+        assertEquals(2, participations.size());
+        assertEquals(1, participations.get(0).getEvent());
+        assertEquals(0, participations.get(1).getEvent());
+        assertEquals(statistics.getTotal().getPairings(), statistics.getHeadToHead().values().stream()
+                .mapToInt(EntrantStatistics.Score::getPairings).sum());
+    }
+
+    @Test
+    void timeRange_getStatistics_onlyIncludesTournamentsWithinRange() throws Exception {
+        store.archive(playTournament(first, second, third, fourth), 100);
+        store.archive(playTournament(first, second, third, fourth), 200);
+        store.archive(playTournament(first, second, third, fourth), 300);
+
+        EntrantStatistics<TestEntrant> statistics = store.getStatistics(first, 150, 300);
+
+        assertEquals(1, statistics.getParticipations().size());
+        assertEquals(200, statistics.getParticipations().get(0).getTimestamp());
+        assertEquals(2, statistics.getTotal().getWins());
+        assertEquals(1, store.findEvent(101));
+        assertEquals(3, store.findEvent(301));
+    }
+
+    @Test
+    void unknownEntrant_getStatistics_isEmpty() throws Exception {
+        store.archive(playTournament(first, second, third, fourth), 100);
+
+        EntrantStatistics<TestEntrant> statistics = store.getStatistics(new TestEntrant(5));
+
+        assertEquals(0, statistics.getTotal().getPairings());
+        assertTrue(statistics.getParticipations().isEmpty());
+    }
+
+    @Test
+    void earlierTimestamp_archive_throwsIllegalArgumentException() throws Exception {
+        store.archive(playTournament(first, second, third, fourth), 100);
+        Tournament<TestEntrant> tournament = playTournament(first, second, third, fourth);
+
+        assertThrows(IllegalArgumentException.class, () -> store.archive(tournament, 99));
+    }
+
+    @Test
+    void reopenedStore_getStatistics_returnsSameResults() throws Exception {
+        store.archive(playTournament(first, second, third, fourth), 100);
+        store.archive(playTournament(first, second, third, fourth), 200);
+        store.close();
+
+        store = StatisticsStore.open(directory, codec);
+
+        assertEquals(2, store.getEventCount());
+        assertEquals(4, store.getEntrantCount());
+        assertEquals(4, store.getStatistics(first).getTotal().getWins());
+    }
+
+    @Test
+    void missingHeads_open_findsLastRecordsAgain() throws Exception {
+        store.archive(playTournament(first, second, third, fourth), 100);
+        store.close();
+        assertTrue(new File(directory, "heads.dat").delete());
+
+        store = StatisticsStore.open(directory, codec);
+
+        assertEquals(2, store.getStatistics(first).getTotal().getWins());
+    }
+
+    @Test
+    void partiallyArchivedTournament_open_isDropped() throws Exception {
+        store.archive(playTournament(first, second, third, fourth), 100);
+        store.close();
+
+        // Records without their tournament, as if archiving was interrupted.
+        try (RandomAccessFile file = new RandomAccessFile(new File(directory, "records.dat"), "rw")) {
+            file.seek(file.length());
+            file.write(new byte[100]);
+        }
+
+        store = StatisticsStore.open(directory, codec);
+        store.archive(playTournament(first, second, third, fourth), 200);
+
+        assertEquals(2, store.getEventCount());
+        assertEquals(2, store.getStatistics(fourth).getTotal().getLosses());
+    }
+
+    /**
+     * Plays a tournament of the default format, in which the entrant with the lower ID always wins.
+     */
+    private Tournament<TestEntrant> playTournament(TestEntrant... entrants) throws Exception {
+        Tournament<TestEntrant> tournament = new Tournament<>(new DefaultFormat<>(0));
+        for (TestEntrant entrant : entrants)
+            tournament.addEntrant(entrant);
+
+        while (true) {
+            while (!tournament.getCurrentRound().isFinished()) {
+                Pairing<TestEntrant> pairing = tournament.nextPairing();
+                TestEntrant winner = pairing.getFirst().id() < pairing.getSecond().id()
+                        ? pairing.getFirst() : pairing.getSecond();
+                tournament.declareWinner(winner, pairing);
+            }
+
+            try {
+                tournament.nextRound();
+            }
+            catch (FinalRoundException e) {
+                return tournament;
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package de.j13g.manko.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenwickTreeTest {
+
+    private final FenwickTree tree = new FenwickTree();
+
+    @Test
+    void counts_sum_addsUpToIndex() {
+        tree.add(0, 1);
+        tree.add(3, 2);
+        tree.add(7, 4);
+
+        assertEquals(1, tree.sum(0));
+        assertEquals(1, tree.sum(2));
+        assertEquals(3, tree.sum(3));
+        assertEquals(7, tree.sum(100));
+        assertEquals(6, tree.sumFrom(1));
+        assertEquals(0, tree.sum(-1));
+    }
+
+    @Test
+    void largeIndex_add_growsTree() {
+        tree.add(5, 1);
+        tree.add(1000, 3);
+
+        assertEquals(1, tree.sum(999));
+        assertEquals(4, tree.sum(1000));
+        assertEquals(4, tree.total());
+    }
+
+    @Test
+    void randomCounts_sum_matchesNaiveSums() {
+        Random random = new Random(0);
+        long[] counts = new long[500];
+
+        for (int i = 0; i < 2000; ++i) {
+            int index = random.nextInt(counts.length);
+            long delta = random.nextInt(10) - 3;
+            counts[index] += delta;
+            tree.add(index, delta);
+        }
+
+        long sum = 0;
+        for (int index = 0; index < counts.length; ++index) {
+            sum += counts[index];
+            assertEquals(sum, tree.sum(index));
+        }
+    }
+
+    @Test
+    void negativeIndex_add_throwsIndexOutOfBoundsException() {
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.add(-1, 1));
+    }
+}
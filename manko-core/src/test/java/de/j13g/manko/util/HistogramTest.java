@@ -0,0 +1,50 @@
+package de.j13g.manko.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistogramTest {
+
+    private final Histogram histogram = new Histogram();
+
+    @Test
+    void emptyHistogram_hasZeroStatistics() {
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    void smallValues_areRecordedExactly() {
+        for (int i = 0; i < 8; ++i)
+            histogram.record(i);
+
+        assertEquals(8, histogram.getCount());
+        assertEquals(0, histogram.getMin());
+        assertEquals(7, histogram.getMax());
+        assertEquals(3, histogram.getValueAtPercentile(50));
+        assertEquals(3.5, histogram.getMean());
+    }
+
+    @Test
+    void largeValues_percentileWithinRelativePrecision() {
+        for (long value = 1; value <= 1_000_000; ++value)
+            histogram.record(value * 1000);
+
+        long median = histogram.getValueAtPercentile(50);
+        assertTrue(median >= 500_000_000L);
+        assertTrue(median <= 500_000_000L * 9 / 8);
+        assertEquals(1_000_000_000L, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void reset_clearsAllValues() {
+        histogram.record(42);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+}
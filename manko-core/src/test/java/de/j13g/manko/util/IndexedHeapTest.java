@@ -0,0 +1,106 @@
+package de.j13g.manko.util;
+
+import de.j13g.manko.util.exceptions.EmptySetException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexedHeapTest {
+
+    private final IndexedHeap<String> heap = new IndexedHeap<>();
+
+    @Test
+    void elements_poll_returnsSmallestKeyFirst() {
+        heap.add("c", 30);
+        heap.add("a", 10);
+        heap.add("b", 20);
+
+        assertEquals("a", heap.peek());
+        assertEquals("a", heap.poll());
+        assertEquals("b", heap.poll());
+        assertEquals("c", heap.poll());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    void sameKey_poll_returnsInOrderOfAdding() {
+        heap.add("first", 5);
+        heap.add("second", 5);
+        heap.add("third", 5);
+
+        assertEquals("first", heap.poll());
+        assertEquals("second", heap.poll());
+        assertEquals("third", heap.poll());
+    }
+
+    @Test
+    void existingElement_add_returnsFalse() {
+        assertTrue(heap.add("a", 1));
+        assertFalse(heap.add("a", 0));
+        assertEquals(1, heap.size());
+    }
+
+    @Test
+    void middleElement_remove_keepsOrder() {
+        heap.add("a", 1);
+        heap.add("b", 2);
+        heap.add("c", 3);
+        heap.add("d", 4);
+
+        assertTrue(heap.remove("b"));
+        assertFalse(heap.remove("b"));
+        assertFalse(heap.contains("b"));
+        assertEquals("a", heap.poll());
+        assertEquals("c", heap.poll());
+        assertEquals("d", heap.poll());
+    }
+
+    @Test
+    void smallerKey_setKey_movesElementUp() {
+        heap.add("a", 1);
+        heap.add("b", 2);
+        heap.add("c", 3);
+
+        assertTrue(heap.setKey("c", 0));
+        assertFalse(heap.setKey("x", 0));
+        assertEquals("c", heap.poll());
+    }
+
+    @Test
+    void emptyHeap_poll_throwsEmptySetException() {
+        assertNull(heap.peek());
+        assertThrows(EmptySetException.class, heap::poll);
+    }
+
+    @Test
+    void randomOperations_poll_matchesPriorityQueue() {
+        Random random = new Random(0);
+        IndexedHeap<Integer> indexedHeap = new IndexedHeap<>();
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) ->
+                a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(a[2], b[2]));
+        List<Integer> present = new ArrayList<>();
+
+        for (int i = 0; i < 2000; ++i) {
+            if (present.isEmpty() || random.nextInt(3) > 0) {
+                long key = random.nextInt(50);
+                indexedHeap.add(i, key);
+                queue.add(new long[] { i, key, i });
+                present.add(i);
+            }
+            else {
+                Integer removed = present.remove(random.nextInt(present.size()));
+                indexedHeap.remove(removed);
+                queue.removeIf(entry -> entry[0] == removed);
+            }
+        }
+
+        while (!queue.isEmpty())
+            assertEquals((int) queue.poll()[0], indexedHeap.poll());
+        assertTrue(indexedHeap.isEmpty());
+    }
+}
@@ -0,0 +1,71 @@
+package de.j13g.manko.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static de.j13g.manko.Helper.serializeDeserialize;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ObjectIntMapTest {
+
+    private final ObjectIntMap<Integer> map = new ObjectIntMap<>();
+
+    @Test
+    void missingKey_get_returnsDefaultValue() {
+        map.put(1, 10);
+
+        assertEquals(10, map.get(1, -1));
+        assertEquals(-1, map.get(2, -1));
+        assertEquals(-1, map.find(2));
+    }
+
+    @Test
+    void equalKey_keyAt_returnsInsertedKey() {
+        String inserted = new String("key");
+        ObjectIntMap<String> strings = new ObjectIntMap<>();
+        strings.insert(inserted, 1);
+
+        assertSame(inserted, strings.keyAt(strings.find("key")));
+    }
+
+    @Test
+    void randomOperations_matchHashMap() {
+        Map<Integer, Integer> reference = new HashMap<>();
+        Random random = new Random(0);
+
+        // Few distinct keys, so removals shift colliding entries back.
+        for (int i = 0; i < 10000; ++i) {
+            int key = random.nextInt(200);
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                reference.put(key, i);
+            }
+            else {
+                assertEquals(reference.remove(key) != null, map.remove(key));
+            }
+        }
+
+        assertEquals(reference.size(), map.size());
+        for (int key = 0; key < 200; ++key)
+            assertEquals(reference.getOrDefault(key, -1), map.get(key, -1));
+    }
+
+    @Test
+    void serializedMap_get_returnsSameValues() throws Exception {
+        for (int key = 0; key < 100; ++key)
+            map.put(key, key * 2);
+        map.remove(50);
+
+        @SuppressWarnings("unchecked")
+        ObjectIntMap<Integer> restored = serializeDeserialize(map, ObjectIntMap.class);
+
+        assertEquals(99, restored.size());
+        assertEquals(-1, restored.get(50, -1));
+        for (int key = 0; key < 100; ++key)
+            if (key != 50)
+                assertEquals(key * 2, restored.get(key, -1));
+    }
+}
@@ -0,0 +1,62 @@
+package de.j13g.manko.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrefixIndexTest {
+
+    private final PrefixIndex<Integer> index = new PrefixIndex<>();
+
+    @BeforeEach
+    void init() {
+        index.put("Alice", 1);
+        index.put("alfred", 2);
+        index.put("Bob", 3);
+        index.put("al", 4);
+    }
+
+    @Test
+    void prefix_withPrefix_returnsMatchingValuesByName() {
+        assertEquals(Arrays.asList(4, 2, 1), new ArrayList<>(index.withPrefix("AL")));
+        assertEquals(Collections.singletonList(1), new ArrayList<>(index.withPrefix("ali")));
+    }
+
+    @Test
+    void emptyPrefix_withPrefix_returnsAllValues() {
+        assertEquals(4, index.withPrefix("").size());
+    }
+
+    @Test
+    void unknownPrefix_withPrefix_isEmpty() {
+        assertTrue(index.withPrefix("c").isEmpty());
+        assertTrue(index.withPrefix("bobby").isEmpty());
+    }
+
+    @Test
+    void maxCharacterPrefix_withPrefix_includesLongerNames() {
+        String prefix = "x" + Character.MAX_VALUE;
+        index.put(prefix + "y", 5);
+
+        assertEquals(Collections.singletonList(5), new ArrayList<>(index.withPrefix(prefix)));
+    }
+
+    @Test
+    void differentCase_get_returnsValue() {
+        assertEquals(3, index.get("BOB"));
+        assertEquals(1, index.putIfAbsent("alice", 6));
+    }
+
+    @Test
+    void otherValue_remove_keepsName() {
+        assertFalse(index.remove("bob", 1));
+        assertTrue(index.remove("Bob", 3));
+        assertNull(index.get("bob"));
+        assertEquals(3, index.size());
+    }
+}
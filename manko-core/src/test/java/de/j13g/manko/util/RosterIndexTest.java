@@ -0,0 +1,65 @@
+package de.j13g.manko.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RosterIndexTest {
+
+    private final RosterIndex<String, Integer> index = new RosterIndex<>();
+
+    @Test
+    void members_getMembers_inOrderOfJoining() {
+        index.add("red", 3);
+        index.add("red", 1);
+        index.add("red", 2);
+
+        assertEquals(Arrays.asList(3, 1, 2), new ArrayList<>(index.getMembers("red")));
+        assertEquals("red", index.getTeam(1));
+    }
+
+    @Test
+    void memberOfOtherTeam_add_movesMember() {
+        index.add("red", 1);
+
+        assertEquals("red", index.add("blue", 1));
+        assertEquals("blue", index.getTeam(1));
+        assertTrue(index.getMembers("red").isEmpty());
+        assertFalse(index.getTeams().contains("red"));
+    }
+
+    @Test
+    void memberOfSameTeam_add_keepsMember() {
+        index.add("red", 1);
+
+        assertEquals("red", index.add("red", 1));
+        assertEquals(1, index.getMembers("red").size());
+    }
+
+    @Test
+    void member_remove_leavesTeam() {
+        index.add("red", 1);
+        index.add("red", 2);
+
+        assertEquals("red", index.remove(1));
+        assertNull(index.remove(1));
+        assertNull(index.getTeam(1));
+        assertEquals(Arrays.asList(2), new ArrayList<>(index.getMembers("red")));
+    }
+
+    @Test
+    void team_removeTeam_removesMembers() {
+        index.add("red", 1);
+        index.add("red", 2);
+        index.add("blue", 3);
+
+        assertEquals(2, index.removeTeam("red").size());
+        assertNull(index.getTeam(1));
+        assertNull(index.getTeam(2));
+        assertEquals("blue", index.getTeam(3));
+        assertTrue(index.removeTeam("red").isEmpty());
+    }
+}
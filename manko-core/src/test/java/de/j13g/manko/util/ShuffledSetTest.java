@@ -8,6 +8,7 @@ import java.util.*;
 
 import static de.j13g.manko.Helper.assertSerializable;
 import static de.j13g.manko.Helper.assertSuppliesAll;
+import static de.j13g.manko.Helper.serializeDeserialize;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ShuffledSetTest {
@@ -87,6 +88,26 @@ public class ShuffledSetTest {
         });
     }
 
+    @Test
+    void sameSeed_removeRandom_removesInSameOrder() throws Exception {
+        ShuffledSet<Integer> set = new ShuffledSet<>(elements, new Random(42));
+        ShuffledSet<Integer> other = new ShuffledSet<>(elements, new Random(42));
+
+        for (int i = 0; i < elements.size(); ++i)
+            assertEquals(set.removeRandom(), other.removeRandom());
+    }
+
+    @Test
+    void serializedSet_removeRandom_continuesSameSequence() throws Exception {
+        ShuffledSet<Integer> set = new ShuffledSet<>(elements, new Random(42));
+        set.removeRandom();
+
+        @SuppressWarnings("unchecked")
+        ShuffledSet<Integer> restored = serializeDeserialize(set, ShuffledSet.class);
+        for (int i = 1; i < elements.size(); ++i)
+            assertEquals(set.removeRandom(), restored.removeRandom());
+    }
+
     @Test
     void shuffledSet_isSerializable() {
         multiElementSet.remove(element);
@@ -0,0 +1,130 @@
+package de.j13g.manko.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static de.j13g.manko.Helper.serializeDeserialize;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UniformPairBiSetTest {
+
+    private final Integer first = 1;
+    private final Integer second = 2;
+    private final Integer third = 3;
+
+    private final UniformPair<Integer> pair = new UniformPair<>(first, second);
+    private final UniformPair<Integer> otherPair = new UniformPair<>(first, third);
+
+    private UniformPairLinkedBiSet<Integer, UniformPair<Integer>> set;
+
+    @BeforeEach
+    void init() {
+        set = new UniformPairLinkedBiSet<>();
+        set.add(pair);
+        set.add(otherPair);
+    }
+
+    @Test
+    void twoPairs_findByElement_returnsPairsInOrder() {
+        assertEquals(Arrays.asList(pair, otherPair), new ArrayList<>(set.findByElement(first)));
+        assertEquals(Collections.singleton(pair), set.findByElement(second));
+        assertTrue(set.findByElement(4).isEmpty());
+    }
+
+    @Test
+    void twoPairs_findLastByElement_returnsLastPair() {
+        assertEquals(otherPair, set.findLastByElement(first));
+        assertEquals(pair, set.findLastByElement(second));
+        assertNull(set.findLastByElement(4));
+    }
+
+    @Test
+    void removeLastPair_findLastByElement_returnsPreviousPair() {
+        set.remove(otherPair);
+        assertEquals(pair, set.findLastByElement(first));
+        assertFalse(set.getPairElementSet().contains(third));
+    }
+
+    @Test
+    void twoPairs_removeByElement_removesAllPairsOfElement() {
+        Set<UniformPair<Integer>> removed = set.removeByElement(first);
+        assertEquals(new HashSet<>(Arrays.asList(pair, otherPair)), removed);
+        assertTrue(set.isEmpty());
+        assertTrue(set.getPairElementSet().isEmpty());
+    }
+
+    @Test
+    void pairWithSameElements_addAndRemove_isEmpty() {
+        UniformPair<Integer> samePair = new UniformPair<>(third, third);
+        set.clear();
+        assertTrue(set.add(samePair));
+        assertEquals(1, set.findByElement(third).size());
+        assertTrue(set.remove(samePair));
+        assertTrue(set.getPairElementSet().isEmpty());
+    }
+
+    @Test
+    void manyPairs_addAndRemove_indexStaysConsistent() {
+        Random random = new Random(0);
+        UniformPairBiSet<Integer, UniformPair<Integer>> manySet = new UniformPairBiSet<>();
+        HashMap<Integer, List<UniformPair<Integer>>> expected = new HashMap<>();
+        List<UniformPair<Integer>> pairs = new ArrayList<>();
+
+        for (int i = 0; i < 5000; ++i) {
+            if (!pairs.isEmpty() && random.nextInt(3) == 0) {
+                UniformPair<Integer> removed = pairs.remove(random.nextInt(pairs.size()));
+                assertTrue(manySet.remove(removed));
+                for (Integer element : Arrays.asList(removed.getFirst(), removed.getSecond()))
+                    expected.computeIfPresent(element, (k, v) -> { v.remove(removed); return v.isEmpty() ? null : v; });
+                continue;
+            }
+
+            UniformPair<Integer> added = new UniformPair<>(random.nextInt(200), 200 + random.nextInt(200));
+            if (!manySet.add(added))
+                continue;
+
+            pairs.add(added);
+            expected.computeIfAbsent(added.getFirst(), k -> new ArrayList<>()).add(added);
+            expected.computeIfAbsent(added.getSecond(), k -> new ArrayList<>()).add(added);
+        }
+
+        assertEquals(expected.keySet(), manySet.getPairElementSet());
+        for (Map.Entry<Integer, List<UniformPair<Integer>>> entry : expected.entrySet()) {
+            List<UniformPair<Integer>> expectedPairs = entry.getValue();
+            assertEquals(expectedPairs, new ArrayList<>(manySet.findByElement(entry.getKey())));
+            assertEquals(expectedPairs.get(expectedPairs.size() - 1), manySet.findLastByElement(entry.getKey()));
+        }
+    }
+
+    @Test
+    void removeDuringIteration_findByElement_throwsConcurrentModificationException() {
+        Iterator<UniformPair<Integer>> it = set.findByElement(first).iterator();
+        it.next();
+        set.remove(pair);
+
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+
+    @Test
+    void addDuringIteration_elements_throwsConcurrentModificationException() {
+        Iterator<Integer> it = set.getPairElementSet().iterator();
+        it.next();
+        set.add(new UniformPair<>(4, 5));
+
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+
+    @Test
+    void twoPairs_serializeDeserialize_keepsIndex() throws Exception {
+        UniformPairLinkedBiSet<?, ?> result = serializeDeserialize(set, UniformPairLinkedBiSet.class);
+        @SuppressWarnings("unchecked")
+        UniformPairLinkedBiSet<Integer, UniformPair<Integer>> copy =
+                (UniformPairLinkedBiSet<Integer, UniformPair<Integer>>) result;
+
+        assertEquals(set, copy);
+        assertEquals(otherPair, copy.findLastByElement(first));
+        assertEquals(set.getPairElementSet(), copy.getPairElementSet());
+    }
+}
@@ -0,0 +1,39 @@
+package de.j13g.manko;
+
+import de.j13g.manko.fabric.Player;
+import de.j13g.manko.fabric.ServerCommands;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.command.v1.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+public class Manko implements ModInitializer {
+
+	private static ServerCommands commands;
+
+	@Override
+	public void onInitialize() {
+
+		// Clients hold their own tournament, see MankoClient.
+		// Only a dedicated server holds the tournament for everyone.
+		if (FabricLoader.getInstance().getEnvironmentType() != EnvType.SERVER)
+			return;
+
+		commands = new ServerCommands(FabricLoader.getInstance().getGameDir().toFile());
+
+		CommandRegistrationCallback.EVENT.register((dispatcher, dedicated) -> {
+			if (dedicated)
+				commands.registerCommands(dispatcher);
+		});
+
+		// Resolve player names with the players that are currently online.
+		ServerLifecycleEvents.SERVER_STARTED.register(server -> Player.setResolver(name -> {
+			ServerPlayerEntity player = server.getPlayerManager().getPlayer(name);
+			return player != null ? player.getUuid() : null;
+		}));
+
+		ServerLifecycleEvents.SERVER_STOPPING.register(server -> commands.saveState());
+	}
+}
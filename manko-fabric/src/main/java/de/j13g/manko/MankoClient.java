@@ -0,0 +1,56 @@
+package de.j13g.manko;
+
+import de.j13g.manko.fabric.ClientCommands;
+import de.j13g.manko.fabric.Commands;
+import de.j13g.manko.fabric.Player;
+import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.command.v1.ClientCommandManager;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.screen.ChatScreen;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.client.network.PlayerListEntry;
+import net.minecraft.client.options.KeyBinding;
+import net.minecraft.client.util.InputUtil;
+import org.lwjgl.glfw.GLFW;
+
+public class MankoClient implements ClientModInitializer {
+
+	private static ClientCommands commands;
+
+	private static KeyBinding keyOpenCommand;
+
+	@Override
+	public void onInitializeClient() {
+
+		commands = new ClientCommands(MinecraftClient.getInstance().runDirectory);
+
+		// Resolve player names with the player list of the current server.
+		Player.setResolver(name -> {
+			ClientPlayNetworkHandler networkHandler = MinecraftClient.getInstance().getNetworkHandler();
+			if (networkHandler == null)
+				return null;
+
+			PlayerListEntry entry = networkHandler.getPlayerListEntry(name);
+			return entry != null ? entry.getProfile().getId() : null;
+		});
+
+		keyOpenCommand = KeyBindingHelper.registerKeyBinding(new KeyBinding(
+				"key.manko.tournament",
+				InputUtil.Type.KEYSYM,
+				GLFW.GLFW_KEY_UNKNOWN,
+				"category.manko.tournament"
+		));
+
+		ClientTickEvents.END_CLIENT_TICK.register(client -> {
+			while (keyOpenCommand.wasPressed())
+				client.openScreen(new ChatScreen("/" + Commands.PREFIX_SHORT));
+		});
+
+		ClientLifecycleEvents.CLIENT_STOPPING.register(client -> commands.saveState());
+
+		commands.registerCommands(ClientCommandManager.DISPATCHER);
+	}
+}
@@ -0,0 +1,42 @@
+package de.j13g.manko.fabric;
+
+import com.mojang.brigadier.context.CommandContext;
+import net.fabricmc.fabric.api.client.command.v1.FabricClientCommandSource;
+import net.minecraft.command.EntitySelector;
+import net.minecraft.text.Text;
+
+import java.io.File;
+
+/**
+ * Tournament commands that are only available to the client.
+ * The tournament is held and saved on the client's machine.
+ */
+public class ClientCommands extends Commands<FabricClientCommandSource> {
+
+    public ClientCommands(File directory) {
+        super(directory);
+    }
+
+    @Override
+    protected void sendFeedback(FabricClientCommandSource source, Text message) {
+        source.sendFeedback(message);
+    }
+
+    @Override
+    protected void sendError(FabricClientCommandSource source, Text message) {
+        source.sendError(message);
+    }
+
+    @Override
+    protected void sendChatMessage(FabricClientCommandSource source, String message) {
+        source.getPlayer().sendChatMessage(message);
+    }
+
+    @Override
+    protected Player getPlayer(CommandContext<FabricClientCommandSource> context, String name) {
+        // Entity selectors cannot be resolved on the client,
+        // so the name that was entered is used instead.
+        EntitySelector playerSelector = context.getArgument(name, EntitySelector.class);
+        return Player.fromEntitySelector(playerSelector);
+    }
+}
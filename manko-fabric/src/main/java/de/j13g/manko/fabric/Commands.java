@@ -0,0 +1,2695 @@
+package de.j13g.manko.fabric;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.arguments.ArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.builder.RequiredArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Placement;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.annotations.UnsupportedOperation;
+import de.j13g.manko.core.base.EliminationRound;
+import de.j13g.manko.core.base.FinalRound;
+import de.j13g.manko.core.base.RankingRound;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.base.TournamentFormat;
+import de.j13g.manko.core.diagnostics.MemoryReport;
+import de.j13g.manko.core.export.TournamentExporter;
+import de.j13g.manko.core.exceptions.*;
+import de.j13g.manko.core.formats.DefaultFormat;
+import de.j13g.manko.core.formats.TableFormat;
+import de.j13g.manko.core.managers.base.Pairings;
+import de.j13g.manko.core.rounds.DynamicElimination;
+import de.j13g.manko.core.rounds.Final;
+import de.j13g.manko.core.rounds.RollingElimination;
+import de.j13g.manko.core.rounds.RoundRobinFinal;
+import de.j13g.manko.core.rounds.SemiFinal;
+import de.j13g.manko.core.statistics.EntrantStatistics;
+import de.j13g.manko.core.statistics.FullRanking;
+import de.j13g.manko.core.statistics.SeasonLeaderboard;
+import de.j13g.manko.core.statistics.StatisticsStore;
+import de.j13g.manko.fabric.arguments.CollectionValuesArgumentType;
+import de.j13g.manko.fabric.arguments.EntrantArgumentType;
+import de.j13g.manko.fabric.arguments.EntrantArgumentTypeFactory;
+import de.j13g.manko.fabric.arguments.EnumValuesArgumentType;
+import de.j13g.manko.util.Histogram;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.argument.EntityArgumentType;
+import net.minecraft.text.LiteralText;
+import net.minecraft.text.Text;
+
+import java.io.*;
+import java.lang.reflect.Method;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+
+// TODO This class needs a cleanup.
+/**
+ * Glues minecraft commands with tournament actions.
+ * Subclasses connect these commands with either the client or the server.
+ * Messages should be unobtrusive and have the same color and format whenever possible.
+ * Errors indicate that the command failed and could not be performed. They are red.
+ * Warnings indicate that the desired state is already achieved. They are yellow.
+ * Player names are written in a different but consistent color.
+ * When a player's state changed by a command, their name should be underlined.
+ */
+public abstract class Commands<S extends CommandSource> {
+
+    private static class State implements Serializable {
+
+        public String activeTournament = null;
+        public final HashMap<Event, String> onEventTemplates = new HashMap<>();
+        public final HashMap<String, String> customCommands = new HashMap<>();
+    }
+
+    public static final String PREFIX = "tournament:";
+    public static final String PREFIX_SHORT = "t:";
+
+    private static final String RESET_TERMINAL = "-";
+
+    private static final int INFO_PAGE_SIZE = 20;
+
+    private static final String SERIALIZE_FILE = "manko.ser";
+    private static final String SERIALIZE_FILE_BAK = SERIALIZE_FILE + ".bak";
+    private static final String SERIALIZE_FILE_TMP = SERIALIZE_FILE + ".tmp";
+
+    private static final String TOURNAMENT_DIRECTORY = "tournaments";
+    private static final String DEFAULT_TOURNAMENT = "default";
+
+    /** Tournaments that have not been used for this long are unloaded. */
+    private static final long MAX_IDLE_NANOS = 10 * 60 * 1_000_000_000L;
+
+    private static final String FORMAT_DIRECTORY = "formats";
+    private static final String FORMAT_FILE_EXTENSION = ".format";
+
+    private static final String STATISTICS_DIRECTORY = "statistics";
+    private static final String SEASON_FILE = "manko-season.dat";
+
+    /** The number of opponents and tournaments that are listed in the statistics of a player. */
+    private static final int STATISTICS_LIST_SIZE = 5;
+
+    private static final String METRICS_FILE = "manko-metrics.csv";
+    private static final String EXPORT_FILE = "manko-export";
+
+
+    private final File directory;
+
+    private final CompletableFuture<State> stateFuture;
+    private State state = null;
+
+    private long loadNanos = 0;
+
+    /** Must only be used by the loader thread or after the state was loaded. */
+    private final TournamentRegistry registry;
+
+    /** The tournament that was selected for the current command with "in" or null. */
+    private String tournamentOverride = null;
+
+    private final Metrics metrics = new Metrics();
+
+    /** Opened on first use. */
+    private StatisticsStore<Player> statistics = null;
+    /** Loaded on first use. */
+    private SeasonLeaderboard<Player> season = null;
+    /** Follows the selected tournament, attached on first use. */
+    private final FullRanking<Player> ranking =
+            new FullRanking<>(FullRanking.TieBreaker.WINS, FullRanking.TieBreaker.LOSSES);
+
+    private TournamentExporter<Player> exporter = null;
+    private Tournament<Player> exportedTournament = null;
+    private String exportedTournamentName = null;
+
+    /**
+     * Loads the state of a previous session in the background, if there is one.
+     * @param directory The directory in which the state is stored.
+     */
+    protected Commands(File directory) {
+        this.directory = directory;
+
+        // Only the headers of tournaments are read while the game is starting, list shows them.
+        registry = new TournamentRegistry(new File(directory, TOURNAMENT_DIRECTORY), DefaultFormat::new, metrics);
+
+        stateFuture = CompletableFuture.supplyAsync(this::loadAndRecoverState, runnable -> {
+            Thread thread = new Thread(runnable, "Manko State Loader");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * Gets the state, waiting for it to be loaded if needed.
+     * @return The state.
+     */
+    private State state() {
+        if (state == null) {
+            state = stateFuture.join();
+            metrics.get("load").record(loadNanos);
+        }
+
+        return state;
+    }
+
+    /**
+     * Runs on the loader thread. Fields that are set here are visible
+     * to the command thread once it joined the state future.
+     * @return The loaded state.
+     */
+    private State loadAndRecoverState() {
+        long start = System.nanoTime();
+
+        State loadedState = loadState();
+        if (loadedState == null)
+            loadedState = new State();
+
+        // The active tournament is likely used next.
+        if (loadedState.activeTournament != null) {
+            try {
+                registry.get(loadedState.activeTournament);
+            }
+            catch (IOException e) {
+                System.err.printf("Could not load tournament %s: %s.%n", loadedState.activeTournament, e.getMessage());
+            }
+        }
+
+        loadNanos = System.nanoTime() - start;
+        return loadedState;
+    }
+
+    /**
+     * Sends a message only to the source of a command.
+     * @param source The command source.
+     * @param message The message.
+     */
+    protected abstract void sendFeedback(S source, Text message);
+
+    /**
+     * Sends an error message only to the source of a command.
+     * @param source The command source.
+     * @param message The error message.
+     */
+    protected abstract void sendError(S source, Text message);
+
+    /**
+     * Sends a message or command in the name of the source of a command.
+     * Messages are visible to all players.
+     * @param source The command source.
+     * @param message The chat message or command.
+     */
+    protected abstract void sendChatMessage(S source, String message);
+
+    /**
+     * Gets the player that was passed to a player argument.
+     * @param context The command context.
+     * @param name The name of the argument.
+     * @return The player.
+     * @throws CommandSyntaxException The argument does not denote a single player.
+     */
+    protected abstract Player getPlayer(CommandContext<S> context, String name) throws CommandSyntaxException;
+
+    /**
+     * @param source The command source.
+     * @return If the source is allowed to use tournament commands.
+     */
+    protected boolean canUse(S source) {
+        return true;
+    }
+
+    private State loadState() {
+        File serializeFile = new File(directory, SERIALIZE_FILE);
+        if (!serializeFile.exists())
+            return null;
+
+        FileInputStream inputStream;
+        try {
+            inputStream = new FileInputStream(serializeFile);
+        }
+        catch (FileNotFoundException e) {
+            System.err.printf("Could not open state file: %s.", e.getMessage());
+            return null;
+        }
+
+        Object deserializedState;
+        try {
+            ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(inputStream));
+            deserializedState = in.readObject();
+            in.close();
+        }
+        catch (IOException e) {
+            System.err.printf("Could not deserialize saved state: %s.", e.getMessage());
+            return null;
+        }
+        catch (ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+
+        if (!(deserializedState instanceof State))
+            throw new RuntimeException("Deserialized object has wrong class type.");
+
+        return (State) deserializedState;
+    }
+
+    /**
+     * Saves the current state and all loaded tournaments, e.g. before the game is stopped.
+     * Errors are printed since there might not be anyone to inform.
+     */
+    public void saveState() {
+        // The state cannot have changed if it was never used.
+        if (state == null)
+            return;
+
+        try {
+            writeState();
+            registry.saveAll();
+        }
+        catch (IOException e) {
+            System.err.printf("Failed to write state: %s.%n", e.getMessage());
+        }
+    }
+
+    private void saveState(CommandContext<S> ctx) {
+        try {
+            writeState();
+        }
+        catch (IOException e) {
+            error(ctx, format("Failed to write state: %s", e.getMessage()));
+        }
+    }
+
+    private void writeState() throws IOException {
+        long start = System.nanoTime();
+        try {
+            writeStateFile();
+        }
+        finally {
+            metrics.recordSince("save", start);
+        }
+    }
+
+    private void writeStateFile() throws IOException {
+        File serializeFile = new File(directory, SERIALIZE_FILE);
+        File serializeFileTmp = new File(directory, SERIALIZE_FILE_TMP);
+
+        // The state is written to a temporary file first,
+        // so a crash while writing never leaves a truncated state behind.
+        try (FileOutputStream fileOut = new FileOutputStream(serializeFileTmp)) {
+            ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(fileOut));
+            long start = System.nanoTime();
+            out.writeObject(state());
+            out.flush();
+            metrics.recordSince("serialize", start);
+
+            fileOut.getFD().sync();
+        }
+
+        if (serializeFile.exists()) {
+            File serializeFileBak = new File(directory, SERIALIZE_FILE_BAK);
+            Files.copy(serializeFile.toPath(), serializeFileBak.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        try {
+            Files.move(serializeFileTmp.toPath(), serializeFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(serializeFileTmp.toPath(), serializeFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private enum Event {
+
+        PAIRING;
+
+        @Override
+        public String toString() {
+            return super.toString().toLowerCase();
+        }
+    }
+
+    private enum ExportFormat {
+
+        CSV("csv"),
+        JSON("jsonl");
+
+        private final String extension;
+
+        ExportFormat(String extension) {
+            this.extension = extension;
+        }
+
+        @Override
+        public String toString() {
+            return super.toString().toLowerCase();
+        }
+    }
+
+    private enum InfoType {
+
+        PARTICIPANTS,
+        SUMMARY,
+        TIMING;
+
+        @Override
+        public String toString() {
+            return super.toString().toLowerCase();
+        }
+    }
+
+    private enum ByeOption {
+
+        HOLD(DynamicElimination.ByePolicy.HOLD),
+        ADVANCE(DynamicElimination.ByePolicy.ADVANCE),
+        LUCKY_LOSER(DynamicElimination.ByePolicy.LUCKY_LOSER);
+
+        public final DynamicElimination.ByePolicy policy;
+
+        ByeOption(DynamicElimination.ByePolicy policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public String toString() {
+            return super.toString().toLowerCase().replace('_', '-');
+        }
+    }
+
+    private enum PairingOption {
+
+        RANDOM(DynamicElimination.PairingPolicy.RANDOM),
+        LONGEST_WAITING(DynamicElimination.PairingPolicy.LONGEST_WAITING);
+
+        public final DynamicElimination.PairingPolicy policy;
+
+        PairingOption(DynamicElimination.PairingPolicy policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public String toString() {
+            return super.toString().toLowerCase().replace('_', '-');
+        }
+    }
+
+    private enum EntrantState {
+
+        ALL,
+        PENDING,
+        PAIRED,
+        WON,
+        LOST;
+
+        public boolean includes(EntrantState state) {
+            return this == ALL || this == state;
+        }
+
+        @Override
+        public String toString() {
+            return super.toString().toLowerCase();
+        }
+    }
+
+    public void registerCommands(CommandDispatcher<S> dispatcher) {
+        Arrays.asList(PREFIX, PREFIX_SHORT).forEach(prefix -> registerCommands(dispatcher, prefix));
+    }
+
+    private void registerCommands(CommandDispatcher<S> dispatcher, String prefix) {
+
+        final EntrantArgumentTypeFactory entrantArgument = new EntrantArgumentTypeFactory(this::parsedTournament,
+                metrics.get("suggest"));
+
+        new EnumValuesArgumentType<>(InfoType.class);
+
+        dispatcher.register(
+                literal(prefix, "new")
+                        .then(argument("name", StringArgumentType.word())
+                                .then(LiteralArgumentBuilder.<S>literal("rolling")
+                                        .executes(handle("new", this::cNewRolling)))
+                                .then(LiteralArgumentBuilder.<S>literal("format")
+                                        .then(argument("format", CollectionValuesArgumentType.collection(this::getFormatNames))
+                                                .executes(handle("new", this::cNewWithFormat))))
+                                .executes(handle("new", this::cNew)))
+                        .executes(handle("new", this::cNew))
+        );
+
+        dispatcher.register(
+                literal(prefix, "use")
+                        .then(argument("tournament", CollectionValuesArgumentType.collection(() -> tournaments().getNames()))
+                                .executes(handle("use", this::cUse)))
+        );
+
+        dispatcher.register(
+                literal(prefix, "list")
+                        .executes(handle("list", this::cList))
+        );
+
+        // Runs any command for another tournament than the active one.
+        // Every command is wrapped by handle, which clears the selection once the command ran.
+        dispatcher.register(
+                literal(prefix, "in")
+                        .then(argument("tournament", CollectionValuesArgumentType.collection(() -> tournaments().getNames()))
+                                .redirect(dispatcher.getRoot(), ctx -> {
+                                    tournamentOverride = CollectionValuesArgumentType.getValue("tournament", String.class, ctx);
+                                    return ctx.getSource();
+                                }))
+        );
+
+        dispatcher.register(
+                literal(prefix, "stop")
+                        .executes(handle("stop", this::cStop))
+        );
+
+        dispatcher.register(
+                literal(prefix, "add").then(
+                        argument("player", EntityArgumentType.player())
+                                .executes(handle("add", this::cAdd)))
+        );
+
+        dispatcher.register(
+                literal(prefix, "team")
+                        .then(argument("team", StringArgumentType.word())
+                                .then(LiteralArgumentBuilder.<S>literal("add")
+                                        .then(argument("player", EntityArgumentType.player())
+                                                .executes(handle("team", this::cTeamAdd))))
+                                .then(LiteralArgumentBuilder.<S>literal("remove")
+                                        .then(argument("player", EntityArgumentType.player())
+                                                .executes(handle("team", this::cTeamRemove))))
+                                .executes(handle("team", this::cTeam)))
+        );
+
+        dispatcher.register(
+                literal(prefix, "remove").then(
+                        argument("participant", entrantArgument.entrant())
+                                .executes(handle("remove", this::cRemove)))
+        );
+
+        dispatcher.register(
+                literal(prefix, "pair").executes(handle("pair", this::cPair))
+        );
+
+        dispatcher.register(
+                literal(prefix, "win").then(
+                        argument("participant", entrantArgument.paired())
+                                .executes(handle("win", this::cWin)))
+        );
+
+        dispatcher.register(
+                literal(prefix, "game")
+                        .then(argument("participant", entrantArgument.entrant())
+                                .then(LiteralArgumentBuilder.<S>literal("undo")
+                                        .executes(handle("game", this::cGameUndo)))
+                                .executes(handle("game", this::cGame)))
+        );
+
+        dispatcher.register(
+                literal(prefix, "bestof")
+                        .then(argument("games", IntegerArgumentType.integer(1, 99))
+                                .executes(handle("bestof", this::cBestOf)))
+        );
+
+        dispatcher.register(
+                literal(prefix, "replay")
+                        .then(argument("participant", entrantArgument.finished())
+                                .then(argument("opponent", entrantArgument.pairedWithArgument("participant"))
+                                        .executes(handle("replay", this::cReplay))))
+        );
+
+        // TODO Replay last pairing without arguments.
+
+        dispatcher.register(
+                literal(prefix, "reset")
+                        .then(argument("participant", entrantArgument.withResettableState())
+                                .executes(handle("reset", this::cReset)))
+        );
+
+        dispatcher.register(
+                literal(prefix, "next")
+                        .executes(handle("next", this::cNext))
+                        .then(LiteralArgumentBuilder.<S>literal("auto")
+                                .executes(handle("next", this::cNextAuto)))
+                        .then(LiteralArgumentBuilder.<S>literal("manual")
+                                .executes(handle("next", this::cNextManual)))
+        );
+
+        dispatcher.register(
+                literal(prefix, "bye")
+                        .then(argument("policy", EnumValuesArgumentType.enumValues(ByeOption.class))
+                                .executes(handle("bye", this::cBye)))
+        );
+
+        dispatcher.register(
+                literal(prefix, "pairing")
+                        .then(argument("policy", EnumValuesArgumentType.enumValues(PairingOption.class))
+                                .executes(handle("pairing", this::cPairing)))
+        );
+
+        dispatcher.register(
+                literal(prefix, "undo")
+                        .executes(handle("undo", this::cUndo))
+        );
+
+        dispatcher.register(
+                literal(prefix, "redo")
+                        .executes(handle("redo", this::cRedo))
+        );
+
+        dispatcher.register(
+                literal(prefix, "info")
+                        .then(argument("topic", EnumValuesArgumentType.enumValues(InfoType.class))
+                                .then(argument("state", EnumValuesArgumentType.enumValues(EntrantState.class))
+                                        .then(argument("page", IntegerArgumentType.integer(1))
+                                                .then(argument("name", StringArgumentType.word())
+                                                        .executes(handle("info", this::cInfo)))
+                                                .executes(handle("info", this::cInfo)))
+                                        .executes(handle("info", this::cInfo)))
+                                .executes(handle("info", this::cInfo)))
+                        .executes(handle("info", this::cInfoDefaultTopic))
+
+        );
+
+        dispatcher.register(
+                literal(prefix, "export")
+                        .then(LiteralArgumentBuilder.<S>literal("stop")
+                                .executes(handle("export stop", this::cExportStop)))
+                        .then(argument("format", EnumValuesArgumentType.enumValues(ExportFormat.class))
+                                .executes(handle("export", this::cExport)))
+        );
+
+        dispatcher.register(
+                literal(prefix, "metrics")
+                        .then(LiteralArgumentBuilder.<S>literal("export")
+                                .executes(handle("metrics export", this::cMetricsExport)))
+                        .then(LiteralArgumentBuilder.<S>literal("reset")
+                                .executes(handle("metrics reset", this::cMetricsReset)))
+                        .executes(handle("metrics", this::cMetrics))
+        );
+
+        dispatcher.register(
+                literal(prefix, "stats")
+                        .then(LiteralArgumentBuilder.<S>literal("memory")
+                                .executes(handle("stats memory", this::cStatsMemory)))
+                        .then(LiteralArgumentBuilder.<S>literal("player")
+                                .then(argument("player", entrantArgument.entrant())
+                                        .then(argument("opponent", entrantArgument.entrant())
+                                                .executes(handle("stats player", this::cStatsHeadToHead)))
+                                        .executes(handle("stats player", this::cStatsPlayer))))
+        );
+
+        dispatcher.register(
+                literal(prefix, "ranking")
+                        .then(LiteralArgumentBuilder.<S>literal("player")
+                                .then(argument("player", entrantArgument.entrant())
+                                        .executes(handle("ranking player", this::cRankingPlayer))))
+                        .then(argument("page", IntegerArgumentType.integer(1))
+                                .executes(handle("ranking", this::cRanking)))
+                        .executes(handle("ranking", this::cRanking))
+        );
+
+        dispatcher.register(
+                literal(prefix, "season")
+                        .then(LiteralArgumentBuilder.<S>literal("reset")
+                                .executes(handle("season reset", this::cSeasonReset)))
+                        .then(argument("player", entrantArgument.entrant())
+                                .executes(handle("season", this::cSeasonPlayer)))
+                        .executes(handle("season", this::cSeason))
+        );
+
+        // Commands
+
+        // %1 -- The first player of the earliest active pairing.
+        // %2 -- The second player of the earliest active pairing.
+
+        dispatcher.register(
+                literal(prefix, "command")
+                        .then(argument("name", StringArgumentType.word())
+                                .then(argument("template", StringArgumentType.greedyString())
+                                        .executes(handle("command", this::cCommand))))
+        );
+
+        dispatcher.register(
+                literal(prefix, "exec")
+                        .then(argument("command", CollectionValuesArgumentType.collection(() -> state().customCommands.keySet()))
+                                .executes(handle("exec", this::cExec)))
+        );
+
+        // Events
+
+        dispatcher.register(
+                literal(prefix, "on")
+                        .then(argument("event", EnumValuesArgumentType.enumValues(Event.class))
+                                .then(argument("template", StringArgumentType.greedyString())
+                                        .executes(handle("on", this::cOnEvent))))
+        );
+
+        // Shortcuts
+
+        // FIXME Does not pick up arguments..
+//        dispatcher.register(literal(prefix, "a").redirect(add));
+    }
+
+    private int cNew(CommandContext<S> ctx) {
+        return cNew(ctx, null, "");
+    }
+
+    private int cNewRolling(CommandContext<S> ctx) {
+        return cNew(ctx, new DefaultFormat<>(new Random().nextLong(), true), " with a rolling elimination");
+    }
+
+    private int cNewWithFormat(CommandContext<S> ctx) {
+        String formatName = CollectionValuesArgumentType.getValue("format", String.class, ctx);
+        File formatFile = new File(new File(directory, FORMAT_DIRECTORY), formatName + FORMAT_FILE_EXTENSION);
+
+        TableFormat<Player> tableFormat;
+        try {
+            tableFormat = TableFormat.load(formatFile, new Random().nextLong());
+        }
+        catch (IOException e) {
+            error(ctx, format("Failed to read the format %s: %s", h(formatName), e.getMessage()));
+            return -1;
+        }
+        catch (InvalidFormatException e) {
+            error(ctx, format("The format %s is invalid. %s.", h(formatName), e.getMessage()));
+            return -1;
+        }
+
+        return cNew(ctx, tableFormat, format(" with the format %s", h(formatName)));
+    }
+
+    /**
+     * @param tournamentFormat The format of the new tournament or null for the default format.
+     * @param description A description of the format for the reply, starting with a space.
+     */
+    private int cNew(CommandContext<S> ctx, TournamentFormat<Player> tournamentFormat, String description) {
+        withoutConfirmation();
+
+        String name = getOptionalArgument(ctx, "name", String.class, DEFAULT_TOURNAMENT).toLowerCase(Locale.ROOT);
+        if (!TournamentRegistry.NAME_PATTERN.matcher(name).matches()) {
+            error(ctx, "Tournament names may only contain letters, digits, _ and -.");
+            return -1;
+        }
+
+        if (tournaments().contains(name)) {
+            error(ctx, format("Cannot create tournament %s, since it already exists.", h(name)));
+            return -1;
+        }
+
+        try {
+            if (tournamentFormat != null)
+                tournaments().create(name, tournamentFormat);
+            else
+                tournaments().create(name);
+        }
+        catch (IOException e) {
+            error(ctx, format("Failed to save the new tournament: %s", e.getMessage()));
+            return -1;
+        }
+
+        state().activeTournament = name;
+        saveState(ctx);
+
+        info(ctx, format("Created a new tournament %s%s.", h(name), description));
+        return 0;
+    }
+
+    private int cStop(CommandContext<S> ctx) {
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        String name = selectedTournamentName();
+
+        if (isConfirmed(Confirmation.STOP, ctx)) {
+            if (name.equals(exportedTournamentName))
+                stopExport();
+
+            // The results of a finished tournament outlive it in the statistics and the season.
+            Round<Player> currentRound = tournament().getCurrentRound();
+            if (currentRound instanceof FinalRound && currentRound.isFinished()) {
+                try {
+                    statistics().archive(tournament(), System.currentTimeMillis());
+                    info(ctx, "The results have been added to the statistics.");
+                }
+                catch (IOException e) {
+                    error(ctx, format("Failed to archive the results: %s", e.getMessage()));
+                    return -2;
+                }
+
+                try {
+                    season().addTournament(tournament());
+                    saveSeason();
+                    info(ctx, "The points have been added to the season.");
+                }
+                catch (IOException e) {
+                    error(ctx, format("Failed to save the season: %s", e.getMessage()));
+                }
+            }
+
+            try {
+                tournaments().delete(name);
+            }
+            catch (IOException e) {
+                error(ctx, format("Failed to delete the tournament: %s", e.getMessage()));
+                return -1;
+            }
+
+            if (name.equals(state().activeTournament)) {
+                state().activeTournament = null;
+                saveState(ctx);
+            }
+
+            info(ctx, format("The tournament %s has been stopped and deleted.", h(name)));
+            return 0;
+        }
+
+        String message = format("You are about to stop and delete the tournament %s.", h(name));
+        warn(ctx, message + i(" Please confirm your action by entering the command again."));
+        return 0;
+    }
+
+    private int cUse(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        String name = CollectionValuesArgumentType.getValue("tournament", String.class, ctx);
+        if (name.equals(state().activeTournament)) {
+            warn(ctx, format("The tournament %s is already active.", h(name)));
+            return 0;
+        }
+
+        state().activeTournament = name;
+        saveState(ctx);
+
+        info(ctx, format("Now using the tournament %s.", hu(name)));
+        return 0;
+    }
+
+    private int cList(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        if (tournaments().getNames().isEmpty()) {
+            warn(ctx, "There are no tournaments.");
+            return 0;
+        }
+
+        info(ctx, "Tournaments:");
+        for (String name : tournaments().getNames()) {
+            TournamentRegistry.Header header = tournaments().getHeader(name);
+            String active = name.equals(state().activeTournament) ? " (active)" : "";
+            info(ctx, format("  %s: round %d, %d participants%s", h(name),
+                    header.getRoundNumber(), header.getEntrantCount(), active));
+        }
+
+        return 0;
+    }
+
+    private int cAdd(CommandContext<S> ctx) throws CommandSyntaxException {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        Player player = getPlayer(ctx, "player");
+
+        Round<Player> currentRound = tournament().getCurrentRound();
+        boolean hadState = currentRound.hasStateAbout(player);
+
+        boolean isAdded;
+        try {
+            isAdded = tournament().addEntrant(player);
+        }
+        catch (NewEntrantsNotAllowedException e) {
+            error(ctx, "Cannot add new players to this round.");
+            return -3;
+        }
+
+        if (!isAdded) {
+            warn(ctx, format("%s already participates in the tournament.", h(player.getName())));
+            return 0;
+        }
+
+        String adverb = hadState ? "back " : "";
+        info(ctx, format("Added %s %sto the tournament.", h(player.getName()), adverb));
+
+        if (currentRound instanceof EliminationRound) {
+            EliminationRound<Player> eliminationRound = (EliminationRound<Player>) currentRound;
+
+            String state = null;
+            if (eliminationRound.isEntrantAdvanced(player))
+                state = "advanced";
+            else if (eliminationRound.isEntrantEliminated(player))
+                state = "eliminated";
+
+            if (state != null) {
+                String message = format("They are still %s.", state);
+                if (currentRound instanceof DynamicElimination || currentRound instanceof RollingElimination)
+                    message += " Reset them if necessary.";
+                info(ctx, message);
+            }
+        }
+
+        return 0;
+    }
+
+    private int cTeam(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        String name = StringArgumentType.getString(ctx, "team");
+        Team team = Team.find(name);
+        if (team == null) {
+            warn(ctx, format("There is no team called %s.", h(name)));
+            return 0;
+        }
+
+        List<Player> members = team.getMembers();
+        if (members.isEmpty()) {
+            info(ctx, format("Team %s has no members.", h(team.getName())));
+            return 0;
+        }
+
+        String names = members.stream().map(Player::getName).collect(Collectors.joining(", "));
+        info(ctx, format("Members of team %s: %s", h(team.getName()), names));
+        return 0;
+    }
+
+    private int cTeamAdd(CommandContext<S> ctx) throws CommandSyntaxException {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        String name = StringArgumentType.getString(ctx, "team");
+        Player player = getPlayer(ctx, "player");
+
+        if (!Player.isValidName(name)) {
+            error(ctx, format("Team names may be at most %d bytes long.", Player.MAX_NAME_BYTES));
+            return -2;
+        }
+
+        Team team = Team.of(name);
+        if (team == null) {
+            error(ctx, format("%s is the name of a player and cannot be used for a team.", h(name)));
+            return -2;
+        }
+        if (player instanceof Team) {
+            error(ctx, format("%s is the name of a team.", h(player.getName())));
+            return -2;
+        }
+
+        Team previousTeam = team.addMember(player);
+        if (previousTeam == team) {
+            warn(ctx, format("%s is already a member of team %s.", h(player.getName()), h(team.getName())));
+            return 0;
+        }
+
+        if (previousTeam != null)
+            info(ctx, format("%s has left team %s.", h(player.getName()), h(previousTeam.getName())));
+        info(ctx, format("Added %s to team %s.", h(player.getName()), h(team.getName())));
+
+        if (tournament().getCurrentRound().hasEntrant(player))
+            warn(ctx, format("%s also participates on their own. Remove them if they should only play in their team.",
+                    h(player.getName())));
+
+        // A team takes part as soon as it has its first member.
+        if (!tournament().getCurrentRound().hasEntrant(team)) {
+            try {
+                tournament().addEntrant(team);
+                info(ctx, format("Added team %s to the tournament.", h(team.getName())));
+            }
+            catch (NewEntrantsNotAllowedException e) {
+                warn(ctx, format("Team %s cannot be added to this round.", h(team.getName())));
+            }
+        }
+
+        return saveRosters(ctx);
+    }
+
+    private int cTeamRemove(CommandContext<S> ctx) throws CommandSyntaxException {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        String name = StringArgumentType.getString(ctx, "team");
+        Player player = getPlayer(ctx, "player");
+
+        Team team = Team.find(name);
+        if (team == null || !team.removeMember(player)) {
+            warn(ctx, format("%s is not a member of team %s.", h(player.getName()), h(name)));
+            return 0;
+        }
+
+        info(ctx, format("Removed %s from team %s.", h(player.getName()), h(team.getName())));
+        if (team.getMembers().isEmpty())
+            info(ctx, format("Team %s has no members left. Remove the team if it should not play anymore.",
+                    h(team.getName())));
+
+        return saveRosters(ctx);
+    }
+
+    /**
+     * Rosters are not part of the result log, but they are saved with the teams in the tournament.
+     */
+    private int saveRosters(CommandContext<S> ctx) {
+        try {
+            tournaments().save(selectedTournamentName());
+        }
+        catch (IOException e) {
+            error(ctx, format("Failed to save the tournament: %s", e.getMessage()));
+            return -3;
+        }
+
+        return 0;
+    }
+
+    private int cRemove(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        Player player = EntrantArgumentType.getPlayer("participant", ctx);
+        Round<Player> currentRound = tournament().getCurrentRound();
+
+        if (currentRound.isEntrantPaired(player)) {
+            Pairing<Player> pairing = currentRound.getLastPairing(player);
+            Player opponent = pairing.getOther(player);
+            error(ctx, format("%s is currently paired with another participant: %s.",
+                    h(player.getName()), h(opponent.getName())));
+            error(ctx, "First reset one of the players or finish the pairing.");
+            return -2;
+        }
+
+        int roundNumber = tournament().getRoundNumber();
+        if (tournament().removeEntrant(player)) {
+            info(ctx, format("Removed %s from the tournament.", h(player.getName())));
+            announceAutoAdvance(ctx, roundNumber);
+        }
+        else
+            warn(ctx, format("%s does not participate in the tournament.", h(player.getName())));
+
+        return 0;
+    }
+
+    private int cPair(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        int roundNumber = tournament().getRoundNumber();
+
+        Pairing<Player> pairing;
+        try {
+            pairing = tournament().nextPairing();
+        }
+        catch (NoEntrantsException e) {
+            error(ctx, "There are no participants left for another pairing.");
+            return -2;
+        }
+        catch (UnfinishedPairingsException e) {
+            error(ctx, "Running pairings need to be finished first.");
+            return -3;
+        }
+        catch (NoOpponentException e) {
+            Round<Player> currentRound = tournament().getCurrentRound();
+            if (currentRound instanceof RollingElimination && currentRound.getActivePairings().size() > 0) {
+                warn(ctx, "No opponent is free yet. Running pairings need to be finished first.");
+                return -8;
+            }
+
+            if (!(currentRound instanceof EliminationRound))
+                return uncheckedError(ctx, -4);
+
+            EliminationRound<Player> eliminationRound = (EliminationRound<Player>) currentRound;
+            Set<Player> entrants = eliminationRound.getPendingEntrants();
+
+            String playerName = "?";
+            if (entrants.size() >= 1) {
+                assert entrants.size() == 1;
+                playerName = entrants.iterator().next().getName();
+            }
+
+            error(ctx, format("Not enough players. Only %s is left.", h(playerName)));
+            return -5;
+        }
+        catch (NoMorePairingsException e) {
+            Round<Player> currentRound = tournament().getCurrentRound();
+            if (currentRound instanceof RoundRobinFinal) {
+                RoundRobinFinal<Player> roundRobinFinal = (RoundRobinFinal<Player>) currentRound;
+                if (roundRobinFinal.isTie()) {
+                    warn(ctx, "The round is a tie! Everyone has the same score. " +
+                            "Continue to the next round in order to replay the finals.");
+                    return -6;
+                }
+            }
+
+            String message = currentRound.isFinished() ? "The tournament is finished. " : "";
+            error(ctx, message + "There are no more pairings.");
+            return -7;
+        }
+
+        if (pairing == null) {
+            Player player = tournament().getLastByeEntrant();
+            attention(ctx, format("%s advances without an opponent.", hu(player.getName())));
+            announceAutoAdvance(ctx, roundNumber);
+            return 0;
+        }
+
+        String firstName = pairing.getFirst().getName();
+        String secondName = pairing.getSecond().getName();
+
+        attention(ctx, format("Next pairing: %s vs. %s.", hu(firstName), hu(secondName)));
+
+        if (state().onEventTemplates.containsKey(Event.PAIRING)) {
+            String chatMessage = state().onEventTemplates.get(Event.PAIRING);
+            chatMessage = format(chatMessage, firstName, secondName);
+            sendChatMessage(ctx.getSource(), chatMessage);
+        }
+
+        return 0;
+    }
+
+    private int cWin(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        Player player = getEntrant(ctx, "participant");
+        int roundNumber = tournament().getRoundNumber();
+
+        Pairing<Player> pairing;
+        try {
+            pairing = tournament().declareWinner(player);
+        }
+        catch (NoSuchEntrantException e) {
+            error(ctx, format("%s does not participate in the tournament.", h(player.getName())));
+            return -2;
+        }
+        catch (MissingPairingException e) {
+            error(ctx, format("%s is not in a pairing.", h(player.getName())));
+            return -3;
+        }
+
+        Player opponent = pairing.getOther(player);
+        info(ctx, format("%s has won their pairing against %s", hu(player.getName()), hu(opponent.getName())));
+        announceAutoAdvance(ctx, roundNumber);
+
+        return 0;
+    }
+
+    private int cGame(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        Player player = getEntrant(ctx, "participant");
+        int roundNumber = tournament().getRoundNumber();
+
+        Pairing<Player> pairing;
+        try {
+            pairing = tournament().declareGameWinner(player);
+        }
+        catch (NoSuchEntrantException e) {
+            error(ctx, format("%s does not participate in the tournament.", h(player.getName())));
+            return -2;
+        }
+        catch (MissingPairingException e) {
+            error(ctx, format("%s is not in a pairing.", h(player.getName())));
+            return -3;
+        }
+
+        Player opponent = pairing.getOther(player);
+        String score = formatSeries(pairing, player);
+
+        // The pairing is not active anymore once the game decided it, even if the next round started.
+        boolean isDecided = !tournament().getCurrentRound().getActivePairings().contains(pairing);
+        if (isDecided) {
+            info(ctx, format("%s has won their pairing against %s (%s)", hu(player.getName()), hu(opponent.getName()), score));
+            announceAutoAdvance(ctx, roundNumber);
+        }
+        else
+            info(ctx, format("%s has won a game against %s (%s)", h(player.getName()), h(opponent.getName()), score));
+
+        return 0;
+    }
+
+    private int cGameUndo(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        Player player = getEntrant(ctx, "participant");
+        Pairing<Player> pairing = tournament().getCurrentRound().getPairings().getLastPairingOfEntrant(player);
+        if (pairing == null) {
+            error(ctx, format("%s was not in a pairing.", h(player.getName())));
+            return -2;
+        }
+
+        Player opponent = pairing.getOther(player);
+
+        boolean wasDecided;
+        try {
+            wasDecided = tournament().replayGame(player, pairing);
+        }
+        catch (NoSuchPairingException e) {
+            error(ctx, format("%s has not won a game against %s that can be taken back.",
+                    h(player.getName()), h(opponent.getName())));
+            return -3;
+        }
+        catch (MissingEntrantException | OrphanedPairingException e) {
+            error(ctx, format("The pairing of %s and %s cannot be played again.",
+                    h(player.getName()), h(opponent.getName())));
+            return -4;
+        }
+
+        String score = formatSeries(pairing, player);
+        if (wasDecided)
+            attention(ctx, format("Took back a game of %s, the pairing against %s continues (%s).",
+                    hu(player.getName()), hu(opponent.getName()), score));
+        else
+            info(ctx, format("Took back a game of %s against %s (%s).", h(player.getName()), h(opponent.getName()), score));
+
+        return 0;
+    }
+
+    private int cBestOf(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        int games = IntegerArgumentType.getInteger(ctx, "games");
+        if (games % 2 == 0) {
+            error(ctx, "The number of games must be odd, otherwise a series can end in a draw.");
+            return -1;
+        }
+
+        tournament().setBestOf(games);
+
+        // The setting is not part of the result log, so it needs to be saved right away.
+        try {
+            tournaments().save(selectedTournamentName());
+        }
+        catch (IOException e) {
+            error(ctx, format("Failed to save the tournament: %s", e.getMessage()));
+            return -2;
+        }
+
+        if (games == 1)
+            info(ctx, "Pairings are decided by a single game.");
+        else
+            info(ctx, format("Pairings are played best of %s, the first to win %s games wins the pairing.",
+                    h(String.valueOf(games)), h(String.valueOf(tournament().getGamesToWin()))));
+
+        return 0;
+    }
+
+    /**
+     * Players that are named in place of their team stand for the team.
+     * @return The entrant of the current round that a participant argument refers to.
+     */
+    private Player getEntrant(CommandContext<S> ctx, String argumentName) {
+        Player player = EntrantArgumentType.getPlayer(argumentName, ctx);
+        return Team.entrantOf(player, tournament().getCurrentRound());
+    }
+
+    /**
+     * @return The games won by each entrant of a series, from the perspective of an entrant, e.g. "2:1".
+     */
+    private String formatSeries(Pairing<Player> pairing, Player player) {
+        return format("%d:%d", tournament().getGameWins(pairing, player),
+                tournament().getGameWins(pairing, pairing.getOther(player)));
+    }
+
+    private int cReplay(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        Player player = getEntrant(ctx, "participant");
+        Player opponent = getEntrant(ctx, "opponent");
+
+        Round<Player> currentRound = tournament().getCurrentRound();
+        Pairing<Player> pairing = new Pairing<>(player, opponent);
+
+        boolean wasRunning;
+        try {
+            wasRunning = !tournament().replayPairing(pairing);
+        }
+        catch (MissingEntrantException e) {
+            boolean hasPlayer = currentRound.hasEntrant(player);
+            boolean hasOpponent = currentRound.hasEntrant(opponent);
+            if (!hasPlayer && !hasOpponent) {
+                error(ctx, "Neither of the players participate in the tournament.");
+                return -2;
+            }
+            else if (!hasPlayer || !hasOpponent) {
+                Player invalidPlayer = !hasPlayer ? player : opponent;
+                error(ctx, format("%s does not participate in the tournament.", h(invalidPlayer.getName())));
+                return -3;
+            }
+
+            return uncheckedError(ctx, -4);
+        }
+        catch (NoSuchPairingException e) {
+            error(ctx, format("%s and %s did not appear in a previous pairing.",
+                    h(player.getName()), h(opponent.getName())));
+            return -5;
+        }
+        catch (OrphanedPairingException e) {
+            String message = "Cannot replay pairing. ";
+            Pairings<Player> pairings = currentRound.getPairings();
+
+            // Determine the orphaned (i.e. past) pairing of one of the players.
+            Pairing<Player> orphanedPairing = pairings.getLastPairingOfEntrant(player);
+            if (orphanedPairing == null || pairing.equals(orphanedPairing))
+                orphanedPairing = pairings.getLastPairingOfEntrant(opponent);
+            if (orphanedPairing == null || pairing.equals(orphanedPairing))
+                return uncheckedError(ctx, -6);
+
+            Player orphanedPlayer = null;
+            if (orphanedPairing.contains(player))
+                orphanedPlayer = player;
+            else if (orphanedPairing.contains(opponent))
+                orphanedPlayer = opponent;
+
+            String verb = "";
+            if (pairings.isActive(orphanedPairing))
+                verb = " running";
+            else if (pairings.isFinished(orphanedPairing))
+                verb = " finished";
+
+            assert orphanedPlayer != null;
+            message += format("%s is in another%s pairing.", h(orphanedPlayer.getName()), verb);
+            if (isSupportsReset(currentRound))
+                message += " Reset them to replay.";
+
+            error(ctx, message);
+            return -7;
+        }
+
+        if (wasRunning) {
+            warn(ctx, format("The pairing between %s and %s is still running.",
+                    h(player.getName()), h(opponent.getName())));
+            return -8;
+        }
+
+        attention(ctx, format("Replaying pairing: %s vs. %s.",
+                hu(player.getName()), hu(opponent.getName())));
+        return 0;
+    }
+
+    private int cReset(CommandContext<S> ctx) {
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        if (isConfirmed(Confirmation.RESET, ctx))
+            return cResetConfirmed(ctx);
+
+        Player player = EntrantArgumentType.getPlayer("participant", ctx);
+        Round<Player> currentRound = tournament().getCurrentRound();
+
+        if (!isSupportsReset(currentRound)) {
+            error(ctx, "Cannot reset a participant in the current type of round.");
+            return -2;
+        }
+
+        try {
+            Class<?> klass = currentRound.getClass();
+            Method resetMethod = klass.getMethod("resetEntrant", Object.class);
+            if (resetMethod.getDeclaredAnnotation(UnsupportedOperation.class) != null) {
+                error(ctx, "Cannot reset a participant in the current type of round.");
+                return -2;
+            }
+        } catch (NoSuchMethodException e) {
+            resetConfirmation();
+            throw new RuntimeException(e);
+        }
+
+        if (!currentRound.hasEntrant(player) && !currentRound.hasStateAbout(player)) {
+            error(ctx, format("%s does not participate in the tournament.", h(player.getName())));
+            return -3;
+        }
+
+        String message = format("About to reset %s. ", hu(player.getName()));
+
+        if (!currentRound.hasEntrant(player) && currentRound.hasStateAbout(player)) {
+            String floatingState = "but they would ";
+            if (currentRound.hasWon(player))
+                floatingState += "advance to the next round ";
+            else if (currentRound.hasLost(player))
+                floatingState += "be eliminated ";
+            floatingState += "if added back.";
+
+            message += format("They do not actively participate in this round, %s", floatingState);
+        }
+        else if (currentRound.isEntrantPaired(player)) {
+            Pairing<Player> pairing = currentRound.getLastPairing(player);
+            Player opponent = pairing.getOther(player);
+            message += format("Their pairing against %s will be canceled.", h(opponent.getName()));
+        }
+        else if (currentRound.hasEntrantResult(player)) {
+            Pairing<Player> pairing = currentRound.getLastPairing(player);
+
+            // An entrant that advanced on a bye has a result without a pairing.
+            if (pairing == null) {
+                message += "Their bye will be removed.";
+            }
+            else {
+                Player opponent = pairing.getOther(player);
+
+                String state = "";
+                if (currentRound.hasWon(player))
+                    state = " won";
+                else if (currentRound.hasLost(player))
+                    state = " lost";
+
+                message += format("Their%s pairing against %s will be removed.", state, h(opponent.getName()));
+            }
+        }
+        else {
+            info(ctx, format("%s was reset. No state has changed.", h(player.getName())));
+            resetConfirmation();
+            return 0;
+        }
+
+        warn(ctx, message + i(" Please confirm these changes by entering the command again."));
+        return 0;
+    }
+
+    private int cResetConfirmed(CommandContext<S> ctx) {
+
+        Player player = EntrantArgumentType.getPlayer("participant", ctx);
+        Round<Player> currentRound = tournament().getCurrentRound();
+
+        boolean hadFloatingState = currentRound.hasStateAbout(player) && !currentRound.hasEntrant(player);
+
+        boolean wasReset;
+        try {
+            wasReset = tournament().resetEntrant(player);
+        }
+        catch (UnsupportedOperationException e) {
+            error(ctx, "Cannot reset a participant in the current type of round.");
+            return -2;
+        }
+
+        if (!wasReset) {
+            info(ctx, format("%s was reset. No state has changed.", h(player.getName())));
+            return 0;
+        }
+
+        String message = "They are now back in pending state.";
+        if (hadFloatingState)
+            message = "They were fully removed from the tournament.";
+
+        info(ctx, format("%s was reset. %s", hu(player.getName()), message));
+        return 0;
+    }
+
+    private int cNext(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        try {
+            tournament().nextRound();
+        }
+        catch (RoundNotFinishedException e) {
+            error(ctx, "The current round is not finished.");
+            return -2;
+        }
+        catch (FinalRoundException e) {
+            error(ctx, "Already in the final round of the tournament.");
+            return -3;
+        }
+
+        announceRound(ctx);
+        return 0;
+    }
+
+    private int cNextAuto(CommandContext<S> ctx) {
+        return cNextMode(ctx, true);
+    }
+
+    private int cNextManual(CommandContext<S> ctx) {
+        return cNextMode(ctx, false);
+    }
+
+    private int cNextMode(CommandContext<S> ctx, boolean isAutoAdvancing) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        if (tournament().isAutoAdvancing() == isAutoAdvancing) {
+            warn(ctx, isAutoAdvancing
+                    ? "The tournament already continues automatically."
+                    : "The tournament already continues manually.");
+            return 0;
+        }
+
+        tournament().setAutoAdvancing(isAutoAdvancing);
+
+        // The setting is not part of the result log, so it needs to be saved right away.
+        try {
+            tournaments().save(selectedTournamentName());
+        }
+        catch (IOException e) {
+            error(ctx, format("Failed to save the tournament: %s", e.getMessage()));
+            return -2;
+        }
+
+        if (!isAutoAdvancing) {
+            info(ctx, format("The next round now needs to be started with %s.", h("next")));
+            return 0;
+        }
+
+        info(ctx, "The next round now starts as soon as the current round is finished.");
+
+        // The current round might already be finished.
+        try {
+            tournament().nextRound();
+            announceRound(ctx);
+        }
+        catch (RoundNotFinishedException | FinalRoundException e) {
+            // The tournament continues once the round is finished.
+        }
+
+        return 0;
+    }
+
+    /**
+     * Announces the participants of the current round after it was started.
+     */
+    private void announceRound(CommandContext<S> ctx) {
+        Round<Player> currentRound = tournament().getCurrentRound();
+        Class<?> klass = currentRound.getClass();
+        String type = "";
+
+        if (klass == DynamicElimination.class)
+            type = "Elimination";
+        else if (klass == RollingElimination.class)
+            type = "Rolling Elimination";
+        else if (klass == SemiFinal.class)
+            type = "Semi-Finals";
+        else if (klass == Final.class)
+            type = "Finals";
+        else if (klass == RoundRobinFinal.class)
+            type = "Finals (Round Robin)";
+
+        attention(ctx, format("Continued to the next round: %s", type));
+
+        Stream<String> playerNameStream = currentRound.getEntrants().stream().map(p -> h(p.getName()));
+        String playerNames = playerNameStream.collect(Collectors.joining(", "));
+
+        info(ctx, format("Participants: %s", playerNames));
+    }
+
+    /**
+     * Announces the next round if the last command finished the round and the tournament continued automatically.
+     * @param roundNumber The number of the round before the command.
+     */
+    private void announceAutoAdvance(CommandContext<S> ctx, int roundNumber) {
+        if (tournament().getRoundNumber() != roundNumber)
+            announceRound(ctx);
+    }
+
+    private int cBye(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        ByeOption option = EnumValuesArgumentType.getEnum("policy", ByeOption.class, ctx);
+
+        // The policy applies to the current round and all elimination rounds that follow.
+        if (tournament().getFormat() instanceof DefaultFormat)
+            ((DefaultFormat<Player>) tournament().getFormat()).setByePolicy(option.policy);
+        else if (tournament().getFormat() instanceof TableFormat)
+            ((TableFormat<Player>) tournament().getFormat()).setByePolicy(option.policy);
+
+        Round<Player> currentRound = tournament().getCurrentRound();
+        if (currentRound instanceof DynamicElimination && !(currentRound instanceof SemiFinal))
+            ((DynamicElimination<Player>) currentRound).setByePolicy(option.policy);
+        tournament().invalidateNextRound();
+
+        // The policy is not part of the result log, so it needs to be saved right away.
+        try {
+            tournaments().save(selectedTournamentName());
+        }
+        catch (IOException e) {
+            error(ctx, format("Failed to save the tournament: %s", e.getMessage()));
+            return -2;
+        }
+
+        info(ctx, format("The last remaining participant will now %s.", h(describe(option))));
+        return 0;
+    }
+
+    private static String describe(ByeOption option) {
+        switch (option) {
+            case ADVANCE:
+                return "advance without an opponent";
+            case LUCKY_LOSER:
+                return "play against a random eliminated participant";
+            default:
+                return "wait for another participant";
+        }
+    }
+
+    private int cPairing(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        PairingOption option = EnumValuesArgumentType.getEnum("policy", PairingOption.class, ctx);
+
+        // The policy applies to the current round and all elimination rounds that follow.
+        if (tournament().getFormat() instanceof DefaultFormat)
+            ((DefaultFormat<Player>) tournament().getFormat()).setPairingPolicy(option.policy);
+        else if (tournament().getFormat() instanceof TableFormat)
+            ((TableFormat<Player>) tournament().getFormat()).setPairingPolicy(option.policy);
+
+        Round<Player> currentRound = tournament().getCurrentRound();
+        if (currentRound instanceof DynamicElimination)
+            ((DynamicElimination<Player>) currentRound).setPairingPolicy(option.policy);
+        tournament().invalidateNextRound();
+
+        // The policy is not part of the result log, so it needs to be saved right away.
+        try {
+            tournaments().save(selectedTournamentName());
+        }
+        catch (IOException e) {
+            error(ctx, format("Failed to save the tournament: %s", e.getMessage()));
+            return -2;
+        }
+
+        String description = option == PairingOption.LONGEST_WAITING
+                ? "the participants who have been waiting the longest"
+                : "random participants";
+        info(ctx, format("Pairings will now be made between %s.", h(description)));
+        return 0;
+    }
+
+    private int cUndo(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        try {
+            tournament().undo();
+        }
+        catch (NothingToUndoException e) {
+            error(ctx, "There is nothing to undo.");
+            return -2;
+        }
+        catch (IllegalStateException e) {
+            error(ctx, "The change could not be undone. The history has been cleared.");
+            return -3;
+        }
+
+        info(ctx, "Undid the last change.");
+        return 0;
+    }
+
+    private int cRedo(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        try {
+            tournament().redo();
+        }
+        catch (NothingToRedoException e) {
+            error(ctx, "There is nothing to redo.");
+            return -2;
+        }
+        catch (IllegalStateException e) {
+            error(ctx, "The change could not be redone. The history has been cleared.");
+            return -3;
+        }
+
+        info(ctx, "Redid the last undone change.");
+        return 0;
+    }
+
+    private int cInfo(CommandContext<S> ctx) {
+        InfoType topic = EnumValuesArgumentType.getEnum("topic", InfoType.class, ctx);
+        EntrantState entrantState = getOptionalArgument(ctx, "state", EntrantState.class, EntrantState.ALL);
+        int page = getOptionalArgument(ctx, "page", Integer.class, 1);
+        String name = getOptionalArgument(ctx, "name", String.class, "");
+
+        return cInfoWithTopic(ctx, topic, entrantState, page, name);
+    }
+
+    private int cInfoDefaultTopic(CommandContext<S> ctx) {
+        return cInfoWithTopic(ctx, InfoType.PARTICIPANTS, EntrantState.ALL, 1, "");
+    }
+
+    private String colorForPlacement(Placement placement) {
+        switch (placement) {
+            case FIRST: return "§a";
+            case SECOND: return "§e";
+            case THIRD: return "§c";
+            default: return "";
+        }
+    }
+
+    private int cInfoWithTopic(CommandContext<S> ctx, InfoType topic,
+                               EntrantState entrantState, int page, String namePrefix) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        Round<Player> currentRound = tournament().getCurrentRound();
+
+        if (topic == InfoType.SUMMARY)
+            return cInfoSummary(ctx, currentRound);
+        if (topic == InfoType.TIMING)
+            return cInfoTiming(ctx, currentRound);
+
+        if (topic == InfoType.PARTICIPANTS) {
+            // TODO: Differentiation between RoundRobin, Final, SemiFinal, etc.
+
+            // Only elimination rounds know the state of each entrant and are large enough for pages.
+            boolean isFiltered = entrantState != EntrantState.ALL || page != 1 || !namePrefix.isEmpty();
+            if (isFiltered && !(currentRound instanceof EliminationRound)) {
+                error(ctx, "Filters and pages are only supported in elimination rounds.");
+                return -2;
+            }
+
+            if (currentRound instanceof RoundRobinFinal) {
+                RoundRobinFinal<Player> round = (RoundRobinFinal<Player>) currentRound;
+
+                String[] placementInfos = new String[3];
+                ArrayList<String> playerInfos = new ArrayList<>();
+
+                for (Player player : round.getEntrants()) {
+                    String playerFormat = format("%s (%%s)", round.isEntrantPaired(player)
+                            ? color(player.getName(), "§e") : color(player.getName(), "§f"));
+
+                    Placement placement = round.getPlacement(player);
+                    int placementValue = placement.getValue();
+                    if (placementValue >= 1) {
+                        String placementInfo = color(placement.toString(), colorForPlacement(placement));
+                        placementInfos[placementValue - 1] = format(playerFormat, placementInfo);
+                    }
+                    else {
+                        int score = round.getScore(player);
+                        String playerInfo = color(String.valueOf(score), score == 1 ? "§b" : "§f");
+                        playerInfos.add(format(playerFormat, playerInfo));
+                    }
+                }
+
+                for (String placementInfo : placementInfos)
+                    if (placementInfo != null)
+                        playerInfos.add(placementInfo);
+
+                String participants = String.join(", ", playerInfos);
+                info(ctx, format("Participants: %s", color(participants, "§7")));
+            }
+            else if (currentRound instanceof EliminationRound) {
+                EliminationRound<Player> round = (EliminationRound<Player>) currentRound;
+
+                // Stream directly from the round's sets, so that only
+                // the requested page of entrants is ever formatted.
+                Stream<String> entrants = Stream.empty();
+                int total = 0;
+
+                if (entrantState.includes(EntrantState.PENDING)) {
+                    entrants = Stream.concat(entrants, formatEntrants(round.getPendingEntrants(), namePrefix, "§f", ""));
+                    total += round.getPendingEntrants().size();
+                }
+                if (entrantState.includes(EntrantState.PAIRED)) {
+                    entrants = Stream.concat(entrants, formatEntrants(round.getPairedEntrants(), namePrefix, "§e", ""));
+                    total += round.getPairedEntrants().size();
+                }
+                if (entrantState.includes(EntrantState.WON)) {
+                    entrants = Stream.concat(entrants, formatEntrants(round.getAdvancedEntrants(), namePrefix, "§a", "§l"));
+                    total += round.getAdvancedEntrants().size();
+                }
+                if (entrantState.includes(EntrantState.LOST)) {
+                    entrants = Stream.concat(entrants, formatEntrants(round.getEliminatedEntrants(), namePrefix, "§c", "§m"));
+                    total += round.getEliminatedEntrants().size();
+                }
+
+                // The total is only known without counting if there is no name filter.
+                if (!namePrefix.isEmpty())
+                    total = (int) countEntrants(round, entrantState, namePrefix);
+
+                int pages = Math.max(1, (total + INFO_PAGE_SIZE - 1) / INFO_PAGE_SIZE);
+                if (page > pages) {
+                    error(ctx, format("There are only %d pages.", pages));
+                    return -2;
+                }
+
+                String amountPending = color(String.valueOf(round.getPendingEntrants().size()), "§f");
+                String amountWon = color(String.valueOf(round.getAdvancedEntrants().size()), "§a");
+                String countInfo = color(format("(%s, %s):", amountPending, amountWon), "§7");
+
+                String participants = entrants
+                        .skip((long) (page - 1) * INFO_PAGE_SIZE)
+                        .limit(INFO_PAGE_SIZE)
+                        .collect(Collectors.joining(", "));
+
+                info(ctx, format("Participants %s %s", countInfo, participants));
+                if (pages > 1)
+                    info(ctx, format("Page %d of %d.", page, pages));
+            }
+        }
+
+        return 0;
+    }
+
+    private int cInfoSummary(CommandContext<S> ctx, Round<Player> currentRound) {
+
+        int nEntrants = currentRound.getEntrants().size();
+        int nPaired = currentRound.getPairedEntrants().size();
+
+        if (currentRound instanceof EliminationRound) {
+            EliminationRound<Player> round = (EliminationRound<Player>) currentRound;
+            info(ctx, format("Participants: %d (%s pending, %s paired, %s won, %s lost)", nEntrants,
+                    color(String.valueOf(round.getPendingEntrants().size()), "§f"),
+                    color(String.valueOf(nPaired), "§e"),
+                    color(String.valueOf(round.getAdvancedEntrants().size()), "§a"),
+                    color(String.valueOf(round.getEliminatedEntrants().size()), "§c")));
+        }
+        else {
+            info(ctx, format("Participants: %d (%s paired, %d finished pairings)", nEntrants,
+                    color(String.valueOf(nPaired), "§e"), currentRound.getFinishedPairings().size()));
+        }
+
+        // The seed reproduces the random decisions of the tournament, e.g. in a simulation.
+        Long seed = getSeed(tournament().getFormat());
+        if (seed != null)
+            info(ctx, format("Seed: %s", color(String.valueOf(seed), "§7")));
+
+        return 0;
+    }
+
+    /**
+     * @param tournamentFormat The format of a tournament.
+     * @return The seed of all random decisions of the format or null if it has none.
+     */
+    private static Long getSeed(TournamentFormat<Player> tournamentFormat) {
+        if (tournamentFormat instanceof DefaultFormat)
+            return ((DefaultFormat<Player>) tournamentFormat).getSeed();
+        if (tournamentFormat instanceof TableFormat)
+            return ((TableFormat<Player>) tournamentFormat).getSeed();
+        return null;
+    }
+
+    private int cInfoTiming(CommandContext<S> ctx, Round<Player> currentRound) {
+        if (!(currentRound instanceof DynamicElimination)) {
+            warn(ctx, "Times are only recorded in elimination rounds.");
+            return 0;
+        }
+
+        DynamicElimination<Player> round = (DynamicElimination<Player>) currentRound;
+
+        Player longestWaiting = round.getLongestWaitingEntrant();
+        if (longestWaiting != null)
+            info(ctx, format("Pending: %d, waiting the longest: %s (%s)", round.getPendingEntrants().size(),
+                    h(longestWaiting.getName()), formatDuration(round.getWaitTime(longestWaiting))));
+        else
+            info(ctx, "Pending: 0");
+
+        Histogram waitTimes = round.getWaitTimes();
+        info(ctx, format("Wait times of %d participants: %s", waitTimes.getCount(), formatDurations(waitTimes)));
+
+        Histogram pairingDurations = round.getPairingDurations();
+        info(ctx, format("Durations of %d pairings: %s", pairingDurations.getCount(), formatDurations(pairingDurations)));
+
+        return 0;
+    }
+
+    private int cStatsMemory(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        MemoryReport report = MemoryReport.of(tournament());
+
+        info(ctx, "Estimated memory usage of the tournament state:");
+        for (MemoryReport.Entry entry : report.getEntries()) {
+            if (entry.getCount() > 0)
+                info(ctx, format("  %s: %d (%s)", entry.getName(), entry.getCount(),
+                        formatBytes(entry.getEstimatedBytes())));
+        }
+        info(ctx, format("Total: %s", h(formatBytes(report.getTotalEstimatedBytes()))));
+
+        for (String warning : report.getWarnings())
+            warn(ctx, warning);
+
+        return 0;
+    }
+
+    private int cStatsPlayer(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        Player player = EntrantArgumentType.getPlayer("player", ctx);
+
+        EntrantStatistics<Player> playerStatistics;
+        try {
+            playerStatistics = statistics().getStatistics(player);
+        }
+        catch (IOException e) {
+            error(ctx, format("Failed to read the statistics: %s", e.getMessage()));
+            return -1;
+        }
+
+        List<EntrantStatistics.Participation> participations = playerStatistics.getParticipations();
+        if (participations.isEmpty()) {
+            warn(ctx, format("%s has not taken part in an archived tournament.", h(player.getName())));
+            return 0;
+        }
+
+        info(ctx, format("Statistics of %s over %d tournaments:", h(player.getName()), participations.size()));
+        info(ctx, format("  Pairings: %s", formatScore(playerStatistics.getTotal())));
+
+        List<String> placementCounts = new ArrayList<>();
+        for (Placement placement : new Placement[] { Placement.FIRST, Placement.SECOND, Placement.THIRD }) {
+            long count = participations.stream().filter(p -> p.getPlacement() == placement).count();
+            placementCounts.add(format("%s %d", color(placement.toString(), colorForPlacement(placement)), count));
+        }
+        info(ctx, format("  Placements: %s", String.join(", ", placementCounts)));
+
+        info(ctx, "  Recent tournaments:");
+        int recentCount = Math.min(participations.size(), STATISTICS_LIST_SIZE);
+        for (EntrantStatistics.Participation participation : participations.subList(0, recentCount)) {
+            Placement placement = participation.getPlacement();
+            String result = placement == Placement.NONE
+                    ? format("reached round %d", participation.getRoundNumber())
+                    : color(placement.toString(), colorForPlacement(placement));
+            info(ctx, format("    %s: %s", formatDate(participation.getTimestamp()), result));
+        }
+
+        info(ctx, "  Recent opponents:");
+        int opponentCount = 0;
+        for (Map.Entry<Player, EntrantStatistics.Score> entry : playerStatistics.getHeadToHead().entrySet()) {
+            if (opponentCount++ == STATISTICS_LIST_SIZE)
+                break;
+            info(ctx, format("    %s: %s", h(entry.getKey().getName()), formatScore(entry.getValue())));
+        }
+
+        return 0;
+    }
+
+    private int cStatsHeadToHead(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        Player player = EntrantArgumentType.getPlayer("player", ctx);
+        Player opponent = EntrantArgumentType.getPlayer("opponent", ctx);
+
+        EntrantStatistics.Score score;
+        try {
+            score = statistics().getStatistics(player).getScoreAgainst(opponent);
+        }
+        catch (IOException e) {
+            error(ctx, format("Failed to read the statistics: %s", e.getMessage()));
+            return -1;
+        }
+
+        if (score.getPairings() == 0) {
+            warn(ctx, format("%s has not played against %s in an archived tournament.",
+                    h(player.getName()), h(opponent.getName())));
+            return 0;
+        }
+
+        info(ctx, format("%s against %s: %s", h(player.getName()), h(opponent.getName()), formatScore(score)));
+        return 0;
+    }
+
+    /**
+     * @return The won, lost and tied pairings with the win rate, e.g. "3 won, 1 lost, 0 tied (75%)".
+     */
+    private static String formatScore(EntrantStatistics.Score score) {
+        return format("%d won, %d lost, %d tied (%d%%)", score.getWins(), score.getLosses(), score.getTies(),
+                Math.round(100 * score.getWinRate()));
+    }
+
+    private static String formatDate(long timestamp) {
+        return Instant.ofEpochMilli(timestamp).atZone(ZoneId.systemDefault()).toLocalDate().toString();
+    }
+
+    private int cRanking(CommandContext<S> ctx) {
+        withoutConfirmation();
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        int page = getOptionalArgument(ctx, "page", Integer.class, 1);
+
+        FullRanking<Player> fullRanking = ranking();
+        List<Player> entrants = fullRanking.getRanking();
+        if (entrants.isEmpty()) {
+            warn(ctx, "No participant has been ranked yet.");
+            return 0;
+        }
+
+        int pages = Math.max(1, (entrants.size() + INFO_PAGE_SIZE - 1) / INFO_PAGE_SIZE);
+        if (page > pages) {
+            error(ctx, format("There are only %d pages.", pages));
+            return -2;
+        }
+
+        if (fullRanking.isComplete())
+            info(ctx, format("Ranking of all %d participants:", entrants.size()));
+        else
+            info(ctx, format("Ranking of the %d eliminated participants:", entrants.size()));
+
+        int from = (page - 1) * INFO_PAGE_SIZE;
+        for (Player player : entrants.subList(from, Math.min(from + INFO_PAGE_SIZE, entrants.size())))
+            info(ctx, format("  %d. %s", fullRanking.getRank(player), formatRanked(fullRanking, player)));
+
+        if (pages > 1)
+            info(ctx, format("Page %d of %d.", page, pages));
+        return 0;
+    }
+
+    private int cRankingPlayer(CommandContext<S> ctx) {
+        withoutConfirmation();
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        Player player = EntrantArgumentType.getPlayer("player", ctx);
+
+        FullRanking<Player> fullRanking = ranking();
+        int rank = fullRanking.getRank(player);
+        if (rank == 0) {
+            warn(ctx, format("%s has not been ranked yet.", h(player.getName())));
+            return 0;
+        }
+
+        info(ctx, format("Rank %s: %s", h(String.valueOf(rank)), formatRanked(fullRanking, player)));
+        return 0;
+    }
+
+    /**
+     * @return The name and tier of a ranked player, e.g. "Player (round 2)".
+     */
+    private String formatRanked(FullRanking<Player> fullRanking, Player player) {
+        Round<Player> currentRound = tournament().getCurrentRound();
+        if (currentRound instanceof RankingRound) {
+            Placement placement = ((RankingRound<Player>) currentRound).getPlacement(player);
+            if (placement.getValue() > 0)
+                return format("%s (%s)", h(player.getName()), color(placement.toString(), colorForPlacement(placement)));
+        }
+
+        return format("%s (round %d)", h(player.getName()), fullRanking.getTier(player));
+    }
+
+    private FullRanking<Player> ranking() {
+        // Attaching again ranks a tournament that was selected or loaded since.
+        if (ranking.getTournament() != tournament())
+            ranking.attach(tournament());
+        return ranking;
+    }
+
+    private int cSeason(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        SeasonLeaderboard<Player> leaderboard;
+        try {
+            leaderboard = season();
+        }
+        catch (IOException e) {
+            error(ctx, format("Failed to load the season: %s", e.getMessage()));
+            return -1;
+        }
+
+        if (leaderboard.size() == 0) {
+            warn(ctx, "No tournament has been finished in this season yet.");
+            return 0;
+        }
+
+        info(ctx, format("Season standings after %d tournaments:", leaderboard.getTournamentCount()));
+        for (SeasonLeaderboard.Standing<Player> standing : leaderboard.getTop(INFO_PAGE_SIZE))
+            info(ctx, format("  %d. %s", leaderboard.getRank(standing.getEntrant()), formatStanding(standing)));
+
+        return 0;
+    }
+
+    private int cSeasonPlayer(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        Player player = EntrantArgumentType.getPlayer("player", ctx);
+
+        SeasonLeaderboard<Player> leaderboard;
+        try {
+            leaderboard = season();
+        }
+        catch (IOException e) {
+            error(ctx, format("Failed to load the season: %s", e.getMessage()));
+            return -1;
+        }
+
+        SeasonLeaderboard.Standing<Player> standing = leaderboard.getStanding(player);
+        if (standing == null) {
+            warn(ctx, format("%s has not taken part in this season.", h(player.getName())));
+            return 0;
+        }
+
+        info(ctx, format("Rank %s of %d: %s", h(String.valueOf(leaderboard.getRank(player))),
+                leaderboard.size(), formatStanding(standing)));
+        return 0;
+    }
+
+    private int cSeasonReset(CommandContext<S> ctx) {
+        if (isConfirmed(Confirmation.SEASON_RESET, ctx)) {
+            season = new SeasonLeaderboard<>();
+            try {
+                saveSeason();
+            }
+            catch (IOException e) {
+                error(ctx, format("Failed to save the season: %s", e.getMessage()));
+                return -1;
+            }
+
+            info(ctx, "A new season has started.");
+            return 0;
+        }
+
+        warn(ctx, "You are about to delete the standings of the season."
+                + i(" Please confirm your action by entering the command again."));
+        return 0;
+    }
+
+    /**
+     * @return The name, points, tournaments and placements of a standing, e.g. "Player: 25 points in 2 tournaments (1st 1)".
+     */
+    private String formatStanding(SeasonLeaderboard.Standing<Player> standing) {
+        List<String> placementCounts = new ArrayList<>();
+        for (Placement placement : new Placement[] { Placement.FIRST, Placement.SECOND, Placement.THIRD }) {
+            int count = standing.getPlacementCount(placement);
+            if (count > 0)
+                placementCounts.add(format("%s %d", color(placement.toString(), colorForPlacement(placement)), count));
+        }
+
+        String placements = placementCounts.isEmpty() ? "" : format(" (%s)", String.join(", ", placementCounts));
+        return format("%s: %d points in %d tournaments%s", h(standing.getEntrant().getName()),
+                standing.getPoints(), standing.getTournaments(), placements);
+    }
+
+    private SeasonLeaderboard<Player> season() throws IOException {
+        if (season == null) {
+            File file = new File(directory, SEASON_FILE);
+            season = file.isFile() ? SeasonLeaderboard.load(file, new PlayerCodec()) : new SeasonLeaderboard<>();
+        }
+
+        return season;
+    }
+
+    private void saveSeason() throws IOException {
+        season().save(new File(directory, SEASON_FILE), new PlayerCodec());
+    }
+
+    private StatisticsStore<Player> statistics() throws IOException {
+        if (statistics == null)
+            statistics = StatisticsStore.open(new File(directory, STATISTICS_DIRECTORY), new PlayerCodec());
+
+        return statistics;
+    }
+
+    private int cExport(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        if (!checkRunningTournament(ctx))
+            return -1;
+
+        ExportFormat exportFormat = EnumValuesArgumentType.getEnum("format", ExportFormat.class, ctx);
+        File exportFile = new File(directory, EXPORT_FILE + "." + exportFormat.extension);
+
+        stopExport();
+
+        try {
+            Writer out = new BufferedWriter(new FileWriter(exportFile));
+            exporter = exportFormat == ExportFormat.CSV
+                    ? TournamentExporter.csv(out, Player::getName)
+                    : TournamentExporter.jsonLines(out, Player::getName);
+            exporter.exportHistory(tournament());
+        }
+        catch (IOException e) {
+            stopExport();
+            error(ctx, format("Failed to export the tournament: %s", e.getMessage()));
+            return -1;
+        }
+
+        // New results are appended until the export is stopped.
+        exportedTournament = tournament();
+        exportedTournamentName = selectedTournamentName();
+        exportedTournament.addListener(exporter);
+
+        info(ctx, format("Exported the tournament to %s. New results are appended live.",
+                h(exportFile.getPath())));
+        return 0;
+    }
+
+    private int cExportStop(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        if (exporter == null) {
+            warn(ctx, "The tournament is not being exported.");
+            return 0;
+        }
+
+        stopExport();
+        info(ctx, "Stopped exporting the tournament.");
+        return 0;
+    }
+
+    private void stopExport() {
+        if (exporter == null)
+            return;
+
+        if (exportedTournament != null)
+            exportedTournament.removeListener(exporter);
+
+        try {
+            exporter.close();
+        }
+        catch (IOException e) {
+            System.err.printf("Failed to close export: %s.%n", e.getMessage());
+        }
+
+        exporter = null;
+        exportedTournament = null;
+        exportedTournamentName = null;
+    }
+
+    private int cMetrics(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        if (metrics.getHistograms().isEmpty()) {
+            warn(ctx, "No metrics have been recorded yet.");
+            return 0;
+        }
+
+        info(ctx, "Latencies in ms (count, mean, p50, p99, max):");
+        for (Map.Entry<String, Histogram> entry : metrics.getHistograms().entrySet()) {
+            Histogram histogram = entry.getValue();
+            if (histogram.getCount() == 0)
+                continue;
+
+            info(ctx, format("  %s: %d, %.2f, %.2f, %.2f, %s", entry.getKey(), histogram.getCount(),
+                    Metrics.toMillis(histogram.getMean()),
+                    Metrics.toMillis(histogram.getValueAtPercentile(50)),
+                    Metrics.toMillis(histogram.getValueAtPercentile(99)),
+                    h(format("%.2f", Metrics.toMillis(histogram.getMax())))));
+        }
+
+        return 0;
+    }
+
+    private int cMetricsExport(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        File metricsFile = new File(directory, METRICS_FILE);
+        try {
+            metrics.export(metricsFile);
+        }
+        catch (IOException e) {
+            error(ctx, format("Failed to export metrics: %s", e.getMessage()));
+            return -1;
+        }
+
+        info(ctx, format("Exported metrics to %s.", h(metricsFile.getPath())));
+        return 0;
+    }
+
+    private int cMetricsReset(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        metrics.reset();
+        info(ctx, "Metrics have been reset.");
+        return 0;
+    }
+
+    /**
+     * @return A duration in milliseconds as minutes and seconds, e.g. "2:05".
+     */
+    private static String formatDuration(long millis) {
+        long seconds = millis / 1000;
+        return format("%d:%02d", seconds / 60, seconds % 60);
+    }
+
+    /**
+     * @return The median, 90th percentile and maximum of durations in milliseconds.
+     */
+    private static String formatDurations(Histogram histogram) {
+        return format("median %s, 90%% %s, max %s", formatDuration(histogram.getValueAtPercentile(50)),
+                formatDuration(histogram.getValueAtPercentile(90)), formatDuration(histogram.getMax()));
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024)
+            return bytes + " B";
+        if (bytes < 1024 * 1024)
+            return format("%.1f KiB", bytes / 1024.0);
+        return format("%.1f MiB", bytes / (1024.0 * 1024.0));
+    }
+
+    private Stream<String> formatEntrants(Set<Player> players, String namePrefix, String color, String emphasis) {
+        return players.stream()
+                .filter(p -> hasNamePrefix(p, namePrefix))
+                .map(p -> color(p.getName(), color, emphasis));
+    }
+
+    private long countEntrants(EliminationRound<Player> round, EntrantState entrantState, String namePrefix) {
+        long count = 0;
+        if (entrantState.includes(EntrantState.PENDING))
+            count += round.getPendingEntrants().stream().filter(p -> hasNamePrefix(p, namePrefix)).count();
+        if (entrantState.includes(EntrantState.PAIRED))
+            count += round.getPairedEntrants().stream().filter(p -> hasNamePrefix(p, namePrefix)).count();
+        if (entrantState.includes(EntrantState.WON))
+            count += round.getAdvancedEntrants().stream().filter(p -> hasNamePrefix(p, namePrefix)).count();
+        if (entrantState.includes(EntrantState.LOST))
+            count += round.getEliminatedEntrants().stream().filter(p -> hasNamePrefix(p, namePrefix)).count();
+        return count;
+    }
+
+    private boolean hasNamePrefix(Player player, String namePrefix) {
+        return player.getName().regionMatches(true, 0, namePrefix, 0, namePrefix.length());
+    }
+
+    private int cCommand(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        String name = StringArgumentType.getString(ctx, "name");
+        String template = StringArgumentType.getString(ctx, "template");
+
+        if (template.equals(RESET_TERMINAL)) {
+            if (!state().customCommands.containsKey(name)) {
+                info(ctx, format("Command \"%s\" already removed.", name));
+                return 0;
+            }
+
+            state().customCommands.remove(name);
+            saveState(ctx);
+            info(ctx, format("Removed command \"%s\".", name));
+            return 0;
+        }
+
+        boolean hadKey = state().customCommands.containsKey(name);
+        state().customCommands.put(name, template);
+        saveState(ctx);
+
+        String operation = hadKey ? "Overwritten" : "Created";
+        info(ctx, format("%s \"%s\" = %s", operation, name, template));
+        return 0;
+    }
+
+    private int cExec(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        String command = StringArgumentType.getString(ctx, "command");
+
+        if (!state().customCommands.containsKey(command)) {
+            error(ctx, format("Command \"%s\" does not exist.", command));
+            return -1;
+        }
+
+        // Note: § cannot be entered by the player,
+        // so let's use that in our placeholder.
+        final String PLACEHOLDER = "§#$#§";
+        final String ESCAPE_SEQUENCE = "%%";
+
+        final String TEMPLATE_FIRST_PAIRED = "%1";
+        final String TEMPLATE_SECOND_PAIRED = "%2";
+
+        String template = state().customCommands.get(command);
+        template = template.replace(ESCAPE_SEQUENCE, PLACEHOLDER);
+
+        if (template.contains(TEMPLATE_FIRST_PAIRED) || template.contains(TEMPLATE_SECOND_PAIRED)) {
+            if (!checkRunningTournament(ctx))
+                return -2;
+
+            Round<Player> currentRound = tournament().getCurrentRound();
+            Iterator<Pairing<Player>> activePairings = currentRound.getPairings().getActivePairingIterator();
+
+            if (!activePairings.hasNext()) {
+                error(ctx, format("Cannot use command \"%s\". There is no active pairing.", command));
+                return -3;
+            }
+
+            Pairing<Player> earliestPairing = activePairings.next();
+            template = template.replace(TEMPLATE_FIRST_PAIRED, earliestPairing.getFirst().getName());
+            template = template.replace(TEMPLATE_SECOND_PAIRED, earliestPairing.getSecond().getName());
+        }
+
+        template = template.replace(PLACEHOLDER, ESCAPE_SEQUENCE);
+
+        sendChatMessage(ctx.getSource(), template);
+        return 0;
+    }
+
+    private int cOnEvent(CommandContext<S> ctx) {
+        withoutConfirmation();
+
+        Event event = EnumValuesArgumentType.getEnum("event", Event.class, ctx);
+        String template = StringArgumentType.getString(ctx, "template");
+
+        if (template.equals(RESET_TERMINAL)) {
+            state().onEventTemplates.remove(event);
+            saveState(ctx);
+            info(ctx, format("Removed @%s.", event.toString()));
+            return 0;
+        }
+
+        if (event == Event.PAIRING) {
+            final String PLAYER_TEMPLATE = "%s";
+            final int REQUIRED_OCCURRENCES = 2;
+
+            if (countOccurrences(template, PLAYER_TEMPLATE) != REQUIRED_OCCURRENCES) {
+                error(ctx, format("Requires %d %s formats.", REQUIRED_OCCURRENCES, PLAYER_TEMPLATE));
+                return -1;
+            }
+
+            state().onEventTemplates.put(event, template);
+            saveState(ctx);
+        }
+
+        info(ctx, format("@%s: %s", event.toString(), h(template)));
+        return 0;
+    }
+
+    private enum Confirmation { NONE, RESET, STOP, SEASON_RESET }
+
+    private static class ConfirmationState {
+
+        private final Confirmation confirmationType;
+        private final String input;
+
+        public ConfirmationState(Confirmation confirmationType, String input) {
+            this.confirmationType = confirmationType;
+            this.input = input;
+        }
+
+        public ConfirmationState(Confirmation confirmationType, CommandContext<?> context) {
+            this(confirmationType, context.getInput());
+        }
+
+        public ConfirmationState(Confirmation confirmationType) {
+            this(confirmationType, (String) null);
+        }
+
+        public static ConfirmationState empty() {
+            return new ConfirmationState(Confirmation.NONE);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ConfirmationState))
+                return false;
+
+            ConfirmationState other = (ConfirmationState) o;
+            return this.confirmationType == other.confirmationType
+                && Objects.equals(this.input, other.input);
+        }
+    }
+
+    // FIXME Does deserialization make this null? I think so..
+    // This one's transient because we don't want to serialize confirmation state, duh.
+    private transient ConfirmationState lastConfirmationState = null;
+
+    private boolean isConfirmed(Confirmation type, CommandContext<S> ctx) {
+        ConfirmationState state = new ConfirmationState(type, ctx);
+        boolean isConfirmed = state.equals(lastConfirmationState);
+        lastConfirmationState = state;
+        if (isConfirmed)
+            resetConfirmation();
+        return isConfirmed;
+    }
+
+    private void resetConfirmation() {
+        lastConfirmationState = ConfirmationState.empty();
+    }
+
+    private void withoutConfirmation() {
+        resetConfirmation();
+    }
+
+    private boolean isSupportsReset(Round<Player> round) {
+        return (round instanceof EliminationRound) && !(round instanceof SemiFinal);
+
+//        if (!Round.class.isAssignableFrom(klass))
+//            throw new RuntimeException();
+//
+//        try {
+//            Method resetMethod = klass.getMethod("resetEntrant", Object.class);
+//            Object x = resetMethod.getDeclaredAnnotation(UnsupportedOperation.class);
+//            return resetMethod.getDeclaredAnnotation(UnsupportedOperation.class) == null;
+//        } catch (NoSuchMethodException e) {
+//            throw new RuntimeException(e);
+//        }
+    }
+
+    private int countOccurrences(String string, String subString) {
+        if (subString.length() == 0)
+            throw new IllegalArgumentException();
+        return (string.length() - string.replace(subString, "").length()) / subString.length();
+    }
+
+    private <T> T getOptionalArgument(CommandContext<S> context,
+                                      String name, Class<T> type, T defaultValue) {
+        try {
+            return context.getArgument(name, type);
+        }
+        catch (IllegalArgumentException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Wraps a command handler such that it is timed,
+     * tournaments whose result log is almost full are saved
+     * and tournaments that have been idle for a while are unloaded.
+     * @param name The name of the command for metrics.
+     * @param command The command handler.
+     * @return The wrapped handler.
+     */
+    private Command<S> handle(String name, Command<S> command) {
+        return metrics.timed(name, ctx -> {
+            int result;
+            try {
+                result = command.run(ctx);
+            }
+            finally {
+                tournamentOverride = null;
+            }
+
+            List<String> pinned = new ArrayList<>();
+            pinned.add(state().activeTournament);
+            pinned.add(exportedTournamentName);
+
+            try {
+                tournaments().saveIfNeeded();
+                tournaments().unloadIdle(MAX_IDLE_NANOS, pinned);
+            }
+            catch (IOException e) {
+                error(ctx, format("Failed to save tournaments: %s", e.getMessage()));
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * @return The tournament that is selected for the current command or null if there is none.
+     */
+    private Tournament<Player> tournament() {
+        return loadTournament(selectedTournamentName());
+    }
+
+    /**
+     * Suggestions are listed before the redirect of "in" applies,
+     * so the selected tournament is read from the parsed arguments instead.
+     * @param context The parsed context of the command.
+     * @return The tournament named after "in", the active tournament or null if there is none.
+     */
+    private Tournament<Player> parsedTournament(CommandContext<?> context) {
+        String name;
+        try {
+            name = context.getArgument("tournament", String.class);
+        }
+        catch (IllegalArgumentException e) {
+            name = state().activeTournament;
+        }
+
+        return loadTournament(name);
+    }
+
+    private Tournament<Player> loadTournament(String name) {
+        if (name == null)
+            return null;
+
+        try {
+            return tournaments().get(name);
+        }
+        catch (IOException e) {
+            System.err.printf("Could not load tournament %s: %s.%n", name, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return The name of the tournament that was selected with "in" or the active tournament.
+     */
+    private String selectedTournamentName() {
+        return tournamentOverride != null ? tournamentOverride : state().activeTournament;
+    }
+
+    private TournamentRegistry tournaments() {
+        // The registry is shared with the loader thread until the state was loaded.
+        state();
+        return registry;
+    }
+
+    /**
+     * @return The names of all format descriptions in the format directory.
+     */
+    private List<String> getFormatNames() {
+        File[] files = new File(directory, FORMAT_DIRECTORY).listFiles((dir, name) -> name.endsWith(FORMAT_FILE_EXTENSION));
+        if (files == null)
+            return Collections.emptyList();
+
+        List<String> names = new ArrayList<>();
+        for (File file : files) {
+            String name = file.getName();
+            names.add(name.substring(0, name.length() - FORMAT_FILE_EXTENSION.length()));
+        }
+
+        Collections.sort(names);
+        return names;
+    }
+
+    private LiteralArgumentBuilder<S> literal(String prefix, String name) {
+        return LiteralArgumentBuilder.<S>literal(prefix + name).requires(this::canUse);
+    }
+
+    private <T> RequiredArgumentBuilder<S, T> argument(String name, ArgumentType<T> type) {
+        return RequiredArgumentBuilder.argument(name, type);
+    }
+
+    private boolean checkRunningTournament(CommandContext<S> context, boolean printError) {
+        if (tournament() == null) {
+            // TODO: Use TranslatableText here and in other places.
+            //  See https://fabricmc.net/wiki/tutorial:lang
+            if (printError)
+                error(context, "No tournament is active.");
+            return false;
+        }
+
+        return true;
+    }
+
+    private boolean checkRunningTournament(CommandContext<S> context) {
+        return checkRunningTournament(context, true);
+    }
+
+    private void attention(CommandContext<S> context, String message) {
+        sendFeedback(context.getSource(), new LiteralText(A(message)));
+    }
+
+    private void info(CommandContext<S> context, String message) {
+        sendFeedback(context.getSource(), new LiteralText(I(message)));
+    }
+
+    private void warn(CommandContext<S> context, String message) {
+        sendFeedback(context.getSource(), new LiteralText(W(message)));
+    }
+
+    private void error(CommandContext<S> context, String message) {
+        sendError(context.getSource(), new LiteralText(E(message)));
+        resetConfirmation(); // An error resets confirmation.
+    }
+
+    private int uncheckedError(CommandContext<S> context, int code) {
+        error(context, format("An unchecked error occurred (%d).", code));
+        return code;
+    }
+
+    /** Highlight player (inline) */
+    private String hu(String highlight) {
+        return color(highlight, "§f", "§n");
+    }
+
+    /** Highlight (inline) */
+    private String h(String highlight) {
+        return color(highlight, "§f", "§o");
+    }
+
+    /** Attention (inline) */
+    private String a(String info) {
+        return color(info, "§a");
+    }
+
+    /** Info (inline) */
+    private String i(String info) {
+        return color(info, "§7", "§o");
+    }
+
+    /** Warning (inline) */
+    private String w(String info) {
+        return color(info, "§e", "§o");
+    }
+
+    /** Error (inline) */
+    private String e(String error) {
+        return color(error, "§c", "§o");
+    }
+
+    /** Info (message) */
+    private String A(String text) {
+        return finish(a(text));
+    }
+
+    /** Info (message) */
+    private String I(String text) {
+        return finish(i(text));
+    }
+
+    /** Warning (message) */
+    private String W(String text) {
+        return finish(w(text));
+    }
+
+    /** Error (message) */
+    private String E(String error) {
+        return finish(e(error));
+    }
+
+    private String color(String text, String color, String emphasis) {
+        text = text.replace("§r", "§r" + emphasis);
+        text = text.replace("§x", "§r" + color + emphasis);
+        return color + emphasis + text + "§x";
+    }
+
+    private String color(String text, String color) {
+        return color(text, color, "");
+    }
+
+    private String finish(String text) {
+        return "§r" + text.replace("§x", "§r");
+    }
+}
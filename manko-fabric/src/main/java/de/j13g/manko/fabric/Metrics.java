@@ -0,0 +1,102 @@
+package de.j13g.manko.fabric;
+
+import com.mojang.brigadier.Command;
+import de.j13g.manko.util.Histogram;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Collects latency histograms of commands and other operations, in nanoseconds.
+ * Operations that take longer than a game tick are traced to the log.
+ */
+public class Metrics {
+
+    private static final long SLOW_OPERATION_NANOS = 50_000_000L;
+
+    private final LinkedHashMap<String, Histogram> histograms = new LinkedHashMap<>();
+
+    /**
+     * @param name The name of the operation.
+     * @return The histogram of that operation, which is created if needed.
+     */
+    public Histogram get(String name) {
+        return histograms.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    /**
+     * Records the duration of an operation that started at the given time.
+     * @param name The name of the operation.
+     * @param startNanos The value of System.nanoTime() when the operation started.
+     */
+    public void recordSince(String name, long startNanos) {
+        long duration = System.nanoTime() - startNanos;
+        get(name).record(duration);
+
+        if (duration >= SLOW_OPERATION_NANOS)
+            System.out.printf("[manko] Slow operation %s took %.1f ms.%n", name, toMillis(duration));
+    }
+
+    /**
+     * Wraps a command such that its execution time is recorded.
+     * @param name The name of the command.
+     * @param command The command.
+     * @param <S> The command source type.
+     * @return The timed command.
+     */
+    public <S> Command<S> timed(String name, Command<S> command) {
+        Histogram histogram = get(name);
+        return context -> {
+            long start = System.nanoTime();
+            try {
+                return command.run(context);
+            }
+            finally {
+                long duration = System.nanoTime() - start;
+                histogram.record(duration);
+
+                if (duration >= SLOW_OPERATION_NANOS)
+                    System.out.printf("[manko] Slow command %s took %.1f ms.%n", name, toMillis(duration));
+            }
+        };
+    }
+
+    public Map<String, Histogram> getHistograms() {
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    public void reset() {
+        histograms.values().forEach(Histogram::reset);
+    }
+
+    /**
+     * Writes all histograms to a CSV file. Durations are in milliseconds.
+     * @param file The file.
+     * @throws IOException The file could not be written.
+     */
+    public void export(File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            out.println("name,count,mean_ms,p50_ms,p90_ms,p99_ms,max_ms");
+            for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+                Histogram histogram = entry.getValue();
+                out.printf(Locale.ROOT, "%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                        entry.getKey(), histogram.getCount(),
+                        toMillis(histogram.getMean()),
+                        toMillis(histogram.getValueAtPercentile(50)),
+                        toMillis(histogram.getValueAtPercentile(90)),
+                        toMillis(histogram.getValueAtPercentile(99)),
+                        toMillis(histogram.getMax()));
+            }
+        }
+    }
+
+    public static double toMillis(double nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,122 @@
+package de.j13g.manko.fabric;
+
+import de.j13g.manko.util.Identifiable;
+import de.j13g.manko.mixin.EntitySelectorAccessor;
+import net.minecraft.command.EntitySelector;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Represents a player in the game.
+ * Players are identified by their UUID whenever it can be resolved.
+ * Players need to also be instantiable when getting their UUID is impossible or impractical,
+ * in that case the UUID is derived from their case-insensitive name.
+ * Instances are interned, so there is only one instance per player.
+ * @see PlayerCache
+ */
+public class Player extends Identifiable<UUID> implements Serializable {
+
+    /** The longest name of a player or team in UTF-8 bytes, which fits every valid Minecraft name. */
+    public static final int MAX_NAME_BYTES = 16;
+
+    static final PlayerCache cache = new PlayerCache();
+
+    private String name;
+
+    Player(UUID id, String name) {
+        super(id);
+        this.name = name;
+    }
+
+    /**
+     * Gets the player with this name.
+     * @param name The name of the player, case-insensitive.
+     * @return The player.
+     */
+    public static Player of(String name) {
+        return cache.get(name);
+    }
+
+    /**
+     * Looks up a known player without creating it, e.g. for names that are still being typed.
+     * @param name The name of the player, case-insensitive.
+     * @return The player or null if it is not known yet.
+     */
+    public static Player find(String name) {
+        return cache.find(name);
+    }
+
+    /**
+     * Gets the player with this UUID and updates their name if it has changed.
+     * @param id The UUID of the player.
+     * @param name The current name of the player.
+     * @return The player.
+     */
+    public static Player of(UUID id, String name) {
+        return cache.get(id, name);
+    }
+
+    /**
+     * Gets the player or team with this UUID without changing its name, e.g. when reading stored results.
+     * Entrants that are not known yet are created with the stored name.
+     * @param id The UUID of the player or team.
+     * @param name The name that was stored with the UUID.
+     * @return The player or team.
+     */
+    public static Player restore(UUID id, String name) {
+        return cache.restore(id, name);
+    }
+
+    /**
+     * @param name A name.
+     * @return If the name is short enough for a player or team.
+     */
+    public static boolean isValidName(String name) {
+        return !name.isEmpty() && name.getBytes(StandardCharsets.UTF_8).length <= MAX_NAME_BYTES;
+    }
+
+    /**
+     * Sets how names of players are resolved to their UUID.
+     * @param resolver Returns the UUID of a player by name or null if unknown.
+     */
+    public static void setResolver(Function<String, UUID> resolver) {
+        cache.setResolver(resolver);
+    }
+
+    /**
+     * @param prefix The prefix of the names, case-insensitive.
+     * @return The known players and teams whose name starts with the prefix.
+     */
+    public static List<Player> withPrefix(String prefix) {
+        return cache.withPrefix(prefix);
+    }
+
+    public static Player fromEntitySelector(EntitySelector entitySelector) {
+
+        String name = ((EntitySelectorAccessor) entitySelector).getPlayerName();
+        if (name == null)
+            throw new RuntimeException("Player name is empty");
+
+        return of(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Deserialized players are replaced with their interned instance.
+     * @return The interned player.
+     */
+    private Object readResolve() {
+        return cache.intern(this);
+    }
+}
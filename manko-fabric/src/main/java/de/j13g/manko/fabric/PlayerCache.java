@@ -0,0 +1,242 @@
+package de.j13g.manko.fabric;
+
+import de.j13g.manko.util.PrefixIndex;
+import de.j13g.manko.util.RosterIndex;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Interns players and teams by UUID and by name.
+ * Names are resolved to UUIDs with a resolver, e.g. with the player list.
+ * If a name cannot be resolved, a UUID is derived from the lowercase name.
+ * Once a player is known by name, the same instance is returned for that name,
+ * so that players keep their identity within a tournament.
+ * Players and teams share one name index, which also serves prefix lookups for suggestions.
+ * The cache keeps the rosters of all teams, with a reverse index from each player to their team.
+ */
+public class PlayerCache {
+
+    private static final String NAME_ID_NAMESPACE = "manko:";
+    private static final String TEAM_ID_NAMESPACE = "manko-team:";
+
+    private final HashMap<UUID, Player> byId = new HashMap<>();
+    private final PrefixIndex<Player> byName = new PrefixIndex<>();
+
+    private final RosterIndex<Team, Player> rosters = new RosterIndex<>();
+
+    private Function<String, UUID> resolver = name -> null;
+
+    public synchronized void setResolver(Function<String, UUID> resolver) {
+        this.resolver = resolver;
+    }
+
+    public synchronized Player get(String name) {
+        Player player = byName.get(name);
+        if (player != null)
+            return player;
+
+        UUID id = resolver.apply(name);
+        if (id == null)
+            id = createNameId(toKey(name));
+
+        return get(id, name);
+    }
+
+    /**
+     * Looks up a player or team without interning it.
+     * @param name The name, case-insensitive.
+     * @return The player or team or null if it is not known.
+     */
+    public synchronized Player find(String name) {
+        Player player = byName.get(name);
+        if (player != null)
+            return player;
+
+        UUID id = resolver.apply(name);
+        return id != null ? byId.get(id) : null;
+    }
+
+    /**
+     * Gets a known player or team by its UUID only, so a stored name never renames it.
+     * @param id The UUID.
+     * @param name The stored name, only used if the UUID is not known.
+     * @return The player or team.
+     */
+    public synchronized Player restore(UUID id, String name) {
+        Player player = byId.get(id);
+        return player != null ? player : get(id, name);
+    }
+
+    public synchronized Player get(UUID id, String name) {
+        Player player = byId.get(id);
+        if (player != null) {
+            rename(player, name);
+            return player;
+        }
+
+        // Teams that are only known from the result log are recreated by their ID.
+        if (id.equals(createTeamId(toKey(name))))
+            return addTeam(new Team(id, name));
+
+        // The player might already be known by a name-based ID.
+        player = byName.get(name);
+        if (player != null && !(player instanceof Team))
+            return player;
+
+        return add(new Player(id, name));
+    }
+
+    /**
+     * Gets the team with this name or creates it.
+     * A team can take over the name of a player whose UUID could not be resolved.
+     * @param name The name of the team, case-insensitive.
+     * @return The team or null if the name belongs to a player.
+     * @throws IllegalArgumentException The name is longer than {@link Player#MAX_NAME_BYTES}.
+     */
+    public synchronized Team getTeam(String name) {
+        // Stored results only keep names up to this length, which identify the team when it is restored.
+        if (!Player.isValidName(name))
+            throw new IllegalArgumentException("Invalid team name");
+
+        Player entrant = byName.get(name);
+        if (entrant instanceof Team)
+            return (Team) entrant;
+        if (entrant != null && !entrant.id().equals(createNameId(toKey(name))))
+            return null;
+
+        return addTeam(new Team(createTeamId(toKey(name)), name));
+    }
+
+    /**
+     * @param name The name of the team, case-insensitive.
+     * @return The team with this name or null.
+     */
+    public synchronized Team findTeam(String name) {
+        Player entrant = byName.get(name);
+        return entrant instanceof Team ? (Team) entrant : null;
+    }
+
+    /**
+     * @param player The player.
+     * @return The team of the player or null.
+     */
+    public synchronized Team getTeamOf(Player player) {
+        return rosters.getTeam(player);
+    }
+
+    /**
+     * @param team The team.
+     * @return The members of the team, in the order they joined.
+     */
+    public synchronized List<Player> getMembers(Team team) {
+        return new ArrayList<>(rosters.getMembers(team));
+    }
+
+    /**
+     * Adds a player to a team. The player leaves their previous team, if any.
+     * @param team The team.
+     * @param player The player.
+     * @return The previous team of the player or null.
+     */
+    public synchronized Team addMember(Team team, Player player) {
+        if (player instanceof Team)
+            throw new IllegalArgumentException("A team cannot be a member of a team");
+
+        return rosters.add(team, player);
+    }
+
+    /**
+     * @param player The player.
+     * @return The team the player has left or null.
+     */
+    public synchronized Team removeMember(Player player) {
+        return rosters.remove(player);
+    }
+
+    /**
+     * @param prefix The prefix of the names, case-insensitive.
+     * @return The players and teams whose name starts with the prefix.
+     */
+    public synchronized List<Player> withPrefix(String prefix) {
+        return new ArrayList<>(byName.withPrefix(prefix));
+    }
+
+    /**
+     * Returns the interned instance of a player, e.g. after deserialization.
+     * @param player The player.
+     * @return The interned player with the same ID.
+     */
+    public synchronized Player intern(Player player) {
+        Player interned = byId.get(player.id());
+        if (interned != null)
+            return interned;
+
+        return add(player);
+    }
+
+    /**
+     * Returns the interned instance of a team after deserialization.
+     * The roster of a team that was not known yet is restored.
+     * @param team The team.
+     * @param members The members of the team when it was saved.
+     * @return The interned team with the same ID.
+     */
+    public synchronized Team intern(Team team, Collection<Player> members) {
+        Player interned = byId.get(team.id());
+        if (interned instanceof Team) {
+            team = (Team) interned;
+        }
+        else {
+            addTeam(team);
+        }
+
+        // Players that have joined another team since keep their current team.
+        if (rosters.getMembers(team).isEmpty())
+            for (Player member : members)
+                if (rosters.getTeam(member) == null)
+                    rosters.add(team, member);
+
+        return team;
+    }
+
+    private Player add(Player player) {
+        byId.put(player.id(), player);
+        byName.putIfAbsent(player.getName(), player);
+        return player;
+    }
+
+    private Team addTeam(Team team) {
+        byId.put(team.id(), team);
+        byName.put(team.getName(), team);
+        return team;
+    }
+
+    private void rename(Player player, String name) {
+        if (player.getName().equals(name))
+            return;
+
+        byName.remove(player.getName(), player);
+
+        player.setName(name);
+        byName.put(name, player);
+    }
+
+    private static String toKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static UUID createNameId(String key) {
+        return UUID.nameUUIDFromBytes((NAME_ID_NAMESPACE + key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static UUID createTeamId(String key) {
+        return UUID.nameUUIDFromBytes((TEAM_ID_NAMESPACE + key).getBytes(StandardCharsets.UTF_8));
+    }
+}
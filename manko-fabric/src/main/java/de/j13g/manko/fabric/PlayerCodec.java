@@ -0,0 +1,48 @@
+package de.j13g.manko.fabric;
+
+import de.j13g.manko.core.persistence.EntrantCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Encodes players as their UUID followed by their name.
+ * Names are stored in a fixed number of bytes, which fits every valid player and team name.
+ * Decoding resolves known players and teams by their UUID, the name is only used for unknown ones.
+ */
+public class PlayerCodec implements EntrantCodec<Player> {
+
+    private static final int NAME_BYTES = Player.MAX_NAME_BYTES;
+
+    @Override
+    public int getEncodedSize() {
+        return 2 * Long.BYTES + NAME_BYTES;
+    }
+
+    @Override
+    public void encode(Player player, ByteBuffer buffer) {
+        buffer.putLong(player.id().getMostSignificantBits());
+        buffer.putLong(player.id().getLeastSignificantBits());
+
+        byte[] name = player.getName().getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(name.length, NAME_BYTES);
+        buffer.put(name, 0, length);
+        for (int i = length; i < NAME_BYTES; ++i)
+            buffer.put((byte) 0);
+    }
+
+    @Override
+    public Player decode(ByteBuffer buffer) {
+        UUID id = new UUID(buffer.getLong(), buffer.getLong());
+
+        byte[] name = new byte[NAME_BYTES];
+        buffer.get(name);
+
+        int length = 0;
+        while (length < NAME_BYTES && name[length] != 0)
+            length += 1;
+
+        return Player.restore(id, new String(name, 0, length, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,70 @@
+package de.j13g.manko.fabric;
+
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.command.argument.EntityArgumentType;
+import net.minecraft.network.MessageType;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.LiteralText;
+import net.minecraft.text.Text;
+import net.minecraft.text.TranslatableText;
+import net.minecraft.util.Util;
+
+import java.io.File;
+
+/**
+ * Tournament commands that are registered on a dedicated server.
+ * The tournament is held and saved by the server, so it does not depend
+ * on the organiser being connected, and announcements reach players directly.
+ */
+public class ServerCommands extends Commands<ServerCommandSource> {
+
+    /**
+     * Only operators are allowed to manage tournaments.
+     */
+    private static final int PERMISSION_LEVEL = 2;
+
+    public ServerCommands(File directory) {
+        super(directory);
+    }
+
+    @Override
+    protected void sendFeedback(ServerCommandSource source, Text message) {
+        source.sendFeedback(message, false);
+    }
+
+    @Override
+    protected void sendError(ServerCommandSource source, Text message) {
+        source.sendError(message);
+    }
+
+    @Override
+    protected void sendChatMessage(ServerCommandSource source, String message) {
+        MinecraftServer server = source.getMinecraftServer();
+
+        if (message.startsWith("/")) {
+            server.getCommandManager().execute(source, message);
+            return;
+        }
+
+        // Same format as messages that are sent with /say.
+        Text announcement = new TranslatableText("chat.type.announcement",
+                source.getDisplayName(), new LiteralText(message));
+        server.getPlayerManager().broadcastChatMessage(announcement, MessageType.CHAT, Util.NIL_UUID);
+    }
+
+    @Override
+    protected Player getPlayer(CommandContext<ServerCommandSource> context, String name)
+            throws CommandSyntaxException {
+
+        ServerPlayerEntity player = EntityArgumentType.getPlayer(context, name);
+        return Player.of(player.getUuid(), player.getEntityName());
+    }
+
+    @Override
+    protected boolean canUse(ServerCommandSource source) {
+        return source.hasPermissionLevel(PERMISSION_LEVEL);
+    }
+}
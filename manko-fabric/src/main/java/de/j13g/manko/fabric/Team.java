@@ -0,0 +1,114 @@
+package de.j13g.manko.fabric;
+
+import de.j13g.manko.core.base.Round;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Represents a team that takes part in a tournament as a single entrant.
+ * Teams and players share their names, so a name refers to either of them.
+ * The UUID of a team is derived from its case-insensitive name.
+ * Each player is on at most one team, the rosters are kept by the {@link PlayerCache}.
+ * Instances are interned, so there is only one instance per team.
+ */
+public class Team extends Player {
+
+    /** The members of a deserialized team, until it is interned. */
+    private transient List<Player> savedMembers;
+
+    Team(UUID id, String name) {
+        super(id, name);
+    }
+
+    /**
+     * Gets the team with this name or creates it.
+     * @param name The name of the team, case-insensitive.
+     * @return The team or null if the name belongs to a player.
+     * @throws IllegalArgumentException The name is longer than {@link Player#MAX_NAME_BYTES}.
+     */
+    public static Team of(String name) {
+        return cache.getTeam(name);
+    }
+
+    /**
+     * @param name The name of the team, case-insensitive.
+     * @return The team with this name or null.
+     */
+    public static Team find(String name) {
+        return cache.findTeam(name);
+    }
+
+    /**
+     * @param player The player.
+     * @return The team of the player or null.
+     */
+    public static Team ofMember(Player player) {
+        return cache.getTeamOf(player);
+    }
+
+    /**
+     * Finds the entrant that a player takes part as in a round, which is either the player or their team.
+     * @param player The player or team.
+     * @param round The round.
+     * @return The team of the player if it is an entrant of the round and the player is not, otherwise the player.
+     */
+    public static Player entrantOf(Player player, Round<Player> round) {
+        if (player instanceof Team || round.hasEntrant(player))
+            return player;
+
+        Team team = ofMember(player);
+        return team != null && round.hasEntrant(team) ? team : player;
+    }
+
+    /**
+     * @return The members of the team, in the order they joined.
+     */
+    public List<Player> getMembers() {
+        return cache.getMembers(this);
+    }
+
+    /**
+     * Adds a player to this team. The player leaves their previous team, if any.
+     * @param player The player.
+     * @return The previous team of the player or null.
+     */
+    public Team addMember(Player player) {
+        return cache.addMember(this, player);
+    }
+
+    /**
+     * @param player The player.
+     * @return If the player was a member of this team.
+     */
+    public boolean removeMember(Player player) {
+        if (cache.getTeamOf(player) != this)
+            return false;
+
+        cache.removeMember(player);
+        return true;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(new ArrayList<>(getMembers()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        savedMembers = (List<Player>) in.readObject();
+    }
+
+    /**
+     * Deserialized teams are replaced with their interned instance.
+     * @return The interned team.
+     */
+    private Object readResolve() {
+        return cache.intern(this, savedMembers);
+    }
+}
@@ -0,0 +1,424 @@
+package de.j13g.manko.fabric;
+
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.base.TournamentFormat;
+import de.j13g.manko.core.exceptions.CorruptLogException;
+import de.j13g.manko.core.persistence.ResultLog;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps named tournaments, each with its own snapshot and result log in a directory.
+ * Tournaments are loaded on first use and unloaded again once they have been idle for a while.
+ * Each tournament is saved independently of the others.
+ * A small header precedes each snapshot, so tournaments can be listed without loading them.
+ */
+public class TournamentRegistry {
+
+    /**
+     * A summary of a tournament that can be read without deserializing it.
+     */
+    public static class Header {
+
+        private static final int MAGIC = 0x4d4e4b4f; // "MNKO"
+
+        private final int roundNumber;
+        private final int entrantCount;
+
+        public Header(int roundNumber, int entrantCount) {
+            this.roundNumber = roundNumber;
+            this.entrantCount = entrantCount;
+        }
+
+        public static Header of(Tournament<Player> tournament) {
+            return new Header(tournament.getRoundNumber(), tournament.getCurrentRound().getEntrants().size());
+        }
+
+        /**
+         * @param in The input stream at the start of a snapshot file.
+         * @return The header or null if the file has none.
+         * @throws IOException The header could not be read.
+         */
+        public static Header read(DataInputStream in) throws IOException {
+            if (in.readInt() != MAGIC)
+                return null;
+
+            return new Header(in.readInt(), in.readInt());
+        }
+
+        public void write(DataOutputStream out) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(roundNumber);
+            out.writeInt(entrantCount);
+        }
+
+        public int getRoundNumber() {
+            return roundNumber;
+        }
+
+        public int getEntrantCount() {
+            return entrantCount;
+        }
+    }
+
+    private static class Snapshot implements Serializable {
+
+        public final Tournament<Player> tournament;
+        public final long logSequence;
+
+        public Snapshot(Tournament<Player> tournament, long logSequence) {
+            this.tournament = tournament;
+            this.logSequence = logSequence;
+        }
+    }
+
+    private static class Entry {
+
+        public Header header;
+        public Tournament<Player> tournament = null;
+        public ResultLog<Player> log = null;
+        public long lastUsedNanos = System.nanoTime();
+
+        public Entry(Header header) {
+            this.header = header;
+        }
+
+        public boolean isLoaded() {
+            return tournament != null;
+        }
+    }
+
+    public static final Pattern NAME_PATTERN = Pattern.compile("[a-z0-9_-]{1,32}");
+
+    private static final String SNAPSHOT_EXTENSION = ".ser";
+    private static final String BACKUP_EXTENSION = ".ser.bak";
+    private static final String LOG_EXTENSION = ".log";
+
+    private static final int LOG_CAPACITY = 16384;
+
+    private final File directory;
+    private final Supplier<TournamentFormat<Player>> formatFactory;
+    private final Metrics metrics;
+
+    private final TreeMap<String, Entry> entries = new TreeMap<>();
+
+    /**
+     * Reads the headers of all tournaments in a directory.
+     * @param directory The directory of the tournament files.
+     * @param formatFactory Creates the format of each new tournament.
+     * @param metrics Records how long saving takes.
+     */
+    public TournamentRegistry(File directory, Supplier<TournamentFormat<Player>> formatFactory, Metrics metrics) {
+        this.directory = directory;
+        this.formatFactory = formatFactory;
+        this.metrics = metrics;
+
+        if (!directory.isDirectory() && !directory.mkdirs())
+            System.err.printf("Could not create the tournament directory %s.%n", directory.getPath());
+
+        File[] snapshotFiles = directory.listFiles((dir, name) -> name.endsWith(SNAPSHOT_EXTENSION));
+        if (snapshotFiles == null)
+            return;
+
+        for (File snapshotFile : snapshotFiles) {
+            String fileName = snapshotFile.getName();
+            String name = fileName.substring(0, fileName.length() - SNAPSHOT_EXTENSION.length());
+            if (!NAME_PATTERN.matcher(name).matches())
+                continue;
+
+            try (DataInputStream in = new DataInputStream(new FileInputStream(snapshotFile))) {
+                Header header = Header.read(in);
+                if (header != null)
+                    entries.put(name, new Entry(header));
+            }
+            catch (IOException e) {
+                System.err.printf("Could not read tournament %s: %s.%n", name, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return The names of all tournaments, in alphabetical order.
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    public boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    public boolean isLoaded(String name) {
+        Entry entry = entries.get(name);
+        return entry != null && entry.isLoaded();
+    }
+
+    /**
+     * @param name The name of the tournament.
+     * @return The current summary of the tournament or null if there is no such tournament.
+     */
+    public Header getHeader(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null)
+            return null;
+
+        return entry.isLoaded() ? Header.of(entry.tournament) : entry.header;
+    }
+
+    /**
+     * Gets a tournament and loads it if needed.
+     * @param name The name of the tournament.
+     * @return The tournament or null if there is no such tournament.
+     * @throws IOException The tournament could not be loaded.
+     */
+    public Tournament<Player> get(String name) throws IOException {
+        Entry entry = entries.get(name);
+        if (entry == null)
+            return null;
+
+        if (!entry.isLoaded())
+            load(name, entry);
+
+        entry.lastUsedNanos = System.nanoTime();
+        return entry.tournament;
+    }
+
+    /**
+     * Creates and saves a new tournament.
+     * @param name The name of the tournament, matching NAME_PATTERN.
+     * @return The new tournament.
+     * @throws IOException The tournament could not be saved.
+     */
+    public Tournament<Player> create(String name) throws IOException {
+        // Every tournament gets its own format, so its random decisions only depend on its own seed.
+        return create(name, formatFactory.get());
+    }
+
+    /**
+     * Creates and saves a new tournament with a specific format.
+     * @param name The name of the tournament.
+     * @param format The format of the tournament.
+     * @return The new tournament.
+     * @throws IOException The tournament could not be saved.
+     */
+    public Tournament<Player> create(String name, TournamentFormat<Player> format) throws IOException {
+        if (!NAME_PATTERN.matcher(name).matches())
+            throw new IllegalArgumentException("Invalid tournament name");
+        if (entries.containsKey(name))
+            throw new IllegalArgumentException("The tournament already exists");
+
+        Tournament<Player> tournament = new Tournament<>(format);
+
+        // A log of a previously deleted tournament with the same name is discarded.
+        Files.deleteIfExists(logFile(name).toPath());
+
+        Entry entry = new Entry(Header.of(tournament));
+        entry.tournament = tournament;
+        entry.log = openLog(name);
+        if (entry.log != null) {
+            try {
+                entry.log.recover(null, 0);
+            }
+            catch (CorruptLogException e) {
+                throw new RuntimeException(e);
+            }
+            entry.log.attach(tournament);
+        }
+
+        entries.put(name, entry);
+        save(name, entry);
+        return tournament;
+    }
+
+    /**
+     * Deletes a tournament and all of its files.
+     * @param name The name of the tournament.
+     * @return If there was such a tournament.
+     * @throws IOException Files of the tournament could not be deleted.
+     */
+    public boolean delete(String name) throws IOException {
+        Entry entry = entries.remove(name);
+        if (entry == null)
+            return false;
+
+        if (entry.log != null)
+            entry.log.close();
+
+        Files.deleteIfExists(snapshotFile(name).toPath());
+        Files.deleteIfExists(new File(directory, name + BACKUP_EXTENSION).toPath());
+        Files.deleteIfExists(logFile(name).toPath());
+        return true;
+    }
+
+    /**
+     * Saves all loaded tournaments whose log is almost full or that have no log.
+     * @throws IOException A tournament could not be saved.
+     */
+    public void saveIfNeeded() throws IOException {
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            if (entry.isLoaded() && (entry.log == null || entry.log.needsSnapshot()))
+                save(e.getKey(), entry);
+        }
+    }
+
+    /**
+     * Saves a single loaded tournament, e.g. after a change that is not part of its result log.
+     * @param name The name of the tournament.
+     * @throws IOException The tournament could not be saved.
+     */
+    public void save(String name) throws IOException {
+        Entry entry = entries.get(name);
+        if (entry != null && entry.isLoaded())
+            save(name, entry);
+    }
+
+    /**
+     * Saves all loaded tournaments, e.g. before the game is stopped.
+     * @throws IOException A tournament could not be saved.
+     */
+    public void saveAll() throws IOException {
+        for (Map.Entry<String, Entry> e : entries.entrySet())
+            if (e.getValue().isLoaded())
+                save(e.getKey(), e.getValue());
+    }
+
+    /**
+     * Saves and unloads tournaments that have not been used for a while.
+     * @param maxIdleNanos The time after which tournaments are considered idle.
+     * @param pinned Names of tournaments that are never unloaded.
+     * @throws IOException A tournament could not be saved, it stays loaded.
+     */
+    public void unloadIdle(long maxIdleNanos, Collection<String> pinned) throws IOException {
+        long now = System.nanoTime();
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            if (!entry.isLoaded() || pinned.contains(e.getKey()) || now - entry.lastUsedNanos < maxIdleNanos)
+                continue;
+
+            save(e.getKey(), entry);
+
+            if (entry.log != null)
+                entry.log.close();
+
+            entry.header = Header.of(entry.tournament);
+            entry.tournament = null;
+            entry.log = null;
+        }
+    }
+
+    private void load(String name, Entry entry) throws IOException {
+        Snapshot snapshot;
+        try (FileInputStream fileIn = new FileInputStream(snapshotFile(name))) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(fileIn));
+            if (Header.read(in) == null)
+                throw new IOException("The tournament file has no header");
+
+            Object deserialized = new ObjectInputStream(in).readObject();
+            if (!(deserialized instanceof Snapshot))
+                throw new IOException("Deserialized object has wrong class type");
+
+            snapshot = (Snapshot) deserialized;
+        }
+        catch (ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+
+        ResultLog<Player> log = openLog(name);
+
+        boolean isRecovered = true;
+        if (log != null) {
+            try {
+                log.recover(snapshot.tournament, snapshot.logSequence);
+            }
+            catch (CorruptLogException e) {
+                System.err.printf("The result log of %s does not match its snapshot, some results might be lost.%n",
+                        name);
+                isRecovered = false;
+            }
+
+            log.attach(snapshot.tournament);
+        }
+
+        entry.tournament = snapshot.tournament;
+        entry.log = log;
+
+        // A new snapshot makes the tournament and its log consistent again.
+        if (!isRecovered)
+            save(name, entry);
+    }
+
+    private ResultLog<Player> openLog(String name) {
+        try {
+            return ResultLog.open(logFile(name), LOG_CAPACITY, new PlayerCodec());
+        }
+        catch (IOException e) {
+            System.err.printf("Could not open result log of %s, saving it on every change: %s.%n",
+                    name, e.getMessage());
+            return null;
+        }
+    }
+
+    private void save(String name, Entry entry) throws IOException {
+        long start = System.nanoTime();
+        try {
+            writeSnapshot(name, entry);
+        }
+        finally {
+            metrics.recordSince("save", start);
+        }
+    }
+
+    private void writeSnapshot(String name, Entry entry) throws IOException {
+        File snapshotFile = snapshotFile(name);
+        File snapshotFileTmp = new File(directory, name + SNAPSHOT_EXTENSION + ".tmp");
+
+        long logSequence = entry.log != null ? entry.log.getSequence() : 0;
+
+        // The snapshot is written to a temporary file first,
+        // so a crash while writing never leaves a truncated snapshot behind.
+        try (FileOutputStream fileOut = new FileOutputStream(snapshotFileTmp)) {
+            BufferedOutputStream bufferedOut = new BufferedOutputStream(fileOut);
+            Header.of(entry.tournament).write(new DataOutputStream(bufferedOut));
+
+            ObjectOutputStream out = new ObjectOutputStream(bufferedOut);
+            long start = System.nanoTime();
+            out.writeObject(new Snapshot(entry.tournament, logSequence));
+            out.flush();
+            metrics.recordSince("serialize", start);
+
+            fileOut.getFD().sync();
+        }
+
+        if (snapshotFile.exists()) {
+            File backupFile = new File(directory, name + BACKUP_EXTENSION);
+            Files.copy(snapshotFile.toPath(), backupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        try {
+            Files.move(snapshotFileTmp.toPath(), snapshotFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(snapshotFileTmp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        // All logged changes are part of the snapshot now.
+        if (entry.log != null)
+            entry.log.reset();
+    }
+
+    private File snapshotFile(String name) {
+        return new File(directory, name + SNAPSHOT_EXTENSION);
+    }
+
+    private File logFile(String name) {
+        return new File(directory, name + LOG_EXTENSION);
+    }
+}
@@ -12,16 +12,26 @@ import net.minecraft.text.LiteralText;
 
 import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 public class CollectionValuesArgumentType<T> implements ArgumentType<T> {
 
-    private final Collection<T> collection;
+    private final Supplier<? extends Collection<T>> collection;
 
-    public CollectionValuesArgumentType(Collection<T> collection) {
+    public CollectionValuesArgumentType(Supplier<? extends Collection<T>> collection) {
         this.collection = collection;
     }
 
     public static <T> CollectionValuesArgumentType<T> collection(Collection<T> collection) {
+        return new CollectionValuesArgumentType<>(() -> collection);
+    }
+
+    /**
+     * @param collection Supplies the current values when parsing or suggesting.
+     * @param <T> The value type.
+     * @return The argument type.
+     */
+    public static <T> CollectionValuesArgumentType<T> collection(Supplier<? extends Collection<T>> collection) {
         return new CollectionValuesArgumentType<>(collection);
     }
 
@@ -40,7 +50,7 @@ public class CollectionValuesArgumentType<T> implements ArgumentType<T> {
             reader.skip();
 
         String input = reader.getString().substring(start, reader.getCursor());
-        for (T value : collection)
+        for (T value : collection.get())
             if (input.equals(value.toString()))
                 return value;
 
@@ -50,6 +60,6 @@ public class CollectionValuesArgumentType<T> implements ArgumentType<T> {
 
     @Override
     public <S> CompletableFuture<Suggestions> listSuggestions(CommandContext<S> context, SuggestionsBuilder builder) {
-        return CommandSource.suggestMatching(collection.stream().map(Object::toString), builder);
+        return CommandSource.suggestMatching(collection.get().stream().map(Object::toString), builder);
     }
 }
@@ -0,0 +1,183 @@
+package de.j13g.manko.fabric.arguments;
+
+import com.mojang.brigadier.StringReader;
+import com.mojang.brigadier.arguments.ArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import de.j13g.manko.core.Pairing;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.core.base.EliminationRound;
+import de.j13g.manko.core.base.Round;
+import de.j13g.manko.core.managers.base.Pairings;
+import de.j13g.manko.fabric.Player;
+import de.j13g.manko.fabric.Team;
+import de.j13g.manko.util.Histogram;
+import net.minecraft.text.LiteralText;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An argument that names a player or team of the tournament.
+ * Parsing only keeps the name, since Brigadier also parses partial names while suggesting.
+ * The player is looked up or created once the command runs.
+ */
+public class EntrantArgumentType implements ArgumentType<String> {
+
+    public enum EntrantType {
+        PARTICIPATING,
+        FINISHED,
+        PAIRED,
+        WITH_STATE,
+        WITH_RESETTABLE_STATE
+    }
+
+    /** Resolves the tournament from the parsed context, since suggestions are listed before the command runs. */
+    private final Function<CommandContext<?>, Tournament<Player>> tournamentResolver;
+    private final EntrantType type;
+
+    private final String argumentName;
+
+    private final Histogram suggestionLatency;
+
+    public EntrantArgumentType(EntrantType type, Function<CommandContext<?>, Tournament<Player>> tournamentResolver,
+                               String argumentName, Histogram suggestionLatency) {
+        this.type = type;
+        this.tournamentResolver = tournamentResolver;
+        this.argumentName = argumentName;
+        this.suggestionLatency = suggestionLatency;
+    }
+
+    public EntrantArgumentType(EntrantType type, Function<CommandContext<?>, Tournament<Player>> tournamentResolver,
+                               String argumentName) {
+        this(type, tournamentResolver, argumentName, null);
+    }
+
+    public EntrantArgumentType(EntrantType type, Function<CommandContext<?>, Tournament<Player>> tournamentResolver) {
+        this(type, tournamentResolver, null);
+    }
+
+    /**
+     * Gets the player named by an argument, which is created if it is not known yet.
+     * Must only be called when the command runs.
+     * @param name The name of the argument.
+     * @param context The command context.
+     * @return The player.
+     */
+    public static <S> Player getPlayer(String name, CommandContext<S> context) {
+        return Player.of(context.getArgument(name, String.class));
+    }
+
+    @Override
+    public String parse(StringReader reader) throws CommandSyntaxException {
+
+        int start = reader.getCursor();
+        if (!reader.canRead())
+            reader.skip();
+
+        while (reader.canRead() && reader.peek() != ' ')
+            reader.skip();
+
+        String name = reader.getString().substring(start, reader.getCursor());
+        if (name.length() > 0 && !Player.isValidName(name))
+            throw new SimpleCommandExceptionType(new LiteralText("Invalid name")).createWithContext(reader);
+
+        return name;
+    }
+
+    @Override
+    public <S> CompletableFuture<Suggestions> listSuggestions(CommandContext<S> context, SuggestionsBuilder builder) {
+        long start = System.nanoTime();
+        try {
+            return listEntrantSuggestions(context, builder);
+        }
+        finally {
+            if (suggestionLatency != null)
+                suggestionLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    private <S> CompletableFuture<Suggestions> listEntrantSuggestions(CommandContext<S> context,
+                                                                      SuggestionsBuilder builder) {
+        Tournament<Player> tournament = tournamentResolver.apply(context);
+        if (tournament == null)
+            return Suggestions.empty();
+
+        Round<Player> round = tournament.getCurrentRound();
+        Pairings<Player> pairings = round.getPairings();
+
+        Stream<Player> suggestions;
+
+        if (type == EntrantType.PARTICIPATING) {
+            suggestions = round.getEntrants().stream();
+        }
+        else if (type == EntrantType.PAIRED) {
+            if (argumentName != null) {
+                // Suggestions must not create players for names that are still being typed.
+                // After a redirect, the arguments of the command are in the last child context.
+                Player argument = Player.find(context.getLastChild().getArgument(argumentName, String.class));
+                if (argument == null)
+                    return Suggestions.empty();
+
+                Player player = Team.entrantOf(argument, round);
+
+                Pairing<Player> activePairing = pairings.findActiveByEntrant(player);
+                Set<Pairing<Player>> finishedPairings = pairings.findFinishedByEntrant(player);
+
+                Stream.Builder<Player> streamBuilder = Stream.builder();
+                if (activePairing != null)
+                    streamBuilder.add(activePairing.getOther(player));
+                for (Pairing<Player> pairing : finishedPairings)
+                    streamBuilder.add(pairing.getOther(player));
+
+                suggestions = streamBuilder.build();
+            }
+            else {
+                suggestions = pairings.getActiveEntrants().stream();
+            }
+        }
+        else if (type == EntrantType.FINISHED) {
+            suggestions = pairings.getFinishedEntrants().stream();
+        }
+        else if (type == EntrantType.WITH_STATE || type == EntrantType.WITH_RESETTABLE_STATE) {
+            if (round instanceof EliminationRound) {
+                EliminationRound<Player> eliminationRound = (EliminationRound<Player>) round;
+                suggestions = eliminationRound.getEntrantsWithState();
+            }
+            else {
+                // TODO This is incorrect.
+                //  But we won't use WITH_STATE in other types of rounds anyway.
+                return Suggestions.empty();
+            }
+        }
+        else {
+            return Suggestions.empty();
+        }
+
+        if (type == EntrantType.WITH_RESETTABLE_STATE)
+            // NOTE: Be careful here with that type cast.
+            suggestions = suggestions.filter(p -> !((EliminationRound<Player>) round).isEntrantPending(p));
+
+        Set<Player> entrants = suggestions.collect(Collectors.toSet());
+
+        // Members are suggested in place of their team, so both share the prefix index of names.
+        for (Player player : Player.withPrefix(builder.getRemaining())) {
+            if (entrants.contains(player)) {
+                builder.suggest(player.getName());
+                continue;
+            }
+
+            Team team = Team.ofMember(player);
+            if (team != null && entrants.contains(team))
+                builder.suggest(player.getName());
+        }
+
+        return builder.buildFuture();
+    }
+}
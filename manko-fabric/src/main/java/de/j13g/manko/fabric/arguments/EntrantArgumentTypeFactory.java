@@ -0,0 +1,53 @@
+package de.j13g.manko.fabric.arguments;
+
+import com.mojang.brigadier.context.CommandContext;
+import de.j13g.manko.core.Tournament;
+import de.j13g.manko.fabric.Player;
+import de.j13g.manko.fabric.arguments.EntrantArgumentType.EntrantType;
+import de.j13g.manko.util.Histogram;
+
+import java.util.function.Function;
+
+public class EntrantArgumentTypeFactory {
+
+    private final Function<CommandContext<?>, Tournament<Player>> tournamentResolver;
+    private final Histogram suggestionLatency;
+
+    /**
+     * @param tournamentResolver Resolves the tournament whose entrants are suggested from the parsed context.
+     * @param suggestionLatency Records how long it takes to list suggestions, in nanoseconds.
+     */
+    public EntrantArgumentTypeFactory(Function<CommandContext<?>, Tournament<Player>> tournamentResolver,
+                                      Histogram suggestionLatency) {
+        this.tournamentResolver = tournamentResolver;
+        this.suggestionLatency = suggestionLatency;
+    }
+
+    private EntrantArgumentType create(EntrantType type, String argumentName) {
+        return new EntrantArgumentType(type, tournamentResolver, argumentName, suggestionLatency);
+    }
+
+    public EntrantArgumentType entrant() {
+        return create(EntrantType.PARTICIPATING, null);
+    }
+
+    public EntrantArgumentType paired() {
+        return create(EntrantType.PAIRED, null);
+    }
+
+    public EntrantArgumentType pairedWithArgument(String argument) {
+        return create(EntrantType.PAIRED, argument);
+    }
+
+    public EntrantArgumentType withState() {
+        return create(EntrantType.WITH_STATE, null);
+    }
+
+    public EntrantArgumentType withResettableState() {
+        return create(EntrantType.WITH_RESETTABLE_STATE, null);
+    }
+
+    public EntrantArgumentType finished() {
+        return create(EntrantType.FINISHED, null);
+    }
+}
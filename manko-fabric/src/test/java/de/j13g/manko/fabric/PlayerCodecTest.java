@@ -0,0 +1,38 @@
+package de.j13g.manko.fabric;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerCodecTest {
+
+    private final PlayerCodec codec = new PlayerCodec();
+
+    @Test
+    void teamWithLongestName_decode_returnsSameTeam() {
+        Team team = Team.of("SixteenByteTeam!");
+
+        ByteBuffer buffer = ByteBuffer.allocate(codec.getEncodedSize());
+        codec.encode(team, buffer);
+        buffer.flip();
+
+        assertSame(team, codec.decode(buffer));
+        assertEquals("SixteenByteTeam!", team.getName());
+    }
+
+    @Test
+    void knownPlayer_decodeWithStoredName_isNotRenamed() {
+        Player player = Player.of("Current");
+
+        ByteBuffer buffer = ByteBuffer.allocate(codec.getEncodedSize());
+        buffer.putLong(player.id().getMostSignificantBits());
+        buffer.putLong(player.id().getLeastSignificantBits());
+        buffer.put("Old".getBytes());
+        buffer.position(0);
+
+        assertSame(player, codec.decode(buffer));
+        assertEquals("Current", player.getName());
+    }
+}
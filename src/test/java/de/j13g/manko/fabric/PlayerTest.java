@@ -1,34 +0,0 @@
-package de.j13g.manko.fabric;
-
-import static org.junit.jupiter.api.Assertions.*;
-
-class PlayerTest {
-
-    // TODO
-
-//    @Test
-//    void playerSerializable() {
-//        assertSerializable(player1, Player.class);
-//    }
-
-//    @Test
-//    void pairingSerializable() {
-//        assertSerializable(new Pairing(player1, player2), Pairing.class);
-//    }
-
-//    @Test
-//    void dynamicRoundSerializable() {
-//        DynamicRound round = new DynamicRound();
-//        round.addEntrant(player1);
-//        round.addEntrant(player2);
-//        round.addEntrant(TestEntrant.createUnique());
-//        round.addEntrant(TestEntrant.createUnique());
-//
-//        assertDoesNotThrow(() -> {
-//            Pairing pairing = round.nextPairing();
-//            round.declareWinner(pairing.getEntrant1());
-//        });
-//
-//        assertSerializable(round, DynamicRound.class);
-//    }
-}
\ No newline at end of file